@@ -15,12 +15,17 @@ package de.metas.impexp.excel;
 
 import static de.metas.common.util.CoalesceUtil.coalesce;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Timestamp;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
@@ -45,6 +50,7 @@ import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.compiere.Adempiere;
 import org.compiere.util.DisplayType;
 import org.compiere.util.Env;
@@ -154,6 +160,10 @@ public abstract class AbstractExcelExporter
 
 	private boolean executed = false;
 
+	private static final String CSV_FIELD_DELIMITER = ";";
+	private static final String CSV_FIELD_QUOTE = "\"";
+	private static final String CSV_LINE_ENDING = "\n";
+
 	public AbstractExcelExporter(
 			@Nullable final ExcelFormat excelFormat,
 			@Nullable final ExcelExportConstants constants)
@@ -414,14 +424,6 @@ public abstract class AbstractExcelExporter
 
 	private void autoSizeColumnsWidth(final Sheet sheet, final int lastColumnIndex)
 	{
-		// #5922
-		// This is needed since we changed from 'poi.version 3.12' to 'poi.version 3.15'.
-		if (sheet instanceof SXSSFSheet)
-		{
-			final SXSSFSheet sxssfSheet = (SXSSFSheet)sheet;
-			sxssfSheet.trackAllColumnsForAutoSizing();
-		}
-
 		final int maxRowsToAllowCellWidthAutoSize = constants.getMaxRowsToAllowCellWidthAutoSize();
 		if (maxRowsToAllowCellWidthAutoSize <= 0
 				|| maxRowsToAllowCellWidthAutoSize < sheet.getLastRowNum())
@@ -467,6 +469,16 @@ public abstract class AbstractExcelExporter
 	private Sheet createTableSheet()
 	{
 		final Sheet sheet = getWorkbook().createSheet();
+
+		// #5922
+		// This is needed since we changed from 'poi.version 3.12' to 'poi.version 3.15'.
+		// NOTE: we have to start tracking before the rows are created, because a streaming sheet keeps only a window of rows in memory.
+		if (sheet instanceof SXSSFSheet)
+		{
+			final SXSSFSheet sxssfSheet = (SXSSFSheet)sheet;
+			sxssfSheet.trackAllColumnsForAutoSizing();
+		}
+
 		formatPage(sheet);
 		createHeaderFooter(sheet);
 		createTableHeader(sheet);
@@ -548,8 +560,108 @@ public abstract class AbstractExcelExporter
 	public final void export(@NonNull final OutputStream out) throws IOException
 	{
 		Workbook workbook = exportToWorkbook();
-		workbook.write(out);
-		out.close();
+		try
+		{
+			workbook.write(out);
+			out.close();
+		}
+		finally
+		{
+			// a streaming workbook keeps the flushed rows in temporary files
+			if (workbook instanceof SXSSFWorkbook)
+			{
+				((SXSSFWorkbook)workbook).dispose();
+			}
+		}
+	}
+
+	/**
+	 * Export the same rows and columns as {@link #export(OutputStream)} does, but as CSV.
+	 * <p>
+	 * Rows are written as they are fetched, so the memory used does not depend on the number of rows.
+	 */
+	public final void exportAsCsv(@NonNull final OutputStream out) throws IOException
+	{
+		markAsExecuted();
+
+		final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+		writeCsvLine(writer, getHeaderNames(), -1);
+
+		int rownum = 0;
+		while (hasNextRow())
+		{
+			writeCsvLine(writer, getNextRow(), rownum);
+			rownum++;
+		}
+
+		writer.close();
+		logger.debug("Exported {} rows to CSV", rownum);
+	}
+
+	private void writeCsvLine(
+			@NonNull final Writer writer,
+			@NonNull final List<CellValue> values,
+			final int row) throws IOException
+	{
+		boolean firstValue = true;
+		for (int col = 0; col < values.size(); col++)
+		{
+			if (!isColumnPrinted(col))
+			{
+				continue;
+			}
+
+			if (!firstValue)
+			{
+				writer.append(CSV_FIELD_DELIMITER);
+			}
+			writer.append(toCsvValue(values.get(col), row, col));
+			firstValue = false;
+		}
+		writer.append(CSV_LINE_ENDING);
+	}
+
+	private String toCsvValue(@Nullable final CellValue cellValue, final int row, final int col)
+	{
+		final String valueStr;
+		if (cellValue == null)
+		{
+			return "";
+		}
+		else if (cellValue.isDate())
+		{
+			final int displayType = row >= 0 ? getDisplayType(row, col) : DisplayType.DateTime;
+			valueStr = DisplayType.getDateFormat(displayType, getLanguage()).format(cellValue.dateValue());
+		}
+		else if (cellValue.isNumber())
+		{
+			valueStr = toPlainNumberString(cellValue.stringValue());
+		}
+		else if (cellValue.isBoolean())
+		{
+			valueStr = convertBooleanToString(cellValue.booleanValue());
+		}
+		else
+		{
+			valueStr = cellValue.stringValue();
+		}
+
+		return CSV_FIELD_QUOTE + valueStr.replace(CSV_FIELD_QUOTE, CSV_FIELD_QUOTE + CSV_FIELD_QUOTE) + CSV_FIELD_QUOTE;
+	}
+
+	/**
+	 * @return the number without scientific notation; values which are no decimal numbers (e.g. NaN or Infinity) are returned as they are
+	 */
+	private static String toPlainNumberString(final String numberStr)
+	{
+		try
+		{
+			return new BigDecimal(numberStr).toPlainString();
+		}
+		catch (final NumberFormatException ex)
+		{
+			return numberStr;
+		}
 	}
 
 	@VisibleForTesting
@@ -34,7 +34,7 @@ import lombok.Value;
  */
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class ExcelExportConstants
 {
 	public static ExcelExportConstants givenOrDefault(@Nullable final ExcelExportConstants constants)
@@ -50,12 +50,14 @@ public class ExcelExportConstants
 				.maxRowsToAllowCellWidthAutoSize(sysconfigs.getIntValue(SYSCONFIG_MaxRowsToAllowCellWidthAutoSize, DEFAULT_MaxRowsToAllowCellWidthAutoSize))
 				.useStreamingWorkbookImplementation(sysconfigs.getBooleanValue(SYSCONFIG_UseStreamingWorkbookImplementation, DEFAULT_UseStreamingWorkbookImplementation))
 				.allRowsPageSize(sysconfigs.getIntValue(SYSCONFIG_ALL_ROWS_PAGE_SIZE, DEFAULT_ALL_ROWS_PAGE_SIZE))
+				.allRowsMaxRows(sysconfigs.getIntValue(SYSCONFIG_ALL_ROWS_MAX_ROWS, DEFAULT_ALL_ROWS_MAX_ROWS))
 				.build();
 	}
 
 	private static final String SYSCONFIG_MaxRowsToAllowCellWidthAutoSize = "de.metas.excel.MaxRowsToAllowCellWidthAutoSize";
 	private static final String SYSCONFIG_UseStreamingWorkbookImplementation = "de.metas.excel.UseStreamingWorkbookImplementation";
 	private static final String SYSCONFIG_ALL_ROWS_PAGE_SIZE = "de.metas.excel.ViewExcelExporter.AllRowsPageSize";
+	private static final String SYSCONFIG_ALL_ROWS_MAX_ROWS = "de.metas.excel.ViewExcelExporter.AllRowsMaxRows";
 
 	public static final int DEFAULT_MaxRowsToAllowCellWidthAutoSize = 100_000;
 	@Default
@@ -67,4 +69,9 @@ public class ExcelExportConstants
 	public static final int DEFAULT_ALL_ROWS_PAGE_SIZE = 10000;
 	@Default
 	private int allRowsPageSize = DEFAULT_ALL_ROWS_PAGE_SIZE;
+
+	/** Max rows to export when exporting all rows of a view. Zero or less means no limit. */
+	public static final int DEFAULT_ALL_ROWS_MAX_ROWS = 0;
+	@Default
+	private int allRowsMaxRows = DEFAULT_ALL_ROWS_MAX_ROWS;
 }
@@ -1,6 +1,13 @@
 package org.adempiere.ad.dao.cache;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import org.adempiere.exceptions.AdempiereException;
 
@@ -60,4 +67,35 @@ public class CacheInvalidateMultiRequestSerializer
 		}
 	}
 
+	/**
+	 * @return request as gzip compressed and base64 encoded JSON; to be used for big requests which are sent to remote nodes
+	 */
+	public String toCompressedJson(final CacheInvalidateMultiRequest request)
+	{
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (final OutputStream out = new GZIPOutputStream(bytes))
+		{
+			jsonObjectMapper.writeValue(out, request);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting request to compressed json: " + request, ex);
+		}
+
+		return Base64.getEncoder().encodeToString(bytes.toByteArray());
+	}
+
+	public CacheInvalidateMultiRequest fromCompressedJson(final String compressedJsonRequest)
+	{
+		final byte[] bytes = Base64.getDecoder().decode(compressedJsonRequest);
+		try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes)))
+		{
+			return jsonObjectMapper.readValue(in, CacheInvalidateMultiRequest.class);
+		}
+		catch (final IOException ex)
+		{
+			throw new AdempiereException("Failed converting compressed json to request", ex);
+		}
+	}
+
 }
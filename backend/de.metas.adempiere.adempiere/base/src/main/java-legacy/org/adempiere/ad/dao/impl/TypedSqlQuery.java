@@ -32,6 +32,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
@@ -39,6 +41,7 @@ import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.IQueryInsertExecutor.QueryInsertExecutorResult;
 import org.adempiere.ad.dao.IQueryOrderBy;
+import org.adempiere.ad.dao.IQueryRow;
 import org.adempiere.ad.dao.IQueryUpdater;
 import org.adempiere.ad.dao.ISqlQueryUpdater;
 import org.adempiere.ad.dao.QueryLimit;
@@ -974,6 +977,111 @@ public class TypedSqlQuery<T> extends AbstractTypedQuery<T>
 
 	}
 
+	@Override
+	public <ET extends T> Stream<ET> streamWithCursor(final Class<ET> clazz) throws DBException
+	{
+		final String sql = buildSQL(null, null, null, true);
+		final boolean readOnly = isReadOnlyRecords();
+
+		final Stream<ET> stream = SqlCursorIterator.stream(
+				sql,
+				getParametersEffective(),
+				getCursorFetchSize(),
+				rs -> {
+					final ET model = retrieveModel(rs, clazz);
+					InterfaceWrapperHelper.setSaveDeleteDisabled(model, readOnly);
+					return model;
+				});
+
+		return postQueryFilter != null
+				? stream.filter(postQueryFilter::accept)
+				: stream;
+	}
+
+	@Override
+	public <R> Stream<R> streamProjectionWithCursor(@NonNull final Function<IQueryRow, R> rowMapper, final String... columnNames) throws DBException
+	{
+		Check.assumeNotEmpty(columnNames, "columnNames not empty");
+		Check.assumeNull(postQueryFilter, "No post-filter shall be defined when streaming a projection");
+
+		final String tableName = getTableName();
+		final POInfo poInfo = getPOInfo();
+
+		final StringBuilder sqlSelect = new StringBuilder("SELECT ");
+		for (int i = 0; i < columnNames.length; i++)
+		{
+			final int columnIndex = poInfo.getColumnIndex(columnNames[i]);
+			if (columnIndex < 0)
+			{
+				throw new DBException("Column '" + columnNames[i] + "' not found for table " + tableName);
+			}
+
+			if (i > 0)
+			{
+				sqlSelect.append(", ");
+			}
+			sqlSelect.append(poInfo.getColumnSqlForSelect(columnIndex));
+		}
+		final String sql = buildSQL(sqlSelect, null, null, true);
+
+		final ResultSetQueryRow row = new ResultSetQueryRow(columnNames);
+		return SqlCursorIterator.stream(
+				sql,
+				getParametersEffective(),
+				getCursorFetchSize(),
+				rs -> rowMapper.apply(row.setResultSet(rs)));
+	}
+
+	private int getCursorFetchSize()
+	{
+		final Integer fetchSize = getOption(OPTION_CursorFetchSize);
+		return fetchSize != null && fetchSize > 0 ? fetchSize : DEFAULT_OPTION_CursorFetchSize;
+	}
+
+	/**
+	 * Flyweight {@link IQueryRow} which is pointing to the current row of a projection's {@link ResultSet}.
+	 */
+	private static final class ResultSetQueryRow implements IQueryRow
+	{
+		/** column name (upper case) to 1-based column index */
+		private final Map<String, Integer> columnIndexesByName;
+		private ResultSet rs;
+
+		private ResultSetQueryRow(final String... columnNames)
+		{
+			columnIndexesByName = new HashMap<>(columnNames.length);
+			for (int i = 0; i < columnNames.length; i++)
+			{
+				columnIndexesByName.put(columnNames[i].toUpperCase(), i + 1);
+			}
+		}
+
+		private ResultSetQueryRow setResultSet(final ResultSet rs)
+		{
+			this.rs = rs;
+			return this;
+		}
+
+		@Override
+		public <V> V getValue(@NonNull final String columnName, @NonNull final Class<V> valueType)
+		{
+			final Integer columnIndex = columnIndexesByName.get(columnName.toUpperCase());
+			if (columnIndex == null)
+			{
+				throw new AdempiereException("Column " + columnName + " is not part of the projection " + columnIndexesByName.keySet());
+			}
+
+			try
+			{
+				return DB.retrieveValue(rs, columnIndex, valueType);
+			}
+			catch (final SQLException ex)
+			{
+				throw DBException.wrapIfNeeded(ex);
+			}
+		}
+	}
+
 	/**
 	 * Return a simple wrapper over a JDBC {@link ResultSet}. It is the caller responsibility to call the close method to release the underlying database resources.
 	 *
@@ -40,6 +40,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
 import javax.annotation.OverridingMethodsMustInvokeSuper;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -356,6 +357,9 @@ public abstract class PO
 	/** Do not overwrite assigned ID with generated one */
 	private boolean isAssignedID = false;
 
+	/** ID which was preallocated by {@link POBatchSaver} and which shall be used when this new record is inserted */
+	private int m_preallocatedID = 0;
+
 	public final boolean isAssignedID()
 	{
 		return isAssignedID;
@@ -2978,17 +2982,7 @@ public abstract class PO
 	{
 		final boolean newRecord = is_new();	// save locally as load resets
 
-		// Before Save
-		if (!isAssignedID)
-		{
-			if (!beforeSave(newRecord))
-			{
-				throw new AdempiereException("beforeSave failed - " + toString());
-			}
-		}
-
-		// Call ModelValidators TYPE_NEW/TYPE_CHANGE
-		fireModelChange(newRecord ? ModelChangeType.BEFORE_NEW : ModelChangeType.BEFORE_CHANGE);
+		saveBeforeSave(newRecord);
 
 		// Save
 		if (newRecord)
@@ -3009,6 +3003,165 @@ public abstract class PO
 		}
 	}
 
+	/**
+	 * Calls {@link #beforeSave(boolean)} and fires the BEFORE_NEW/BEFORE_CHANGE model validators.
+	 */
+	private final void saveBeforeSave(final boolean newRecord)
+	{
+		// Before Save
+		if (!isAssignedID)
+		{
+			if (!beforeSave(newRecord))
+			{
+				throw new AdempiereException("beforeSave failed - " + toString());
+			}
+		}
+
+		// Call ModelValidators TYPE_NEW/TYPE_CHANGE
+		fireModelChange(newRecord ? ModelChangeType.BEFORE_NEW : ModelChangeType.BEFORE_CHANGE);
+	}
+
+	/**
+	 * Batch saving, step 1: checks and prepares this PO for saving, calls the "before" handlers and builds the SQL statement.
+	 * <p>
+	 * Shall be called by {@link POBatchSaver} only, with {@link #get_TrxName()} being set to the transaction the whole batch is running in.
+	 *
+	 * @return the statement to be executed or <code>null</code> if no save is needed
+	 */
+	@Nullable
+	final SaveStatement saveBatch_prepare()
+	{
+		final boolean newRecord = is_new();	// save locally as load resets
+
+		saveBeforeSave(newRecord);
+
+		final SaveStatement statement = newRecord ? saveNew_buildInsert() : saveUpdate_buildUpdate();
+		if (statement == null && newRecord)
+		{
+			throw new AdempiereException("saveNew failed").setParameter("po", this).appendParametersToMessage();
+		}
+		return statement;
+	}
+
+	/**
+	 * Batch saving, step 2 (optional): executes given statement directly, because it can't be part of a JDBC batch.
+	 *
+	 * @return number of affected rows
+	 */
+	final int saveBatch_executeDirectly(@NonNull final SaveStatement statement)
+	{
+		return statement.isNewRecord() ? saveNew_executeInsert(statement) : saveUpdate_executeUpdate(statement);
+	}
+
+	/**
+	 * Batch saving, step 3: after the statement was executed, calls the "after" handlers and finishes the saving.
+	 *
+	 * @param statement statement returned by {@link #saveBatch_prepare()} or <code>null</code> if it returned <code>null</code>
+	 * @param no number of rows affected by the statement
+	 */
+	final void saveBatch_finish(@Nullable final SaveStatement statement, final int no) throws Exception
+	{
+		final boolean success;
+		if (statement == null)
+		{
+			success = saveFinish(false, true); // nothing changed, so OK=true
+		}
+		else if (statement.isNewRecord())
+		{
+			success = saveNew_afterInsert(statement, no);
+		}
+		else
+		{
+			success = saveUpdate_afterUpdate(no);
+		}
+
+		if (!success)
+		{
+			throw new AdempiereException(statement == null || !statement.isNewRecord() ? "saveUpdate failed" : "saveNew failed")
+					.setParameter("po", this)
+					.appendParametersToMessage();
+		}
+	}
+
+	/**
+	 * @return true if {@link POBatchSaver} may preallocate an ID for this record (see {@link #saveBatch_setPreallocatedID(int)}).
+	 */
+	final boolean saveBatch_isIDPreallocationAllowed()
+	{
+		return is_new()
+				&& !isAssignedID
+				&& m_IDs.length == 1
+				&& p_info.isSingleKeyColumnName()
+				&& m_KeyColumns[0].endsWith("_ID")
+				&& saveNew_getID() <= 0;
+	}
+
+	final void saveBatch_setPreallocatedID(final int preallocatedID)
+	{
+		m_preallocatedID = preallocatedID;
+	}
+
+	/** Batch saving: {@link #saveEx()} counterpart of {@link #savePrepare()} */
+	final boolean saveBatch_isSaveNeeded()
+	{
+		return savePrepare();
+	}
+
+	/** Batch saving: restores the flags which are changed during saving, in case saving failed. */
+	final void saveBatch_restoreOnFailure(final boolean newRecordInitial)
+	{
+		m_createNew = newRecordInitial;
+
+		// the preallocated ID might have been rolled back (e.g. when it came from AD_Sequence), so don't use it on next save
+		m_preallocatedID = 0;
+	}
+
+	/** Batch saving: needed for testing */
+	final int saveBatch_getPreallocatedID()
+	{
+		return m_preallocatedID;
+	}
+
+	/**
+	 * SQL INSERT or UPDATE statement of a PO which shall be saved.
+	 */
+	static final class SaveStatement
+	{
+		private final boolean newRecord;
+		private final String sql;
+		@Nullable
+		private final ISqlUpdateReturnProcessor returningProcessor;
+
+		private SaveStatement(final boolean newRecord, @NonNull final String sql, @Nullable final ISqlUpdateReturnProcessor returningProcessor)
+		{
+			this.newRecord = newRecord;
+			this.sql = sql;
+			this.returningProcessor = returningProcessor;
+		}
+
+		public boolean isNewRecord()
+		{
+			return newRecord;
+		}
+
+		public String getSql()
+		{
+			return sql;
+		}
+
+		/** @return true if the statement can be executed as part of a JDBC batch, i.e. nothing has to be loaded back */
+		public boolean isBatchable()
+		{
+			return returningProcessor == null;
+		}
+
+		@Override
+		public String toString()
+		{
+			return sql;
+		}
+	}
+
 	/**
 	 * Finish Save Process. Called after {@link #saveNew()} or {@link #saveUpdate()}.
 	 *
@@ -3257,6 +3410,23 @@ public abstract class PO
 	 * @return true if updated
 	 */
 	private final boolean saveUpdate() throws Exception
+	{
+		final SaveStatement update = saveUpdate_buildUpdate();
+		if (update == null)
+		{
+			// nothing changed, so OK=true
+			return saveFinish(false, true);  // newRecord=false, success=true
+		}
+
+		final int no = saveUpdate_executeUpdate(update);
+		return saveUpdate_afterUpdate(no);
+	}   // saveUpdate
+
+	/**
+	 * @return UPDATE statement or <code>null</code> if nothing changed
+	 */
+	@Nullable
+	private final SaveStatement saveUpdate_buildUpdate()
 	{
 		final String where = get_WhereClause(true);
 		//
@@ -3436,43 +3606,51 @@ public abstract class PO
 			 * @todo status locking goes here
 			 */
 
-			//
-			// Execute UPDATE SQL
-			log.trace("Save update: SQL={}", sql);
-			final int no;
-			if (isUseTimeoutForUpdate())
-			{
-				no = DB.executeUpdateEx(sql.toString(), m_trxName, QUERY_TIME_OUT);
-			}
-			else
-			{
-				no = DB.executeUpdateEx(sql.toString(), m_trxName);
-			}
-			boolean ok = no == 1;
+			return new SaveStatement(false, sql.toString(), null);
+		}
 
-			//
-			// Create change logs
-			if (ok)
-			{
-				createChangeLog(X_AD_ChangeLog.EVENTCHANGELOG_Update);
-				logMigration(X_AD_MigrationStep.ACTION_Update);
-			}
+		// nothing changed
+		return null;
+	}
 
-			if (ok)
-			{
-				ok = lobSave();
-			}
-			else
-			{
-				log.warn("#" + no + " - [" + m_trxName + "] - " + p_info.getTableName() + "." + where);
-			}
+	private final int saveUpdate_executeUpdate(@NonNull final SaveStatement update)
+	{
+		//
+		// Execute UPDATE SQL
+		log.trace("Save update: SQL={}", update);
+		if (isUseTimeoutForUpdate())
+		{
+			return DB.executeUpdateEx(update.getSql(), m_trxName, QUERY_TIME_OUT);
+		}
+		else
+		{
+			return DB.executeUpdateEx(update.getSql(), m_trxName);
+		}
+	}
+
+	private final boolean saveUpdate_afterUpdate(final int no) throws Exception
+	{
+		boolean ok = no == 1;
+
+		//
+		// Create change logs
+		if (ok)
+		{
+			createChangeLog(X_AD_ChangeLog.EVENTCHANGELOG_Update);
+			logMigration(X_AD_MigrationStep.ACTION_Update);
+		}
 
-			return saveFinish(false, ok); // newRecord=false, success=ok
+		if (ok)
+		{
+			ok = lobSave();
+		}
+		else
+		{
+			log.warn("#" + no + " - [" + m_trxName + "] - " + p_info.getTableName() + "." + get_WhereClause(true));
 		}
 
-		// nothing changed, so OK=true
-		return saveFinish(false, true);  // newRecord=false, success=true
-	}   // saveUpdate
+		return saveFinish(false, ok); // newRecord=false, success=ok
+	}
 
 	private final boolean isUseTimeoutForUpdate()
 	{
@@ -3524,6 +3702,11 @@ public abstract class PO
 		}
 
 		Integer idNew = saveNew_getID();
+		if (idNew <= 0 && m_preallocatedID > 0)
+		{
+			idNew = m_preallocatedID;
+			m_preallocatedID = 0;
+		}
 
 		if (idNew <= 0
 				&& DB.isUseNativeSequences(getAD_Client_ID(), get_TableName()))
@@ -3568,14 +3751,29 @@ public abstract class PO
 	 * @return true if new record inserted
 	 */
 	private boolean saveNew() throws Exception
+	{
+		final SaveStatement insert = saveNew_buildInsert();
+		if (insert == null)
+		{
+			// Setting new IDs failed.
+			return saveFinish(true, false); // newRecord=true, success=false
+		}
+
+		final int no = saveNew_executeInsert(insert);
+		return saveNew_afterInsert(insert, no);
+	}   // saveNew
+
+	/**
+	 * @return INSERT statement or <code>null</code> if setting the new IDs failed
+	 */
+	@Nullable
+	private SaveStatement saveNew_buildInsert()
 	{
 		//
 		// Generate and set new IDs
 		if (!retrieveAndSetIds())
 		{
-			// Setting new IDs failed.
-			// Execute saveFinish directly (last line in this method)
-			return saveFinish(true, false); // newRecord=true, success=false
+			return null;
 		}
 
 		final String tableName = p_info.getTableName();
@@ -3839,14 +4037,23 @@ public abstract class PO
 			loadAfterInsertProcessor = null;
 		}
 
+		return new SaveStatement(true, sqlInsert.toString(), loadAfterInsertProcessor);
+	}
+
+	private int saveNew_executeInsert(@NonNull final SaveStatement insert)
+	{
 		//
 		// Execute actual database INSERT
-		final int no = DB.executeUpdate(sqlInsert.toString(),
+		return DB.executeUpdate(insert.getSql(),
 				(Object[])null,  // params,
 				OnFail.ThrowException,  // onFail
 				m_trxName,
 				0,  // timeOut,
-				loadAfterInsertProcessor);
+				insert.returningProcessor);
+	}
+
+	private boolean saveNew_afterInsert(@NonNull final SaveStatement insert, final int no) throws Exception
+	{
 		boolean ok = no == 1;
 
 		//
@@ -3885,7 +4092,7 @@ public abstract class PO
 			String msg = "Not inserted - ";
 			if (LogManager.isLevelFiner())
 			{
-				msg += sqlInsert.toString();
+				msg += insert.getSql();
 			}
 			else
 			{
@@ -3902,7 +4109,7 @@ public abstract class PO
 		}
 
 		return saveFinish(true, ok);
-	}   // saveNew
+	}
 
 	/**
 	 * Get ID for new record during save.
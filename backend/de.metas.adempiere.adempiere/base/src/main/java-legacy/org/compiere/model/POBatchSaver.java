@@ -0,0 +1,283 @@
+package org.compiere.model;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.exceptions.DBException;
+import org.compiere.model.PO.SaveStatement;
+import org.compiere.util.DB;
+import org.compiere.util.TrxRunnable2;
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Saves a bunch of {@link PO}s in one go.
+ * <p>
+ * Compared to calling {@link PO#saveEx()} for each of them, this saver:
+ * <ul>
+ * <li>groups the POs by transaction and table, keeping the order in which the tables first appear (so headers which are given before their lines are also saved before them)
+ * <li>preallocates the IDs of new records in blocks, per table and client
+ * <li>executes the INSERT and UPDATE statements using JDBC batches
+ * </ul>
+ * The {@link PO#beforeSave(boolean)}, {@link PO#afterSave(boolean, boolean)} methods and the model interceptors are still called for each PO,
+ * but in bulk: first the "before" handlers of all POs of a group are called, then all the records are written and only then the "after" handlers are called.
+ * Therefore this saver shall only be used for POs whose handlers don't rely on the other records of the same group being already saved.
+ * <p>
+ * Records which need values loaded back from database after insert (e.g. staleable columns without value) are not batched, but saved one by one, in the same order.
+ */
+public final class POBatchSaver
+{
+	private static final Logger logger = LogManager.getLogger(POBatchSaver.class);
+
+	public static void saveAll(@NonNull final Collection<? extends PO> pos)
+	{
+		if (pos.isEmpty())
+		{
+			return;
+		}
+
+		for (final List<PO> group : groupByTrxNameAndTableName(pos))
+		{
+			saveGroup(group);
+		}
+	}
+
+	private static Collection<List<PO>> groupByTrxNameAndTableName(final Collection<? extends PO> pos)
+	{
+		final Map<GroupKey, List<PO>> groups = new LinkedHashMap<>();
+		final IdentityHashMap<PO, Boolean> seen = new IdentityHashMap<>(pos.size());
+		for (final PO po : pos)
+		{
+			if (po == null || seen.put(po, Boolean.TRUE) != null)
+			{
+				continue;
+			}
+
+			final GroupKey key = new GroupKey(po.get_TrxName(), po.get_TableName());
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(po);
+		}
+		return groups.values();
+	}
+
+	private static void saveGroup(final List<PO> group)
+	{
+		//
+		// Check and prepare the saving (outside of transaction, same as PO.saveEx() does)
+		final List<PO> posToSave = new ArrayList<>(group.size());
+		for (final PO po : group)
+		{
+			if (po.saveBatch_isSaveNeeded())
+			{
+				posToSave.add(po);
+			}
+		}
+		if (posToSave.isEmpty())
+		{
+			return;
+		}
+
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final String trxNameInitial = posToSave.get(0).get_TrxName();
+		final IdentityHashMap<PO, Boolean> newRecordInitialFlags = new IdentityHashMap<>(posToSave.size());
+		posToSave.forEach(po -> newRecordInitialFlags.put(po, po.is_new()));
+
+		trxManager.run(trxNameInitial, new TrxRunnable2()
+		{
+			@Override
+			public void run(final String localTrxName) throws Exception
+			{
+				posToSave.forEach(po -> po.set_TrxName(localTrxName));
+				saveGroupInTrx(posToSave, localTrxName);
+			}
+
+			@Override
+			public boolean doCatch(final Throwable e) throws Throwable
+			{
+				// restoring settings and flags before failing
+				newRecordInitialFlags.forEach(PO::saveBatch_restoreOnFailure);
+				throw e;
+			}
+
+			@Override
+			public void doFinally()
+			{
+				// restore the transaction name
+				posToSave.forEach(po -> po.set_TrxName(trxNameInitial));
+			}
+		});
+	}
+
+	private static void saveGroupInTrx(final List<PO> pos, final String trxName) throws Exception
+	{
+		preallocateIDs(pos, trxName);
+
+		//
+		// Call the "before" handlers and build the SQL statements
+		final List<SaveStatement> statements = new ArrayList<>(pos.size());
+		for (final PO po : pos)
+		{
+			statements.add(po.saveBatch_prepare());
+		}
+
+		//
+		// Execute the SQL statements
+		final int[] updateCounts = executeStatements(pos, statements, trxName);
+
+		//
+		// Call the "after" handlers
+		for (int i = 0; i < pos.size(); i++)
+		{
+			pos.get(i).saveBatch_finish(statements.get(i), updateCounts[i]);
+		}
+	}
+
+	private static void preallocateIDs(final List<PO> pos, final String trxName)
+	{
+		final Map<Integer, List<PO>> posByClientId = new LinkedHashMap<>();
+		for (final PO po : pos)
+		{
+			if (po.saveBatch_isIDPreallocationAllowed())
+			{
+				posByClientId.computeIfAbsent(po.getAD_Client_ID(), k -> new ArrayList<>()).add(po);
+			}
+		}
+
+		posByClientId.forEach((adClientId, clientPOs) -> {
+			final String tableName = clientPOs.get(0).get_TableName();
+			final ImmutableList<Integer> ids = DB.getNextIDs(adClientId, tableName, clientPOs.size(), trxName);
+			if (ids.size() != clientPOs.size())
+			{
+				// shall not happen; just let the POs retrieve their IDs one by one
+				logger.warn("Preallocating {} IDs for {} returned {} IDs. Ignored.", clientPOs.size(), tableName, ids.size());
+				return;
+			}
+
+			final Iterator<Integer> idsIterator = ids.iterator();
+			for (final PO po : clientPOs)
+			{
+				po.saveBatch_setPreallocatedID(idsIterator.next());
+			}
+		});
+	}
+
+	/**
+	 * @return the update count of each statement, in the same order; for <code>null</code> statements (i.e. nothing to save) the count is zero
+	 */
+	private static int[] executeStatements(final List<PO> pos, final List<SaveStatement> statements, final String trxName)
+	{
+		final int[] updateCounts = new int[statements.size()];
+
+		Statement stmt = null;
+		final List<Integer> batchIndexes = new ArrayList<>();
+		try
+		{
+			for (int i = 0; i < statements.size(); i++)
+			{
+				final SaveStatement statement = statements.get(i);
+				if (statement == null)
+				{
+					continue;
+				}
+
+				if (statement.isBatchable())
+				{
+					if (stmt == null)
+					{
+						stmt = DB.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY, trxName);
+					}
+					stmt.addBatch(statement.getSql());
+					batchIndexes.add(i);
+				}
+				else
+				{
+					// keep the statements order
+					executeBatch(stmt, batchIndexes, updateCounts);
+					updateCounts[i] = pos.get(i).saveBatch_executeDirectly(statement);
+				}
+			}
+
+			executeBatch(stmt, batchIndexes, updateCounts);
+		}
+		catch (final SQLException ex)
+		{
+			throw DBException.wrapIfNeeded(ex)
+					.appendParametersToMessage()
+					.setParameter("trxName", trxName)
+					.setParameter("statementsCount", statements.size());
+		}
+		finally
+		{
+			DB.close(stmt);
+		}
+
+		return updateCounts;
+	}
+
+	private static void executeBatch(
+			@Nullable final Statement stmt,
+			@NonNull final List<Integer> batchIndexes,
+			@NonNull final int[] updateCounts) throws SQLException
+	{
+		if (stmt == null || batchIndexes.isEmpty())
+		{
+			return;
+		}
+
+		final int[] batchUpdateCounts = stmt.executeBatch();
+		for (int i = 0; i < batchIndexes.size(); i++)
+		{
+			final int updateCount = i < batchUpdateCounts.length ? batchUpdateCounts[i] : Statement.SUCCESS_NO_INFO;
+			updateCounts[batchIndexes.get(i)] = updateCount == Statement.SUCCESS_NO_INFO ? 1 : updateCount;
+		}
+
+		batchIndexes.clear();
+	}
+
+	@Value
+	private static class GroupKey
+	{
+		@Nullable
+		String trxName;
+		@NonNull
+		String tableName;
+	}
+}
@@ -89,6 +89,7 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
@@ -768,6 +769,11 @@ public class DB
 		{
 			pstmt.setString(index, ((ReferenceListAwareEnum)param).getCode());
 		}
+		else if (param instanceof int[])
+		{
+			final Integer[] values = Arrays.stream((int[])param).boxed().toArray(Integer[]::new);
+			pstmt.setArray(index, pstmt.getConnection().createArrayOf("integer", values));
+		}
 		else
 		{
 			throw new DBException("Unknown parameter type " + index + " - " + param + " (" + param.getClass() + ")");
@@ -1818,6 +1824,61 @@ public class DB
 		return MSequence.getNextID(AD_Client_ID, TableName, trxName);
 	}    // getNextID
 
+	/**
+	 * Like {@link #getNextID(int, String, String)}, but retrieves the given number of IDs at once.
+	 * In case of native sequences, all IDs are fetched with one single SQL statement.
+	 *
+	 * @return the new IDs, in ascending order of their retrieval
+	 */
+	public ImmutableList<Integer> getNextIDs(final int AD_Client_ID, @NonNull final String tableName, final int count, @Nullable final String trxName)
+	{
+		if (count <= 0)
+		{
+			return ImmutableList.of();
+		}
+		if (count == 1)
+		{
+			return ImmutableList.of(getNextID(AD_Client_ID, tableName, trxName));
+		}
+
+		final ImmutableList.Builder<Integer> ids = ImmutableList.builder();
+		if (DB.isUseNativeSequences(AD_Client_ID, tableName))
+		{
+			// NOTE: same as getNextID, we are fetching the IDs out of transaction
+			final String sequenceName = getTableSequenceName(tableName);
+			final String sql = "SELECT " + CConnection.get().getDatabase().TO_SEQUENCE_NEXTVAL(sequenceName) + " FROM generate_series(1, ?)";
+			PreparedStatement pstmt = null;
+			ResultSet rs = null;
+			try
+			{
+				pstmt = prepareStatement(sql, ITrx.TRXNAME_None);
+				pstmt.setInt(1, count);
+				rs = pstmt.executeQuery();
+				while (rs.next())
+				{
+					ids.add(rs.getInt(1));
+				}
+			}
+			catch (final SQLException ex)
+			{
+				throw new DBException(ex, sql);
+			}
+			finally
+			{
+				close(rs, pstmt);
+			}
+		}
+		else
+		{
+			for (int i = 0; i < count; i++)
+			{
+				ids.add(MSequence.getNextID(AD_Client_ID, tableName, trxName));
+			}
+		}
+
+		return ids.build();
+	}
+
 	public String TO_TABLESEQUENCE_NEXTVAL(final String tableName)
 	{
 		final String sequenceName = getTableSequenceName(tableName);
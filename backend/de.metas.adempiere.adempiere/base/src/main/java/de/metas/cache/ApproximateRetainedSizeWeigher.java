@@ -0,0 +1,162 @@
+package de.metas.cache;
+
+import java.math.BigDecimal;
+import java.time.temporal.TemporalAccessor;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+
+import org.compiere.model.PO;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Estimates the retained heap size of a cache entry without using instrumentation.
+ * <p>
+ * The estimation is intentionally cheap: containers are only sampled (see {@link #MAX_SAMPLED_ELEMENTS}) and the walk stops after {@link #MAX_DEPTH} levels.
+ * Objects which are not known by this weigher are counted with {@link #DEFAULT_OBJECT_SIZE}.
+ */
+final class ApproximateRetainedSizeWeigher implements CacheEntryWeigher<Object, Object>
+{
+	public static final ApproximateRetainedSizeWeigher instance = new ApproximateRetainedSizeWeigher();
+
+	private static final int MAX_DEPTH = 4;
+	private static final int MAX_SAMPLED_ELEMENTS = 20;
+
+	private static final int OBJECT_HEADER_SIZE = 16;
+	private static final int REFERENCE_SIZE = 8;
+	private static final int DEFAULT_OBJECT_SIZE = 64;
+	private static final int PO_COLUMN_SIZE = 48;
+
+	/** Cost of the cache entry itself (guava's entry object, hash table slot etc) */
+	private static final int CACHE_ENTRY_OVERHEAD = 64;
+
+	private ApproximateRetainedSizeWeigher()
+	{
+	}
+
+	@Override
+	public int weigh(final Object key, final Object value)
+	{
+		final long size = CACHE_ENTRY_OVERHEAD + estimate(key, 0) + estimate(value, 0);
+		return size > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int)size;
+	}
+
+	public long estimateSize(final Object obj)
+	{
+		return estimate(obj, 0);
+	}
+
+	private static long estimate(final Object obj, final int depth)
+	{
+		if (obj == null)
+		{
+			return 0;
+		}
+		else if (obj instanceof String)
+		{
+			return OBJECT_HEADER_SIZE + 24 + 2L * ((String)obj).length();
+		}
+		else if (obj instanceof BigDecimal)
+		{
+			return OBJECT_HEADER_SIZE + 32;
+		}
+		else if (obj instanceof Number || obj instanceof Boolean || obj instanceof Character || obj instanceof Enum)
+		{
+			return OBJECT_HEADER_SIZE + 8;
+		}
+		else if (obj instanceof Date || obj instanceof TemporalAccessor)
+		{
+			return OBJECT_HEADER_SIZE + 24;
+		}
+		else if (obj instanceof PO)
+		{
+			// values and old values of each column, plus PO's own bookkeeping
+			return 256 + (long)PO_COLUMN_SIZE * ((PO)obj).get_ColumnCount();
+		}
+		else if (depth >= MAX_DEPTH)
+		{
+			return DEFAULT_OBJECT_SIZE;
+		}
+		else if (obj instanceof Optional)
+		{
+			return OBJECT_HEADER_SIZE + REFERENCE_SIZE + estimate(((Optional<?>)obj).orElse(null), depth + 1);
+		}
+		else if (obj instanceof Collection)
+		{
+			final Collection<?> collection = (Collection<?>)obj;
+			return OBJECT_HEADER_SIZE + 24 + estimateElements(collection.iterator(), collection.size(), depth);
+		}
+		else if (obj instanceof Map)
+		{
+			final Map<?, ?> map = (Map<?, ?>)obj;
+			final int size = map.size();
+			return OBJECT_HEADER_SIZE + 32
+					+ (long)size * (OBJECT_HEADER_SIZE + 3 * REFERENCE_SIZE) // map entries
+					+ estimateElements(map.keySet().iterator(), size, depth)
+					+ estimateElements(map.values().iterator(), size, depth);
+		}
+		else if (obj instanceof Object[])
+		{
+			final Object[] array = (Object[])obj;
+			long sampledSize = 0;
+			final int sampledCount = Math.min(array.length, MAX_SAMPLED_ELEMENTS);
+			for (int i = 0; i < sampledCount; i++)
+			{
+				sampledSize += estimate(array[i], depth + 1);
+			}
+			return OBJECT_HEADER_SIZE + (long)REFERENCE_SIZE * array.length + extrapolate(sampledSize, sampledCount, array.length);
+		}
+		else if (obj instanceof byte[])
+		{
+			return OBJECT_HEADER_SIZE + ((byte[])obj).length;
+		}
+		else
+		{
+			return DEFAULT_OBJECT_SIZE;
+		}
+	}
+
+	private static long estimateElements(final Iterator<?> elements, final int size, final int depth)
+	{
+		long sampledSize = 0;
+		int sampledCount = 0;
+		while (elements.hasNext() && sampledCount < MAX_SAMPLED_ELEMENTS)
+		{
+			sampledSize += REFERENCE_SIZE + estimate(elements.next(), depth + 1);
+			sampledCount++;
+		}
+		return extrapolate(sampledSize, sampledCount, size);
+	}
+
+	private static long extrapolate(final long sampledSize, final int sampledCount, final int totalCount)
+	{
+		if (sampledCount <= 0)
+		{
+			return 0;
+		}
+		return sampledSize * totalCount / sampledCount;
+	}
+}
@@ -19,16 +19,26 @@ package de.metas.cache;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -37,8 +47,10 @@ import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.adempiere.util.lang.impl.TableRecordReference;
+import org.compiere.util.Env;
 import org.compiere.util.Util;
 import org.slf4j.Logger;
 
@@ -47,6 +59,7 @@ import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader.InvalidCacheLoadException;
 import com.google.common.cache.CacheStats;
+import com.google.common.cache.RemovalCause;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ExecutionError;
@@ -81,7 +94,26 @@ public class CCache<K, V> implements CacheInterface
 		return CCache.<K, V> builder()
 				.cacheName(cacheName)
 				// .tableName(null) // auto-detect tableName
-				.initialCapacity(maxSize) // FIXME this is confusing because in case of LRU, initialCapacity is used as maxSize
+				.maximumSize(maxSize)
+				.expireMinutes(expireAfterMinutes)
+				.cacheMapType(CacheMapType.LRU)
+				.build();
+	}
+
+	/**
+	 * Creates a new cache which is bounded by the approximate retained size of its entries (see {@link CacheEntryWeigher#approximateRetainedSize()}).
+	 *
+	 * @param cacheName cache name; shall respect the current naming conventions, see {@link #extractTableNameForCacheName(String)}
+	 * @param maximumWeightBytes approximate maximum retained size of all entries; when exceeded, the least recently used entries are evicted
+	 * @param expireAfterMinutes if positive, the entries will expire after given number of minutes
+	 * @return new cache instance
+	 */
+	public static final <K, V> CCache<K, V> newWeightBoundedCache(final String cacheName, final long maximumWeightBytes, final int expireAfterMinutes)
+	{
+		return CCache.<K, V> builder()
+				.cacheName(cacheName)
+				// .tableName(null) // auto-detect tableName
+				.maximumWeightBytes(maximumWeightBytes)
 				.expireMinutes(expireAfterMinutes)
 				.cacheMapType(CacheMapType.LRU)
 				.build();
@@ -113,6 +145,9 @@ public class CCache<K, V> implements CacheInterface
 		/**
 		 * Data is cached in a LRU map (least recently used). This means that if the caches size limit is reached, then the oldest record is removed from cache in order to add a new record.
 		 * This means that we can have a have a cache with a defined (limited) size without any expiration time.
+		 * <p>
+		 * The limit is either the number of entries (<code>maximumSize</code>, falling back to <code>initialCapacity</code>)
+		 * or, if <code>maximumWeightBytes</code> is set, the approximate retained size of all entries.
 		 */
 		LRU,
 	}
@@ -128,6 +163,9 @@ public class CCache<K, V> implements CacheInterface
 
 	private static final Logger logger = LogManager.getLogger(CCache.class);
 
+	/** How many entries are weighed for estimating the retained size of caches which are not weight-bounded */
+	private static final int WEIGHT_SAMPLE_SIZE = 100;
+
 	/** Internal map that is used as cache */
 	private final Cache<K, V> cache;
 
@@ -147,6 +185,16 @@ public class CCache<K, V> implements CacheInterface
 	/** Can provide a collection of cache keys for a given record reference. */
 	private final Optional<CachingKeysMapper<K>> invalidationKeysMapper;
 
+	/** Extracts the records each entry depends on; <code>null</code> if this cache shall not maintain a {@link #recordRefsIndex} */
+	@Nullable
+	private final CacheEntryRecordRefsExtractor<K, V> recordRefsExtractor;
+	/** Index from record to the cache keys depending on it; maintained only if {@link #recordRefsExtractor} is set */
+	@Nullable
+	private final CacheRecordRefsIndex<K> recordRefsIndex;
+	/** Table whose records are looked up in {@link #recordRefsIndex}; records of other tables (i.e. the additional ones) are invalidated like before */
+	@Nullable
+	private final String recordRefsIndexTableName;
+
 	/**
 	 * If {@link #DEBUG} is enabled, this variable contains the object's identity code (see {@link System#identityHashCode(Object)}).
 	 */
@@ -159,6 +207,53 @@ public class CCache<K, V> implements CacheInterface
 
 	private CacheAdditionListener<K, V> additionListener;
 
+	/** Computes the weight of each entry; <code>null</code> if this cache is not weight-bounded */
+	@Nullable
+	private final CacheEntryWeigher<K, V> weigher;
+	/** Sum of the weights of all entries currently in cache; maintained only if {@link #weigher} is set */
+	private final AtomicLong weightBytes = new AtomicLong(0);
+
+	/** Loads which are currently running in {@link #getAllOrLoad(Collection, Function)}, so concurrent callers can wait for them instead of loading again */
+	private final ConcurrentHashMap<K, InFlightLoad<V>> inFlightLoads = new ConcurrentHashMap<>();
+	/**
+	 * How long to wait for a load running in another thread, before loading the value ourselves.
+	 * Needed because two threads with nested loaders over crossed keys would otherwise wait for each other forever.
+	 */
+	private static final long IN_FLIGHT_LOAD_AWAIT_TIMEOUT_MILLIS = 5000;
+	private final AtomicLong coalescedLoadsCount = new AtomicLong(0);
+
+	/**
+	 * Shared executor used to reload entries in background (see {@link #refreshAheadMillis}).
+	 * The queue is bounded because refreshing ahead is only an optimization: if the executor is overloaded, the entries will simply expire and be loaded on demand.
+	 */
+	private static final ExecutorService refreshAheadExecutor = new ThreadPoolExecutor(
+			1, // corePoolSize
+			4, // maximumPoolSize
+			1, TimeUnit.MINUTES, // keepAliveTime
+			new LinkedBlockingQueue<>(1000),
+			CustomizableThreadFactory.builder()
+					.setThreadNamePrefix(CCache.class.getName() + "-RefreshAhead")
+					.setDaemon(true)
+					.build(),
+			new ThreadPoolExecutor.DiscardPolicy());
+
+	/**
+	 * If positive, entries which are accessed and which are older than this will be reloaded asynchronously; see {@link #refreshAheadIfNeeded(Object)}.
+	 * Applies only to entries which were loaded via {@link #getOrLoadAndRefreshAhead(Object, Function)}.
+	 */
+	private final long refreshAheadMillis;
+	/** Loaders (and load timestamps) of the cached entries, needed to refresh them ahead of their expiration; only maintained if {@link #refreshAheadMillis} is positive */
+	private final ConcurrentHashMap<K, RefreshAheadEntry<K, V>> refreshAheadEntries = new ConcurrentHashMap<>();
+
+	/**
+	 * Last access time ({@link System#nanoTime()}) of each key, used by {@link #trimToWeight(long)} to evict the least recently used entries first.
+	 * Maintained only while {@link CacheMgt}'s heap budget is enabled.
+	 */
+	private final ConcurrentHashMap<K, Long> lastAccessNanosByKey = new ConcurrentHashMap<>();
+	/** Incremented on each invalidation; used to make sure a background refresh does not re-add an entry which was invalidated in the meantime */
+	private final AtomicLong invalidationsCount = new AtomicLong(0);
+	private final AtomicLong refreshAheadCount = new AtomicLong(0);
+
 	/**
 	 * Metasfresh Cache - expires after 2 hours
 	 *
@@ -185,7 +280,12 @@ public class CCache<K, V> implements CacheInterface
 				initialCapacity,
 				expireMinutes,
 				CacheMapType.HashMap,
+				null, // maximumSize
+				null, // maximumWeightBytes
+				(CacheEntryWeigher<K, V>)null,
+				null, // refreshAheadMinutes
 				(CachingKeysMapper<K>)null,
+				(CacheEntryRecordRefsExtractor<K, V>)null,
 				(CacheRemovalListener<K, V>)null,
 				(CacheAdditionListener<K, V>)null);
 	}
@@ -198,13 +298,20 @@ public class CCache<K, V> implements CacheInterface
 			final Integer initialCapacity,
 			final Integer expireMinutes,
 			final CacheMapType cacheMapType,
+			@Nullable final Integer maximumSize,
+			@Nullable final Long maximumWeightBytes,
+			@Nullable final CacheEntryWeigher<K, V> weigher,
+			@Nullable final Integer refreshAheadMinutes,
 			@Nullable final CachingKeysMapper<K> invalidationKeysMapper,
+			@Nullable final CacheEntryRecordRefsExtractor<K, V> recordRefsExtractor,
 			@Nullable final CacheRemovalListener<K, V> removalListener,
 			@Nullable final CacheAdditionListener<K, V> additionListener)
 	{
 		this.cacheId = NEXT_CACHE_ID.getAndIncrement();
 
 		this.invalidationKeysMapper = Optional.ofNullable(invalidationKeysMapper);
+		this.recordRefsExtractor = recordRefsExtractor;
+		this.recordRefsIndex = recordRefsExtractor != null ? new CacheRecordRefsIndex<>() : null;
 		this.additionListener = additionListener;
 
 		final String tableNameEffective;
@@ -244,11 +351,33 @@ public class CCache<K, V> implements CacheInterface
 		}
 
 		this.labels = buildCacheLabels(tableNameEffective, additionalTableNamesToResetFor);
+		this.recordRefsIndexTableName = recordRefsIndex != null ? tableNameEffective : null;
 
 		this.expireMinutes = expireMinutes != null ? expireMinutes : EXPIREMINUTES_Never;
+
+		final boolean weightBounded = maximumWeightBytes != null && maximumWeightBytes > 0;
+		if (weightBounded)
+		{
+			this.weigher = weigher != null ? weigher : CacheEntryWeigher.approximateRetainedSize();
+		}
+		else
+		{
+			this.weigher = null;
+		}
+
+		this.refreshAheadMillis = refreshAheadMinutes != null && refreshAheadMinutes > 0
+				? TimeUnit.MINUTES.toMillis(refreshAheadMinutes)
+				: 0;
+		if (this.refreshAheadMillis > 0 && this.expireMinutes > 0 && refreshAheadMinutes >= this.expireMinutes)
+		{
+			throw new AdempiereException("refreshAheadMinutes=" + refreshAheadMinutes + " shall be less than expireMinutes=" + this.expireMinutes + " for cache " + this.cacheName);
+		}
+
 		this.cache = buildGuavaCache(
 				cacheMapType != null ? cacheMapType : CacheMapType.HashMap,
 				initialCapacity != null ? initialCapacity : 0,
+				maximumSize != null ? maximumSize : 0,
+				weightBounded ? maximumWeightBytes : 0,
 				this.expireMinutes,
 				removalListener);
 
@@ -314,22 +443,37 @@ public class CCache<K, V> implements CacheInterface
 		return builder.build();
 	}
 
-	private static final <K, V> Cache<K, V> buildGuavaCache(
+	private final Cache<K, V> buildGuavaCache(
 			@NonNull final CacheMapType cacheMapType,
 			final int initialCapacity,
+			final int maximumSize,
+			final long maximumWeightBytes,
 			final int expireMinutes,
 			@Nullable final CacheRemovalListener<K, V> removalListener)
 	{
-		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
-		if (cacheMapType == CacheMapType.HashMap)
+		CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder()
+				.recordStats();
+		if (maximumWeightBytes > 0)
+		{
+			// NOTE: a weight-bounded cache is always evicting the least recently used entries, no matter which cacheMapType was requested
+			cacheBuilder = cacheBuilder
+					.maximumWeight(maximumWeightBytes)
+					.weigher((key, value) -> weighAndTrack(key, value));
+			if (initialCapacity > 0)
+			{
+				cacheBuilder = cacheBuilder.initialCapacity(initialCapacity);
+			}
+		}
+		else if (cacheMapType == CacheMapType.HashMap)
 		{
 			cacheBuilder = cacheBuilder
 					.initialCapacity(initialCapacity);
 		}
 		else if (cacheMapType == CacheMapType.LRU)
 		{
+			// for backwards compatibility, we use the initialCapacity as maximum size, if no explicit maximum size was given
 			cacheBuilder = cacheBuilder
-					.maximumSize(initialCapacity); // FIXME: this is confusing
+					.maximumSize(maximumSize > 0 ? maximumSize : initialCapacity);
 		}
 		else
 		{
@@ -341,21 +485,163 @@ public class CCache<K, V> implements CacheInterface
 			cacheBuilder = cacheBuilder.expireAfterWrite(expireMinutes, TimeUnit.MINUTES);
 		}
 
-		if (removalListener != null)
-		{
-			cacheBuilder.removalListener(notif -> {
-				@SuppressWarnings("unchecked")
-				final K key = (K)notif.getKey();
+		cacheBuilder.removalListener(notif -> {
+			@SuppressWarnings("unchecked")
+			final K key = (K)notif.getKey();
 
-				@SuppressWarnings("unchecked")
-				final V value = (V)notif.getValue();
+			@SuppressWarnings("unchecked")
+			final V value = (V)notif.getValue();
 
+			untrackWeight(key, value);
+			if (key != null && notif.getCause() != RemovalCause.REPLACED)
+			{
+				refreshAheadEntries.remove(key);
+				lastAccessNanosByKey.remove(key);
+				unindexRecordRefs(key);
+			}
+			if (removalListener != null)
+			{
 				removalListener.itemRemoved(key, value);
-			});
-		}
+			}
+		});
 		return cacheBuilder.build();
 	}
 
+	/**
+	 * Adds the records of given entry to {@link #recordRefsIndex}.
+	 * Shall be called before the entry is put into cache, so a concurrent invalidation of one of those records can't miss the entry.
+	 */
+	private void indexRecordRefs(final K key, final V value)
+	{
+		if (recordRefsIndex == null || key == null || value == null)
+		{
+			return;
+		}
+		recordRefsIndex.add(key, recordRefsExtractor.extractRecordRefs(key, value));
+	}
+
+	private void unindexRecordRefs(final K key)
+	{
+		if (recordRefsIndex == null)
+		{
+			return;
+		}
+
+		// Removal notifications might be processed late, after the key was added again.
+		// In that case we keep the index entries: invalidating a few entries too much is fine, missing one is not.
+		if (cache.asMap().containsKey(key))
+		{
+			return;
+		}
+		recordRefsIndex.remove(key);
+	}
+
+	@SuppressWarnings("unchecked")
+	private int weighAndTrack(final Object key, final Object value)
+	{
+		final int weight = Math.max(weigher.weigh((K)key, (V)value), 0);
+		weightBytes.addAndGet(weight);
+		return weight;
+	}
+
+	private void untrackWeight(final K key, final V value)
+	{
+		if (weigher == null || key == null || value == null)
+		{
+			return; // not weight-bounded or the entry was already garbage collected
+		}
+		weightBytes.addAndGet(-Math.max(weigher.weigh(key, value), 0));
+	}
+
+	private void recordAccess(final K key)
+	{
+		if (key != null && CacheMgt.get().isHeapBudgetEnabled())
+		{
+			lastAccessNanosByKey.put(key, System.nanoTime());
+		}
+	}
+
+	/**
+	 * @return approximate retained size (in bytes) of all entries of this cache.
+	 *         For weight-bounded caches this is the tracked weight, for the others it's extrapolated from a sample of entries which are spread over the whole cache.
+	 */
+	@Override
+	public long getEstimatedWeightBytes()
+	{
+		if (weigher != null)
+		{
+			return Math.max(weightBytes.get(), 0);
+		}
+
+		final long size = cache.size();
+		if (size <= 0)
+		{
+			return 0;
+		}
+
+		// weigh every n-th entry, so the sample is not biased towards the first entries of the map
+		final long sampleStep = Math.max(1, size / WEIGHT_SAMPLE_SIZE);
+		long sampledWeight = 0;
+		int sampledCount = 0;
+		long index = 0;
+		for (final Entry<K, V> entry : cache.asMap().entrySet())
+		{
+			if (index++ % sampleStep != 0)
+			{
+				continue;
+			}
+
+			sampledWeight += ApproximateRetainedSizeWeigher.instance.weigh(entry.getKey(), entry.getValue());
+			sampledCount++;
+			if (sampledCount >= WEIGHT_SAMPLE_SIZE)
+			{
+				break;
+			}
+		}
+
+		return sampledCount > 0 ? sampledWeight * size / sampledCount : 0;
+	}
+
+	/**
+	 * Evicts the least recently used entries until the estimated retained size of this cache is below the given weight.
+	 * Entries which were not accessed since the heap budget was enabled are evicted first.
+	 *
+	 * @return how many entries were evicted
+	 */
+	@Override
+	public long trimToWeight(final long maxWeightBytes)
+	{
+		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+		{
+			final long currentWeight = getEstimatedWeightBytes();
+			if (currentWeight <= maxWeightBytes)
+			{
+				return 0;
+			}
+			if (maxWeightBytes <= 0)
+			{
+				return reset();
+			}
+
+			final long size = cache.size();
+			final long countToEvict = size - (size * maxWeightBytes / currentWeight);
+			if (countToEvict <= 0)
+			{
+				return 0;
+			}
+
+			final List<K> keysToEvict = cache.asMap().keySet()
+					.stream()
+					.sorted(Comparator.comparingLong(key -> lastAccessNanosByKey.getOrDefault(key, Long.MIN_VALUE)))
+					.limit(countToEvict)
+					.collect(ImmutableList.toImmutableList());
+			cache.invalidateAll(keysToEvict);
+			logger.debug("trimToWeight - Evicted {} entries in order to get from {} to {} bytes", keysToEvict.size(), currentWeight, maxWeightBytes);
+
+			return keysToEvict.size();
+		}
+	}
+
 	/**
 	 * @return unique cache ID
 	 */
@@ -428,8 +714,11 @@ public class CCache<K, V> implements CacheInterface
 	private void clear()
 	{
 		// Clear
+		invalidationsCount.incrementAndGet();
 		cache.invalidateAll();
 		cache.cleanUp();
+		refreshAheadEntries.clear();
+		lastAccessNanosByKey.clear();
 
 		m_justReset = true;
 	}	// clear
@@ -439,6 +728,11 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
+			if (recordRefsIndex != null && recordRef.getTableName().equals(recordRefsIndexTableName))
+			{
+				return resetForRecordIdUsingIndex(recordRef);
+			}
+
 			if (!invalidationKeysMapper.isPresent())
 			{
 				// NOTE: reseting only by "key" is not supported, so we are reseting everything
@@ -449,6 +743,33 @@ public class CCache<K, V> implements CacheInterface
 		}
 	}
 
+	/**
+	 * Removes the keys which were indexed for the given record when they were added, plus the keys provided by the keys mapper (if any).
+	 */
+	private long resetForRecordIdUsingIndex(@NonNull final TableRecordReference recordRef)
+	{
+		if (invalidationKeysMapper.isPresent() && invalidationKeysMapper.get().isResetAll(recordRef))
+		{
+			logger.debug("resetForRecordIdUsingIndex - given keysMapper indicated to reset all for recordRef={}; -> resetting the whole cache", recordRef);
+			return reset();
+		}
+
+		final Set<K> keysToReset = new HashSet<>(recordRefsIndex.getKeys(recordRef));
+		invalidationKeysMapper.ifPresent(keysMapper -> keysToReset.addAll(keysMapper.computeCachingKeys(recordRef)));
+		logger.debug("resetForRecordIdUsingIndex - found following keys for recordRef={}: {}", recordRef, keysToReset);
+
+		long counter = 0;
+		for (final K key : keysToReset)
+		{
+			final V removedItem = remove(key);
+			if (removedItem != null)
+			{
+				counter++;
+			}
+		}
+		return counter;
+	}
+
 	private long resetForRecordIdUsingKeysMapper(
 			@NonNull final TableRecordReference recordRef,
 			@NonNull final CachingKeysMapper<K> keysMapper)
@@ -525,6 +846,7 @@ public class CCache<K, V> implements CacheInterface
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
 			final V value = cache.getIfPresent(key);
+			invalidationsCount.incrementAndGet();
 			cache.invalidate(key);
 			logger.debug("remove - Removed key={}; item that was actually in this cache={}", key, value);
 			return value;
@@ -535,6 +857,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
+			invalidationsCount.incrementAndGet();
 			cache.invalidateAll(keys);
 		}
 	}
@@ -549,6 +872,10 @@ public class CCache<K, V> implements CacheInterface
 		{
 			final V result = cache.getIfPresent(key);
 			logger.debug("get - key={}; result={}", key, result);
+			if (result != null)
+			{
+				recordAccess(key);
+			}
 			return result;
 		}
 	}
@@ -562,7 +889,7 @@ public class CCache<K, V> implements CacheInterface
 	{
 		if (valueInitializer == null)
 		{
-			return cache.getIfPresent(key);
+			return get(key);
 		}
 
 		return get(key, new Callable<V>()
@@ -588,22 +915,46 @@ public class CCache<K, V> implements CacheInterface
 	 *
 	 * If the <code>valueInitializer</code> returns null then this method will return <code>null</code> and the value will NOT be cached.
 	 *
+	 * Concurrent calls for the same missing key are coalesced: only one thread runs its <code>valueInitializer</code> while the others wait for its result.
+	 *
 	 * @param key
 	 * @param valueInitializer optional cache initializer.
 	 * @return cached value or <code>null</code>
 	 */
 	public V get(final K key, final Callable<V> valueInitializer)
+	{
+		final boolean refreshAhead = false;
+		return get(key, valueInitializer, refreshAhead);
+	}
+
+	private V get(final K key, final Callable<V> valueInitializer, final boolean refreshAhead)
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
 			if (valueInitializer == null)
 			{
-				return cache.getIfPresent(key);
+				return get(key);
 			}
 
 			try
 			{
-				return cache.get(key, valueInitializer);
+				final V value = cache.get(key, () -> {
+					final V valueLoaded = valueInitializer.call();
+					if (valueLoaded != null)
+					{
+						indexRecordRefs(key, valueLoaded);
+						CacheMgt.get().notifyEntriesAdded(1);
+						if (refreshAhead)
+						{
+							rememberForRefreshAhead(key, valueInitializer);
+						}
+					}
+					return valueLoaded;
+				});
+
+				recordAccess(key);
+				refreshAheadIfNeeded(key);
+				return value;
 			}
 			catch (final InvalidCacheLoadException e)
 			{
@@ -650,6 +1001,22 @@ public class CCache<K, V> implements CacheInterface
 		}
 	}
 
+	/**
+	 * Like {@link #getOrLoad(Object, Function)}, but if this cache has <code>refreshAheadMinutes</code>, the entry is reloaded in background before it expires.
+	 * <p>
+	 * <b>Important:</b> the loader is invoked again later on a shared background thread, with a copy of the current context.
+	 * So use this method only with loaders that don't depend on the calling thread's state (e.g. the thread-inherited transaction).
+	 */
+	public V getOrLoadAndRefreshAhead(final K key, @NonNull final Function<K, V> valueLoader)
+	{
+		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+		{
+			final Callable<V> callable = () -> valueLoader.apply(key);
+			final boolean refreshAhead = true;
+			return get(key, callable, refreshAhead);
+		}
+	}
+
 	/**
 	 * Gets all values which are identified by given keys.
 	 *
@@ -658,6 +1025,9 @@ public class CCache<K, V> implements CacheInterface
 	 *
 	 * The values which were just loaded will be also added to cache.
 	 *
+	 * If some of the missing keys are currently loaded by another thread, this method will wait for that load instead of loading those keys again.
+	 * If that other load takes too long (e.g. because it waits for one of our keys), the keys are loaded again by this thread.
+	 *
 	 * @param keys
 	 * @param valuesLoader
 	 * @return values (IMPORTANT: order is not guaranteed)
@@ -688,6 +1058,8 @@ public class CCache<K, V> implements CacheInterface
 				{
 					logger.debug("getAllOrLoad - Cache hit for key={}; -> adding it to result values", key);
 					values.add(value);
+					recordAccess(key);
+					refreshAheadIfNeeded(key);
 				}
 			}
 
@@ -699,25 +1071,180 @@ public class CCache<K, V> implements CacheInterface
 			}
 			else
 			{
-				logger.debug("getAllOrLoad - Appling valuesLoader to load values for keysToLoad={}", keysToLoad);
-				final Map<K, V> valuesLoaded = valuesLoader.apply(keysToLoad);
+				//
+				// Find out which keys are already loaded by other threads and which ones we have to load
+				final Map<K, InFlightLoad<V>> loadsOwned = new HashMap<>();
+				final Map<K, InFlightLoad<V>> loadsToAwait = new HashMap<>();
+				for (final K key : keysToLoad)
+				{
+					final InFlightLoad<V> newLoad = new InFlightLoad<>();
+					final InFlightLoad<V> existingLoad = inFlightLoads.putIfAbsent(key, newLoad);
+					if (existingLoad == null)
+					{
+						loadsOwned.put(key, newLoad);
+					}
+					else if (existingLoad.isOwnedByCurrentThread())
+					{
+						// recursive call from inside our own valuesLoader; we can't wait for ourselves, so we load it again
+						loadsOwned.put(key, new InFlightLoad<>());
+					}
+					else
+					{
+						loadsToAwait.put(key, existingLoad);
+					}
+				}
 
-				// add loaded values to cache and notify listener
-				for (final Entry<K, V> entry : valuesLoaded.entrySet())
+				if (!loadsOwned.isEmpty())
 				{
-					final K key = entry.getKey();
-					final V value = entry.getValue();
+					values.addAll(loadAndPutAllCoalesced(loadsOwned, valuesLoader));
+				}
 
-					cache.put(key, value);
-					fireAdditionListener(key, value);
+				//
+				// Wait for the values which were loaded by other threads
+				final Set<K> keysToLoadAgain = new HashSet<>();
+				for (final Entry<K, InFlightLoad<V>> keyAndLoad : loadsToAwait.entrySet())
+				{
+					final K key = keyAndLoad.getKey();
+					final Optional<V> value = keyAndLoad.getValue().await(IN_FLIGHT_LOAD_AWAIT_TIMEOUT_MILLIS);
+					if (value == null)
+					{
+						// the other thread failed loading it or took too long; we try again ourselves
+						keysToLoadAgain.add(key);
+					}
+					else
+					{
+						logger.debug("getAllOrLoad - Value for key={} was loaded by another thread: {}", key, value);
+						coalescedLoadsCount.incrementAndGet();
+						value.ifPresent(values::add);
+					}
+				}
+				if (!keysToLoadAgain.isEmpty())
+				{
+					values.addAll(loadAndPutAll(keysToLoadAgain, valuesLoader).values());
 				}
-				values.addAll(valuesLoaded.values()); // add loaded values to the list we will return
 			}
 
 			return values;
 		}
 	}
 
+	private Collection<V> loadAndPutAllCoalesced(
+			@NonNull final Map<K, InFlightLoad<V>> loadsOwned,
+			@NonNull final Function<Collection<K>, Map<K, V>> valuesLoader)
+	{
+		try
+		{
+			final Map<K, V> valuesLoaded = loadAndPutAll(loadsOwned.keySet(), valuesLoader);
+			loadsOwned.forEach((key, load) -> load.complete(valuesLoaded.get(key)));
+			return valuesLoaded.values();
+		}
+		catch (final RuntimeException | Error ex)
+		{
+			loadsOwned.values().forEach(InFlightLoad::fail);
+			throw ex;
+		}
+		finally
+		{
+			loadsOwned.forEach(inFlightLoads::remove);
+		}
+	}
+
+	private Map<K, V> loadAndPutAll(
+			@NonNull final Set<K> keysToLoad,
+			@NonNull final Function<Collection<K>, Map<K, V>> valuesLoader)
+	{
+		logger.debug("getAllOrLoad - Appling valuesLoader to load values for keysToLoad={}", keysToLoad);
+		final Map<K, V> valuesLoaded = valuesLoader.apply(ImmutableSet.copyOf(keysToLoad));
+
+		// add loaded values to cache and notify listener
+		for (final Entry<K, V> entry : valuesLoaded.entrySet())
+		{
+			final K key = entry.getKey();
+			final V value = entry.getValue();
+
+			indexRecordRefs(key, value);
+			cache.put(key, value);
+			recordAccess(key);
+			fireAdditionListener(key, value);
+		}
+
+		return valuesLoaded;
+	}
+
+	private void rememberForRefreshAhead(final K key, final Callable<V> valueLoader)
+	{
+		if (refreshAheadMillis <= 0)
+		{
+			return;
+		}
+		refreshAheadEntries.put(key, new RefreshAheadEntry<>(key, valueLoader));
+	}
+
+	/**
+	 * If the entry for the given key was loaded more than {@link #refreshAheadMillis} ago, then reload it asynchronously,
+	 * so that hot entries are replaced with fresh values instead of expiring and having to be loaded by a waiting caller.
+	 */
+	private void refreshAheadIfNeeded(final K key)
+	{
+		if (refreshAheadMillis <= 0)
+		{
+			return;
+		}
+
+		final RefreshAheadEntry<K, V> refreshAheadEntry = refreshAheadEntries.get(key);
+		if (refreshAheadEntry == null
+				|| !refreshAheadEntry.isOlderThan(refreshAheadMillis)
+				|| !refreshAheadEntry.startRefreshing())
+		{
+			return;
+		}
+
+		final long invalidationsCountAtStart = invalidationsCount.get();
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		refreshAheadExecutor.execute(() -> {
+			try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx);
+					final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
+			{
+				final V value = refreshAheadEntry.getLoader().call();
+				if (invalidationsCount.get() != invalidationsCountAtStart)
+				{
+					logger.debug("refreshAhead - Discarding the refreshed value for key={} because the cache was invalidated in the meantime", key);
+				}
+				else if (value == null)
+				{
+					cache.invalidate(key);
+				}
+				else
+				{
+					indexRecordRefs(key, value);
+					cache.put(key, value);
+
+					// An invalidation could have happened between our check and the put, and it might not have seen our value.
+					// The invalidations increment the counter before they invalidate, so checking again after the put covers that case.
+					if (invalidationsCount.get() != invalidationsCountAtStart)
+					{
+						cache.invalidate(key);
+						logger.debug("refreshAhead - Discarding the refreshed value for key={} because the cache was invalidated while putting it", key);
+					}
+					else
+					{
+						refreshAheadEntries.put(key, new RefreshAheadEntry<>(key, refreshAheadEntry.getLoader()));
+						refreshAheadCount.incrementAndGet();
+						logger.debug("refreshAhead - Refreshed key={}: {}", key, value);
+					}
+				}
+			}
+			catch (final Exception ex)
+			{
+				logger.warn("refreshAhead - Failed refreshing key={} in {}. Leaving the current value in cache until it expires.", key, this, ex);
+			}
+			finally
+			{
+				refreshAheadEntry.stopRefreshing();
+			}
+		});
+	}
+
 	/**
 	 * Return the value, if present, otherwise throw an exception to be created by the provided supplier.
 	 *
@@ -750,7 +1277,9 @@ public class CCache<K, V> implements CacheInterface
 			}
 			else
 			{
+				indexRecordRefs(key, value);
 				cache.put(key, value);
+				recordAccess(key);
 				fireAdditionListener(key, value);
 			}
 		}
@@ -759,6 +1288,7 @@ public class CCache<K, V> implements CacheInterface
 	private void fireAdditionListener(final K key, final V value)
 	{
 		logger.debug("fireAdditionListener - Item added; key={}; value={}", key, value);
+		CacheMgt.get().notifyEntriesAdded(1);
 		if (additionListener != null)
 		{
 			additionListener.itemAdded(key, value);
@@ -774,10 +1304,15 @@ public class CCache<K, V> implements CacheInterface
 	{
 		try (final IAutoCloseable cacheIdMDC = CacheMDC.putCache(this))
 		{
+			for (final Entry<? extends K, ? extends V> entry : map.entrySet())
+			{
+				indexRecordRefs(entry.getKey(), entry.getValue());
+			}
 			cache.putAll(map);
 
 			for (final Entry<? extends K, ? extends V> entry : map.entrySet())
 			{
+				recordAccess(entry.getKey());
 				fireAdditionListener(entry.getKey(), entry.getValue());
 			}
 		}
@@ -835,7 +1370,7 @@ public class CCache<K, V> implements CacheInterface
 	 */
 	public CCacheStats stats()
 	{
-		return new CCacheStats(cacheId, cacheName, cache.size(), cache.stats());
+		return new CCacheStats(cacheId, cacheName, cache.size(), getEstimatedWeightBytes(), coalescedLoadsCount.get(), refreshAheadCount.get(), cache.stats());
 	}
 
 	@SuppressWarnings("serial")
@@ -846,13 +1381,26 @@ public class CCache<K, V> implements CacheInterface
 		private final long cacheId;
 		private final String name;
 		private final long size;
+		private final long estimatedWeightBytes;
+		private final long coalescedLoadsCount;
+		private final long refreshAheadCount;
 		private final CacheStats guavaStats;
 
-		private CCacheStats(final long cacheId, final String name, final long size, final CacheStats guavaStats)
+		private CCacheStats(
+				final long cacheId,
+				final String name,
+				final long size,
+				final long estimatedWeightBytes,
+				final long coalescedLoadsCount,
+				final long refreshAheadCount,
+				final CacheStats guavaStats)
 		{
 			this.cacheId = cacheId;
 			this.name = name;
 			this.size = size;
+			this.estimatedWeightBytes = estimatedWeightBytes;
+			this.coalescedLoadsCount = coalescedLoadsCount;
+			this.refreshAheadCount = refreshAheadCount;
 			this.guavaStats = guavaStats;
 		}
 
@@ -862,7 +1410,13 @@ public class CCache<K, V> implements CacheInterface
 			return MoreObjects.toStringHelper(this)
 					.add("name", name)
 					.add("size", size)
-					.add("guavaStats", guavaStats)
+					.add("estimatedWeightBytes", estimatedWeightBytes)
+					.add("hitCount", getHitCount())
+					.add("missCount", getMissCount())
+					.add("evictionCount", getEvictionCount())
+					.add("averageLoadPenaltyMillis", getAverageLoadPenaltyMillis())
+					.add("coalescedLoadsCount", coalescedLoadsCount)
+					.add("refreshAheadCount", refreshAheadCount)
 					.add("cacheId", cacheId)
 					.toString();
 		}
@@ -870,7 +1424,7 @@ public class CCache<K, V> implements CacheInterface
 		@Override
 		public int hashCode()
 		{
-			return Objects.hash(cacheId, name, size, guavaStats);
+			return Objects.hash(cacheId, name, size, estimatedWeightBytes, coalescedLoadsCount, refreshAheadCount, guavaStats);
 		}
 
 		@Override
@@ -882,6 +1436,9 @@ public class CCache<K, V> implements CacheInterface
 				return cacheId == other.cacheId
 						&& name.equals(other.name)
 						&& size == other.size
+						&& estimatedWeightBytes == other.estimatedWeightBytes
+						&& coalescedLoadsCount == other.coalescedLoadsCount
+						&& refreshAheadCount == other.refreshAheadCount
 						&& guavaStats.equals(other.guavaStats);
 			}
 			return false;
@@ -902,9 +1459,152 @@ public class CCache<K, V> implements CacheInterface
 			return size;
 		}
 
+		public long getEstimatedWeightBytes()
+		{
+			return estimatedWeightBytes;
+		}
+
+		public long getHitCount()
+		{
+			return guavaStats.hitCount();
+		}
+
+		public long getMissCount()
+		{
+			return guavaStats.missCount();
+		}
+
+		public double getHitRate()
+		{
+			return guavaStats.hitRate();
+		}
+
+		public long getLoadCount()
+		{
+			return guavaStats.loadCount();
+		}
+
+		public long getTotalLoadTimeMillis()
+		{
+			return TimeUnit.NANOSECONDS.toMillis(guavaStats.totalLoadTime());
+		}
+
+		public double getAverageLoadPenaltyMillis()
+		{
+			return guavaStats.averageLoadPenalty() / 1_000_000d;
+		}
+
+		public long getEvictionCount()
+		{
+			return guavaStats.evictionCount();
+		}
+
+		/** @return how many keys were not loaded because another thread was already loading them */
+		public long getCoalescedLoadsCount()
+		{
+			return coalescedLoadsCount;
+		}
+
+		public long getRefreshAheadCount()
+		{
+			return refreshAheadCount;
+		}
+
 		public CacheStats getGuavaStats()
 		{
 			return guavaStats;
 		}
 	}
+
+	/** A load of one key which is currently running in another thread */
+	private static final class InFlightLoad<V>
+	{
+		private final Thread owner = Thread.currentThread();
+		private final CompletableFuture<Optional<V>> future = new CompletableFuture<>();
+
+		public boolean isOwnedByCurrentThread()
+		{
+			return owner == Thread.currentThread();
+		}
+
+		public void complete(@Nullable final V value)
+		{
+			future.complete(Optional.ofNullable(value));
+		}
+
+		public void fail()
+		{
+			future.complete(null);
+		}
+
+		/**
+		 * @return loaded value (empty if the loader did not provide a value) or <code>null</code> if the load failed or did not finish within the given timeout
+		 */
+		@Nullable
+		public Optional<V> await(final long timeoutMillis)
+		{
+			try
+			{
+				return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+			}
+			catch (final TimeoutException ex)
+			{
+				logger.debug("Load by thread {} did not finish within {}ms", owner.getName(), timeoutMillis);
+				return null;
+			}
+			catch (final InterruptedException ex)
+			{
+				Thread.currentThread().interrupt();
+				throw AdempiereException.wrapIfNeeded(ex);
+			}
+			catch (final ExecutionException ex)
+			{
+				return null; // shall not happen because we never complete exceptionally
+			}
+		}
+	}
+
+	private static final class RefreshAheadEntry<K, V>
+	{
+		private final K key;
+		private final Callable<V> loader;
+		private final long loadedAtMillis = System.currentTimeMillis();
+		private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+		public RefreshAheadEntry(@NonNull final K key, @NonNull final Callable<V> loader)
+		{
+			this.key = key;
+			this.loader = loader;
+		}
+
+		@Override
+		public String toString()
+		{
+			return MoreObjects.toStringHelper(this)
+					.add("key", key)
+					.add("loadedAtMillis", loadedAtMillis)
+					.add("refreshing", refreshing.get())
+					.toString();
+		}
+
+		public Callable<V> getLoader()
+		{
+			return loader;
+		}
+
+		public boolean isOlderThan(final long millis)
+		{
+			return System.currentTimeMillis() - loadedAtMillis >= millis;
+		}
+
+		public boolean startRefreshing()
+		{
+			return refreshing.compareAndSet(false, true);
+		}
+
+		public void stopRefreshing()
+		{
+			refreshing.set(false);
+		}
+	}
 }	// CCache
@@ -0,0 +1,45 @@
+package de.metas.cache;
+
+import java.util.Collection;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Extracts the records a cache entry depends on.
+ * <p>
+ * If a {@link CCache} is configured with such an extractor, it maintains a reverse index from each record to the cache keys which depend on it,
+ * so that {@link CCache#resetForRecordId(TableRecordReference)} only has to remove the affected entries instead of resetting the whole cache.
+ * <p>
+ * Only the records of the cache's own table are looked up in that index.
+ * Changes of records from the additional tables the cache is reset for are handled like before, i.e. using the keys mapper or by resetting the whole cache.
+ */
+@FunctionalInterface
+public interface CacheEntryRecordRefsExtractor<K, V>
+{
+	/**
+	 * @return records of the cache's table which, when changed, shall invalidate the given cache entry; never return null
+	 */
+	Collection<TableRecordReference> extractRecordRefs(K key, V value);
+}
@@ -0,0 +1,43 @@
+package de.metas.cache;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Computes the approximate retained size (in bytes) of a cache entry.
+ * <p>
+ * Used by weight-bounded {@link CCache}s and by {@link CacheMgt}'s global heap budget.
+ * The weight of an entry is computed once, when the entry is added to cache, so it shall be deterministic for a given key/value pair.
+ */
+@FunctionalInterface
+public interface CacheEntryWeigher<K, V>
+{
+	/** @return approximate retained size in bytes; shall be non-negative */
+	int weigh(K key, V value);
+
+	/** @return a weigher which estimates the retained size by walking the key and value, see {@link ApproximateRetainedSizeWeigher} */
+	@SuppressWarnings("unchecked")
+	static <K, V> CacheEntryWeigher<K, V> approximateRetainedSize()
+	{
+		return (CacheEntryWeigher<K, V>)ApproximateRetainedSizeWeigher.instance;
+	}
+}
@@ -55,4 +55,22 @@ public interface CacheInterface
 	 * @return number of items
 	 */
 	public long size();
+
+	/**
+	 * @return approximate retained size (in bytes) of all cached entries; used to enforce {@link CacheMgt}'s global heap budget
+	 */
+	default long getEstimatedWeightBytes()
+	{
+		return 0;
+	}
+
+	/**
+	 * Evict entries until the estimated retained size is below the given weight.
+	 * 
+	 * @return how many entries were evicted
+	 */
+	default long trimToWeight(final long maxWeightBytes)
+	{
+		return getEstimatedWeightBytes() > maxWeightBytes ? reset() : 0;
+	}
 }	// CacheInterface
@@ -0,0 +1,185 @@
+package de.metas.cache;
+
+import java.util.LinkedHashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the cache invalidation requests which shall be broadcasted to remote nodes and sends them as one multi request,
+ * either after a short time window or when too many requests were collected.
+ * <p>
+ * This way, a mass update which invalidates thousands of records results in a few remote messages instead of thousands.
+ */
+final class CacheInvalidationBroadcastBuffer
+{
+	private static final Logger logger = LogManager.getLogger(CacheInvalidationBroadcastBuffer.class);
+
+	private final Consumer<CacheInvalidateMultiRequest> sender;
+	private final long debounceMillis;
+	private final int maxBufferedRequests;
+
+	private final ScheduledExecutorService scheduler;
+
+	private final Object lock = new Object();
+	private final LinkedHashSet<CacheInvalidateRequest> bufferedRequests = new LinkedHashSet<>();
+	private boolean flushScheduled = false;
+	private boolean shutdown = false;
+
+	public CacheInvalidationBroadcastBuffer(
+			@NonNull final Consumer<CacheInvalidateMultiRequest> sender,
+			final long debounceMillis,
+			final int maxBufferedRequests)
+	{
+		this.sender = sender;
+		this.debounceMillis = debounceMillis;
+		this.maxBufferedRequests = maxBufferedRequests;
+
+		this.scheduler = debounceMillis > 0
+				? Executors.newSingleThreadScheduledExecutor(CustomizableThreadFactory.builder()
+						.setThreadNamePrefix(CacheInvalidationBroadcastBuffer.class.getName())
+						.setDaemon(true)
+						.build())
+				: null;
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("debounceMillis", debounceMillis)
+				.add("maxBufferedRequests", maxBufferedRequests)
+				.toString();
+	}
+
+	public void add(@NonNull final CacheInvalidateMultiRequest multiRequest)
+	{
+		if (scheduler == null)
+		{
+			sender.accept(multiRequest);
+			return;
+		}
+
+		boolean sendNow = false;
+		boolean flushNow = false;
+		boolean scheduleFlush = false;
+		synchronized (lock)
+		{
+			if (shutdown)
+			{
+				sendNow = true;
+			}
+			else
+			{
+				bufferedRequests.addAll(multiRequest.getRequests());
+				if (bufferedRequests.size() >= maxBufferedRequests)
+				{
+					flushNow = true;
+				}
+				else if (!flushScheduled)
+				{
+					flushScheduled = true;
+					scheduleFlush = true;
+				}
+			}
+		}
+
+		if (sendNow)
+		{
+			sender.accept(multiRequest);
+		}
+		else if (flushNow)
+		{
+			flush();
+		}
+		else if (scheduleFlush)
+		{
+			scheduler.schedule(this::flushNoFail, debounceMillis, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void flushNoFail()
+	{
+		try
+		{
+			flush();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed broadcasting buffered cache invalidation requests. Ignored.", ex);
+		}
+	}
+
+	/**
+	 * Sends all buffered requests and from now on sends each request right away, without buffering it.
+	 */
+	public void shutdown()
+	{
+		synchronized (lock)
+		{
+			shutdown = true;
+		}
+		if (scheduler != null)
+		{
+			scheduler.shutdownNow();
+		}
+
+		flush();
+	}
+
+	/**
+	 * Sends all buffered requests right away.
+	 */
+	public void flush()
+	{
+		final ImmutableSet<CacheInvalidateRequest> requests;
+		synchronized (lock)
+		{
+			flushScheduled = false;
+			if (bufferedRequests.isEmpty())
+			{
+				return;
+			}
+
+			requests = ImmutableSet.copyOf(bufferedRequests);
+			bufferedRequests.clear();
+		}
+
+		logger.debug("Flushing {} buffered cache invalidation requests", requests.size());
+		sender.accept(CacheInvalidateMultiRequest.of(requests));
+	}
+}
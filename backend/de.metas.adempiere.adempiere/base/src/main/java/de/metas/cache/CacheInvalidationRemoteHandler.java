@@ -1,9 +1,11 @@
 package de.metas.cache;
 
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
 
 import org.adempiere.ad.dao.cache.CacheInvalidateMultiRequestSerializer;
+import org.compiere.Adempiere;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
@@ -56,12 +58,41 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 	private static final Topic TOPIC_CacheInvalidation = RabbitMQEventBusConfiguration.CacheInvalidationQueueConfiguration.EVENTBUS_TOPIC;
 
 	private static final String EVENT_PROPERTY = CacheInvalidateRequest.class.getSimpleName();
+	/** Property used for big requests, which are sent as gzip compressed and base64 encoded JSON */
+	private static final String EVENT_PROPERTY_COMPRESSED = CacheInvalidateRequest.class.getSimpleName() + ".gz";
+	/** Requests whose JSON is longer than this are sent compressed */
+	private static final int COMPRESS_JSON_MIN_LENGTH = 4096;
+
+	/** System property: time window (in millis) in which the requests to broadcast are collected and sent as one event; zero means send right away */
+	public static final String SYSTEM_PROPERTY_BroadcastDebounceMillis = "de.metas.cache.remoteInvalidation.debounceMillis";
+	/** System property: maximum number of requests collected before they are sent, no matter if the time window is over */
+	public static final String SYSTEM_PROPERTY_BroadcastMaxBufferedRequests = "de.metas.cache.remoteInvalidation.maxBufferedRequests";
+	/** System property: if a broadcasted multi request has more record level requests for one table than this, they are sent as one table level request */
+	public static final String SYSTEM_PROPERTY_CollapseRecordsThreshold = "de.metas.cache.invalidation.collapseRecordsThreshold";
+	/**
+	 * System property: if <code>true</code>, big requests are sent compressed.
+	 * Nodes running an older version ignore compressed requests, so enable it only after all nodes were upgraded.
+	 */
+	public static final String SYSTEM_PROPERTY_CompressBigRequests = "de.metas.cache.remoteInvalidation.compressBigRequests";
 
 	private final AtomicBoolean _initalized = new AtomicBoolean(false);
 	private ImmutableTableNamesGroupsIndex _tableNamesToBroadcastIndex = ImmutableTableNamesGroupsIndex.EMPTY;
 
 	private final CacheInvalidateMultiRequestSerializer jsonSerializer = new CacheInvalidateMultiRequestSerializer();
 
+	private final int collapseRecordsThreshold = Integer.getInteger(SYSTEM_PROPERTY_CollapseRecordsThreshold, 500);
+	private final boolean compressBigRequests = Boolean.getBoolean(SYSTEM_PROPERTY_CompressBigRequests);
+	private final CacheInvalidationBroadcastBuffer broadcastBuffer = new CacheInvalidationBroadcastBuffer(
+			this::postEventNow,
+			Long.getLong(SYSTEM_PROPERTY_BroadcastDebounceMillis, 200),
+			Integer.getInteger(SYSTEM_PROPERTY_BroadcastMaxBufferedRequests, 10000));
+
+	private final AtomicLong eventsSentCount = new AtomicLong();
+	private final AtomicLong requestsSentCount = new AtomicLong();
+	private final AtomicLong eventsReceivedCount = new AtomicLong();
+	private final AtomicLong requestsReceivedCount = new AtomicLong();
+	private final AtomicLong requestsCollapsedCount = new AtomicLong();
+
 	private CacheInvalidationRemoteHandler()
 	{
 	}
@@ -124,8 +155,26 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 		return getTableNamesToBroadcastIndex().getTableNames();
 	}
 
+	public int getCollapseRecordsThreshold()
+	{
+		return collapseRecordsThreshold;
+	}
+
+	public CacheInvalidationStats getStats()
+	{
+		return CacheInvalidationStats.builder()
+				.eventsSentCount(eventsSentCount.get())
+				.requestsSentCount(requestsSentCount.get())
+				.eventsReceivedCount(eventsReceivedCount.get())
+				.requestsReceivedCount(requestsReceivedCount.get())
+				.requestsCollapsedCount(requestsCollapsedCount.get())
+				.build();
+	}
+
 	/**
 	 * Broadcast a cache invalidation request.
+	 * <p>
+	 * The request is not sent right away but collected together with the other requests of a short time window (see {@link CacheInvalidationBroadcastBuffer}).
 	 */
 	public void postEvent(final CacheInvalidateMultiRequest request)
 	{
@@ -143,14 +192,54 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
+		if (Adempiere.isUnitTestMode())
+		{
+			postEventNow(request);
+		}
+		else
+		{
+			broadcastBuffer.add(request);
+		}
+	}
+
+	/**
+	 * Sends all collected requests right away.
+	 */
+	public void flush()
+	{
+		broadcastBuffer.flush();
+	}
+
+	/**
+	 * Sends all collected requests and from now on sends each request right away.
+	 * To be called on shutdown, while the event bus is still available.
+	 */
+	public void shutdown()
+	{
+		broadcastBuffer.shutdown();
+	}
+
+	private void postEventNow(@NonNull final CacheInvalidateMultiRequest request)
+	{
+		final CacheInvalidateMultiRequest requestToSend = request.collapseRecordsToTables(collapseRecordsThreshold);
+		final int collapsedCount = request.getRequests().size() - requestToSend.getRequests().size();
+		if (collapsedCount > 0)
+		{
+			requestsCollapsedCount.addAndGet(collapsedCount);
+			logger.debug("Collapsed {} requests to {}", collapsedCount, requestToSend);
+		}
+
 		// Broadcast the event.
-		final Event event = createEventFromRequest(request);
+		final Event event = createEventFromRequest(requestToSend);
 		try (final MDCCloseable mdc = EventMDC.putEvent(event))
 		{
-			logger.debug("Broadcasting cacheInvalidateMultiRequest={}", request);
+			logger.debug("Broadcasting cacheInvalidateMultiRequest={}", requestToSend);
 			Services.get(IEventBusFactory.class)
 					.getEventBus(TOPIC_CacheInvalidation)
 					.postEvent(event);
+
+			eventsSentCount.incrementAndGet();
+			requestsSentCount.addAndGet(requestToSend.getRequests().size());
 		}
 	}
 
@@ -187,6 +276,9 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 			return;
 		}
 
+		eventsReceivedCount.incrementAndGet();
+		requestsReceivedCount.addAndGet(request.getRequests().size());
+
 		//
 		// Reset cache for TableName/Record_ID
 		logger.debug("onEvent - resetting local cache for request {} because we got remote event={}", request, event);
@@ -196,15 +288,36 @@ final class CacheInvalidationRemoteHandler implements IEventListener
 	@VisibleForTesting
 	Event createEventFromRequest(@NonNull final CacheInvalidateMultiRequest request)
 	{
-		final Event event = Event.builder()
-				.putProperty(EVENT_PROPERTY, jsonSerializer.toJson(request))
-				.build();
+		return createEventFromRequest(request, compressBigRequests);
+	}
 
-		return event;
+	@VisibleForTesting
+	Event createEventFromRequest(@NonNull final CacheInvalidateMultiRequest request, final boolean compressBigRequests)
+	{
+		final String jsonRequest = jsonSerializer.toJson(request);
+		if (compressBigRequests && jsonRequest.length() > COMPRESS_JSON_MIN_LENGTH)
+		{
+			return Event.builder()
+					.putProperty(EVENT_PROPERTY_COMPRESSED, jsonSerializer.toCompressedJson(request))
+					.build();
+		}
+		else
+		{
+			return Event.builder()
+					.putProperty(EVENT_PROPERTY, jsonRequest)
+					.build();
+		}
 	}
 
-	private CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
+	@VisibleForTesting
+	CacheInvalidateMultiRequest createRequestFromEvent(final Event event)
 	{
+		final String compressedJsonRequest = event.getProperty(EVENT_PROPERTY_COMPRESSED);
+		if (!Check.isEmpty(compressedJsonRequest, true))
+		{
+			return jsonSerializer.fromCompressedJson(compressedJsonRequest);
+		}
+
 		final String jsonRequest = event.getProperty(EVENT_PROPERTY);
 		if (Check.isEmpty(jsonRequest, true))
 		{
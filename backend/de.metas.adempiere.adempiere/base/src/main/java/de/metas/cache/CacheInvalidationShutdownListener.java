@@ -0,0 +1,41 @@
+package de.metas.cache;
+
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.stereotype.Component;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sends the cache invalidation requests which are still collected by {@link CacheInvalidationBroadcastBuffer} when the application is shut down.
+ * The {@link ContextClosedEvent} is published before the beans are destroyed, so the event bus is still available.
+ */
+@Component
+public class CacheInvalidationShutdownListener implements ApplicationListener<ContextClosedEvent>
+{
+	@Override
+	public void onApplicationEvent(final ContextClosedEvent event)
+	{
+		CacheInvalidationRemoteHandler.instance.shutdown();
+	}
+}
@@ -0,0 +1,45 @@
+package de.metas.cache;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/** Counters about local and remote cache invalidations, see {@link CacheMgt#getInvalidationStats()} */
+@Value
+@Builder
+public class CacheInvalidationStats
+{
+	/** How many cache invalidation events were sent to remote nodes */
+	long eventsSentCount;
+	/** How many cache invalidation requests were sent to remote nodes (one event may contain more requests) */
+	long requestsSentCount;
+
+	/** How many cache invalidation events were received from remote nodes */
+	long eventsReceivedCount;
+	/** How many cache invalidation requests were received from remote nodes */
+	long requestsReceivedCount;
+
+	/** How many record level invalidation requests were replaced by table level invalidation requests before sending them to remote nodes */
+	long requestsCollapsedCount;
+}
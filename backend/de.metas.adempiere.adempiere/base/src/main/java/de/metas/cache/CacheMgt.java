@@ -17,6 +17,7 @@
 package de.metas.cache;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
@@ -25,6 +26,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -77,6 +79,15 @@ public final class CacheMgt
 
 	public static final String JMX_BASE_NAME = "de.metas.cache";
 
+	/** System property which defines the global cache heap budget (in MB); zero or missing means no budget */
+	public static final String SYSTEM_PROPERTY_HeapBudgetMB = "de.metas.cache.heapBudgetMB";
+
+	/** After how many added cache entries we shall check if the heap budget was exceeded */
+	private static final int HEAP_BUDGET_CHECK_INTERVAL = 1000;
+
+	/** When the heap budget is exceeded, we trim the caches down to this fraction of the budget, to avoid trimming again on the next check */
+	private static final double HEAP_BUDGET_TRIM_TARGET = 0.8;
+
 	private final ConcurrentHashMap<CacheLabel, CachesGroup> cachesByLabel = new ConcurrentHashMap<>();
 
 	private final CopyOnWriteArrayList<ICacheResetListener> globalCacheResetListeners = new CopyOnWriteArrayList<>();
@@ -87,6 +98,11 @@ public final class CacheMgt
 	private final AtomicBoolean cacheResetRunning = new AtomicBoolean();
 	private final AtomicLong lastCacheReset = new AtomicLong();
 
+	private final AtomicLong heapBudgetBytes = new AtomicLong(Long.getLong(SYSTEM_PROPERTY_HeapBudgetMB, 0) * 1024 * 1024);
+	private final AtomicLong entriesAddedSinceLastHeapBudgetCheck = new AtomicLong();
+	private final AtomicBoolean heapBudgetCheckRunning = new AtomicBoolean();
+	private final AtomicLong heapBudgetEvictionCount = new AtomicLong();
+
 	private CacheMgt()
 	{
 		JMXRegistry.get().registerJMX(new JMXCacheMgt(), OnJMXAlreadyExistsPolicy.Replace);
@@ -163,6 +179,166 @@ public final class CacheMgt
 		return CacheInvalidationRemoteHandler.instance.getTableNamesToBroadcast();
 	}
 
+	/**
+	 * @return all registered caches; each cache is returned once, even if it is registered for more than one label
+	 */
+	private Stream<CacheInterface> streamAllCaches()
+	{
+		return cachesByLabel.values()
+				.stream()
+				.flatMap(CachesGroup::streamCaches)
+				.collect(Collectors.toMap(CacheInterface::getCacheId, cache -> cache, (cache1, cache2) -> cache1))
+				.values()
+				.stream();
+	}
+
+	/**
+	 * @return statistics (hits, misses, load time, evictions, estimated weight) of all registered {@link CCache}s
+	 */
+	public List<CCache.CCacheStats> getCacheStats()
+	{
+		return streamAllCaches()
+				.filter(cache -> cache instanceof CCache)
+				.map(cache -> ((CCache<?, ?>)cache).stats())
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return approximate retained size (in bytes) of all registered caches
+	 */
+	public long getEstimatedTotalWeightBytes()
+	{
+		return streamAllCaches()
+				.mapToLong(CacheMgt::getEstimatedWeightBytesNoFail)
+				.sum();
+	}
+
+	private static long getEstimatedWeightBytesNoFail(@NonNull final CacheInterface cache)
+	{
+		try
+		{
+			return cache.getEstimatedWeightBytes();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed computing the estimated weight of {}. Considering it zero.", cache, ex);
+			return 0;
+		}
+	}
+
+	/**
+	 * @return counters about local and remote cache invalidations
+	 */
+	public CacheInvalidationStats getInvalidationStats()
+	{
+		return CacheInvalidationRemoteHandler.instance.getStats();
+	}
+
+	/** @return global cache heap budget in bytes; zero or negative means there is no budget */
+	public long getHeapBudgetBytes()
+	{
+		return heapBudgetBytes.get();
+	}
+
+	/** @return true if a global heap budget is set */
+	public boolean isHeapBudgetEnabled()
+	{
+		return heapBudgetBytes.get() > 0;
+	}
+
+	/**
+	 * Sets the global heap budget which is enforced across all registered caches.
+	 *
+	 * @param heapBudgetBytes approximate retained size (in bytes) that all caches together may use; zero or negative to disable
+	 */
+	public void setHeapBudgetBytes(final long heapBudgetBytes)
+	{
+		this.heapBudgetBytes.set(heapBudgetBytes);
+		logger.info("Set cache heap budget to {} bytes", heapBudgetBytes);
+	}
+
+	/** @return how many cache entries were evicted so far because the global heap budget was exceeded */
+	public long getHeapBudgetEvictionCount()
+	{
+		return heapBudgetEvictionCount.get();
+	}
+
+	/**
+	 * Called by the caches when entries were added. Periodically checks if the global heap budget was exceeded.
+	 */
+	void notifyEntriesAdded(final int count)
+	{
+		if (!isHeapBudgetEnabled())
+		{
+			return;
+		}
+
+		if (entriesAddedSinceLastHeapBudgetCheck.addAndGet(count) < HEAP_BUDGET_CHECK_INTERVAL)
+		{
+			return;
+		}
+		entriesAddedSinceLastHeapBudgetCheck.set(0);
+
+		enforceHeapBudget();
+	}
+
+	/**
+	 * If the estimated retained size of all caches exceeds the global heap budget, then each cache is trimmed proportionally to its estimated size.
+	 *
+	 * @return how many cache entries were evicted
+	 */
+	public long enforceHeapBudget()
+	{
+		final long budget = heapBudgetBytes.get();
+		if (budget <= 0)
+		{
+			return 0;
+		}
+
+		// Do nothing if already running in another thread
+		if (heapBudgetCheckRunning.getAndSet(true))
+		{
+			return 0;
+		}
+
+		try
+		{
+			final Map<CacheInterface, Long> weightsByCache = streamAllCaches()
+					.collect(Collectors.toMap(cache -> cache, CacheMgt::getEstimatedWeightBytesNoFail));
+			final long totalWeight = weightsByCache.values().stream().mapToLong(Long::longValue).sum();
+			if (totalWeight <= budget)
+			{
+				logger.trace("Caches are within heap budget: {} <= {} bytes", totalWeight, budget);
+				return 0;
+			}
+
+			final double trimRatio = budget * HEAP_BUDGET_TRIM_TARGET / totalWeight;
+
+			long evictedCount = 0;
+			for (final Map.Entry<CacheInterface, Long> cacheAndWeight : weightsByCache.entrySet())
+			{
+				final CacheInterface cache = cacheAndWeight.getKey();
+				final long maxWeight = (long)(cacheAndWeight.getValue() * trimRatio);
+				try (final IAutoCloseable ignored = CacheMDC.putCache(cache))
+				{
+					evictedCount += cache.trimToWeight(maxWeight);
+				}
+				catch (final Exception ex)
+				{
+					logger.warn("Failed trimming {} to {} bytes. Ignored.", cache, maxWeight, ex);
+				}
+			}
+
+			heapBudgetEvictionCount.addAndGet(evictedCount);
+			logger.info("Caches exceeded heap budget ({} > {} bytes); evicted {} entries", totalWeight, budget, evictedCount);
+			return evictedCount;
+		}
+		finally
+		{
+			heapBudgetCheckRunning.set(false);
+		}
+	}
+
 	/** @return last time cache reset timestamp */
 	public long getLastCacheReset()
 	{
@@ -384,13 +560,16 @@ public final class CacheMgt
 		return resetCount;
 	}
 
-	private long invalidateForMultiRequest(final CacheInvalidateMultiRequest multiRequest)
+	private long invalidateForMultiRequest(final CacheInvalidateMultiRequest multiRequestOrig)
 	{
-		if (multiRequest.isResetAll())
+		if (multiRequestOrig.isResetAll())
 		{
 			return reset();
 		}
 
+		// If there are a lot of records of the same table, it's cheaper to invalidate the whole table than each record
+		final CacheInvalidateMultiRequest multiRequest = multiRequestOrig.collapseRecordsToTables(CacheInvalidationRemoteHandler.instance.getCollapseRecordsThreshold());
+
 		int total = 0;
 		for (final CacheInvalidateRequest request : multiRequest.getRequests())
 		{
@@ -476,7 +655,10 @@ public final class CacheMgt
 	 */
 	public String toStringX()
 	{
-		return "CacheMgt[Instances=" + cachesByLabel.size() + ", Elements=" + computeTotalSize() + "]";
+		return "CacheMgt[Instances=" + cachesByLabel.size()
+				+ ", Elements=" + computeTotalSize()
+				+ ", HeapBudgetBytes=" + getHeapBudgetBytes()
+				+ "]";
 	}
 
 	public void addCacheResetListener(@NonNull final ICacheResetListener cacheResetListener)
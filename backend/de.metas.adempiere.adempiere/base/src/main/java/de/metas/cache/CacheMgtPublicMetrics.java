@@ -0,0 +1,103 @@
+package de.metas.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import de.metas.cache.CCache.CCacheStats;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exposes {@link CacheMgt}'s cache statistics to the actuator's <code>/metrics</code> endpoint.
+ * <p>
+ * The per-cache metrics are aggregated by cache name, because e.g. {@link IDCache}s are created with the same name more than once.
+ */
+@Component
+public class CacheMgtPublicMetrics implements PublicMetrics
+{
+	private static final String PREFIX = "cache.metasfresh.";
+
+	@Override
+	public Collection<Metric<?>> metrics()
+	{
+		final CacheMgt cacheMgt = CacheMgt.get();
+
+		final List<Metric<?>> metrics = new ArrayList<>();
+		metrics.add(new Metric<>(PREFIX + "estimatedWeightBytes", cacheMgt.getEstimatedTotalWeightBytes()));
+		metrics.add(new Metric<>(PREFIX + "heapBudgetBytes", cacheMgt.getHeapBudgetBytes()));
+		metrics.add(new Metric<>(PREFIX + "heapBudgetEvictions", cacheMgt.getHeapBudgetEvictionCount()));
+
+		final CacheInvalidationStats invalidationStats = cacheMgt.getInvalidationStats();
+		metrics.add(new Metric<>(PREFIX + "invalidation.eventsSent", invalidationStats.getEventsSentCount()));
+		metrics.add(new Metric<>(PREFIX + "invalidation.requestsSent", invalidationStats.getRequestsSentCount()));
+		metrics.add(new Metric<>(PREFIX + "invalidation.eventsReceived", invalidationStats.getEventsReceivedCount()));
+		metrics.add(new Metric<>(PREFIX + "invalidation.requestsReceived", invalidationStats.getRequestsReceivedCount()));
+		metrics.add(new Metric<>(PREFIX + "invalidation.requestsCollapsed", invalidationStats.getRequestsCollapsedCount()));
+
+		final Map<String, CCacheStatsAggregate> aggregatesByName = new TreeMap<>();
+		for (final CCacheStats stats : cacheMgt.getCacheStats())
+		{
+			aggregatesByName.computeIfAbsent(stats.getName(), name -> new CCacheStatsAggregate()).add(stats);
+		}
+		aggregatesByName.forEach((name, aggregate) -> aggregate.addMetrics(metrics, PREFIX + name + "."));
+
+		return metrics;
+	}
+
+	private static final class CCacheStatsAggregate
+	{
+		private long size = 0;
+		private long estimatedWeightBytes = 0;
+		private long hitCount = 0;
+		private long missCount = 0;
+		private long totalLoadTimeMillis = 0;
+		private long evictionCount = 0;
+
+		public void add(final CCacheStats stats)
+		{
+			size += stats.getSize();
+			estimatedWeightBytes += stats.getEstimatedWeightBytes();
+			hitCount += stats.getHitCount();
+			missCount += stats.getMissCount();
+			totalLoadTimeMillis += stats.getTotalLoadTimeMillis();
+			evictionCount += stats.getEvictionCount();
+		}
+
+		public void addMetrics(final List<Metric<?>> metrics, final String prefix)
+		{
+			metrics.add(new Metric<>(prefix + "size", size));
+			metrics.add(new Metric<>(prefix + "estimatedWeightBytes", estimatedWeightBytes));
+			metrics.add(new Metric<>(prefix + "hit", hitCount));
+			metrics.add(new Metric<>(prefix + "miss", missCount));
+			metrics.add(new Metric<>(prefix + "loadTimeMillis", totalLoadTimeMillis));
+			metrics.add(new Metric<>(prefix + "evictions", evictionCount));
+		}
+	}
+}
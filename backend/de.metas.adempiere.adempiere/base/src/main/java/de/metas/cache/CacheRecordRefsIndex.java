@@ -0,0 +1,86 @@
+package de.metas.cache;
+
+import java.util.Collection;
+import java.util.Set;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.SetMultimap;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Reverse index from {@link TableRecordReference} to the cache keys which depend on that record.
+ * <p>
+ * The index is maintained by {@link CCache} when entries are added and removed.
+ * It may temporarily contain more keys than needed (e.g. for replaced entries), which only leads to invalidating a few more entries than strictly required,
+ * but it never misses a key which is in cache.
+ */
+final class CacheRecordRefsIndex<K>
+{
+	// NOTE: following maps shall be accessed from synchronized blocks
+	private final SetMultimap<TableRecordReference, K> keysByRecordRef = HashMultimap.create();
+	private final SetMultimap<K, TableRecordReference> recordRefsByKey = HashMultimap.create();
+
+	@Override
+	public synchronized String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("recordRefsCount", keysByRecordRef.keySet().size())
+				.add("keysCount", recordRefsByKey.keySet().size())
+				.toString();
+	}
+
+	public synchronized void add(@NonNull final K key, @NonNull final Collection<TableRecordReference> recordRefs)
+	{
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			keysByRecordRef.put(recordRef, key);
+			recordRefsByKey.put(key, recordRef);
+		}
+	}
+
+	public synchronized void remove(@NonNull final K key)
+	{
+		final Set<TableRecordReference> recordRefs = recordRefsByKey.removeAll(key);
+		for (final TableRecordReference recordRef : recordRefs)
+		{
+			keysByRecordRef.remove(recordRef, key);
+		}
+	}
+
+	public synchronized ImmutableSet<K> getKeys(@NonNull final TableRecordReference recordRef)
+	{
+		return ImmutableSet.copyOf(keysByRecordRef.get(recordRef));
+	}
+
+	public synchronized int size()
+	{
+		return keysByRecordRef.size();
+	}
+}
@@ -47,7 +47,12 @@ public class IDCache<V> extends CCache<Object, V>
 				initialCapacity,
 				expireMinutes,
 				cacheMapType,
+				null, // maximumSize
+				null, // maximumWeightBytes
+				(CacheEntryWeigher<Object, V>)null,
+				null, // refreshAheadMinutes
 				KEYS_MAPPER,
+				(CacheEntryRecordRefsExtractor<Object, V>)null,
 				(CacheRemovalListener<Object, V>)null,
 				(CacheAdditionListener<Object, V>)null);
 
@@ -1,11 +1,13 @@
 package de.metas.cache;
 
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Set;
 
 import org.adempiere.util.jmx.IJMXNameAware;
 import org.slf4j.Logger;
 
+import de.metas.cache.CCache.CCacheStats;
 import de.metas.logging.LogManager;
 
 /**
@@ -101,4 +103,50 @@ public class JMXCacheMgt implements JMXCacheMgtMBean, IJMXNameAware
 		return getCacheMgt().reset(tableName, recordId);
 	}
 
+	@Override
+	public String[] getCacheStats()
+	{
+		return getCacheMgt()
+				.getCacheStats()
+				.stream()
+				.sorted(Comparator.comparing(CCacheStats::getEstimatedWeightBytes).reversed())
+				.map(CCacheStats::toString)
+				.toArray(size -> new String[size]);
+	}
+
+	@Override
+	public long getEstimatedTotalWeightBytes()
+	{
+		return getCacheMgt().getEstimatedTotalWeightBytes();
+	}
+
+	@Override
+	public long getHeapBudgetBytes()
+	{
+		return getCacheMgt().getHeapBudgetBytes();
+	}
+
+	@Override
+	public void setHeapBudgetBytes(final long heapBudgetBytes)
+	{
+		getCacheMgt().setHeapBudgetBytes(heapBudgetBytes);
+	}
+
+	@Override
+	public long getHeapBudgetEvictionCount()
+	{
+		return getCacheMgt().getHeapBudgetEvictionCount();
+	}
+
+	@Override
+	public long enforceHeapBudget()
+	{
+		return getCacheMgt().enforceHeapBudget();
+	}
+
+	@Override
+	public String getInvalidationStats()
+	{
+		return getCacheMgt().getInvalidationStats().toString();
+	}
 }
@@ -25,4 +25,18 @@ public interface JMXCacheMgtMBean
 	long resetForTable(String tableName);
 
 	long resetForRecordId(String tableName, int recordId);
+
+	String[] getCacheStats();
+
+	long getEstimatedTotalWeightBytes();
+
+	long getHeapBudgetBytes();
+
+	void setHeapBudgetBytes(long heapBudgetBytes);
+
+	long getHeapBudgetEvictionCount();
+
+	long enforceHeapBudget();
+
+	String getInvalidationStats();
 }
@@ -1,6 +1,9 @@
 package de.metas.cache.model;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Function;
@@ -216,6 +219,71 @@ public class CacheInvalidateMultiRequest
 				.collect(TableRecordReferenceSet.collect());
 	}
 
+	/**
+	 * Replaces the record level requests with table level requests ("all records") for those tables which
+	 * <ul>
+	 * <li>have more than <code>maxRecordsPerTable</code> record level requests
+	 * <li>or which are anyways fully invalidated by an "all records" request which is part of this multi request.
+	 * </ul>
+	 * Only requests without a child table are collapsed, because resetting a child record also resets its root record.
+	 *
+	 * @return collapsed multi request or <code>this</code> if there was nothing to collapse
+	 */
+	public CacheInvalidateMultiRequest collapseRecordsToTables(final int maxRecordsPerTable)
+	{
+		if (isResetAll())
+		{
+			return ALL;
+		}
+
+		final Set<String> tableNamesToCollapse = new HashSet<>();
+		final Map<String, Integer> recordsCountByTableName = new HashMap<>();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (request.getChildTableName() != null)
+			{
+				continue;
+			}
+
+			final String tableName = request.getRootTableName();
+			if (request.isAllRecords())
+			{
+				tableNamesToCollapse.add(tableName);
+			}
+			else
+			{
+				final int recordsCount = recordsCountByTableName.merge(tableName, 1, Integer::sum);
+				if (maxRecordsPerTable > 0 && recordsCount > maxRecordsPerTable)
+				{
+					tableNamesToCollapse.add(tableName);
+				}
+			}
+		}
+
+		if (tableNamesToCollapse.isEmpty())
+		{
+			return this;
+		}
+
+		final ImmutableSet.Builder<CacheInvalidateRequest> collapsedRequests = ImmutableSet.builder();
+		for (final CacheInvalidateRequest request : requests)
+		{
+			if (request.getChildTableName() == null && tableNamesToCollapse.contains(request.getRootTableName()))
+			{
+				continue;
+			}
+			collapsedRequests.add(request);
+		}
+		tableNamesToCollapse.stream()
+				.map(CacheInvalidateRequest::allRecordsForTable)
+				.forEach(collapsedRequests::add);
+
+		final ImmutableSet<CacheInvalidateRequest> collapsedRequestsSet = collapsedRequests.build();
+		return collapsedRequestsSet.size() != requests.size()
+				? new CacheInvalidateMultiRequest(collapsedRequestsSet)
+				: this;
+	}
+
 	public TableRecordReferenceSet getRootRecords()
 	{
 		return requests.stream()
@@ -0,0 +1,124 @@
+package de.metas.document.sequence.impl;
+
+import java.util.function.IntUnaryOperator;
+
+import javax.annotation.Nullable;
+
+import org.compiere.model.I_AD_Sequence;
+
+import de.metas.cache.CCache;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Hands out document sequence numbers from blocks which were reserved in advance, so that the <code>AD_Sequence</code> (resp. <code>AD_Sequence_No</code>) row
+ * is locked and updated only once per block instead of once per document number.
+ * <p>
+ * The blocks are held in memory, per node. So numbers which were reserved but not used (e.g. because the node was restarted or the cache was reset)
+ * are lost and the numbers of different nodes are interleaved. That's why this shall be used only for sequences which are tolerating gaps.
+ */
+final class DocumentNoBlockAllocator
+{
+	public static final DocumentNoBlockAllocator instance = new DocumentNoBlockAllocator();
+
+	/** Reset when an AD_Sequence is changed, so that e.g. a manually changed CurrentNext is considered */
+	private final CCache<BlockKey, Block> blocks = CCache.newCache(I_AD_Sequence.Table_Name + "#DocumentNoBlocks", 10, CCache.EXPIREMINUTES_Never);
+
+	private DocumentNoBlockAllocator()
+	{
+	}
+
+	/**
+	 * @param blockSize how many numbers to reserve at once
+	 * @param blockReserver function which gets the total increment (i.e. <code>incrementNo * blockSize</code>) and which increments the sequence in database,
+	 *            returning the first number of the reserved block
+	 * @return next sequence number
+	 */
+	public int next(
+			@NonNull final BlockKey key,
+			final int incrementNo,
+			final int blockSize,
+			@NonNull final IntUnaryOperator blockReserver)
+	{
+		final Block block = blocks.getOrLoad(key, k -> new Block());
+		return block.next(incrementNo, blockSize, blockReserver);
+	}
+
+	/**
+	 * @return the number which will be returned by the next {@link #next(BlockKey, int, int, IntUnaryOperator)} call, or <code>null</code> if a new block has to be reserved first
+	 */
+	@Nullable
+	public Integer peek(@NonNull final BlockKey key)
+	{
+		final Block block = blocks.get(key);
+		return block != null ? block.peek() : null;
+	}
+
+	/** Needed for unit tests */
+	void reset()
+	{
+		blocks.reset();
+	}
+
+	@Value
+	static class BlockKey
+	{
+		int adSequenceId;
+		boolean adempiereSys;
+
+		/** Set if the sequence is restarted each year, i.e. it's an <code>AD_Sequence_No</code> based one */
+		@Nullable
+		String calendarYear;
+	}
+
+	private static final class Block
+	{
+		private int nextNo;
+		private int remaining = 0;
+		private int incrementNo;
+
+		public synchronized int next(final int incrementNo, final int blockSize, final IntUnaryOperator blockReserver)
+		{
+			if (remaining <= 0 || this.incrementNo != incrementNo)
+			{
+				final int blockSizeNorm = Math.max(blockSize, 1);
+				nextNo = blockReserver.applyAsInt(incrementNo * blockSizeNorm);
+				remaining = blockSizeNorm;
+				this.incrementNo = incrementNo;
+			}
+
+			final int result = nextNo;
+			nextNo += incrementNo;
+			remaining--;
+			return result;
+		}
+
+		@Nullable
+		public synchronized Integer peek()
+		{
+			return remaining > 0 ? nextNo : null;
+		}
+	}
+}
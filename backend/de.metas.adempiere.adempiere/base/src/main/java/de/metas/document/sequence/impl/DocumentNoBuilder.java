@@ -12,6 +12,7 @@ import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.model.InterfaceWrapperHelper;
 import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IMutable;
 import org.adempiere.util.lang.Mutable;
 import org.compiere.model.I_C_DocType;
@@ -31,6 +32,7 @@ import de.metas.document.IDocumentSequenceDAO;
 import de.metas.document.sequence.DocSequenceId;
 import de.metas.document.sequence.IDocumentNoBuilder;
 import de.metas.document.sequence.IDocumentNoBuilderFactory;
+import de.metas.document.sequence.impl.DocumentNoBlockAllocator.BlockKey;
 import de.metas.document.sequenceno.CustomSequenceNoProvider;
 import de.metas.i18n.AdMessageKey;
 import de.metas.i18n.IMsgBL;
@@ -58,6 +60,14 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private static final AdMessageKey MSG_PROVIDER_NOT_APPLICABLE = AdMessageKey.of("de.metas.document.CustomSequenceNotProviderNoApplicable");
 
+	/**
+	 * Prefix of the per AD_Sequence_ID sysconfig which tells how many sequence numbers shall be reserved at once.
+	 * Shall be set to a value greater than one only for sequences which may have gaps (i.e. not the legally gapless ones); default is one, i.e. strict mode.
+	 *
+	 * @see DocumentNoBlockAllocator
+	 */
+	static final String SYSCONFIG_BlockSize_Prefix = "de.metas.document.sequence.DocumentNoBuilder.BlockSize.AD_Sequence_ID_";
+
 	private static final int QUERY_TIME_OUT = MSequence.QUERY_TIME_OUT;
 	private static final transient SimpleDateFormatThreadLocal DATEFORMAT_CalendarYear = new SimpleDateFormatThreadLocal("yyyy");
 
@@ -275,6 +285,39 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 	}
 
 	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		final int blockSize = getBlockSize(docSeqInfo);
+		if (blockSize <= 1)
+		{
+			return retrieveAndIncrementSequenceCurrentNext(docSeqInfo, docSeqInfo.getIncrementNo());
+		}
+
+		return DocumentNoBlockAllocator.instance.next(
+				createBlockKey(docSeqInfo),
+				docSeqInfo.getIncrementNo(),
+				blockSize,
+				totalIncrement -> retrieveAndIncrementSequenceCurrentNext(docSeqInfo, totalIncrement));
+	}
+
+	private int getBlockSize(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		return sysConfigBL.getIntValue(SYSCONFIG_BlockSize_Prefix + docSeqInfo.getAdSequenceId(), 1, getClientId().getRepoId());
+	}
+
+	private BlockKey createBlockKey(@NonNull final DocumentSequenceInfo docSeqInfo)
+	{
+		final boolean adempiereSys = isAdempiereSys();
+		final String calendarYear = !adempiereSys && docSeqInfo.isStartNewYear() ? getCalendarYear(docSeqInfo.getDateColumn()) : null;
+		return new BlockKey(docSeqInfo.getAdSequenceId(), adempiereSys, calendarYear);
+	}
+
+	/**
+	 * Increments the sequence in database by given <code>increment</code>
+	 *
+	 * @return the sequence number before incrementing
+	 */
+	private int retrieveAndIncrementSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo, final int increment)
 	{
 		final String trxName = getTrxName();
 		final List<Object> sqlParams = new ArrayList<>();
@@ -282,27 +325,27 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 		if (isAdempiereSys())
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNextSys = CurrentNextSys + ? WHERE AD_Sequence_ID=? RETURNING CurrentNextSys - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 		else if (docSeqInfo.isStartNewYear())
 		{
 			final String calendarYear = getCalendarYear(docSeqInfo.getDateColumn());
 
 			sql = "UPDATE AD_Sequence_No SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? AND CalendarYear = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
 			sqlParams.add(calendarYear);
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 
 		}
 		else
 		{
 			sql = "UPDATE AD_Sequence SET CurrentNext = CurrentNext + ? WHERE AD_Sequence_ID = ? RETURNING CurrentNext - ?";
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 			sqlParams.add(docSeqInfo.getAdSequenceId());
-			sqlParams.add(docSeqInfo.getIncrementNo());
+			sqlParams.add(increment);
 		}
 
 		final IMutable<Integer> currentSeq = new Mutable<>(-1);
@@ -317,6 +360,16 @@ class DocumentNoBuilder implements IDocumentNoBuilder
 
 	private int retrieveSequenceCurrentNext(@NonNull final DocumentSequenceInfo docSeqInfo)
 	{
+		// In case the numbers are allocated in blocks, the next number might be already reserved in memory
+		if (getBlockSize(docSeqInfo) > 1)
+		{
+			final Integer nextNoFromBlock = DocumentNoBlockAllocator.instance.peek(createBlockKey(docSeqInfo));
+			if (nextNoFromBlock != null)
+			{
+				return nextNoFromBlock;
+			}
+		}
+
 		final int adSequenceId = docSeqInfo.getAdSequenceId();
 		final String trxName = getTrxName();
 
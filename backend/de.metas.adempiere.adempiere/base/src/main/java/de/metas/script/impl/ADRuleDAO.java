@@ -6,8 +6,11 @@ import java.util.Properties;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_AD_Rule;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
 import de.metas.script.IADRuleDAO;
 import de.metas.util.Services;
@@ -37,8 +40,16 @@ import de.metas.util.Services;
 public class ADRuleDAO implements IADRuleDAO
 {
 	/** Cache by AD_Rule_ID */
-	private static CCache<Integer, I_AD_Rule> s_cacheById = new CCache<>(I_AD_Rule.Table_Name + "#by#AD_Rule_ID", 20);
-	private static CCache<String, I_AD_Rule> s_cacheByValue = new CCache<>(I_AD_Rule.Table_Name + "#by#Value", 20);
+	private static CCache<Integer, I_AD_Rule> s_cacheById = CCache.<Integer, I_AD_Rule> builder()
+			.cacheName(I_AD_Rule.Table_Name + "#by#AD_Rule_ID")
+			.initialCapacity(20)
+			.recordRefsExtractor((ruleId, rule) -> ImmutableList.of(TableRecordReference.of(rule)))
+			.build();
+	private static CCache<String, I_AD_Rule> s_cacheByValue = CCache.<String, I_AD_Rule> builder()
+			.cacheName(I_AD_Rule.Table_Name + "#by#Value")
+			.initialCapacity(20)
+			.recordRefsExtractor((value, rule) -> ImmutableList.of(TableRecordReference.of(rule)))
+			.build();
 
 	@Override
 	public I_AD_Rule retrieveById(final Properties ctx, final int AD_Rule_ID)
@@ -8,12 +8,15 @@ import java.net.URL;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.model.InterfaceWrapperHelper;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.compiere.model.I_AD_Color;
 import org.compiere.model.MImage;
 import org.compiere.model.X_AD_Color;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
 import de.metas.logging.LogManager;
 import de.metas.util.ColorId;
@@ -50,7 +53,12 @@ public class ColorRepository implements IColorRepository
 	private static final Logger logger = LogManager.getLogger(ColorRepository.class);
 
 	private static final CCache<Integer, MFColor> colorValuesById = CCache.<Integer, MFColor> newCache(I_AD_Color.Table_Name, 20, CCache.EXPIREMINUTES_Never);
-	private static final CCache<String, ColorId> colorIdByName = CCache.<String, ColorId> newCache(I_AD_Color.Table_Name + "#by#Name", 10, CCache.EXPIREMINUTES_Never);
+	private static final CCache<String, ColorId> colorIdByName = CCache.<String, ColorId> builder()
+			.cacheName(I_AD_Color.Table_Name + "#by#Name")
+			.initialCapacity(10)
+			.expireMinutes(CCache.EXPIREMINUTES_Never)
+			.recordRefsExtractor((name, colorId) -> ImmutableList.of(TableRecordReference.of(I_AD_Color.Table_Name, colorId)))
+			.build();
 
 	@Override
 	public MFColor getColorById(final int adColorId)
@@ -0,0 +1,73 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package org.adempiere.ad.dao;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+
+import javax.annotation.Nullable;
+
+/**
+ * One row of a projection query (see {@link org.compiere.model.IQuery#streamProjectionWithCursor(java.util.function.Function, String...)}).
+ * <p>
+ * Only the columns which were requested when creating the projection can be accessed.
+ * An instance might be reused for the next row, so don't keep a reference to it outside of your row mapper.
+ */
+public interface IQueryRow
+{
+	/**
+	 * @param valueType the type to convert the value to; {@link Integer}, {@link BigDecimal}, {@link Timestamp}, {@link Boolean} and {@link String} are supported
+	 */
+	@Nullable
+	<V> V getValue(String columnName, Class<V> valueType);
+
+	default int getInt(final String columnName)
+	{
+		final Integer value = getValue(columnName, Integer.class);
+		return value != null ? value : 0;
+	}
+
+	@Nullable
+	default BigDecimal getBigDecimal(final String columnName)
+	{
+		return getValue(columnName, BigDecimal.class);
+	}
+
+	@Nullable
+	default String getString(final String columnName)
+	{
+		return getValue(columnName, String.class);
+	}
+
+	@Nullable
+	default Timestamp getTimestamp(final String columnName)
+	{
+		return getValue(columnName, Timestamp.class);
+	}
+
+	default boolean getBoolean(final String columnName)
+	{
+		final Boolean value = getValue(columnName, Boolean.class);
+		return value != null && value;
+	}
+}
@@ -38,12 +38,15 @@ import java.util.Set;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 import org.adempiere.ad.dao.ICompositeQueryFilter;
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.IQueryInsertExecutor.QueryInsertExecutorResult;
 import org.adempiere.ad.dao.IQueryOrderBy;
+import org.adempiere.ad.dao.IQueryRow;
 import org.adempiere.ad.dao.IQueryUpdater;
 import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.ad.trx.api.ITrx;
@@ -56,6 +59,7 @@ import org.compiere.util.DB;
 import org.compiere.util.Env;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 
 import de.metas.dao.selection.pagination.PageDescriptor;
@@ -65,6 +69,7 @@ import de.metas.process.PInstanceId;
 import de.metas.security.permissions.Access;
 import de.metas.util.Check;
 import de.metas.util.Services;
+import de.metas.util.StringUtils;
 import de.metas.util.lang.UIDStringUtil;
 import de.metas.util.time.SystemTime;
 import lombok.NonNull;
@@ -873,6 +878,83 @@ public class POJOQuery<T> extends AbstractTypedQuery<T>
 		return new ArrayList<>(result);
 	}
 
+	@Override
+	public <ET extends T> Stream<ET> streamWithCursor(final Class<ET> clazz) throws DBException
+	{
+		return stream(clazz);
+	}
+
+	@Override
+	public <R> Stream<R> streamProjectionWithCursor(@NonNull final Function<IQueryRow, R> rowMapper, final String... columnNames) throws DBException
+	{
+		Check.assumeNotEmpty(columnNames, "columnNames not empty");
+
+		final ModelQueryRow row = new ModelQueryRow(ImmutableSet.copyOf(columnNames));
+		return list()
+				.stream()
+				.map(record -> rowMapper.apply(row.setRecord(record)));
+	}
+
+	/**
+	 * {@link IQueryRow} which is backed by a (POJO) record.
+	 */
+	private static final class ModelQueryRow implements IQueryRow
+	{
+		private final ImmutableSet<String> columnNames;
+		private Object record;
+
+		private ModelQueryRow(final ImmutableSet<String> columnNames)
+		{
+			this.columnNames = columnNames;
+		}
+
+		private ModelQueryRow setRecord(final Object record)
+		{
+			this.record = record;
+			return this;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public <V> V getValue(@NonNull final String columnName, @NonNull final Class<V> valueType)
+		{
+			if (!columnNames.contains(columnName))
+			{
+				throw new AdempiereException("Column " + columnName + " is not part of the projection " + columnNames);
+			}
+
+			final Object value = InterfaceWrapperHelper.getValue(record, columnName).orElse(null);
+			if (value == null || valueType.isInstance(value))
+			{
+				return (V)value;
+			}
+			else if (valueType.equals(Integer.class) && value instanceof Number)
+			{
+				return (V)Integer.valueOf(((Number)value).intValue());
+			}
+			else if (valueType.equals(BigDecimal.class) && value instanceof Number)
+			{
+				return (V)new BigDecimal(value.toString());
+			}
+			else if (valueType.equals(Timestamp.class) && value instanceof java.util.Date)
+			{
+				return (V)new Timestamp(((java.util.Date)value).getTime());
+			}
+			else if (valueType.equals(Boolean.class))
+			{
+				return (V)StringUtils.toBoolean(value, Boolean.FALSE);
+			}
+			else if (valueType.equals(String.class))
+			{
+				return (V)value.toString();
+			}
+			else
+			{
+				throw new AdempiereException("Cannot convert value '" + value + "' of column " + columnName + " to " + valueType);
+			}
+		}
+	}
+
 	@Override
 	public final <AT> List<AT> listDistinct(final String columnName, final Class<AT> valueType)
 	{
@@ -0,0 +1,232 @@
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package org.adempiere.ad.dao.impl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.exceptions.DBException;
+import org.compiere.util.DB;
+import org.compiere.util.DB.ResultSetRowLoader;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/**
+ * Iterates a forward-only JDBC cursor which is running in its own read-only connection and transaction.
+ * <p>
+ * The database resources are released as soon as the cursor is exhausted, on the first error or when {@link #close()} is called, whichever comes first.
+ */
+final class SqlCursorIterator<R> implements Iterator<R>, AutoCloseable
+{
+	private static final Logger logger = LogManager.getLogger(SqlCursorIterator.class);
+
+	/**
+	 * Executes given SQL and returns a lazy stream of its rows.
+	 * The stream shall be closed by the caller; closing it releases the underlying database resources.
+	 */
+	public static <R> Stream<R> stream(
+			@NonNull final String sql,
+			@Nullable final List<Object> sqlParams,
+			final int fetchSize,
+			@NonNull final ResultSetRowLoader<R> rowLoader)
+	{
+		final SqlCursorIterator<R> iterator = open(sql, sqlParams, fetchSize, rowLoader);
+
+		final boolean parallel = false;
+		return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), parallel)
+				.onClose(iterator::close);
+	}
+
+	private static <R> SqlCursorIterator<R> open(
+			final String sql,
+			final List<Object> sqlParams,
+			final int fetchSize,
+			final ResultSetRowLoader<R> rowLoader)
+	{
+		Connection conn = null;
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			// NOTE: postgresql-jdbc is using a cursor (i.e. respects the fetch size) only if autoCommit is false and the result set is forward only
+			conn = DB.createConnection(false, Connection.TRANSACTION_READ_COMMITTED);
+			conn.setReadOnly(true);
+
+			pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			pstmt.setFetchSize(fetchSize);
+			DB.setParameters(pstmt, sqlParams);
+
+			rs = pstmt.executeQuery();
+
+			return new SqlCursorIterator<>(conn, pstmt, rs, rowLoader, sql, sqlParams);
+		}
+		catch (final SQLException ex)
+		{
+			closeQuietly(conn, pstmt, rs);
+			throw new DBException(ex, sql, sqlParams);
+		}
+	}
+
+	private final String sql;
+	private final List<Object> sqlParams;
+	private final ResultSetRowLoader<R> rowLoader;
+
+	private Connection conn;
+	private PreparedStatement pstmt;
+	private ResultSet rs;
+
+	private R nextRow;
+	private boolean closed = false;
+
+	private SqlCursorIterator(
+			@NonNull final Connection conn,
+			@NonNull final PreparedStatement pstmt,
+			@NonNull final ResultSet rs,
+			@NonNull final ResultSetRowLoader<R> rowLoader,
+			@NonNull final String sql,
+			@Nullable final List<Object> sqlParams)
+	{
+		this.conn = conn;
+		this.pstmt = pstmt;
+		this.rs = rs;
+		this.rowLoader = rowLoader;
+		this.sql = sql;
+		this.sqlParams = sqlParams;
+	}
+
+	@Override
+	public boolean hasNext()
+	{
+		if (nextRow != null)
+		{
+			return true;
+		}
+		if (closed)
+		{
+			return false;
+		}
+
+		nextRow = fetchNextRow();
+		return nextRow != null;
+	}
+
+	@Override
+	public R next()
+	{
+		if (!hasNext())
+		{
+			throw new NoSuchElementException();
+		}
+
+		final R row = nextRow;
+		nextRow = null;
+		return row;
+	}
+
+	@Nullable
+	private R fetchNextRow()
+	{
+		try
+		{
+			while (rs.next())
+			{
+				final R row = rowLoader.retrieveRowOrNull(rs);
+				if (row != null)
+				{
+					return row;
+				}
+			}
+
+			close();
+			return null;
+		}
+		catch (final SQLException ex)
+		{
+			close();
+			throw new DBException(ex, sql, sqlParams);
+		}
+		catch (final RuntimeException ex)
+		{
+			close();
+			throw ex;
+		}
+	}
+
+	@Override
+	public void close()
+	{
+		if (closed)
+		{
+			return;
+		}
+		closed = true;
+
+		closeQuietly(conn, pstmt, rs);
+		conn = null;
+		pstmt = null;
+		rs = null;
+	}
+
+	private static void closeQuietly(
+			@Nullable final Connection conn,
+			@Nullable final PreparedStatement pstmt,
+			@Nullable final ResultSet rs)
+	{
+		DB.close(rs, pstmt);
+
+		if (conn != null)
+		{
+			try
+			{
+				// nothing was changed, but we don't want to leave an open transaction behind;
+				// also reset the read-only flag, because the connection is returned to the pool
+				conn.rollback();
+				conn.setReadOnly(false);
+			}
+			catch (final SQLException ex)
+			{
+				logger.warn("Failed resetting the cursor's connection. Ignored.", ex);
+			}
+			DB.close(conn);
+		}
+	}
+
+	@Override
+	public String toString()
+	{
+		return "SqlCursorIterator[closed=" + closed + ", sql=" + sql + "]";
+	}
+}
@@ -65,12 +65,14 @@ import org.compiere.Adempiere;
 import org.compiere.model.GridField;
 import org.compiere.model.GridTab;
 import org.compiere.model.PO;
+import org.compiere.model.POBatchSaver;
 import org.compiere.model.POInfo;
 import org.compiere.util.Env;
 import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -593,6 +595,44 @@ public class InterfaceWrapperHelper
 		models.forEach(InterfaceWrapperHelper::saveRecord);
 	}
 
+	/**
+	 * Like {@link #saveAll(Collection)}, but PO based models are saved using {@link POBatchSaver}, i.e. with JDBC batches and preallocated IDs.
+	 * <p>
+	 * <b>Note:</b> the "before save" handlers and model interceptors are called for all models of a table before any of them is written to database,
+	 * and the "after save" ones after all of them were written. See {@link POBatchSaver} for details.
+	 * <p>
+	 * All other models are saved one by one, the same way {@link #save(Object)} does it.
+	 * The given order is preserved, i.e. the PO based models which are given before another model are saved before it.
+	 */
+	public static void saveAllInBatch(@NonNull final Collection<?> models)
+	{
+		if (models.isEmpty())
+		{
+			return;
+		}
+
+		final List<PO> pos = new ArrayList<>(models.size());
+		for (final Object model : models)
+		{
+			final Object modelToSave = extractModelToSave(model);
+			final PO po = modelToSave != null && !GridTabWrapper.isHandled(modelToSave) ? POWrapper.getStrictPO(modelToSave) : null;
+			if (po != null)
+			{
+				pos.add(po);
+			}
+			else
+			{
+				// save the POs given so far first
+				POBatchSaver.saveAll(pos);
+				pos.clear();
+
+				save(model);
+			}
+		}
+
+		POBatchSaver.saveAll(pos);
+	}
+
 	/**
 	 * Does the same as {@link #save(Object)},
 	 * but this method can be static-imported into repository implementations which usually have their own method named "save()".
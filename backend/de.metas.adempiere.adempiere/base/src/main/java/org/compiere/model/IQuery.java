@@ -42,6 +42,7 @@ import org.adempiere.ad.dao.ICompositeQueryUpdaterExecutor;
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.IQueryInsertExecutor;
 import org.adempiere.ad.dao.IQueryOrderBy;
+import org.adempiere.ad.dao.IQueryRow;
 import org.adempiere.ad.dao.IQueryUpdater;
 import org.adempiere.ad.dao.ISqlQueryUpdater;
 import org.adempiere.ad.dao.QueryLimit;
@@ -83,6 +84,19 @@ public interface IQuery<T>
 	 */
 	String OPTION_ReturnReadOnlyRecords = "ReturnReadOnlyRecords";
 
+	/**
+	 * How many rows shall be fetched from the database at a time, when streaming with a cursor.
+	 *
+	 * @see #streamWithCursor(Class)
+	 * @see #streamProjectionWithCursor(Function, String...)
+	 */
+	String OPTION_CursorFetchSize = "CursorFetchSize";
+
+	/**
+	 * Default value for {@link #OPTION_CursorFetchSize}.
+	 */
+	int DEFAULT_OPTION_CursorFetchSize = 1000;
+
 	/**
 	 * Default value for {@link #OPTION_GuaranteedIteratorRequired}.
 	 * <p>
@@ -639,4 +653,43 @@ public interface IQuery<T>
 	{
 		return list(clazz).stream();
 	}
+
+	/**
+	 * Return a stream of all records that match the query criteria, which are lazily fetched from a database cursor, {@link #OPTION_CursorFetchSize} rows at a time.
+	 * <p>
+	 * Unlike {@link #stream()} the records are not loaded upfront, so this is the way to go when processing a huge number of records.
+	 * The cursor is running in its own read-only database transaction.
+	 * <p>
+	 * IMPORTANT: the stream holds a database connection until it is fully consumed or closed, so please use it in a try-with-resources block.
+	 */
+	default Stream<T> streamWithCursor() throws DBException
+	{
+		return streamWithCursor(getModelClass());
+	}
+
+	/**
+	 * Same as {@link #streamWithCursor()}, but the records are converted to given interface.
+	 */
+	<ET extends T> Stream<ET> streamWithCursor(Class<ET> clazz) throws DBException;
+
+	/**
+	 * Fetches only the given columns of the records that match the query criteria and maps them using given <code>rowMapper</code>, without loading the actual records.
+	 * <p>
+	 * Rows are lazily fetched from a database cursor, like {@link #streamWithCursor()} does, so please use it in a try-with-resources block.
+	 *
+	 * @param rowMapper maps a row to the result; returning <code>null</code> is not allowed
+	 * @param columnNames the columns which shall be fetched; only those can be accessed in the row mapper.
+	 */
+	<R> Stream<R> streamProjectionWithCursor(Function<IQueryRow, R> rowMapper, String... columnNames) throws DBException;
+
+	/**
+	 * Same as {@link #streamProjectionWithCursor(Function, String...)}, but collects the results into a list.
+	 */
+	default <R> List<R> listProjection(@NonNull final Function<IQueryRow, R> rowMapper, final String... columnNames) throws DBException
+	{
+		try (final Stream<R> stream = streamProjectionWithCursor(rowMapper, columnNames))
+		{
+			return stream.collect(ImmutableList.toImmutableList());
+		}
+	}
 }
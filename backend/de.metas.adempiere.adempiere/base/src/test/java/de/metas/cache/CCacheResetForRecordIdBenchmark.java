@@ -0,0 +1,98 @@
+package de.metas.cache;
+
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.util.lang.impl.TableRecordReference;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Manual benchmark which compares record level invalidation of
+ * <ul>
+ * <li>a big {@link IDCache} (keys mapper)
+ * <li>a big cache without keys mapper (the whole cache is reset on each record invalidation)
+ * <li>a big cache with a record refs index (only the affected entries are removed)
+ * </ul>
+ * Run it manually from your IDE.
+ */
+@Ignore("benchmark; run manually")
+public class CCacheResetForRecordIdBenchmark
+{
+	private static final String TABLE_NAME = "M_Product";
+	private static final int CACHE_SIZE = 100_000;
+	private static final int RECORDS_TO_INVALIDATE = 1_000;
+
+	@Test
+	public void run()
+	{
+		for (int round = 1; round <= 3; round++)
+		{
+			System.out.println("Round " + round);
+			benchmark("IDCache (keys mapper)", new IDCache<>(TABLE_NAME, null, CACHE_SIZE, 0));
+			benchmark("CCache (no keys mapper)", CCache.<Object, String> builder()
+					.tableName(TABLE_NAME)
+					.initialCapacity(CACHE_SIZE)
+					.build());
+			benchmark("CCache (record refs index)", CCache.<Object, String> builder()
+					.tableName(TABLE_NAME)
+					.initialCapacity(CACHE_SIZE)
+					.recordRefsExtractor((key, value) -> ImmutableList.of(TableRecordReference.of(TABLE_NAME, (Integer)key)))
+					.build());
+		}
+	}
+
+	private static void benchmark(final String name, final CCache<Object, String> cache)
+	{
+		long missesAfterInvalidation = 0;
+		final Stopwatch stopwatch = Stopwatch.createUnstarted();
+		for (int i = 1; i <= RECORDS_TO_INVALIDATE; i++)
+		{
+			if (cache.size() < CACHE_SIZE)
+			{
+				fill(cache);
+			}
+
+			stopwatch.start();
+			cache.resetForRecordId(TableRecordReference.of(TABLE_NAME, i));
+			stopwatch.stop();
+
+			missesAfterInvalidation += CACHE_SIZE - cache.size();
+		}
+
+		System.out.println(name + ": " + RECORDS_TO_INVALIDATE + " invalidations took " + stopwatch.elapsed(TimeUnit.MILLISECONDS) + "ms"
+				+ ", entries to be reloaded: " + missesAfterInvalidation);
+	}
+
+	private static void fill(final CCache<Object, String> cache)
+	{
+		for (int id = 1; id <= CACHE_SIZE; id++)
+		{
+			cache.put(id, "value" + id);
+		}
+	}
+}
@@ -24,14 +24,24 @@ import static org.assertj.core.api.Assertions.assertThat;
  * #L%
  */
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.function.Supplier;
 
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.junit.Assert;
 import org.junit.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 public class CCacheTest
@@ -244,4 +254,223 @@ public class CCacheTest
 		cache.remove("k1");
 		assertThat(removedItems).containsEntry("k1", "v1");
 	}
+
+	@Test
+	public void test_weightBounded_evictsWhenMaximumWeightIsExceeded()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.cacheMapType(CCache.CacheMapType.LRU)
+				.maximumWeightBytes(1000L)
+				.weigher((key, value) -> 100)
+				.build();
+
+		for (int i = 1; i <= 50; i++)
+		{
+			cache.put("key" + i, "value" + i);
+		}
+
+		assertThat(cache.size()).isLessThanOrEqualTo(10);
+		assertThat(cache.getEstimatedWeightBytes()).isLessThanOrEqualTo(1000L);
+		assertThat(cache.stats().getEvictionCount()).isGreaterThanOrEqualTo(40);
+	}
+
+	@Test
+	public void test_weightBounded_weightIsTrackedOnRemove()
+	{
+		final CCache<String, String> cache = CCache.<String, String> builder()
+				.maximumWeightBytes(1_000_000L)
+				.weigher((key, value) -> value.length())
+				.build();
+
+		cache.put("k1", "12345");
+		cache.put("k2", "123");
+		assertThat(cache.getEstimatedWeightBytes()).isEqualTo(8);
+
+		cache.remove("k1");
+		assertThat(cache.getEstimatedWeightBytes()).isEqualTo(3);
+
+		cache.put("k2", "1");
+		assertThat(cache.getEstimatedWeightBytes()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_stats_hitsAndMisses()
+	{
+		final CCache<String, String> cache = new CCache<>("Test", 10);
+		cache.getOrLoad("k1", key -> "v1"); // miss
+		cache.getOrLoad("k1", key -> "v1"); // hit
+		cache.get("k2"); // miss
+
+		final CCache.CCacheStats stats = cache.stats();
+		assertThat(stats.getHitCount()).isEqualTo(1);
+		assertThat(stats.getMissCount()).isEqualTo(2);
+		assertThat(stats.getLoadCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_trimToWeight()
+	{
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.maximumWeightBytes(1_000_000L)
+				.weigher((key, value) -> 10)
+				.build();
+		for (int i = 1; i <= 100; i++)
+		{
+			cache.put(i, "value" + i);
+		}
+
+		final long evicted = cache.trimToWeight(500);
+
+		assertThat(evicted).isEqualTo(50);
+		assertThat(cache.size()).isEqualTo(50);
+		assertThat(cache.getEstimatedWeightBytes()).isEqualTo(500);
+	}
+
+	@Test
+	public void test_trimToWeight_evictsLeastRecentlyUsedEntries() throws Exception
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+		final long heapBudgetBytesOld = cacheManager.getHeapBudgetBytes();
+		try
+		{
+			// the access order is tracked only while there is a heap budget
+			cacheManager.setHeapBudgetBytes(Long.MAX_VALUE);
+
+			final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+					.maximumWeightBytes(1_000_000L)
+					.weigher((key, value) -> 10)
+					.build();
+			for (int i = 1; i <= 10; i++)
+			{
+				cache.put(i, "value" + i);
+			}
+			Thread.sleep(1);
+			for (int i = 1; i <= 5; i++)
+			{
+				cache.get(i);
+			}
+
+			assertThat(cache.trimToWeight(50)).isEqualTo(5);
+			assertThat(cache.keySet()).containsOnly(1, 2, 3, 4, 5);
+		}
+		finally
+		{
+			cacheManager.setHeapBudgetBytes(heapBudgetBytesOld);
+		}
+	}
+
+	@Test
+	public void test_getAllOrLoad_concurrentLoadsOfSameKeyAreCoalesced() throws Exception
+	{
+		final CCache<Integer, String> cache = new CCache<>("Test", 10);
+
+		final AtomicInteger loaderCalls = new AtomicInteger(0);
+		final CountDownLatch loaderStarted = new CountDownLatch(1);
+		final CountDownLatch releaseLoader = new CountDownLatch(1);
+		final Function<Collection<Integer>, Map<Integer, String>> valuesLoader = keys -> {
+			loaderCalls.incrementAndGet();
+			loaderStarted.countDown();
+			try
+			{
+				releaseLoader.await(10, TimeUnit.SECONDS);
+			}
+			catch (final InterruptedException e)
+			{
+				throw new RuntimeException(e);
+			}
+			return keys.stream().collect(ImmutableMap.toImmutableMap(key -> key, key -> "value" + key));
+		};
+
+		final ExecutorService executor = Executors.newFixedThreadPool(2);
+		try
+		{
+			final Future<Collection<String>> result1 = executor.submit(() -> cache.getAllOrLoad(ImmutableList.of(1), valuesLoader));
+			assertThat(loaderStarted.await(10, TimeUnit.SECONDS)).isTrue();
+
+			final Future<Collection<String>> result2 = executor.submit(() -> cache.getAllOrLoad(ImmutableList.of(1), valuesLoader));
+			Thread.sleep(100); // give the second call the chance to find the in-flight load
+			releaseLoader.countDown();
+
+			assertThat(result1.get(10, TimeUnit.SECONDS)).containsExactly("value1");
+			assertThat(result2.get(10, TimeUnit.SECONDS)).containsExactly("value1");
+		}
+		finally
+		{
+			executor.shutdownNow();
+		}
+
+		assertThat(loaderCalls.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void test_getAllOrLoad_recursiveCallDoesNotDeadlock()
+	{
+		final CCache<Integer, String> cache = new CCache<>("Test", 10);
+
+		final Collection<String> values = cache.getAllOrLoad(ImmutableList.of(1), keys -> {
+			// calling the cache again for the same key, while it's loading
+			final Collection<String> nestedValues = cache.getAllOrLoad(keys, nestedKeys -> ImmutableMap.of(1, "nested"));
+			assertThat(nestedValues).containsExactly("nested");
+			return ImmutableMap.of(1, "value1");
+		});
+
+		assertThat(values).containsExactly("value1");
+	}
+
+	@Test
+	public void test_resetForRecordId_usingRecordRefsIndex()
+	{
+		// cache key is a product value, the cached value depends on two product records
+		final CCache<String, ImmutableList<Integer>> cache = CCache.<String, ImmutableList<Integer>> builder()
+				.cacheName("M_Product#by#Value")
+				.recordRefsExtractor((key, productIds) -> productIds.stream()
+						.map(productId -> TableRecordReference.of("M_Product", productId))
+						.collect(ImmutableList.toImmutableList()))
+				.build();
+
+		cache.put("A", ImmutableList.of(1, 2));
+		cache.put("B", ImmutableList.of(2, 3));
+		cache.put("C", ImmutableList.of(4));
+
+		assertThat(cache.resetForRecordId(TableRecordReference.of("M_Product", 2))).isEqualTo(2);
+		assertThat(cache.keySet()).containsOnly("C");
+
+		assertThat(cache.resetForRecordId(TableRecordReference.of("M_Product", 1))).isEqualTo(0);
+		assertThat(cache.keySet()).containsOnly("C");
+
+		assertThat(cache.resetForRecordId(TableRecordReference.of("M_Product", 4))).isEqualTo(1);
+		assertThat(cache.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void test_resetForRecordId_usingRecordRefsIndex_replacedValue()
+	{
+		final CCache<String, Integer> cache = CCache.<String, Integer> builder()
+				.cacheName("M_Product#by#Value")
+				.recordRefsExtractor((key, productId) -> ImmutableList.of(TableRecordReference.of("M_Product", productId)))
+				.build();
+
+		cache.put("A", 1);
+		cache.put("A", 2);
+
+		assertThat(cache.resetForRecordId(TableRecordReference.of("M_Product", 2))).isEqualTo(1);
+		assertThat(cache.isEmpty()).isTrue();
+	}
+
+	@Test
+	public void test_resetForRecordId_usingRecordRefsIndex_additionalTable()
+	{
+		final CCache<String, Integer> cache = CCache.<String, Integer> builder()
+				.cacheName("M_Product#by#Value")
+				.additionalTableNameToResetFor("M_Product_Category")
+				.recordRefsExtractor((key, productId) -> ImmutableList.of(TableRecordReference.of("M_Product", productId)))
+				.build();
+
+		cache.put("A", 1);
+		cache.put("B", 2);
+
+		// records of other tables are not indexed, so the whole cache is reset
+		assertThat(cache.resetForRecordId(TableRecordReference.of("M_Product_Category", 1))).isEqualTo(2);
+		assertThat(cache.isEmpty()).isTrue();
+	}
 }
@@ -0,0 +1,123 @@
+package de.metas.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.cache.model.CacheInvalidateMultiRequest;
+import de.metas.cache.model.CacheInvalidateRequest;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+class CacheInvalidationBroadcastBufferTest
+{
+	private static final long DEBOUNCE_MILLIS_NEVER = 60 * 60 * 1000;
+
+	private List<CacheInvalidateMultiRequest> sentRequests;
+
+	@BeforeEach
+	void beforeEach()
+	{
+		sentRequests = new CopyOnWriteArrayList<>();
+	}
+
+	private CacheInvalidationBroadcastBuffer newBuffer(final long debounceMillis, final int maxBufferedRequests)
+	{
+		return new CacheInvalidationBroadcastBuffer(sentRequests::add, debounceMillis, maxBufferedRequests);
+	}
+
+	@Test
+	void noDebounce_sentRightAway()
+	{
+		final CacheInvalidationBroadcastBuffer buffer = newBuffer(0, 100);
+
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+
+		assertThat(sentRequests).containsExactly(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+	}
+
+	@Test
+	void requestsAreSentTogether()
+	{
+		final CacheInvalidationBroadcastBuffer buffer = newBuffer(DEBOUNCE_MILLIS_NEVER, 100);
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 2));
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+		assertThat(sentRequests).isEmpty();
+
+		buffer.flush();
+
+		assertThat(sentRequests).hasSize(1);
+		assertThat(sentRequests.get(0).getRequests()).containsExactly(
+				CacheInvalidateRequest.rootRecord("Table1", 1),
+				CacheInvalidateRequest.rootRecord("Table1", 2));
+	}
+
+	@Test
+	void requestsAreSentAfterDebounceTime() throws Exception
+	{
+		final CacheInvalidationBroadcastBuffer buffer = newBuffer(50, 100);
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 2));
+
+		final long deadline = System.currentTimeMillis() + 10_000;
+		while (sentRequests.isEmpty() && System.currentTimeMillis() < deadline)
+		{
+			Thread.sleep(10);
+		}
+
+		assertThat(sentRequests).hasSize(1);
+		assertThat(sentRequests.get(0).getRequests()).hasSize(2);
+	}
+
+	@Test
+	void maxBufferedRequestsReached_sentRightAway()
+	{
+		final CacheInvalidationBroadcastBuffer buffer = newBuffer(DEBOUNCE_MILLIS_NEVER, 2);
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+		assertThat(sentRequests).isEmpty();
+
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 2));
+		assertThat(sentRequests).hasSize(1);
+		assertThat(sentRequests.get(0).getRequests()).hasSize(2);
+	}
+
+	@Test
+	void shutdown_sendsBufferedRequestsAndStopsBuffering()
+	{
+		final CacheInvalidationBroadcastBuffer buffer = newBuffer(DEBOUNCE_MILLIS_NEVER, 100);
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+
+		buffer.shutdown();
+		assertThat(sentRequests).containsExactly(CacheInvalidateMultiRequest.rootRecord("Table1", 1));
+
+		buffer.add(CacheInvalidateMultiRequest.rootRecord("Table1", 2));
+		assertThat(sentRequests).containsExactly(
+				CacheInvalidateMultiRequest.rootRecord("Table1", 1),
+				CacheInvalidateMultiRequest.rootRecord("Table1", 2));
+	}
+}
@@ -2,8 +2,14 @@ package de.metas.cache;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.cache.model.CacheInvalidateRequest;
 import de.metas.event.Event;
@@ -45,4 +51,46 @@ class CacheInvalidationRemoteHandlerTest
 		assertThat(result).isNotNull();
 	}
 
+	@Test
+	void createEventFromRequest_bigRequestIsCompressed()
+	{
+		final List<Integer> recordIds = IntStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.fromTableNameAndRecordIds("SomeTable", recordIds);
+
+		final Event event = CacheInvalidationRemoteHandler.instance.createEventFromRequest(multiRequest, true);
+		assertThat(event.getProperty(CacheInvalidateRequest.class.getSimpleName() + ".gz")).isNotNull();
+		assertThat(event.getProperty(CacheInvalidateRequest.class.getSimpleName())).isNull();
+
+		final CacheInvalidateMultiRequest multiRequest2 = CacheInvalidationRemoteHandler.instance.createRequestFromEvent(event);
+		assertThat(multiRequest2).isEqualTo(multiRequest);
+	}
+
+	@Test
+	void createEventFromRequest_bigRequestIsNotCompressedByDefault()
+	{
+		final List<Integer> recordIds = IntStream.rangeClosed(1, 1000).boxed().collect(Collectors.toList());
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.fromTableNameAndRecordIds("SomeTable", recordIds);
+
+		final Event event = CacheInvalidationRemoteHandler.instance.createEventFromRequest(multiRequest);
+		assertThat(event.getProperty(CacheInvalidateRequest.class.getSimpleName() + ".gz")).isNull();
+		assertThat(CacheInvalidationRemoteHandler.instance.createRequestFromEvent(event)).isEqualTo(multiRequest);
+	}
+
+	@Test
+	void collapseRecordsToTables()
+	{
+		final List<Integer> recordIds = IntStream.rangeClosed(1, 20).boxed().collect(Collectors.toList());
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.ofMultiRequests(ImmutableList.of(
+				CacheInvalidateMultiRequest.fromTableNameAndRecordIds("Table1", recordIds),
+				CacheInvalidateMultiRequest.rootRecord("Table2", 1),
+				CacheInvalidateMultiRequest.rootRecord("Table3", 1),
+				CacheInvalidateMultiRequest.allRecordsForTable("Table3")));
+
+		final CacheInvalidateMultiRequest collapsed = multiRequest.collapseRecordsToTables(10);
+
+		assertThat(collapsed.getRequests()).containsExactlyInAnyOrder(
+				CacheInvalidateRequest.allRecordsForTable("Table1"),
+				CacheInvalidateRequest.rootRecord("Table2", 1),
+				CacheInvalidateRequest.allRecordsForTable("Table3"));
+	}
 }
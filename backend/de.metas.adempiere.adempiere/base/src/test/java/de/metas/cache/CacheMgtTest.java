@@ -104,6 +104,36 @@ public class CacheMgtTest
 		invoiceLineCache.assertRecordInvalidated(TableRecordReference.of("C_InvoiceLine", 2));
 	}
 
+	@Test
+	public void enforceHeapBudget()
+	{
+		final CacheMgt cacheManager = CacheMgt.get();
+
+		final CCache<Integer, String> cache = CCache.<Integer, String> builder()
+				.cacheName("Table1")
+				.maximumWeightBytes(1_000_000L)
+				.weigher((key, value) -> 100)
+				.build();
+		for (int i = 1; i <= 100; i++)
+		{
+			cache.put(i, "value" + i);
+		}
+		assertThat(cache.getEstimatedWeightBytes()).isEqualTo(10_000);
+
+		final long heapBudgetBytesOld = cacheManager.getHeapBudgetBytes();
+		try
+		{
+			cacheManager.setHeapBudgetBytes(1_000);
+			cacheManager.enforceHeapBudget();
+		}
+		finally
+		{
+			cacheManager.setHeapBudgetBytes(heapBudgetBytesOld);
+		}
+
+		assertThat(cache.getEstimatedWeightBytes()).isLessThanOrEqualTo(1_000);
+	}
+
 	private static class AssertCache implements CacheInterface
 	{
 		public static AssertCache newForTableName(final String tableName)
@@ -0,0 +1,169 @@
+package de.metas.document.sequence.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.document.sequence.impl.DocumentNoBlockAllocator.BlockKey;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DocumentNoBlockAllocatorTest
+{
+	private final DocumentNoBlockAllocator allocator = DocumentNoBlockAllocator.instance;
+
+	/** Simulates the AD_Sequence.CurrentNext column */
+	private AtomicInteger currentNext;
+	private AtomicInteger reservationsCount;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		allocator.reset();
+
+		currentNext = new AtomicInteger(1000);
+		reservationsCount = new AtomicInteger(0);
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		allocator.reset();
+	}
+
+	private IntUnaryOperator blockReserver()
+	{
+		return totalIncrement -> {
+			reservationsCount.incrementAndGet();
+			return currentNext.getAndAdd(totalIncrement);
+		};
+	}
+
+	@Test
+	public void next_reservesOneBlockForBlockSizeNumbers()
+	{
+		final BlockKey key = new BlockKey(1, false, null);
+
+		final List<Integer> numbers = new ArrayList<>();
+		for (int i = 0; i < 25; i++)
+		{
+			numbers.add(allocator.next(key, 1, 10, blockReserver()));
+		}
+
+		assertThat(numbers).first().isEqualTo(1000);
+		assertThat(numbers).last().isEqualTo(1024);
+		assertThat(numbers).doesNotHaveDuplicates();
+		assertThat(reservationsCount.get()).isEqualTo(3);
+		assertThat(currentNext.get()).isEqualTo(1030);
+	}
+
+	@Test
+	public void next_considersIncrementNo()
+	{
+		final BlockKey key = new BlockKey(1, false, null);
+
+		assertThat(allocator.next(key, 5, 3, blockReserver())).isEqualTo(1000);
+		assertThat(allocator.next(key, 5, 3, blockReserver())).isEqualTo(1005);
+		assertThat(allocator.next(key, 5, 3, blockReserver())).isEqualTo(1010);
+		assertThat(currentNext.get()).isEqualTo(1015);
+
+		assertThat(allocator.next(key, 5, 3, blockReserver())).isEqualTo(1015);
+		assertThat(reservationsCount.get()).isEqualTo(2);
+	}
+
+	@Test
+	public void next_separateBlocksPerKey()
+	{
+		final BlockKey key2019 = new BlockKey(1, false, "2019");
+		final BlockKey key2020 = new BlockKey(1, false, "2020");
+
+		final AtomicInteger currentNext2020 = new AtomicInteger(1);
+
+		assertThat(allocator.next(key2019, 1, 10, blockReserver())).isEqualTo(1000);
+		assertThat(allocator.next(key2020, 1, 10, currentNext2020::getAndAdd)).isEqualTo(1);
+		assertThat(allocator.next(key2019, 1, 10, blockReserver())).isEqualTo(1001);
+		assertThat(allocator.next(key2020, 1, 10, currentNext2020::getAndAdd)).isEqualTo(2);
+	}
+
+	@Test
+	public void peek()
+	{
+		final BlockKey key = new BlockKey(1, false, null);
+		assertThat(allocator.peek(key)).isNull();
+
+		allocator.next(key, 1, 2, blockReserver());
+		assertThat(allocator.peek(key)).isEqualTo(1001);
+
+		allocator.next(key, 1, 2, blockReserver());
+		assertThat(allocator.peek(key)).isNull();
+	}
+
+	@Test
+	public void next_concurrent() throws Exception
+	{
+		final BlockKey key = new BlockKey(1, false, null);
+		final int threadsCount = 16;
+		final int numbersPerThread = 500;
+
+		final Set<Integer> numbers = ConcurrentHashMap.newKeySet();
+		final ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threadsCount; t++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < numbersPerThread; i++)
+					{
+						numbers.add(allocator.next(key, 1, 100, blockReserver()));
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+
+		assertThat(numbers).hasSize(threadsCount * numbersPerThread);
+		assertThat(reservationsCount.get()).isEqualTo(threadsCount * numbersPerThread / 100);
+	}
+}
@@ -0,0 +1,147 @@
+package de.metas.document.sequence.impl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.document.sequence.DocSequenceId;
+import de.metas.document.sequence.IDocumentNoBuilderFactory;
+import de.metas.organization.OrgId;
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Manual benchmark which builds document numbers of one sequence from many concurrent threads, comparing the strict mode (one <code>AD_Sequence</code> update per number)
+ * with the block allocation (see {@link DocumentNoBlockAllocator}).
+ * <p>
+ * Requires a database connection; run it manually from your IDE.
+ * <b>Note:</b> it increments the given sequence, so don't run it against a database whose numbers you care about.
+ */
+@Ignore
+// requires database connection
+public class DocumentNoBuilder_Contention_DBBenchmark
+{
+	private static final DocSequenceId SEQUENCE_ID = DocSequenceId.ofRepoId(1000000); // change to a document sequence of your DB
+	private static final ClientId CLIENT_ID = ClientId.METASFRESH;
+
+	private static final int THREADS_COUNT = 32;
+	private static final int NUMBERS_PER_THREAD = 200;
+
+	public static void main(final String[] args) throws Exception
+	{
+		final DocumentNoBuilder_Contention_DBBenchmark benchmark = new DocumentNoBuilder_Contention_DBBenchmark();
+		benchmark.setupAdempiere();
+		benchmark.run();
+	}
+
+	private void setupAdempiere()
+	{
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.BACKEND);
+	}
+
+	@Test
+	public void run() throws Exception
+	{
+		for (int round = 1; round <= 3; round++)
+		{
+			System.out.println("Round " + round);
+			benchmark(1);
+			benchmark(10);
+			benchmark(100);
+		}
+	}
+
+	private void benchmark(final int blockSize) throws Exception
+	{
+		Services.get(ISysConfigBL.class).setValue(DocumentNoBuilder.SYSCONFIG_BlockSize_Prefix + SEQUENCE_ID.getRepoId(), blockSize, CLIENT_ID, OrgId.ANY);
+
+		final Set<String> documentNos = ConcurrentHashMap.newKeySet();
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS_COUNT);
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS_COUNT; t++)
+			{
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < NUMBERS_PER_THREAD; i++)
+					{
+						documentNos.add(buildDocumentNo());
+					}
+				}));
+			}
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		finally
+		{
+			executor.shutdown();
+		}
+		stopwatch.stop();
+
+		final int expectedCount = THREADS_COUNT * NUMBERS_PER_THREAD;
+		final long elapsedMillis = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+		System.out.println("blockSize=" + blockSize + ": " + expectedCount + " numbers in " + elapsedMillis + "ms"
+				+ " (" + (expectedCount * 1000L / Math.max(elapsedMillis, 1)) + "/s)"
+				+ ", unique=" + documentNos.size());
+	}
+
+	private static String buildDocumentNo()
+	{
+		return Services.get(IDocumentNoBuilderFactory.class)
+				.forSequenceId(SEQUENCE_ID)
+				.setClientId(CLIENT_ID)
+				.setFailOnError(true)
+				.build();
+	}
+}
@@ -2,7 +2,10 @@ package de.metas.impexp.excel;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -132,6 +135,50 @@ public class ArrayExcelExporterTest
 		assertThat(workbook.getSheetAt(0).getLastRowNum()).isEqualTo(2);
 	}
 
+	@Test
+	public void exportAsCsv_3rows_header() throws IOException
+	{
+		final List<List<Object>> data = generateData(3, 1);
+		data.get(1).set(0, "cell \"1\"; x 0");
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ArrayExcelExporter.builder()
+				.columnHeaders(ImmutableList.of("header"))
+				.constants(ExcelExportConstants.builder().build())
+				.data(data)
+				.build()
+				.exportAsCsv(out);
+
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8))
+				.isEqualTo("\"header\"\n"
+						+ "\"cell 0 x 0\"\n"
+						+ "\"cell \"\"1\"\"; x 0\"\n"
+						+ "\"cell 2 x 0\"\n");
+	}
+
+	@Test
+	public void exportAsCsv_numbers() throws IOException
+	{
+		final List<List<Object>> data = new ArrayList<>();
+		data.add(ImmutableList.of(new BigDecimal("1E+3")));
+		data.add(ImmutableList.of(Double.NaN));
+		data.add(ImmutableList.of(Double.POSITIVE_INFINITY));
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ArrayExcelExporter.builder()
+				.columnHeaders(ImmutableList.of("header"))
+				.constants(ExcelExportConstants.builder().build())
+				.data(data)
+				.build()
+				.exportAsCsv(out);
+
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8))
+				.isEqualTo("\"header\"\n"
+						+ "\"1000\"\n"
+						+ "\"NaN\"\n"
+						+ "\"Infinity\"\n");
+	}
+
 	private List<List<Object>> generateData(final int rowsCount, final int colsCount)
 	{
 		final ArrayList<List<Object>> rowsList = new ArrayList<>(rowsCount);
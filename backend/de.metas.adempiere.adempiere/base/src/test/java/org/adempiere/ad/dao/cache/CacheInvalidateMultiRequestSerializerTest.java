@@ -73,4 +73,16 @@ public class CacheInvalidateMultiRequestSerializerTest
 				.childRecord("SomeChildTable", 456)
 				.build());
 	}
+
+	@Test
+	void compressed()
+	{
+		final CacheInvalidateMultiRequest multiRequest = CacheInvalidateMultiRequest.of(
+				CacheInvalidateRequest.rootRecord("SomeTable", 123),
+				CacheInvalidateRequest.allChildRecords("SomeRootTable", 456, "SomeChildTable"));
+
+		final String compressedJson = jsonSerializer.toCompressedJson(multiRequest);
+		final CacheInvalidateMultiRequest multiRequest2 = jsonSerializer.fromCompressedJson(compressedJson);
+		assertThat(multiRequest2).isEqualTo(multiRequest);
+	}
 }
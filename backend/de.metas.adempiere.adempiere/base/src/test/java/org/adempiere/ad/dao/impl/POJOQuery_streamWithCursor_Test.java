@@ -0,0 +1,113 @@
+package org.adempiere.ad.dao.impl;
+
+import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
+import static org.adempiere.model.InterfaceWrapperHelper.saveRecord;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.model.IQuery;
+import org.compiere.model.I_M_Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.util.Services;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class POJOQuery_streamWithCursor_Test
+{
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+	}
+
+	private I_M_Product createProduct(final String value, final boolean active, final String weight)
+	{
+		final I_M_Product product = newInstance(I_M_Product.class);
+		product.setValue(value);
+		product.setIsActive(active);
+		product.setWeight(new BigDecimal(weight));
+		saveRecord(product);
+		return product;
+	}
+
+	private IQuery<I_M_Product> createQuery()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilder(I_M_Product.class)
+				.orderBy(I_M_Product.COLUMNNAME_Value)
+				.create();
+	}
+
+	@Value
+	private static class ProductProjection
+	{
+		int productId;
+		String value;
+		boolean active;
+		BigDecimal weight;
+	}
+
+	@Test
+	public void streamWithCursor()
+	{
+		final I_M_Product product1 = createProduct("P1", true, "1");
+		final I_M_Product product2 = createProduct("P2", false, "2");
+
+		try (final Stream<I_M_Product> stream = createQuery().streamWithCursor())
+		{
+			assertThat(stream.collect(Collectors.toList())).containsExactly(product1, product2);
+		}
+	}
+
+	@Test
+	public void listProjection()
+	{
+		final I_M_Product product1 = createProduct("P1", true, "1.5");
+		final I_M_Product product2 = createProduct("P2", false, "2");
+
+		final List<ProductProjection> projections = createQuery()
+				.listProjection(
+						row -> new ProductProjection(
+								row.getInt(I_M_Product.COLUMNNAME_M_Product_ID),
+								row.getString(I_M_Product.COLUMNNAME_Value),
+								row.getBoolean(I_M_Product.COLUMNNAME_IsActive),
+								row.getBigDecimal(I_M_Product.COLUMNNAME_Weight)),
+						I_M_Product.COLUMNNAME_M_Product_ID,
+						I_M_Product.COLUMNNAME_Value,
+						I_M_Product.COLUMNNAME_IsActive,
+						I_M_Product.COLUMNNAME_Weight);
+
+		assertThat(projections).containsExactly(
+				new ProductProjection(product1.getM_Product_ID(), "P1", true, new BigDecimal("1.5")),
+				new ProductProjection(product2.getM_Product_ID(), "P2", false, new BigDecimal("2")));
+	}
+}
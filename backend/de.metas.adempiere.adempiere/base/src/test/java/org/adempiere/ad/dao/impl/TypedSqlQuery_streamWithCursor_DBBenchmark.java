@@ -0,0 +1,172 @@
+package org.adempiere.ad.dao.impl;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.model.IQuery;
+import org.compiere.model.I_Fact_Acct;
+import org.compiere.util.Env;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.util.Check;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Manual benchmark which sums up the amounts of all {@link I_Fact_Acct} records, comparing time and heap usage of
+ * <ul>
+ * <li>{@link IQuery#list()}
+ * <li>{@link IQuery#streamWithCursor()}
+ * <li>{@link IQuery#streamProjectionWithCursor(Function, String...)}
+ * </ul>
+ * Requires a database connection; run it manually from your IDE.
+ */
+@Ignore
+// requires database connection
+public class TypedSqlQuery_streamWithCursor_DBBenchmark
+{
+	public static void main(final String[] args)
+	{
+		final TypedSqlQuery_streamWithCursor_DBBenchmark benchmark = new TypedSqlQuery_streamWithCursor_DBBenchmark();
+		benchmark.setupAdempiere();
+		benchmark.run();
+	}
+
+	private void setupAdempiere()
+	{
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath()
+					+ File.separator + ".." + File.separator + ".."
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.BACKEND);
+	}
+
+	@Test
+	public void run()
+	{
+		for (int round = 1; round <= 3; round++)
+		{
+			System.out.println("Round " + round);
+
+			benchmark("list()", () -> {
+				final List<I_Fact_Acct> records = createQuery().list();
+				return records.stream().map(I_Fact_Acct::getAmtAcctDr).reduce(BigDecimal.ZERO, BigDecimal::add);
+			});
+
+			benchmark("streamWithCursor()", () -> {
+				try (final Stream<I_Fact_Acct> stream = createQuery().streamWithCursor())
+				{
+					return stream.map(I_Fact_Acct::getAmtAcctDr).reduce(BigDecimal.ZERO, BigDecimal::add);
+				}
+			});
+
+			benchmark("streamProjectionWithCursor()", () -> {
+				try (final Stream<BigDecimal> stream = createQuery().streamProjectionWithCursor(
+						row -> row.getBigDecimal(I_Fact_Acct.COLUMNNAME_AmtAcctDr),
+						I_Fact_Acct.COLUMNNAME_AmtAcctDr))
+				{
+					return stream.reduce(BigDecimal.ZERO, BigDecimal::add);
+				}
+			});
+		}
+	}
+
+	private static IQuery<I_Fact_Acct> createQuery()
+	{
+		return Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_Fact_Acct.class)
+				.orderBy(I_Fact_Acct.COLUMNNAME_Fact_Acct_ID)
+				.create()
+				.setOption(IQuery.OPTION_CursorFetchSize, 5000);
+	}
+
+	private static void benchmark(final String name, final Supplier<BigDecimal> sumSupplier)
+	{
+		final HeapUsageSampler heapUsageSampler = new HeapUsageSampler();
+		heapUsageSampler.start();
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final BigDecimal sum = sumSupplier.get();
+		stopwatch.stop();
+
+		final long maxHeapUsedMB = heapUsageSampler.stopAndGetMaxHeapUsedBytes() / 1024 / 1024;
+		System.out.println(name + ": took " + stopwatch.elapsed(TimeUnit.MILLISECONDS) + "ms, max heap used " + maxHeapUsedMB + "MB, sum=" + sum);
+	}
+
+	/**
+	 * Samples the used heap in background, because we are interested in the peak and not in what's left at the end.
+	 */
+	private static class HeapUsageSampler extends Thread
+	{
+		private volatile boolean running = true;
+		private volatile long maxHeapUsedBytes = 0;
+
+		public HeapUsageSampler()
+		{
+			setDaemon(true);
+			System.gc();
+		}
+
+		@Override
+		public void run()
+		{
+			final Runtime runtime = Runtime.getRuntime();
+			while (running)
+			{
+				maxHeapUsedBytes = Math.max(maxHeapUsedBytes, runtime.totalMemory() - runtime.freeMemory());
+				try
+				{
+					Thread.sleep(10);
+				}
+				catch (final InterruptedException e)
+				{
+					return;
+				}
+			}
+		}
+
+		public long stopAndGetMaxHeapUsedBytes()
+		{
+			running = false;
+			return maxHeapUsedBytes;
+		}
+	}
+}
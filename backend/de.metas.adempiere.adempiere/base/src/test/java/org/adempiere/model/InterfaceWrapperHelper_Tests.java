@@ -18,6 +18,8 @@ import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import com.google.common.collect.ImmutableList;
+
 public class InterfaceWrapperHelper_Tests
 {
 	public interface I_TestModel
@@ -246,4 +248,20 @@ public class InterfaceWrapperHelper_Tests
 		assertThatThrownBy(() -> InterfaceWrapperHelper.getTableName(ITaxAware.class, null))
 				.isInstanceOf(InterfaceWrapperHelper.MissingTableNameException.class);
 	}
+
+	@Test
+	public void test_saveAllInBatch_nonPOModels()
+	{
+		final I_TestModel testModel1 = InterfaceWrapperHelper.newInstance(I_TestModel.class, contextProvider);
+		testModel1.setOverridableValue(1);
+		final I_TestModel testModel2 = InterfaceWrapperHelper.newInstance(I_TestModel.class, contextProvider);
+		testModel2.setOverridableValue(2);
+
+		InterfaceWrapperHelper.saveAllInBatch(ImmutableList.of(testModel1, testModel2));
+
+		assertThat(InterfaceWrapperHelper.isNew(testModel1), is(false));
+		assertThat(InterfaceWrapperHelper.isNew(testModel2), is(false));
+		assertThat(InterfaceWrapperHelper.getId(testModel1) > 0, is(true));
+		assertThat(InterfaceWrapperHelper.getId(testModel2) != InterfaceWrapperHelper.getId(testModel1), is(true));
+	}
 }
@@ -0,0 +1,186 @@
+package org.compiere.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.File;
+import java.util.List;
+import java.util.UUID;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.compiere.Adempiere.RunMode;
+import org.compiere.util.DB;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+
+/*
+ * #%L
+ * de.metas.adempiere.adempiere.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Database coupled test which makes sure the {@link POBatchSaver} works OK.
+ */
+@Disabled("requires database connection")
+public class POBatchSaver_DBTest
+{
+	public static void main(final String[] args)
+	{
+		final POBatchSaver_DBTest test = new POBatchSaver_DBTest();
+
+		test.setupAdempiere();
+
+		test.getNextIDs();
+		test.saveAll_newRecords();
+		test.saveAll_newAndChangedRecords();
+		test.saveAll_failure_rollsBackAllRecords();
+		test.saveAllInBatch_severalTables();
+	}
+
+	private void setupAdempiere()
+	{
+		//
+		// Use hardcoded default PropertyFile if none found
+		if (Check.isEmpty(System.getProperty("PropertyFile"), true))
+		{
+			final String propertyFile = new File(".").getAbsolutePath() // e.g. C:\workspaces\\de.metas.adempiere.adempiere\base\
+					+ File.separator + ".." + File.separator + ".." // e.g. C:\workspaces\
+					+ File.separator + "de.metas.endcustomer."
+					+ File.separator + "Adempiere.properties_" + System.getProperty("user.name");
+			System.out.println("Set default PropertyFile=" + propertyFile);
+			System.setProperty("PropertyFile", propertyFile);
+		}
+
+		Env.getSingleAdempiereInstance(null).startup(RunMode.SWING_CLIENT);
+	}
+
+	@Test
+	public void getNextIDs()
+	{
+		final int adClientId = Env.getAD_Client_ID(Env.getCtx());
+		final ImmutableList<Integer> ids = DB.getNextIDs(adClientId, I_Test.Table_Name, 5, ITrx.TRXNAME_None);
+
+		assertThat(ids).hasSize(5).doesNotHaveDuplicates();
+		assertThat(ids).allMatch(id -> id > 0);
+		assertThat(DB.getNextIDs(adClientId, I_Test.Table_Name, 0, ITrx.TRXNAME_None)).isEmpty();
+	}
+
+	@Test
+	public void saveAll_newRecords()
+	{
+		final I_Test record1 = newRecord();
+		final I_Test record2 = newRecord();
+		final I_Test record3 = newRecord();
+
+		POBatchSaver.saveAll(toPOs(record1, record2, record3));
+
+		for (final I_Test record : ImmutableList.of(record1, record2, record3))
+		{
+			assertThat(InterfaceWrapperHelper.isNew(record)).isFalse();
+			assertThat(record.getTest_ID()).isGreaterThan(0);
+			assertThat(InterfaceWrapperHelper.getPO(record).saveBatch_getPreallocatedID()).isEqualTo(0);
+			assertThat(retrieveName(record.getTest_ID())).isEqualTo(record.getName());
+		}
+	}
+
+	@Test
+	public void saveAll_newAndChangedRecords()
+	{
+		final I_Test existingRecord = newRecord();
+		InterfaceWrapperHelper.save(existingRecord);
+		existingRecord.setName("Changed_" + UUID.randomUUID());
+		final I_Test newRecord = newRecord();
+
+		POBatchSaver.saveAll(toPOs(existingRecord, newRecord));
+
+		assertThat(retrieveName(existingRecord.getTest_ID())).isEqualTo(existingRecord.getName());
+		assertThat(retrieveName(newRecord.getTest_ID())).isEqualTo(newRecord.getName());
+	}
+
+	@Test
+	public void saveAll_failure_rollsBackAllRecords()
+	{
+		final I_Test deletedRecord = newRecord();
+		InterfaceWrapperHelper.save(deletedRecord);
+		DB.executeUpdateEx("DELETE FROM " + I_Test.Table_Name + " WHERE " + I_Test.COLUMNNAME_Test_ID + "=?", new Object[] { deletedRecord.getTest_ID() }, ITrx.TRXNAME_None);
+		deletedRecord.setName("Changed_" + UUID.randomUUID()); // updating it will fail
+		final I_Test newRecord = newRecord();
+
+		assertThatThrownBy(() -> POBatchSaver.saveAll(toPOs(newRecord, deletedRecord)))
+				.hasMessageContaining("saveUpdate failed");
+
+		// the insert was rolled back and the new record can be saved again
+		final PO newRecordPO = InterfaceWrapperHelper.getPO(newRecord);
+		assertThat(InterfaceWrapperHelper.isNew(newRecord)).isTrue();
+		assertThat(newRecordPO.saveBatch_getPreallocatedID()).isEqualTo(0);
+		assertThat(newRecordPO.get_TrxName()).isEqualTo(ITrx.TRXNAME_None);
+		if (newRecord.getTest_ID() > 0)
+		{
+			assertThat(retrieveName(newRecord.getTest_ID())).isNull();
+		}
+
+		InterfaceWrapperHelper.save(newRecord);
+		assertThat(retrieveName(newRecord.getTest_ID())).isEqualTo(newRecord.getName());
+	}
+
+	@Test
+	public void saveAllInBatch_severalTables()
+	{
+		final I_Test record1 = newRecord();
+		final I_AD_Note note = InterfaceWrapperHelper.create(Env.getCtx(), I_AD_Note.class, ITrx.TRXNAME_None);
+		note.setTextMsg("Test_" + UUID.randomUUID());
+		final I_Test record2 = newRecord();
+
+		InterfaceWrapperHelper.saveAllInBatch(ImmutableList.of(record1, note, record2));
+
+		assertThat(record1.getTest_ID()).isLessThan(record2.getTest_ID());
+		assertThat(InterfaceWrapperHelper.isNew(note)).isFalse();
+		assertThat(retrieveName(record1.getTest_ID())).isEqualTo(record1.getName());
+		assertThat(retrieveName(record2.getTest_ID())).isEqualTo(record2.getName());
+	}
+
+	private static I_Test newRecord()
+	{
+		final I_Test record = InterfaceWrapperHelper.create(Env.getCtx(), I_Test.class, ITrx.TRXNAME_None);
+		record.setName("Test_" + UUID.randomUUID());
+		return record;
+	}
+
+	private static List<PO> toPOs(final I_Test... records)
+	{
+		final ImmutableList.Builder<PO> pos = ImmutableList.builder();
+		for (final I_Test record : records)
+		{
+			pos.add(InterfaceWrapperHelper.getPO(record));
+		}
+		return pos.build();
+	}
+
+	private static String retrieveName(final int testId)
+	{
+		return DB.getSQLValueStringEx(ITrx.TRXNAME_None, "SELECT " + I_Test.COLUMNNAME_Name + " FROM " + I_Test.Table_Name + " WHERE " + I_Test.COLUMNNAME_Test_ID + "=?", testId);
+	}
+}
@@ -25,6 +25,7 @@ package de.metas.async.api;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.util.lang.impl.TableRecordReference;
@@ -86,6 +87,24 @@ public interface IWorkPackageQueue
 	 */
 	I_C_Queue_WorkPackage pollAndLock(long timeoutMillis);
 
+	/**
+	 * Same as {@link #pollAndLock(long)}, but retrieves and locks up to <code>maxPackages</code> work packages in one go.
+	 * Each returned work package has its own context, set up like the one of the package returned by {@link #pollAndLock(long)}.
+	 *
+	 * @param maxPackages maximum number of work packages to retrieve; shall be greater than zero
+	 * @param timeoutMillis see {@link #pollAndLock(long)}
+	 * @return the locked work packages or an empty list if no package was available in the given timeout; never <code>null</code>
+	 */
+	List<I_C_Queue_WorkPackage> pollAndLock(int maxPackages, long timeoutMillis);
+
+	/**
+	 * Sets a filter which is evaluated on each poll and which decides if work packages of a given <code>C_Queue_PackageProcessor_ID</code> may be retrieved right now
+	 * (e.g. because that package processor did not yet reach its concurrency limit). By default, work packages of all package processors are retrieved.
+	 * <p>
+	 * Only relevant for queues which are used for polling.
+	 */
+	void setPackageProcessorIdFilter(IntPredicate packageProcessorIdFilter);
+
 	/**
 	 * Unlocks given package
 	 *
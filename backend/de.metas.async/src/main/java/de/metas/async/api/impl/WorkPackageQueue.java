@@ -29,6 +29,9 @@ import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.Future;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.trx.api.ITrxListenerManager;
@@ -45,6 +48,8 @@ import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.async.AsyncBatchId;
 import de.metas.async.Async_Constants;
 import de.metas.async.api.IAsyncBatchBL;
@@ -68,6 +73,7 @@ import de.metas.async.processor.impl.SyncQueueProcessorListener;
 import de.metas.async.spi.IWorkpackagePrioStrategy;
 import de.metas.async.spi.NullWorkpackagePrio;
 import de.metas.lock.api.ILockManager;
+import de.metas.lock.api.LockOwner;
 import de.metas.lock.exceptions.UnlockFailedException;
 import de.metas.logging.LogManager;
 import de.metas.logging.TableRecordMDC;
@@ -116,6 +122,8 @@ public class WorkPackageQueue implements IWorkPackageQueue
 
 	private final ReentrantLock mainLock = new ReentrantLock();
 
+	private volatile IntPredicate packageProcessorIdFilter = packageProcessorId -> true;
+
 	private WorkPackageQueue(@NonNull final Properties ctx,
 			@NonNull final List<Integer> packageProcessorIds,
 			final String enquingPackageProcessorInternalName,
@@ -215,10 +223,9 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	{
 		final Properties workPackageCtx = Env.newTemporaryCtx();
 
-		final IQuery<I_C_Queue_WorkPackage> query = createQuery(workPackageCtx);
-
 		final long startTS = SystemTime.millis();
-		I_C_Queue_WorkPackage workPackage = retrieveAndLock(query);
+		long signalsCountToken = WorkPackageReadySignal.instance.getSignalsCount();
+		I_C_Queue_WorkPackage workPackage = retrieveAndLock(createQuery(workPackageCtx));
 		if (timeoutMillis == TIMEOUT_OneTimeOnly && workPackage == null)
 		{
 			// We are running in one time only mode (synchronous mode) and we did not get the package from the first time
@@ -229,34 +236,24 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		while (workPackage == null)
 		{
 			// If we have a timeout specified, make sure we are not waiting more then that timeout
-			if (timeoutMillis != TIMEOUT_Infinite)
+			if (isPollTimeoutExceeded(startTS, timeoutMillis))
 			{
-				Check.assume(timeoutMillis > 0, "timeoutMillis > 0");
-
-				final long elapsedMillis = SystemTime.millis() - startTS;
-				if (elapsedMillis >= timeoutMillis)
-				{
-					logger.debug("Poll waiting time exceeded. Returning null");
-					return null;
-				}
+				logger.debug("Poll waiting time exceeded. Returning null");
+				return null;
 			}
 
-			// No workpackages were found. Sleep 1sec and then try again
-			try
-			{
-				// note: we always get the new service, because things might have changed since this method started
-				final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
-				Thread.sleep(pollIntervalMs);
-			}
-			catch (final InterruptedException e)
+			// No workpackages were found. Wait until a new one is ready or the poll interval elapsed and then try again
+			if (!awaitNextPoll(signalsCountToken))
 			{
-				logger.debug("Got interrupted signal. Returning null", e);
+				logger.debug("Got interrupted signal. Returning null");
 				return null;
 			}
 
 			// Try fetching the workpackage again
+			// note: we re-create the query because the available package processors might have changed in meantime
 			logger.debug("Retry retrieving next workpackage");
-			workPackage = retrieveAndLock(query);
+			signalsCountToken = WorkPackageReadySignal.instance.getSignalsCount();
+			workPackage = retrieveAndLock(createQuery(workPackageCtx));
 		}
 
 		Check.assumeNotNull(workPackage, "workPackage not null");
@@ -276,6 +273,88 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return workPackage;
 	}
 
+	@Override
+	public List<I_C_Queue_WorkPackage> pollAndLock(final int maxPackages, final long timeoutMillis)
+	{
+		Check.assume(maxPackages > 0, "maxPackages > 0");
+
+		logger.debug("Going to obtain mainLock");
+		mainLock.lock();
+		logger.debug("Obtained mainLock");
+		try
+		{
+			return pollAndLock0(maxPackages, timeoutMillis);
+		}
+		finally
+		{
+			mainLock.unlock();
+		}
+	}
+
+	private List<I_C_Queue_WorkPackage> pollAndLock0(final int maxPackages, final long timeoutMillis)
+	{
+		final long startTS = SystemTime.millis();
+		while (true)
+		{
+			final long signalsCountToken = WorkPackageReadySignal.instance.getSignalsCount();
+			final List<I_C_Queue_WorkPackage> workPackages = retrieveAndLock(maxPackages);
+			if (!workPackages.isEmpty())
+			{
+				return workPackages;
+			}
+
+			if (timeoutMillis == TIMEOUT_OneTimeOnly)
+			{
+				return ImmutableList.of();
+			}
+			if (isPollTimeoutExceeded(startTS, timeoutMillis))
+			{
+				logger.debug("Poll waiting time exceeded. Returning empty list");
+				return ImmutableList.of();
+			}
+
+			if (!awaitNextPoll(signalsCountToken))
+			{
+				logger.debug("Got interrupted signal. Returning empty list");
+				return ImmutableList.of();
+			}
+			logger.debug("Retry retrieving next workpackages");
+		}
+	}
+
+	private static boolean isPollTimeoutExceeded(final long startTS, final long timeoutMillis)
+	{
+		if (timeoutMillis == TIMEOUT_Infinite)
+		{
+			return false;
+		}
+
+		Check.assume(timeoutMillis > 0, "timeoutMillis > 0");
+		final long elapsedMillis = SystemTime.millis() - startTS;
+		return elapsedMillis >= timeoutMillis;
+	}
+
+	/**
+	 * Waits until another work package was marked as ready for processing (see {@link WorkPackageReadySignal}), but not longer than the configured poll interval.
+	 *
+	 * @return false if the current thread was interrupted while waiting
+	 */
+	private boolean awaitNextPoll(final long signalsCountToken)
+	{
+		// note: we always get the new service, because things might have changed since this method started
+		final int pollIntervalMs = Services.get(ISysConfigBL.class).getIntValue(SYSCONFIG_POLLINTERVAL, 1000);
+		try
+		{
+			WorkPackageReadySignal.instance.await(signalsCountToken, pollIntervalMs);
+			return true;
+		}
+		catch (final InterruptedException e)
+		{
+			logger.debug("Got interrupted while waiting for the next poll", e);
+			return false;
+		}
+	}
+
 	/**
 	 * Update context from work package (AD_Client_ID, AD_Org_ID, AD_User_ID, AD_Role_ID etc).
 	 *
@@ -350,6 +429,85 @@ public class WorkPackageQueue implements IWorkPackageQueue
 		return workPackage;
 	}
 
+	/**
+	 * Retrieves and locks up to <code>maxPackages</code> work packages in one go.
+	 *
+	 * Each work package is loaded in its own context, because the processors will run with the work package's client, org, user and role.
+	 *
+	 * @return the locked work packages, ordered like the queue (i.e. by priority and ID)
+	 */
+	private List<I_C_Queue_WorkPackage> retrieveAndLock(final int maxPackages)
+	{
+		final IQuery<I_C_Queue_WorkPackage> query = createQuery(Env.newTemporaryCtx());
+		final List<Integer> workPackageIds = Services.get(ILockManager.class).retrieveAndLockIds(query, maxPackages);
+
+		final List<I_C_Queue_WorkPackage> workPackages = new ArrayList<>(workPackageIds.size());
+		for (final int workPackageId : workPackageIds)
+		{
+			final Properties workPackageCtx = Env.newTemporaryCtx();
+			final I_C_Queue_WorkPackage workPackage = loadOrNull(workPackageCtx, workPackageId);
+			if (!isValid(workPackage))
+			{
+				if (workPackage != null)
+				{
+					unlockNoFail(workPackage);
+				}
+				else
+				{
+					// e.g. the work package was deleted in the meantime; still, we locked its ID
+					unlockNoFail(workPackageId);
+				}
+
+				final String threadName = Thread.currentThread().getName();
+				logger.warn("Aquired C_Queue_WorkPackage_ID={} on thread {} but is not valid. Unlocking and skipping it.", workPackageId, threadName);
+				continue;
+			}
+
+			setupWorkpackageContext(workPackageCtx, workPackage);
+			workPackages.add(workPackage);
+		}
+
+		// the lock manager returns the IDs in no particular order
+		workPackages.sort(dao.getQueueOrderBy().getComparator(I_C_Queue_WorkPackage.class));
+		return workPackages;
+	}
+
+	@Nullable
+	private I_C_Queue_WorkPackage loadOrNull(final Properties workPackageCtx, final int workPackageId)
+	{
+		try
+		{
+			return InterfaceWrapperHelper.create(workPackageCtx, workPackageId, I_C_Queue_WorkPackage.class, ITrx.TRXNAME_None);
+		}
+		catch (final Exception e)
+		{
+			logger.warn("Got exception while loading C_Queue_WorkPackage_ID=" + workPackageId, e);
+			return null;
+		}
+	}
+
+	private void unlockNoFail(final int workPackageId)
+	{
+		try
+		{
+			Services.get(ILockManager.class)
+					.unlock()
+					.setOwner(LockOwner.NONE)
+					.setRecordByTableRecordId(I_C_Queue_WorkPackage.Table_Name, workPackageId)
+					.release();
+		}
+		catch (final Exception e)
+		{
+			logger.warn("Got exception while unlocking C_Queue_WorkPackage_ID=" + workPackageId, e);
+		}
+	}
+
+	@Override
+	public void setPackageProcessorIdFilter(@NonNull final IntPredicate packageProcessorIdFilter)
+	{
+		this.packageProcessorIdFilter = packageProcessorIdFilter;
+	}
+
 	@Override
 	public int size()
 	{
@@ -754,6 +912,9 @@ public class WorkPackageQueue implements IWorkPackageQueue
 				workPackage.setIsReadyForProcessing(true);
 				dao.save(workPackage);
 				logger.debug("C_Queue_WorkPackage.IsReadyForProcessing is now set to true");
+
+				// Wake up the pollers, instead of letting them wait for their next poll
+				WorkPackageReadySignal.instance.fireReadyForProcessing(InterfaceWrapperHelper.getTrxName(workPackage));
 				success = true;
 			}
 			finally
@@ -777,7 +938,7 @@ public class WorkPackageQueue implements IWorkPackageQueue
 	private IQuery<I_C_Queue_WorkPackage> createQuery(final Properties workPackageCtx)
 	{
 		//
-		// Filter out processors which were temporary blacklisted
+		// Filter out processors which were temporary blacklisted or which are currently not accepted by our packageProcessorIdFilter
 		final IWorkpackageProcessorFactory workpackageProcessorFactory = Services.get(IWorkpackageProcessorFactory.class);
 		final List<Integer> availablePackageProcessorIds = new ArrayList<>(packageProcessorIds);
 		for (final Iterator<Integer> it = availablePackageProcessorIds.iterator(); it.hasNext();)
@@ -787,6 +948,10 @@ public class WorkPackageQueue implements IWorkPackageQueue
 			{
 				it.remove();
 			}
+			else if (!packageProcessorIdFilter.test(packageProcessorId))
+			{
+				it.remove();
+			}
 		}
 
 		final WorkPackageQuery workPackageQuery = new WorkPackageQuery();
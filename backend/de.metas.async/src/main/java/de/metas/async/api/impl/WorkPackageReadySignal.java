@@ -0,0 +1,245 @@
+package de.metas.async.api.impl;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.compiere.Adempiere;
+import org.compiere.util.DB;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Wakes up the {@link WorkPackageQueue} pollers as soon as a work package was marked as ready for processing, so they don't have to sleep for the whole poll interval.
+ * <p>
+ * Within the same JVM the pollers are signaled right after the work package's transaction was committed.
+ * Pollers running in other JVMs are signaled using PostgreSQL's <code>LISTEN/NOTIFY</code>; the <code>NOTIFY</code> is issued after the work package's transaction was committed.
+ * The listener thread blocks in {@link PGConnection#getNotifications(int)} until a notification arrives.
+ * <p>
+ * Signals are just hints; the pollers still wake up after the configured poll interval, no matter if they were signaled or not.
+ */
+public final class WorkPackageReadySignal
+{
+	public static final WorkPackageReadySignal instance = new WorkPackageReadySignal();
+
+	private static final Logger logger = LogManager.getLogger(WorkPackageReadySignal.class);
+
+	private static final String PG_CHANNEL = "c_queue_workpackage_ready";
+	private static final String SYSCONFIG_ListenNotifyEnabled = "de.metas.async.ListenNotifyEnabled";
+	/** how long the listener blocks waiting for notifications before it checks again whether it shall keep listening */
+	private static final int LISTEN_TIMEOUT_MILLIS = 60 * 1000;
+
+	private final Object signalSync = new Object();
+	/** guarded by {@link #signalSync} */
+	private long signalsCount = 0;
+
+	private final AtomicBoolean listenerStarted = new AtomicBoolean(false);
+	private volatile boolean listenerAvailable = true;
+
+	private WorkPackageReadySignal()
+	{
+	}
+
+	/**
+	 * Notifies all pollers that a work package was marked as ready for processing within the given transaction.
+	 */
+	void fireReadyForProcessing(final String trxName)
+	{
+		Services.get(ITrxManager.class)
+				.getTrxListenerManagerOrAutoCommit(trxName)
+				.runAfterCommit(() -> {
+					notifyRemotePollers();
+					signal();
+				});
+	}
+
+	/**
+	 * Sends the notification out of trx, after the work package's trx was committed.
+	 * That way a failing NOTIFY can't abort the work package's trx, and remote pollers don't get notified about work packages that they can't see yet.
+	 */
+	private void notifyRemotePollers()
+	{
+		if (!isListenNotifyEnabled())
+		{
+			return;
+		}
+
+		try
+		{
+			DB.executeUpdateEx("NOTIFY " + PG_CHANNEL, ITrx.TRXNAME_None);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed notifying channel {}. Remote pollers will pick up the work package on their next poll.", PG_CHANNEL, ex);
+		}
+	}
+
+	/**
+	 * @return token to be passed to {@link #await(long, long)}; shall be fetched <b>before</b> polling, so that no signal gets lost between polling and waiting.
+	 */
+	long getSignalsCount()
+	{
+		synchronized (signalSync)
+		{
+			return signalsCount;
+		}
+	}
+
+	/**
+	 * Waits until a work package was marked as ready for processing after the given <code>signalsCountToken</code> was fetched, or until the given timeout elapsed.
+	 *
+	 * @return true if signaled, false if timed out
+	 */
+	boolean await(final long signalsCountToken, final long timeoutMillis) throws InterruptedException
+	{
+		startListenerIfNeeded();
+
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
+		synchronized (signalSync)
+		{
+			while (signalsCount == signalsCountToken)
+			{
+				final long waitMillis = deadline - System.currentTimeMillis();
+				if (waitMillis <= 0)
+				{
+					return false;
+				}
+				signalSync.wait(waitMillis);
+			}
+			return true;
+		}
+	}
+
+	/**
+	 * Wakes up the pollers of this JVM, e.g. because a queue processor has free capacity again.
+	 */
+	public void signal()
+	{
+		synchronized (signalSync)
+		{
+			signalsCount++;
+			signalSync.notifyAll();
+		}
+	}
+
+	private boolean isListenNotifyEnabled()
+	{
+		if (Adempiere.isUnitTestMode())
+		{
+			return false;
+		}
+		return listenerAvailable && Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_ListenNotifyEnabled, true);
+	}
+
+	private void startListenerIfNeeded()
+	{
+		if (!isListenNotifyEnabled())
+		{
+			return;
+		}
+		if (!listenerStarted.compareAndSet(false, true))
+		{
+			return;
+		}
+
+		final Thread listenerThread = CustomizableThreadFactory.builder()
+				.setThreadNamePrefix("async-WorkPackageReadyListener")
+				.setDaemon(true)
+				.build()
+				.newThread(this::listen);
+		listenerThread.start();
+	}
+
+	private void listen()
+	{
+		while (listenerAvailable)
+		{
+			Connection conn = null;
+			try
+			{
+				conn = DB.createConnection(true, Connection.TRANSACTION_READ_COMMITTED);
+				if (!conn.isWrapperFor(PGConnection.class))
+				{
+					logger.warn("Connection {} does not support LISTEN/NOTIFY. Pollers will rely on the poll interval only.", conn);
+					listenerAvailable = false;
+					return;
+				}
+				final PGConnection pgConn = conn.unwrap(PGConnection.class);
+
+				try (final Statement stmt = conn.createStatement())
+				{
+					stmt.execute("LISTEN " + PG_CHANNEL);
+				}
+				logger.info("Listening on channel {}", PG_CHANNEL);
+
+				while (listenerAvailable)
+				{
+					// blocks until a notification arrives or the timeout elapsed; fails if the connection is broken
+					final PGNotification[] notifications = pgConn.getNotifications(LISTEN_TIMEOUT_MILLIS);
+					if (notifications != null && notifications.length > 0)
+					{
+						signal();
+					}
+
+					if (Thread.currentThread().isInterrupted())
+					{
+						throw new InterruptedException();
+					}
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				logger.info("Got interrupted. Stop listening on channel {}", PG_CHANNEL);
+				Thread.currentThread().interrupt();
+				return;
+			}
+			catch (final Exception e)
+			{
+				logger.warn("Failed listening on channel {}. Reconnecting in 5 seconds.", PG_CHANNEL, e);
+				try
+				{
+					Thread.sleep(5000);
+				}
+				catch (final InterruptedException e1)
+				{
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			finally
+			{
+				DB.close(conn);
+			}
+		}
+	}
+}
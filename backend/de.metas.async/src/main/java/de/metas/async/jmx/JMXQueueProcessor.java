@@ -24,9 +24,15 @@ package de.metas.async.jmx;
 
 
 import de.metas.async.processor.IQueueProcessor;
+import de.metas.async.processor.metrics.DurationHistogram;
+import de.metas.async.processor.metrics.WorkpackageProcessingTimes;
+import de.metas.async.processor.metrics.WorkpackageProcessorMetrics;
+import de.metas.async.processor.metrics.WorkpackageProcessorMetricsRegistry;
 
 public class JMXQueueProcessor implements JMXQueueProcessorMBean
 {
+	private static final int SLOWEST_RECENT_WORKPACKAGES_LIMIT = 20;
+
 	private final IQueueProcessor processor;
 	private final int queueProcessorId;
 
@@ -77,4 +83,52 @@ public class JMXQueueProcessor implements JMXQueueProcessorMBean
 	{
 		return processor.getQueue().toString();
 	}
+
+	@Override
+	public String[] getWorkpackageProcessorMetrics()
+	{
+		return WorkpackageProcessorMetricsRegistry.instance.getMetricsByQueueProcessorName(processor.getName())
+				.stream()
+				.map(JMXQueueProcessor::toString)
+				.toArray(String[]::new);
+	}
+
+	@Override
+	public String[] getSlowestRecentWorkpackages()
+	{
+		return WorkpackageProcessorMetricsRegistry.instance.getSlowestRecentRuns(processor.getName(), SLOWEST_RECENT_WORKPACKAGES_LIMIT)
+				.stream()
+				.map(JMXQueueProcessor::toString)
+				.toArray(String[]::new);
+	}
+
+	private static String toString(final WorkpackageProcessorMetrics.Snapshot metrics)
+	{
+		return metrics.getWorkpackageProcessorName()
+				+ ": processed=" + metrics.getCountProcessed()
+				+ ", errors=" + metrics.getCountErrors()
+				+ ", skipped=" + metrics.getCountSkipped()
+				+ ", retries=" + metrics.getCountRetries()
+				+ ", queueWait={" + toString(metrics.getQueueWait()) + "}"
+				+ ", processing={" + toString(metrics.getProcessing()) + "}"
+				+ ", commit={" + toString(metrics.getCommit()) + "}";
+	}
+
+	private static String toString(final DurationHistogram.Snapshot histogram)
+	{
+		return "avg=" + histogram.getAvgMillis() + "ms"
+				+ ", p95<=" + histogram.getPercentileUpperBoundMillis(0.95) + "ms"
+				+ ", max=" + histogram.getMaxMillis() + "ms";
+	}
+
+	private static String toString(final WorkpackageProcessingTimes run)
+	{
+		return "C_Queue_WorkPackage_ID=" + run.getWorkpackageId()
+				+ ", processor=" + run.getWorkpackageProcessorName()
+				+ ", outcome=" + run.getOutcome()
+				+ ", startTime=" + run.getStartTime()
+				+ ", queueWait=" + run.getQueueWaitMillis() + "ms"
+				+ ", processing=" + run.getProcessingMillis() + "ms"
+				+ ", commit=" + run.getCommitMillis() + "ms";
+	}
 }
@@ -38,4 +38,10 @@ public interface JMXQueueProcessorMBean
 	long getCountSkipped();
 
 	String getQueueInfo();
+
+	/** @return throughput and latency metrics of the workpackage processors which were invoked by this queue processor; one line per workpackage processor */
+	String[] getWorkpackageProcessorMetrics();
+
+	/** @return the slowest recently processed workpackages of this queue processor */
+	String[] getSlowestRecentWorkpackages();
 }
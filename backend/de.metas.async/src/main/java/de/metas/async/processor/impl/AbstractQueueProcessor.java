@@ -22,6 +22,7 @@ package de.metas.async.processor.impl;
  * #L%
  */
 
+import java.util.List;
 import java.util.Properties;
 
 import org.adempiere.exceptions.AdempiereException;
@@ -30,6 +31,8 @@ import org.slf4j.Logger;
 import org.slf4j.MDC;
 import org.slf4j.MDC.MDCCloseable;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.async.api.IWorkPackageQueue;
 import de.metas.async.api.IWorkpackageLogsRepository;
 import de.metas.async.exceptions.ConfigurationException;
@@ -70,7 +73,12 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 
 	protected abstract boolean isRunning();
 
-	protected abstract void executeTask(WorkpackageProcessorTask task);
+	/**
+	 * Executes or schedules the given task.
+	 *
+	 * @return false if the task was not accepted right now (e.g. because of a concurrency limit); its work package will be unlocked, so that it can be polled again later
+	 */
+	protected abstract boolean executeTask(WorkpackageProcessorTask task);
 
 	@Override
 	public IWorkPackageQueue getQueue()
@@ -175,33 +183,54 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 		}
 	}
 
+	/**
+	 * @return how many work packages shall be polled in one go; this implementation returns 1
+	 */
+	protected int getMaxPackagesToPoll()
+	{
+		return 1;
+	}
+
 	private boolean pollAndSubmitNextWorkPackageTask()
 	{
 		final IWorkPackageQueue queue = getQueue();
-		final I_C_Queue_WorkPackage workPackage;
+		final List<I_C_Queue_WorkPackage> workPackages;
 		try (final MDCCloseable ignored = MDC.putCloseable("queue", queue.toString());
 				final MDCCloseable ignored1 = MDC.putCloseable("queue.pollAndLockStart", Long.toString(SystemTime.millis()));)
 		{
-			logger.debug("pollAndSubmitNextWorkPackageTask - going to invoke queue.pollAndLock() with timeout={} on queue={}", queuePollingTimeout, queue);
-			workPackage = queue.pollAndLock(queuePollingTimeout);
-			if (workPackage == null)
+			final int maxPackages = getMaxPackagesToPoll();
+			logger.debug("pollAndSubmitNextWorkPackageTask - going to invoke queue.pollAndLock() with maxPackages={}, timeout={} on queue={}", maxPackages, queuePollingTimeout, queue);
+			workPackages = pollAndLock(queue, maxPackages);
+			if (workPackages.isEmpty())
 			{
-				logger.debug("pollAndSubmitNextWorkPackageTask - queue returned workPackage", queuePollingTimeout, queue);
+				logger.debug("pollAndSubmitNextWorkPackageTask - queue returned no workPackage; timeout={}; queue={}", queuePollingTimeout, queue);
 				return false;
 			}
 		}
-		boolean success = false;
+
+		int handledCount = 0;
 		try
 		{
-			final IWorkpackageProcessor workPackageProcessor = getWorkpackageProcessor(workPackage);
-			final WorkpackageProcessorTask task = new WorkpackageProcessorTask(this, workPackageProcessor, workPackage, logsRepository);
-			executeTask(task);
-			success = true;
+			for (final I_C_Queue_WorkPackage workPackage : workPackages)
+			{
+				final IWorkpackageProcessor workPackageProcessor = getWorkpackageProcessor(workPackage);
+				final WorkpackageProcessorTask task = new WorkpackageProcessorTask(this, workPackageProcessor, workPackage, logsRepository);
+				final boolean accepted = executeTask(task);
+				handledCount++;
+
+				if (!accepted)
+				{
+					// just unlock the workpackage, so that it can be polled again; its listeners are still waiting for it to be processed
+					logger.debug("Workpackage was not accepted for processing right now. Unlocking {}.", workPackage);
+					queue.unlockNoFail(workPackage);
+				}
+			}
 			return true;
 		}
 		finally
 		{
-			if (!success)
+			// unlock the workpackages we did not manage to submit, so that they can be polled again
+			for (final I_C_Queue_WorkPackage workPackage : workPackages.subList(handledCount, workPackages.size()))
 			{
 				logger.info("Submitting for processing next workpackage failed. Trying to unlock {}.", workPackage);
 				queue.unlockNoFail(workPackage);
@@ -211,6 +240,19 @@ public abstract class AbstractQueueProcessor implements IQueueProcessor
 		}
 	}
 
+	private List<I_C_Queue_WorkPackage> pollAndLock(final IWorkPackageQueue queue, final int maxPackages)
+	{
+		if (maxPackages <= 1)
+		{
+			final I_C_Queue_WorkPackage workPackage = queue.pollAndLock(queuePollingTimeout);
+			return workPackage != null ? ImmutableList.of(workPackage) : ImmutableList.of();
+		}
+		else
+		{
+			return queue.pollAndLock(maxPackages, queuePollingTimeout);
+		}
+	}
+
 	@Override
 	public IQueueProcessorStatistics getStatisticsSnapshot()
 	{
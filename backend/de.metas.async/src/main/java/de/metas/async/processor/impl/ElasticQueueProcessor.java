@@ -0,0 +1,243 @@
+package de.metas.async.processor.impl;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.BlockingExecutorWrapper;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.api.IQueueDAO;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.api.IWorkpackageLogsRepository;
+import de.metas.async.api.impl.WorkPackageReadySignal;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Queue processor for work packages which mostly wait on I/O (JDBC, remote gateways like DHL/DPD or MSV3).
+ * <p>
+ * Compared to {@link ThreadPoolQueueProcessor}:
+ * <ul>
+ * <li>the overall concurrency is not bound to {@link I_C_Queue_Processor#getPoolSize()}, but to SysConfig {@code de.metas.async.C_Queue_Processor_ID.<ID>.MaxConcurrency} (default: {@value #DEFAULT_MaxConcurrencyPerPoolThread} x PoolSize)
+ * <li>worker threads are only created when there is work and they are retired as soon as they are idle, so a high limit does not mean many idle threads
+ * <li>each {@code C_Queue_PackageProcessor} can be limited on its own (see {@link PackageProcessorConcurrencyLimiter}); work packages of a package processor which reached its limit are left in the queue
+ * <li>the submitting thread's MDC is propagated to the worker thread; the {@code Env} context is the work package's context, as set up by {@link WorkpackageProcessorTask}
+ * </ul>
+ * This processor is used instead of {@link ThreadPoolQueueProcessor} if SysConfig {@code de.metas.async.C_Queue_Processor_ID.<ID>.Elastic} is set to {@code Y}.
+ */
+class ElasticQueueProcessor extends AbstractQueueProcessor
+{
+	private static final Logger logger = LogManager.getLogger(ElasticQueueProcessor.class);
+
+	/** we don't have LogManager in the executor's package, so we create the logger here and inject it when creating the executor. */
+	private static final Logger loggerForExecutor = LogManager.getLogger(BlockingExecutorWrapper.class);
+
+	private static final String SYSCONFIG_Prefix = "de.metas.async.C_Queue_Processor_ID.";
+	private static final String SYSCONFIG_Elastic_Suffix = ".Elastic";
+	private static final String SYSCONFIG_MaxConcurrency_Suffix = ".MaxConcurrency";
+	private static final int DEFAULT_MaxConcurrencyPerPoolThread = 10;
+	private static final long DEFAULT_KeepAliveTimeMillis = 10 * 1000;
+
+	public static boolean isElastic(@NonNull final I_C_Queue_Processor config)
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Prefix + config.getC_Queue_Processor_ID() + SYSCONFIG_Elastic_Suffix, false);
+	}
+
+	private final String name;
+	private final BlockingExecutorWrapper executor;
+	private final PackageProcessorConcurrencyLimiter packageProcessorLimiter;
+	private final ImmutableList<Integer> packageProcessorIds;
+	private final AtomicBoolean running = new AtomicBoolean(true);
+
+	public ElasticQueueProcessor(
+			@NonNull final I_C_Queue_Processor config,
+			@NonNull final IWorkPackageQueue queue,
+			@NonNull final IWorkpackageLogsRepository logsRepository)
+	{
+		super(queue, logsRepository);
+
+		this.name = config.getName();
+
+		final int maxConcurrency = Services.get(ISysConfigBL.class).getIntValue(
+				SYSCONFIG_Prefix + config.getC_Queue_Processor_ID() + SYSCONFIG_MaxConcurrency_Suffix,
+				Math.max(1, config.getPoolSize()) * DEFAULT_MaxConcurrencyPerPoolThread);
+
+		//
+		// Create the tasks executor
+		{
+			final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+					.setThreadNamePrefix("async-ElasticWorker-" + name)
+					.setDaemon(true)
+					.build();
+
+			// same as in ThreadPoolQueueProcessor: the queue must be able to hold one runnable per thread, because the semaphore is released before the thread is really free.
+			// Core threads time out too, so that we only have threads while there is work.
+			final long keepAliveTimeMillis = config.getKeepAliveTimeMillis() > 0 ? config.getKeepAliveTimeMillis() : DEFAULT_KeepAliveTimeMillis;
+			final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
+					maxConcurrency, // corePoolSize
+					maxConcurrency, // maximumPoolSize
+					keepAliveTimeMillis,
+					TimeUnit.MILLISECONDS,
+					new ArrayBlockingQueue<>(maxConcurrency),
+					threadFactory);
+			threadPoolExecutor.allowCoreThreadTimeOut(true);
+
+			this.executor = BlockingExecutorWrapper.builder()
+					.delegate(threadPoolExecutor)
+					.loggerToUse(loggerForExecutor)
+					.poolSize(maxConcurrency)
+					.build();
+		}
+
+		this.packageProcessorLimiter = new PackageProcessorConcurrencyLimiter(maxConcurrency);
+		this.packageProcessorIds = Services.get(IQueueDAO.class).retrieveWorkpackageProcessors(config)
+				.stream()
+				.map(I_C_Queue_PackageProcessor::getC_Queue_PackageProcessor_ID)
+				.collect(ImmutableList.toImmutableList());
+		queue.setPackageProcessorIdFilter(packageProcessorLimiter::isAvailable);
+	}
+
+	@Override
+	public String toString()
+	{
+		return MoreObjects.toStringHelper(this)
+				.add("name", name)
+				.add("executor", executor)
+				.add("packageProcessorLimiter", packageProcessorLimiter)
+				.toString();
+	}
+
+	@Override
+	public String getName()
+	{
+		return name;
+	}
+
+	@Override
+	protected boolean isRunning()
+	{
+		return running.get() && !executor.isShutdown() && !executor.isTerminated();
+	}
+
+	/**
+	 * @return the number of free executor slots, but not more than the package processors can still start;
+	 *         otherwise we would lock work packages which are then rejected by {@link #executeTask(WorkpackageProcessorTask)} and unlocked again
+	 */
+	@Override
+	protected int getMaxPackagesToPoll()
+	{
+		final int packageProcessorsRemainingCapacity = packageProcessorIds.stream()
+				.mapToInt(packageProcessorLimiter::getRemainingCapacity)
+				.sum();
+		return Math.max(1, Math.min(executor.getAvailablePermits(), packageProcessorsRemainingCapacity));
+	}
+
+	@Override
+	protected boolean executeTask(@NonNull final WorkpackageProcessorTask task)
+	{
+		final int packageProcessorId = task.getWorkPackage().getC_Queue_Block().getC_Queue_PackageProcessor_ID();
+		if (!packageProcessorLimiter.tryAcquire(packageProcessorId))
+		{
+			logger.debug("C_Queue_PackageProcessor_ID={} reached its concurrency limit; not accepting task={}", packageProcessorId, task);
+			return false;
+		}
+
+		final Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+		final Runnable taskWithContext = () -> {
+			final Map<String, String> previousMdcContext = MDC.getCopyOfContextMap();
+			try
+			{
+				setMDCContext(mdcContext);
+				task.run();
+			}
+			finally
+			{
+				setMDCContext(previousMdcContext);
+				packageProcessorLimiter.release(packageProcessorId);
+
+				// pollers might be waiting because this package processor was at its limit
+				WorkPackageReadySignal.instance.signal();
+			}
+		};
+
+		logger.debug("Going to submit task={} to executor={}", task, executor);
+		try
+		{
+			executor.execute(taskWithContext);
+		}
+		catch (final RuntimeException e)
+		{
+			packageProcessorLimiter.release(packageProcessorId);
+			throw e;
+		}
+		logger.debug("Done submitting task");
+		return true;
+	}
+
+	private static void setMDCContext(final Map<String, String> mdcContext)
+	{
+		if (mdcContext == null)
+		{
+			MDC.clear();
+		}
+		else
+		{
+			MDC.setContextMap(mdcContext);
+		}
+	}
+
+	@Override
+	public void shutdown()
+	{
+		logger.info("shutdown - Shutdown started for executor={}", executor);
+		running.set(false);
+		executor.shutdown();
+		try
+		{
+			if (!executor.awaitTermination(5, TimeUnit.SECONDS))
+			{
+				executor.shutdownNow();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			logger.warn("Interrupted while waiting for executor of {} to terminate", name, e);
+			executor.shutdownNow();
+		}
+		logger.info("Shutdown finished");
+	}
+}
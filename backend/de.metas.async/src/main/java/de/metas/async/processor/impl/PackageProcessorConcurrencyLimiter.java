@@ -0,0 +1,119 @@
+package de.metas.async.processor.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.service.ISysConfigBL;
+
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Limits how many work packages of the same {@code C_Queue_PackageProcessor} are processed concurrently.
+ * <p>
+ * The limit is read from SysConfig {@code de.metas.async.C_Queue_PackageProcessor_ID.<ID>.MaxConcurrency} on each call, so it can be changed at runtime.
+ * If the SysConfig is not set (or not positive), the given default limit applies.
+ */
+@ToString
+final class PackageProcessorConcurrencyLimiter
+{
+	private static final String SYSCONFIG_MaxConcurrency_Prefix = "de.metas.async.C_Queue_PackageProcessor_ID.";
+	private static final String SYSCONFIG_MaxConcurrency_Suffix = ".MaxConcurrency";
+
+	private final int defaultMaxConcurrency;
+	private final ConcurrentHashMap<Integer, AtomicInteger> runningByPackageProcessorId = new ConcurrentHashMap<>();
+
+	public PackageProcessorConcurrencyLimiter(final int defaultMaxConcurrency)
+	{
+		this.defaultMaxConcurrency = defaultMaxConcurrency;
+	}
+
+	/**
+	 * @return true if another work package of the given package processor could be started right now
+	 */
+	public boolean isAvailable(final int packageProcessorId)
+	{
+		return getRunningCounter(packageProcessorId).get() < getMaxConcurrency(packageProcessorId);
+	}
+
+	/**
+	 * Reserves a slot for the given package processor.
+	 *
+	 * @return true if reserved; in that case the caller must call {@link #release(int)} when done
+	 */
+	public boolean tryAcquire(final int packageProcessorId)
+	{
+		final int maxConcurrency = getMaxConcurrency(packageProcessorId);
+		final AtomicInteger running = getRunningCounter(packageProcessorId);
+		while (true)
+		{
+			final int current = running.get();
+			if (current >= maxConcurrency)
+			{
+				return false;
+			}
+			if (running.compareAndSet(current, current + 1))
+			{
+				return true;
+			}
+		}
+	}
+
+	public void release(final int packageProcessorId)
+	{
+		getRunningCounter(packageProcessorId).decrementAndGet();
+	}
+
+	/**
+	 * @return how many more work packages of the given package processor could be started right now
+	 */
+	public int getRemainingCapacity(final int packageProcessorId)
+	{
+		return Math.max(0, getMaxConcurrency(packageProcessorId) - getRunningCounter(packageProcessorId).get());
+	}
+
+	public int getRunningCount(final int packageProcessorId)
+	{
+		return getRunningCounter(packageProcessorId).get();
+	}
+
+	private AtomicInteger getRunningCounter(final int packageProcessorId)
+	{
+		return runningByPackageProcessorId.computeIfAbsent(packageProcessorId, k -> new AtomicInteger(0));
+	}
+
+	private int getMaxConcurrency(final int packageProcessorId)
+	{
+		final int maxConcurrency = Services.get(ISysConfigBL.class).getIntValue(createSysConfigName(packageProcessorId), -1);
+		return maxConcurrency > 0 ? maxConcurrency : defaultMaxConcurrency;
+	}
+
+	@NonNull
+	static String createSysConfigName(final int packageProcessorId)
+	{
+		return SYSCONFIG_MaxConcurrency_Prefix + packageProcessorId + SYSCONFIG_MaxConcurrency_Suffix;
+	}
+}
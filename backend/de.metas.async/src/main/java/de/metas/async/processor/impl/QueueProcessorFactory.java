@@ -49,6 +49,10 @@ public class QueueProcessorFactory implements IQueueProcessorFactory
 	public IQueueProcessor createAsynchronousQueueProcessor(final I_C_Queue_Processor config, final IWorkPackageQueue queue)
 	{
 		final IWorkpackageLogsRepository logsRepository = getLogsRepository();
+		if (ElasticQueueProcessor.isElastic(config))
+		{
+			return new ElasticQueueProcessor(config, queue, logsRepository);
+		}
 		return new ThreadPoolQueueProcessor(config, queue, logsRepository);
 	}
 
@@ -51,9 +51,10 @@ class SynchronousQueueProcessor extends AbstractQueueProcessor
 	}
 
 	@Override
-	protected void executeTask(final WorkpackageProcessorTask task)
+	protected boolean executeTask(final WorkpackageProcessorTask task)
 	{
 		task.run();
+		return true;
 	}
 
 	@Override
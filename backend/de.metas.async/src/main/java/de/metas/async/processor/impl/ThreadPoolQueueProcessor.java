@@ -1,7 +1,6 @@
 package de.metas.async.processor.impl;
 
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.SynchronousQueue;
 
 /*
@@ -51,7 +50,7 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	private static final Logger loggerForExecutor = LogManager.getLogger(BlockingExecutorWrapper.class);
 
 	private String name;
-	private final ExecutorService executor;
+	private final BlockingExecutorWrapper executor;
 	private final AtomicBoolean running;
 
 	public ThreadPoolQueueProcessor(
@@ -130,11 +129,21 @@ class ThreadPoolQueueProcessor extends AbstractQueueProcessor
 	}
 
 	@Override
-	protected void executeTask(@NonNull final WorkpackageProcessorTask task)
+	protected boolean executeTask(@NonNull final WorkpackageProcessorTask task)
 	{
 		logger.debug("Going to submit task={} to executor={}", task, executor);
 		executor.execute(task);
 		logger.debug("Done submitting task");
+		return true;
+	}
+
+	/**
+	 * @return the number of idle pool threads, so that we poll as many work packages as we can start processing right away
+	 */
+	@Override
+	protected int getMaxPackagesToPoll()
+	{
+		return Math.max(1, executor.getAvailablePermits());
 	}
 
 	private final ReentrantLock shutdownLock = new ReentrantLock();
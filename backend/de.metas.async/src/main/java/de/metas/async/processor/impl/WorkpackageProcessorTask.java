@@ -23,8 +23,10 @@ package de.metas.async.processor.impl;
  */
 
 import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
@@ -68,6 +70,9 @@ import de.metas.async.model.I_C_Queue_PackageProcessor;
 import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.async.processor.IQueueProcessor;
 import de.metas.async.processor.IWorkpackageSkipRequest;
+import de.metas.async.processor.metrics.WorkpackageProcessingTimes;
+import de.metas.async.processor.metrics.WorkpackageProcessingTimes.Outcome;
+import de.metas.async.processor.metrics.WorkpackageProcessorMetricsRegistry;
 import de.metas.async.spi.IWorkpackageProcessor;
 import de.metas.async.spi.IWorkpackageProcessor.Result;
 import de.metas.async.spi.IWorkpackageProcessor2;
@@ -118,6 +123,11 @@ class WorkpackageProcessorTask implements Runnable
 	// task 09933 just adding this member for now, because it's unclear if in future we want to or have to extend on it or not.
 	private final boolean retryOnDeadLock = true;
 
+	/** Nanos spent in the work package processor, in the last attempt; used for {@link WorkpackageProcessorMetricsRegistry} */
+	private long processingNanos = 0;
+	/** {@link System#nanoTime()} when the work package processor returned, in the last attempt; zero if it did not return yet */
+	private long processingEndNanos = 0;
+
 	public WorkpackageProcessorTask(
 			final IQueueProcessor queueProcessor,
 			final IWorkpackageProcessor workPackageProcessor,
@@ -134,6 +144,11 @@ class WorkpackageProcessorTask implements Runnable
 		trxNamePrefix = workPackageProcessorOriginal.getClass().getSimpleName(); // use work processor's name as trx name prefix
 	}
 
+	public I_C_Queue_WorkPackage getWorkPackage()
+	{
+		return workPackage;
+	}
+
 	/**
 	 * Creates the context to be used in this processing thread.
 	 *
@@ -170,6 +185,12 @@ class WorkpackageProcessorTask implements Runnable
 
 		boolean finallyReleaseElementLockIfAny = true; // task 08999: only release the lock if there is no skip request.
 
+		final Instant startTime = SystemTime.asInstant();
+		final long queueWaitMillis = computeQueueWaitMillis(startTime);
+		final int previousSkipsCount = workPackage.getSkipped_Count();
+		Outcome outcome = Outcome.ERROR;
+		long commitNanos = 0;
+
 		try (final IAutoCloseable contextRestorer = Env.switchContext(processingCtx);
 				final IAutoCloseable loggableRestorer = Loggables.temporarySetLoggable(loggable);
 				final MDCCloseable workPackageMDC = TableRecordMDC.putTableRecordReference(workPackage);
@@ -195,15 +216,18 @@ class WorkpackageProcessorTask implements Runnable
 						(TrxRunnable)trxName_IGNORED -> {
 							// ignore the concrete trxName param,
 							// by default everything shall use the thread inherited trx
-							final Result result = processWorkpackage(ITrx.TRXNAME_ThreadInherited);
+							final Result result = processWorkpackageAndMeasure(ITrx.TRXNAME_ThreadInherited);
 							resultRef.setValue(result);
 						});
+
+				// what's left after processing is (mostly) the commit; if the runnable was invoked more than once, only the last attempt is considered
+				commitNanos = processingEndNanos > 0 ? Math.max(System.nanoTime() - processingEndNanos, 0) : 0;
 			}
 			//
 			// Process the WorkPackage out of transaction
 			else
 			{
-				final Result result = processWorkpackage(ITrx.TRXNAME_None);
+				final Result result = processWorkpackageAndMeasure(ITrx.TRXNAME_None);
 				logger.debug("Processing result = {} for work package {}", result, workPackage);
 				resultRef.setValue(result);
 			}
@@ -221,6 +245,8 @@ class WorkpackageProcessorTask implements Runnable
 
 				// increase processed counter
 				iAsyncBatchBL.increaseProcessed(workPackage);
+
+				outcome = Outcome.PROCESSED;
 			}
 			else
 			{
@@ -240,6 +266,7 @@ class WorkpackageProcessorTask implements Runnable
 				final WorkpackageSkipRequestException skipRequest = WorkpackageSkipRequestException.createWithTimeoutAndThrowable(msg, retryms, e);
 				finallyReleaseElementLockIfAny = false; // task 08999: don't release the lock yet, because we are going to retry later
 				markSkipped(workPackage, skipRequest);
+				outcome = Outcome.SKIPPED;
 			}
 			else
 			{
@@ -253,6 +280,7 @@ class WorkpackageProcessorTask implements Runnable
 			{
 				finallyReleaseElementLockIfAny = false; // task 08999: don't release the lock yet, because we are going to retry later
 				markSkipped(workPackage, skipRequest);
+				outcome = Outcome.SKIPPED;
 			}
 			else
 			{
@@ -263,7 +291,43 @@ class WorkpackageProcessorTask implements Runnable
 		{
 			afterWorkpackageProcessed(finallyReleaseElementLockIfAny);
 			loggable.flush();
+
+			WorkpackageProcessorMetricsRegistry.instance.record(WorkpackageProcessingTimes.builder()
+					.workpackageId(workPackage.getC_Queue_WorkPackage_ID())
+					.workpackageProcessorName(workPackageProcessorOriginal.getClass().getName())
+					.queueProcessorName(queueProcessor.getName())
+					.startTime(startTime)
+					.outcome(outcome)
+					.previousSkipsCount(previousSkipsCount)
+					.queueWaitMillis(queueWaitMillis)
+					.processingMillis(TimeUnit.NANOSECONDS.toMillis(processingNanos))
+					.commitMillis(TimeUnit.NANOSECONDS.toMillis(commitNanos))
+					.build());
+		}
+	}
+
+	/**
+	 * @return millis between the moment our work package became eligible for processing (i.e. was marked as ready or its skip timeout passed) and the given start time
+	 */
+	private long computeQueueWaitMillis(@NonNull final Instant startTime)
+	{
+		final Timestamp skippedAt = workPackage.getSkippedAt();
+		final Instant eligibleSince;
+		if (skippedAt != null)
+		{
+			eligibleSince = skippedAt.toInstant().plusMillis(workPackage.getSkipTimeoutMillis());
 		}
+		else if (workPackage.getUpdated() != null)
+		{
+			// the work package was last saved when it was marked as ready for processing (which might be long after it was created)
+			eligibleSince = workPackage.getUpdated().toInstant();
+		}
+		else
+		{
+			return 0; // might happen in unit tests
+		}
+
+		return Math.max(startTime.toEpochMilli() - eligibleSince.toEpochMilli(), 0);
 	}
 
 	private WorkpackageLoggable createLoggable(@NonNull final I_C_Queue_WorkPackage workPackage)
@@ -291,6 +355,21 @@ class WorkpackageProcessorTask implements Runnable
 		contextFactory.setThreadInheritedPriority(priority);
 	}
 
+	private Result processWorkpackageAndMeasure(final String trxName)
+	{
+		final long startNanos = System.nanoTime();
+		processingEndNanos = 0;
+		try
+		{
+			return processWorkpackage(trxName);
+		}
+		finally
+		{
+			processingEndNanos = System.nanoTime();
+			processingNanos = processingEndNanos - startNanos;
+		}
+	}
+
 	/**
 	 * Prepare and execute {@link IWorkpackageProcessor#processWorkPackage(I_C_Queue_WorkPackage, String)} now.
 	 *
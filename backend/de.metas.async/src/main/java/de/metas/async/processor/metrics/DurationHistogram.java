@@ -0,0 +1,134 @@
+package de.metas.async.processor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Lock-free histogram of durations (in millis), using fixed bucket boundaries.
+ */
+public final class DurationHistogram
+{
+	/** Inclusive upper bounds of the buckets; there is one more bucket for everything which is bigger than the last bound. */
+	static final ImmutableList<Long> BUCKET_UPPER_BOUNDS_MILLIS = ImmutableList.of(10L, 50L, 100L, 250L, 500L, 1_000L, 2_500L, 5_000L, 10_000L, 30_000L, 60_000L, 300_000L);
+
+	private final LongAdder count = new LongAdder();
+	private final LongAdder sumMillis = new LongAdder();
+	private final AtomicLong maxMillis = new AtomicLong(0);
+	private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_UPPER_BOUNDS_MILLIS.size() + 1);
+
+	public void record(final long durationMillis)
+	{
+		final long durationMillisNorm = Math.max(durationMillis, 0);
+
+		count.increment();
+		sumMillis.add(durationMillisNorm);
+		maxMillis.accumulateAndGet(durationMillisNorm, Math::max);
+		bucketCounts.incrementAndGet(getBucketIndex(durationMillisNorm));
+	}
+
+	private static int getBucketIndex(final long durationMillis)
+	{
+		for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.size(); i++)
+		{
+			if (durationMillis <= BUCKET_UPPER_BOUNDS_MILLIS.get(i))
+			{
+				return i;
+			}
+		}
+		return BUCKET_UPPER_BOUNDS_MILLIS.size();
+	}
+
+	public Snapshot snapshot()
+	{
+		final ImmutableList.Builder<Long> bucketCountsSnapshot = ImmutableList.builder();
+		for (int i = 0; i < bucketCounts.length(); i++)
+		{
+			bucketCountsSnapshot.add(bucketCounts.get(i));
+		}
+
+		return Snapshot.builder()
+				.count(count.sum())
+				.sumMillis(sumMillis.sum())
+				.maxMillis(maxMillis.get())
+				.bucketCounts(bucketCountsSnapshot.build())
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static class Snapshot
+	{
+		long count;
+		long sumMillis;
+		long maxMillis;
+
+		/**
+		 * Bucket counts, matching {@link DurationHistogram#BUCKET_UPPER_BOUNDS_MILLIS}.
+		 * The last element counts the durations which exceed the last bound.
+		 */
+		@NonNull
+		ImmutableList<Long> bucketCounts;
+
+		public long getAvgMillis()
+		{
+			return count > 0 ? sumMillis / count : 0;
+		}
+
+		public ImmutableList<Long> getBucketUpperBoundsMillis()
+		{
+			return BUCKET_UPPER_BOUNDS_MILLIS;
+		}
+
+		/**
+		 * @return the upper bound of the bucket which contains the given percentile (0..1) or {@link #getMaxMillis()} if that's the last (unbounded) bucket.
+		 */
+		public long getPercentileUpperBoundMillis(final double percentile)
+		{
+			if (count <= 0)
+			{
+				return 0;
+			}
+
+			final long rank = (long)Math.ceil(count * percentile);
+			long cumulatedCount = 0;
+			for (int i = 0; i < BUCKET_UPPER_BOUNDS_MILLIS.size(); i++)
+			{
+				cumulatedCount += bucketCounts.get(i);
+				if (cumulatedCount >= rank)
+				{
+					return Math.min(BUCKET_UPPER_BOUNDS_MILLIS.get(i), maxMillis);
+				}
+			}
+			return maxMillis;
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package de.metas.async.processor.metrics;
+
+import java.time.Instant;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Timings of one work package processing run.
+ */
+@Value
+@Builder
+public class WorkpackageProcessingTimes
+{
+	public enum Outcome
+	{
+		PROCESSED, SKIPPED, ERROR
+	}
+
+	int workpackageId;
+
+	/** Name of the {@link de.metas.async.spi.IWorkpackageProcessor}, i.e. its class name */
+	@NonNull
+	String workpackageProcessorName;
+
+	@NonNull
+	String queueProcessorName;
+
+	@NonNull
+	Instant startTime;
+
+	@NonNull
+	Outcome outcome;
+
+	/** How often the work package was skipped before this run */
+	int previousSkipsCount;
+
+	/** Time between the work package becoming eligible (marked as ready, or its skip timeout passed) and the start of its processing */
+	long queueWaitMillis;
+
+	/** Time spent in the work package processor */
+	long processingMillis;
+
+	/** Time spent committing the work package's transaction; zero if the processor does not run in transaction */
+	long commitMillis;
+
+	public long getTotalMillis()
+	{
+		return queueWaitMillis + processingMillis + commitMillis;
+	}
+
+	public long getExecutionMillis()
+	{
+		return processingMillis + commitMillis;
+	}
+}
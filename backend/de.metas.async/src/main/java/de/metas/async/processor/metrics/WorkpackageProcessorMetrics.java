@@ -0,0 +1,115 @@
+package de.metas.async.processor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Throughput and latency metrics of one {@link de.metas.async.spi.IWorkpackageProcessor}.
+ */
+public final class WorkpackageProcessorMetrics
+{
+	@Getter
+	private final String workpackageProcessorName;
+
+	private final DurationHistogram queueWait = new DurationHistogram();
+	private final DurationHistogram processing = new DurationHistogram();
+	private final DurationHistogram commit = new DurationHistogram();
+
+	private final LongAdder countProcessed = new LongAdder();
+	private final LongAdder countErrors = new LongAdder();
+	private final LongAdder countSkipped = new LongAdder();
+	private final LongAdder countRetries = new LongAdder();
+
+	WorkpackageProcessorMetrics(@NonNull final String workpackageProcessorName)
+	{
+		this.workpackageProcessorName = workpackageProcessorName;
+	}
+
+	public void record(@NonNull final WorkpackageProcessingTimes times)
+	{
+		queueWait.record(times.getQueueWaitMillis());
+		processing.record(times.getProcessingMillis());
+		commit.record(times.getCommitMillis());
+
+		switch (times.getOutcome())
+		{
+			case PROCESSED:
+				countProcessed.increment();
+				break;
+			case SKIPPED:
+				countSkipped.increment();
+				break;
+			case ERROR:
+				countErrors.increment();
+				break;
+		}
+
+		if (times.getPreviousSkipsCount() > 0)
+		{
+			countRetries.increment();
+		}
+	}
+
+	public Snapshot snapshot()
+	{
+		return Snapshot.builder()
+				.workpackageProcessorName(workpackageProcessorName)
+				.countProcessed(countProcessed.sum())
+				.countErrors(countErrors.sum())
+				.countSkipped(countSkipped.sum())
+				.countRetries(countRetries.sum())
+				.queueWait(queueWait.snapshot())
+				.processing(processing.snapshot())
+				.commit(commit.snapshot())
+				.build();
+	}
+
+	@Value
+	@Builder
+	public static class Snapshot
+	{
+		@NonNull
+		String workpackageProcessorName;
+
+		long countProcessed;
+		long countErrors;
+		/** How often work packages were skipped, i.e. how many retries were scheduled */
+		long countSkipped;
+		/** How many runs were retries of previously skipped work packages */
+		long countRetries;
+
+		/** Enqueue (or skip) to start of processing */
+		@NonNull
+		DurationHistogram.Snapshot queueWait;
+		@NonNull
+		DurationHistogram.Snapshot processing;
+		@NonNull
+		DurationHistogram.Snapshot commit;
+	}
+}
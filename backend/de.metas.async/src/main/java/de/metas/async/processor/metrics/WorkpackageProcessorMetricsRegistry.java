@@ -0,0 +1,149 @@
+package de.metas.async.processor.metrics;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.processor.metrics.WorkpackageProcessorMetrics.Snapshot;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Collects the {@link WorkpackageProcessingTimes} of all work packages processed in this JVM, aggregated per work package processor.
+ * <p>
+ * Besides the aggregated metrics it remembers the most recent processing runs, so that the slowest of them can be inspected.
+ */
+public final class WorkpackageProcessorMetricsRegistry
+{
+	public static final WorkpackageProcessorMetricsRegistry instance = new WorkpackageProcessorMetricsRegistry();
+
+	private static final int RECENT_RUNS_CAPACITY = 1000;
+
+	private final ConcurrentHashMap<String, WorkpackageProcessorMetrics> metricsByProcessorName = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Set<String>> processorNamesByQueueProcessorName = new ConcurrentHashMap<>();
+
+	/** guarded by itself */
+	private final ArrayDeque<WorkpackageProcessingTimes> recentRuns = new ArrayDeque<>(RECENT_RUNS_CAPACITY);
+
+	private WorkpackageProcessorMetricsRegistry()
+	{
+	}
+
+	public void record(@NonNull final WorkpackageProcessingTimes times)
+	{
+		metricsByProcessorName
+				.computeIfAbsent(times.getWorkpackageProcessorName(), WorkpackageProcessorMetrics::new)
+				.record(times);
+		processorNamesByQueueProcessorName
+				.computeIfAbsent(times.getQueueProcessorName(), queueProcessorName -> ConcurrentHashMap.newKeySet())
+				.add(times.getWorkpackageProcessorName());
+
+		synchronized (recentRuns)
+		{
+			if (recentRuns.size() >= RECENT_RUNS_CAPACITY)
+			{
+				recentRuns.removeFirst();
+			}
+			recentRuns.addLast(times);
+		}
+	}
+
+	/**
+	 * @return metrics of all work package processors which processed at least one work package, ordered by name
+	 */
+	public ImmutableList<Snapshot> getMetrics()
+	{
+		return metricsByProcessorName.values()
+				.stream()
+				.map(WorkpackageProcessorMetrics::snapshot)
+				.sorted(Comparator.comparing(Snapshot::getWorkpackageProcessorName))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	public Optional<Snapshot> getMetrics(@NonNull final String workpackageProcessorName)
+	{
+		return Optional.ofNullable(metricsByProcessorName.get(workpackageProcessorName))
+				.map(WorkpackageProcessorMetrics::snapshot);
+	}
+
+	/**
+	 * @return metrics of the work package processors which were invoked by the given queue processor, ordered by name
+	 */
+	public ImmutableList<Snapshot> getMetricsByQueueProcessorName(@NonNull final String queueProcessorName)
+	{
+		final Set<String> processorNames = processorNamesByQueueProcessorName.get(queueProcessorName);
+		if (processorNames == null)
+		{
+			return ImmutableList.of();
+		}
+
+		return getMetrics()
+				.stream()
+				.filter(metrics -> processorNames.contains(metrics.getWorkpackageProcessorName()))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return the slowest (by {@link WorkpackageProcessingTimes#getExecutionMillis()}) of the most recent {@value #RECENT_RUNS_CAPACITY} processing runs, slowest first
+	 */
+	public ImmutableList<WorkpackageProcessingTimes> getSlowestRecentRuns(final int limit)
+	{
+		return getSlowestRecentRuns(null, limit);
+	}
+
+	/**
+	 * Like {@link #getSlowestRecentRuns(int)}, but only considers the runs of the given queue processor, if not <code>null</code>.
+	 */
+	public ImmutableList<WorkpackageProcessingTimes> getSlowestRecentRuns(@Nullable final String queueProcessorName, final int limit)
+	{
+		final ImmutableList<WorkpackageProcessingTimes> recentRunsCopy;
+		synchronized (recentRuns)
+		{
+			recentRunsCopy = ImmutableList.copyOf(recentRuns);
+		}
+
+		return recentRunsCopy.stream()
+				.filter(run -> queueProcessorName == null || queueProcessorName.equals(run.getQueueProcessorName()))
+				.sorted(Comparator.comparingLong(WorkpackageProcessingTimes::getExecutionMillis).reversed())
+				.limit(Math.max(limit, 0))
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/** Needed for unit tests */
+	public void reset()
+	{
+		metricsByProcessorName.clear();
+		processorNamesByQueueProcessorName.clear();
+		synchronized (recentRuns)
+		{
+			recentRuns.clear();
+		}
+	}
+}
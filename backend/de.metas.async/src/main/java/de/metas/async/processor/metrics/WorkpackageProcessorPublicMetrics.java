@@ -0,0 +1,69 @@
+package de.metas.async.processor.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exposes the {@link WorkpackageProcessorMetricsRegistry}'s per workpackage processor metrics to the actuator's <code>/metrics</code> endpoint.
+ */
+@Component
+public class WorkpackageProcessorPublicMetrics implements PublicMetrics
+{
+	private static final String PREFIX = "async.workpackageProcessor.";
+
+	@Override
+	public Collection<Metric<?>> metrics()
+	{
+		final List<Metric<?>> metrics = new ArrayList<>();
+		for (final WorkpackageProcessorMetrics.Snapshot processorMetrics : WorkpackageProcessorMetricsRegistry.instance.getMetrics())
+		{
+			final String prefix = PREFIX + processorMetrics.getWorkpackageProcessorName() + ".";
+			metrics.add(new Metric<>(prefix + "processed", processorMetrics.getCountProcessed()));
+			metrics.add(new Metric<>(prefix + "errors", processorMetrics.getCountErrors()));
+			metrics.add(new Metric<>(prefix + "skipped", processorMetrics.getCountSkipped()));
+			metrics.add(new Metric<>(prefix + "retries", processorMetrics.getCountRetries()));
+
+			addHistogramMetrics(metrics, prefix + "queueWait.", processorMetrics.getQueueWait());
+			addHistogramMetrics(metrics, prefix + "processing.", processorMetrics.getProcessing());
+			addHistogramMetrics(metrics, prefix + "commit.", processorMetrics.getCommit());
+		}
+		return metrics;
+	}
+
+	private static void addHistogramMetrics(final List<Metric<?>> metrics, final String prefix, final DurationHistogram.Snapshot histogram)
+	{
+		metrics.add(new Metric<>(prefix + "count", histogram.getCount()));
+		metrics.add(new Metric<>(prefix + "avgMillis", histogram.getAvgMillis()));
+		metrics.add(new Metric<>(prefix + "p50Millis", histogram.getPercentileUpperBoundMillis(0.50)));
+		metrics.add(new Metric<>(prefix + "p95Millis", histogram.getPercentileUpperBoundMillis(0.95)));
+		metrics.add(new Metric<>(prefix + "p99Millis", histogram.getPercentileUpperBoundMillis(0.99)));
+		metrics.add(new Metric<>(prefix + "maxMillis", histogram.getMaxMillis()));
+	}
+}
@@ -0,0 +1,111 @@
+package de.metas.async.rest;
+
+import java.util.List;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.processor.metrics.DurationHistogram;
+import de.metas.async.processor.metrics.WorkpackageProcessingTimes;
+import de.metas.async.processor.metrics.WorkpackageProcessorMetrics;
+import de.metas.async.processor.metrics.WorkpackageProcessorMetricsRegistry;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exposes the {@link WorkpackageProcessorMetricsRegistry}'s throughput and latency metrics.
+ */
+@RequestMapping(AsyncMetricsRestController.ENDPOINT)
+@RestController
+public class AsyncMetricsRestController
+{
+	public static final String ENDPOINT_API = "/api";
+	public static final String ENDPOINT = ENDPOINT_API + "/async/metrics";
+
+	private final WorkpackageProcessorMetricsRegistry metricsRegistry = WorkpackageProcessorMetricsRegistry.instance;
+
+	@GetMapping
+	public List<JSONWorkpackageProcessorMetrics> getWorkpackageProcessorMetrics()
+	{
+		return metricsRegistry.getMetrics()
+				.stream()
+				.map(AsyncMetricsRestController::toJSONWorkpackageProcessorMetrics)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@GetMapping("/slowestWorkpackages")
+	public List<JSONWorkpackageProcessingTimes> getSlowestRecentWorkpackages(
+			@RequestParam(name = "queueProcessorName", required = false) final String queueProcessorName,
+			@RequestParam(name = "limit", required = false, defaultValue = "20") final int limit)
+	{
+		return metricsRegistry.getSlowestRecentRuns(queueProcessorName, limit)
+				.stream()
+				.map(AsyncMetricsRestController::toJSONWorkpackageProcessingTimes)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	private static JSONWorkpackageProcessorMetrics toJSONWorkpackageProcessorMetrics(final WorkpackageProcessorMetrics.Snapshot metrics)
+	{
+		return JSONWorkpackageProcessorMetrics.builder()
+				.workpackageProcessorName(metrics.getWorkpackageProcessorName())
+				.countProcessed(metrics.getCountProcessed())
+				.countErrors(metrics.getCountErrors())
+				.countSkipped(metrics.getCountSkipped())
+				.countRetries(metrics.getCountRetries())
+				.queueWait(toJSONDurationHistogram(metrics.getQueueWait()))
+				.processing(toJSONDurationHistogram(metrics.getProcessing()))
+				.commit(toJSONDurationHistogram(metrics.getCommit()))
+				.build();
+	}
+
+	private static JSONDurationHistogram toJSONDurationHistogram(final DurationHistogram.Snapshot histogram)
+	{
+		return JSONDurationHistogram.builder()
+				.count(histogram.getCount())
+				.avgMillis(histogram.getAvgMillis())
+				.p95Millis(histogram.getPercentileUpperBoundMillis(0.95))
+				.maxMillis(histogram.getMaxMillis())
+				.bucketUpperBoundsMillis(histogram.getBucketUpperBoundsMillis())
+				.bucketCounts(histogram.getBucketCounts())
+				.build();
+	}
+
+	private static JSONWorkpackageProcessingTimes toJSONWorkpackageProcessingTimes(final WorkpackageProcessingTimes run)
+	{
+		return JSONWorkpackageProcessingTimes.builder()
+				.workpackageId(run.getWorkpackageId())
+				.workpackageProcessorName(run.getWorkpackageProcessorName())
+				.queueProcessorName(run.getQueueProcessorName())
+				.startTime(run.getStartTime().toString())
+				.outcome(run.getOutcome().name())
+				.previousSkipsCount(run.getPreviousSkipsCount())
+				.queueWaitMillis(run.getQueueWaitMillis())
+				.processingMillis(run.getProcessingMillis())
+				.commitMillis(run.getCommitMillis())
+				.build();
+	}
+}
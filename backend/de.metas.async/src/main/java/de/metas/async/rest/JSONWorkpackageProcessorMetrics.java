@@ -0,0 +1,54 @@
+package de.metas.async.rest;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonPOJOBuilder;
+
+import lombok.Builder;
+import lombok.Value;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+@Builder
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@JsonDeserialize(builder = JSONWorkpackageProcessorMetrics.JSONWorkpackageProcessorMetricsBuilder.class)
+public class JSONWorkpackageProcessorMetrics
+{
+	String workpackageProcessorName;
+
+	long countProcessed;
+	long countErrors;
+	long countSkipped;
+	long countRetries;
+
+	JSONDurationHistogram queueWait;
+	JSONDurationHistogram processing;
+	JSONDurationHistogram commit;
+
+	@JsonPOJOBuilder(withPrefix = "")
+	public static class JSONWorkpackageProcessorMetricsBuilder
+	{
+	}
+}
@@ -22,6 +22,7 @@ package de.metas.lock.api;
  * #L%
  */
 
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
@@ -94,6 +95,15 @@ public interface ILockManager extends ISingletonService
 	 */
 	<T> T retrieveAndLock(IQuery<T> query, Class<T> clazz);
 
+	/**
+	 * Retrieves up to <code>limit</code> records from query and locks them (using {@link LockOwner#NONE}), using one database round-trip if the underlying lock database supports it.
+	 * Records which are concurrently being locked by other DB clients are skipped instead of waited for.
+	 * The records are selected in the order of the given query, but the lock database does not necessarily return them in that order.
+	 *
+	 * @return the IDs of the retrieved records (already locked), in no particular order; never <code>null</code>
+	 */
+	<T> List<Integer> retrieveAndLockIds(IQuery<T> query, int limit);
+
 	/**
 	 * Builds a SQL where clause to be used in other queries to filter the results.
 	 *
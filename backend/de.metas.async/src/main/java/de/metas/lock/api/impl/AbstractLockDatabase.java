@@ -22,7 +22,9 @@ package de.metas.lock.api.impl;
  * #L%
  */
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.dao.IQueryBuilder;
@@ -310,6 +312,36 @@ public abstract class AbstractLockDatabase implements ILockDatabase
 		return null;
 	}
 
+	@Override
+	public final <T> List<Integer> retrieveAndLockIds(final IQuery<T> query, final int limit)
+	{
+		Check.assume(limit > 0, "limit > 0");
+
+		final ILockCommand lockCommand = new LockCommand(this)
+				.setOwner(LockOwner.NONE);
+
+		return retrieveAndLockIds(query, lockCommand, limit);
+	}
+
+	/**
+	 * Default implementation which retrieves and locks the records one by one.
+	 * Lock databases which are able to select and lock multiple records in one go shall override it.
+	 */
+	protected <T> List<Integer> retrieveAndLockIds(final IQuery<T> query, final ILockCommand lockCommand, final int limit)
+	{
+		final List<Integer> lockedIds = new ArrayList<>(limit);
+		while (lockedIds.size() < limit)
+		{
+			final T model = retrieveAndLock(query, query.getModelClass());
+			if (model == null)
+			{
+				break;
+			}
+			lockedIds.add(InterfaceWrapperHelper.getId(model));
+		}
+		return lockedIds;
+	}
+
 	@Override
 	public final String getLockedWhereClause(final Class<?> modelClass, final String joinColumnNameFQ, final LockOwner lockOwner)
 	{
@@ -22,6 +22,7 @@ package de.metas.lock.api.impl;
  * #L%
  */
 
+import java.util.List;
 
 import org.adempiere.ad.dao.IQueryBuilder;
 import org.adempiere.ad.dao.IQueryFilter;
@@ -128,6 +129,12 @@ public class LockManager implements ILockManager
 		return getLockDatabase().retrieveAndLock(query, clazz);
 	}
 
+	@Override
+	public final <T> List<Integer> retrieveAndLockIds(final IQuery<T> query, final int limit)
+	{
+		return getLockDatabase().retrieveAndLockIds(query, limit);
+	}
+
 	@Override
 	public final String getNotLockedWhereClause(final String tableName, final String joinColumnNameFQ)
 	{
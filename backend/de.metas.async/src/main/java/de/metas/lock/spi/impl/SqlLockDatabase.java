@@ -9,6 +9,7 @@ import java.util.List;
 
 import org.adempiere.ad.dao.IQueryFilter;
 import org.adempiere.ad.dao.ISqlQueryFilter;
+import org.adempiere.ad.dao.QueryLimit;
 import org.adempiere.ad.dao.impl.TypedSqlQuery;
 import org.adempiere.ad.dao.impl.TypedSqlQueryFilter;
 import org.adempiere.ad.table.api.IADTableDAO;
@@ -436,6 +437,60 @@ public class SqlLockDatabase extends AbstractLockDatabase
 		}
 	}
 
+	/**
+	 * Selects and locks up to <code>limit</code> records in one SQL statement.
+	 * <p>
+	 * The candidate rows are selected using <code>FOR UPDATE SKIP LOCKED</code>, so concurrent pollers don't block each other and don't select the same rows.
+	 * The <code>ON CONFLICT DO NOTHING</code> covers the remaining case where another client inserted its T_Lock record after our snapshot was taken.
+	 */
+	@Override
+	protected <T> List<Integer> retrieveAndLockIds(final IQuery<T> query, final ILockCommand lockCommand, final int limit)
+	{
+		final TypedSqlQuery<T> notLockedQuery = TypedSqlQuery.cast(retrieveNotLockedQuery(query));
+		notLockedQuery.setLimit(QueryLimit.ofInt(limit));
+
+		final String tableName = notLockedQuery.getTableName();
+		final String keyColumnNameFQ = tableName + "." + notLockedQuery.getKeyColumnName();
+		final int adTableId = Services.get(IADTableDAO.class).retrieveTableId(tableName);
+
+		final LockOwner lockOwner = lockCommand.getOwner();
+
+		final List<Object> sqlParams = new ArrayList<>();
+		final String sql = "INSERT INTO " + I_T_Lock.Table_Name + " ("
+				+ I_T_Lock.COLUMNNAME_AD_Table_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Record_ID
+				+ ", " + I_T_Lock.COLUMNNAME_Owner
+				+ ", " + I_T_Lock.COLUMNNAME_IsAutoCleanup
+				+ ", " + I_T_Lock.COLUMNNAME_IsAllowMultipleOwners
+				+ ")"
+				//
+				+ " SELECT "
+				+ toSqlParam(adTableId, sqlParams) // AD_Table_ID
+				+ ", candidates.Record_ID" // Record_ID
+				+ ", " + toSqlParam(lockOwner.getOwnerName(), sqlParams) // Owner
+				+ ", " + toSqlParam(lockCommand.isAutoCleanup(), sqlParams) // IsAutoCleanup
+				+ ", " + toSqlParam(isAllowMultipleOwners(lockCommand.getAllowAdditionalLocks()), sqlParams) // IsAllowMultipleOwners
+				//
+				+ " FROM ("
+				+ notLockedQuery.buildSQL("SELECT " + keyColumnNameFQ + " AS Record_ID", null, null, true)
+				+ " FOR UPDATE SKIP LOCKED"
+				+ ") candidates"
+				+ " ON CONFLICT DO NOTHING"
+				+ " RETURNING " + I_T_Lock.COLUMNNAME_Record_ID;
+		sqlParams.addAll(notLockedQuery.getParametersEffective());
+
+		try
+		{
+			return DB.retrieveRowsOutOfTrx(sql, sqlParams, rs -> rs.getInt(1));
+		}
+		catch (final Exception e)
+		{
+			throw LockFailedException.wrapIfNeeded(e)
+					.setLockCommand(lockCommand)
+					.setSql(sql, sqlParams.toArray());
+		}
+	}
+
 	@Override
 	protected <T> IQuery<T> retrieveNotLockedQuery(final IQuery<T> query)
 	{
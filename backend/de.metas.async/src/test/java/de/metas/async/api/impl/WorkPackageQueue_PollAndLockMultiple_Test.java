@@ -0,0 +1,106 @@
+package de.metas.async.api.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.adempiere.model.InterfaceWrapperHelper;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.processor.impl.StaticMockedWorkpackageProcessor;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WorkPackageQueue_PollAndLockMultiple_Test extends QueueProcessorTestBase
+{
+	private IWorkPackageQueue queueForEnqueuing;
+	private IWorkPackageQueue queueForProcessing;
+
+	@Override
+	protected void beforeTestCustomized()
+	{
+		final I_C_Queue_Processor processorDef = helper.createQueueProcessor("test",
+				5, // poolSize
+				1000 // keepAliveTimeMillis
+		);
+		helper.assignPackageProcessor(processorDef, StaticMockedWorkpackageProcessor.class);
+
+		final IWorkPackageQueueFactory workPackageQueueFactory = Services.get(IWorkPackageQueueFactory.class);
+		queueForEnqueuing = workPackageQueueFactory.getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		queueForProcessing = workPackageQueueFactory.getQueueForPackageProcessing(processorDef);
+	}
+
+	@Test
+	public void pollAndLock_returnsAtMostMaxPackages_andLocksThem()
+	{
+		helper.createAndEnqueueWorkpackages(queueForEnqueuing, 5, true);
+
+		final List<I_C_Queue_WorkPackage> firstBatch = queueForProcessing.pollAndLock(3, IWorkPackageQueue.TIMEOUT_OneTimeOnly);
+		assertThat(firstBatch).hasSize(3);
+		assertThat(firstBatch).allMatch(lockManager::isLocked);
+
+		final List<I_C_Queue_WorkPackage> secondBatch = queueForProcessing.pollAndLock(3, IWorkPackageQueue.TIMEOUT_OneTimeOnly);
+		assertThat(secondBatch).hasSize(2);
+		assertThat(secondBatch)
+				.extracting(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID)
+				.doesNotContainAnyElementsOf(firstBatch.stream().map(I_C_Queue_WorkPackage::getC_Queue_WorkPackage_ID).collect(ImmutableList.toImmutableList()));
+
+		assertThat(queueForProcessing.pollAndLock(3, IWorkPackageQueue.TIMEOUT_OneTimeOnly)).isEmpty();
+	}
+
+	@Test
+	public void pollAndLock_eachPackageHasItsOwnContext()
+	{
+		helper.createAndEnqueueWorkpackages(queueForEnqueuing, 2, true);
+
+		final List<I_C_Queue_WorkPackage> workPackages = queueForProcessing.pollAndLock(2, IWorkPackageQueue.TIMEOUT_OneTimeOnly);
+		assertThat(workPackages).hasSize(2);
+		assertThat(InterfaceWrapperHelper.getCtx(workPackages.get(0)))
+				.isNotSameAs(InterfaceWrapperHelper.getCtx(workPackages.get(1)));
+	}
+
+	@Test
+	public void pollAndLock_timeout_returnsEmptyList()
+	{
+		final List<I_C_Queue_WorkPackage> workPackages = queueForProcessing.pollAndLock(3, 100);
+		assertThat(workPackages).isEmpty();
+	}
+
+	@Test
+	public void markReadyForProcessing_signalsWaitingPollers() throws InterruptedException
+	{
+		final long signalsCountToken = WorkPackageReadySignal.instance.getSignalsCount();
+
+		helper.createAndEnqueueWorkpackages(queueForEnqueuing, 1, true);
+
+		assertThat(WorkPackageReadySignal.instance.await(signalsCountToken, 10 * 1000)).isTrue();
+	}
+}
@@ -0,0 +1,151 @@
+package de.metas.async.processor.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.junit.Test;
+
+import de.metas.async.QueueProcessorTestBase;
+import de.metas.async.api.IWorkPackageQueue;
+import de.metas.async.api.NOPWorkpackageLogsRepository;
+import de.metas.async.model.I_C_Queue_PackageProcessor;
+import de.metas.async.model.I_C_Queue_Processor;
+import de.metas.async.model.I_C_Queue_WorkPackage;
+import de.metas.async.processor.IQueueProcessor;
+import de.metas.async.processor.IQueueProcessorFactory;
+import de.metas.async.processor.IQueueProcessorsExecutor;
+import de.metas.async.processor.IWorkPackageQueueFactory;
+import de.metas.async.spi.IWorkpackageProcessor.Result;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ElasticQueueProcessorTest extends QueueProcessorTestBase
+{
+	private I_C_Queue_Processor processorDef;
+	private I_C_Queue_PackageProcessor packageProcessorDef;
+	private IQueueProcessorsExecutor processorsExecutor;
+
+	@Override
+	protected void beforeTestCustomized()
+	{
+		processorDef = helper.createQueueProcessor("test",
+				2, // poolSize
+				1000 // keepAliveTimeMillis
+		);
+		packageProcessorDef = helper.assignPackageProcessor(processorDef, StaticMockedWorkpackageProcessor.class);
+
+		Services.get(ISysConfigBL.class).setValue("de.metas.async.C_Queue_Processor_ID." + processorDef.getC_Queue_Processor_ID() + ".Elastic", true, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Override
+	protected void afterTestCustomized()
+	{
+		if (processorsExecutor != null)
+		{
+			processorsExecutor.shutdown();
+			processorsExecutor = null;
+		}
+	}
+
+	@Test
+	public void factoryCreatesElasticProcessor()
+	{
+		final IWorkPackageQueue queue = Services.get(IWorkPackageQueueFactory.class).getQueueForPackageProcessing(processorDef);
+		final IQueueProcessor queueProcessor = Services.get(IQueueProcessorFactory.class).createAsynchronousQueueProcessor(processorDef, queue);
+		try
+		{
+			assertThat(queueProcessor).isInstanceOf(ElasticQueueProcessor.class);
+		}
+		finally
+		{
+			queueProcessor.shutdown();
+		}
+	}
+
+	@Test
+	public void test_Simple_100workpackages() throws Exception
+	{
+		processorsExecutor = new QueueProcessorsExecutor();
+		processorsExecutor.addQueueProcessor(processorDef);
+
+		final IWorkPackageQueue workpackageQueue = Services.get(IWorkPackageQueueFactory.class).getQueueForEnqueuing(ctx, StaticMockedWorkpackageProcessor.class);
+		final List<I_C_Queue_WorkPackage> workpackages = helper.createAndEnqueueWorkpackages(workpackageQueue, 100, false);
+
+		final MockedWorkpackageProcessor workpackageProcessor = StaticMockedWorkpackageProcessor.getMockedWorkpackageProcessor();
+		workpackageProcessor.setDefaultResult(Result.SUCCESS);
+
+		helper.markReadyForProcessing(workpackages);
+
+		final List<I_C_Queue_WorkPackage> processedWorkpackages = workpackageProcessor.getProcessedWorkpackages();
+		helper.waitUntilSize(processedWorkpackages, workpackages.size(), 30 * 1000);
+
+		assertThat(processedWorkpackages).hasSize(workpackages.size());
+		assertThat(processedWorkpackages).allMatch(I_C_Queue_WorkPackage::isProcessed);
+	}
+
+	@Test
+	public void packageProcessorConcurrencyLimiter()
+	{
+		final int packageProcessorId = packageProcessorDef.getC_Queue_PackageProcessor_ID();
+		Services.get(ISysConfigBL.class).setValue(PackageProcessorConcurrencyLimiter.createSysConfigName(packageProcessorId), 2, ClientId.SYSTEM, OrgId.ANY);
+
+		final PackageProcessorConcurrencyLimiter limiter = new PackageProcessorConcurrencyLimiter(20);
+		assertThat(limiter.tryAcquire(packageProcessorId)).isTrue();
+		assertThat(limiter.tryAcquire(packageProcessorId)).isTrue();
+		assertThat(limiter.isAvailable(packageProcessorId)).isFalse();
+		assertThat(limiter.tryAcquire(packageProcessorId)).isFalse();
+
+		// other package processors fall back to the default limit
+		assertThat(limiter.isAvailable(packageProcessorId + 1)).isTrue();
+
+		limiter.release(packageProcessorId);
+		assertThat(limiter.getRunningCount(packageProcessorId)).isEqualTo(1);
+		assertThat(limiter.getRemainingCapacity(packageProcessorId)).isEqualTo(1);
+		assertThat(limiter.tryAcquire(packageProcessorId)).isTrue();
+		assertThat(limiter.getRemainingCapacity(packageProcessorId)).isEqualTo(0);
+	}
+
+	@Test
+	public void maxPackagesToPoll_cappedByPackageProcessorLimit()
+	{
+		final int packageProcessorId = packageProcessorDef.getC_Queue_PackageProcessor_ID();
+		Services.get(ISysConfigBL.class).setValue(PackageProcessorConcurrencyLimiter.createSysConfigName(packageProcessorId), 3, ClientId.SYSTEM, OrgId.ANY);
+
+		final IWorkPackageQueue queue = Services.get(IWorkPackageQueueFactory.class).getQueueForPackageProcessing(processorDef);
+		final ElasticQueueProcessor queueProcessor = new ElasticQueueProcessor(processorDef, queue, NOPWorkpackageLogsRepository.instance);
+		try
+		{
+			// the executor would accept 2 x 10 work packages, but the only package processor accepts just 3
+			assertThat(queueProcessor.getMaxPackagesToPoll()).isEqualTo(3);
+		}
+		finally
+		{
+			queueProcessor.shutdown();
+		}
+	}
+}
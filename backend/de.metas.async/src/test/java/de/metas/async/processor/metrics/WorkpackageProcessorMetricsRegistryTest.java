@@ -0,0 +1,119 @@
+package de.metas.async.processor.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.metas.async.processor.metrics.WorkpackageProcessingTimes.Outcome;
+
+/*
+ * #%L
+ * de.metas.async
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class WorkpackageProcessorMetricsRegistryTest
+{
+	private final WorkpackageProcessorMetricsRegistry registry = WorkpackageProcessorMetricsRegistry.instance;
+
+	@Before
+	public void init()
+	{
+		registry.reset();
+	}
+
+	private static WorkpackageProcessingTimes run(
+			final int workpackageId,
+			final String processorName,
+			final Outcome outcome,
+			final int previousSkipsCount,
+			final long processingMillis)
+	{
+		return WorkpackageProcessingTimes.builder()
+				.workpackageId(workpackageId)
+				.workpackageProcessorName(processorName)
+				.queueProcessorName("queueProcessor")
+				.startTime(Instant.now())
+				.outcome(outcome)
+				.previousSkipsCount(previousSkipsCount)
+				.queueWaitMillis(1000)
+				.processingMillis(processingMillis)
+				.commitMillis(5)
+				.build();
+	}
+
+	@Test
+	public void metricsAreAggregatedPerWorkpackageProcessor()
+	{
+		registry.record(run(1, "processorA", Outcome.PROCESSED, 0, 20));
+		registry.record(run(2, "processorA", Outcome.SKIPPED, 0, 40));
+		registry.record(run(3, "processorA", Outcome.PROCESSED, 1, 60));
+		registry.record(run(4, "processorB", Outcome.ERROR, 0, 700));
+
+		final List<WorkpackageProcessorMetrics.Snapshot> metrics = registry.getMetrics();
+		assertThat(metrics).extracting(WorkpackageProcessorMetrics.Snapshot::getWorkpackageProcessorName).containsExactly("processorA", "processorB");
+
+		final WorkpackageProcessorMetrics.Snapshot metricsA = metrics.get(0);
+		assertThat(metricsA.getCountProcessed()).isEqualTo(2);
+		assertThat(metricsA.getCountSkipped()).isEqualTo(1);
+		assertThat(metricsA.getCountErrors()).isZero();
+		assertThat(metricsA.getCountRetries()).isEqualTo(1);
+		assertThat(metricsA.getProcessing().getCount()).isEqualTo(3);
+		assertThat(metricsA.getProcessing().getAvgMillis()).isEqualTo(40);
+		assertThat(metricsA.getProcessing().getMaxMillis()).isEqualTo(60);
+		assertThat(metricsA.getQueueWait().getMaxMillis()).isEqualTo(1000);
+		assertThat(metricsA.getCommit().getSumMillis()).isEqualTo(15);
+
+		assertThat(registry.getMetricsByQueueProcessorName("queueProcessor")).hasSize(2);
+		assertThat(registry.getMetricsByQueueProcessorName("otherQueueProcessor")).isEmpty();
+	}
+
+	@Test
+	public void slowestRecentRuns()
+	{
+		registry.record(run(1, "processorA", Outcome.PROCESSED, 0, 20));
+		registry.record(run(2, "processorA", Outcome.PROCESSED, 0, 400));
+		registry.record(run(3, "processorB", Outcome.PROCESSED, 0, 60));
+
+		assertThat(registry.getSlowestRecentRuns(2))
+				.extracting(WorkpackageProcessingTimes::getWorkpackageId)
+				.containsExactly(2, 3);
+	}
+
+	@Test
+	public void histogramPercentiles()
+	{
+		final DurationHistogram histogram = new DurationHistogram();
+		for (int i = 1; i <= 100; i++)
+		{
+			histogram.record(i <= 90 ? 8 : 700);
+		}
+
+		final DurationHistogram.Snapshot snapshot = histogram.snapshot();
+		assertThat(snapshot.getCount()).isEqualTo(100);
+		assertThat(snapshot.getBucketCounts().get(0)).isEqualTo(90);
+		assertThat(snapshot.getPercentileUpperBoundMillis(0.5)).isEqualTo(10);
+		assertThat(snapshot.getPercentileUpperBoundMillis(0.95)).isEqualTo(700);
+		assertThat(snapshot.getMaxMillis()).isEqualTo(700);
+	}
+}
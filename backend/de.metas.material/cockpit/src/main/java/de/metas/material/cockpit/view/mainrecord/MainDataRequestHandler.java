@@ -4,6 +4,14 @@ import static de.metas.util.NumberUtils.stripTrailingDecimalZeros;
 import static org.adempiere.model.InterfaceWrapperHelper.newInstance;
 import static org.adempiere.model.InterfaceWrapperHelper.save;
 
+import java.math.BigDecimal;
+import java.util.function.Supplier;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.ad.trx.api.ITrxListenerManager.TrxEventTiming;
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
+import org.adempiere.service.ISysConfigBL;
 import org.compiere.model.IQuery;
 import org.compiere.util.TimeUtil;
 import org.springframework.context.annotation.Profile;
@@ -12,8 +20,11 @@ import org.springframework.stereotype.Service;
 import com.google.common.annotations.VisibleForTesting;
 
 import de.metas.Profiles;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.material.cockpit.model.I_MD_Cockpit;
 import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.util.Services;
 import lombok.NonNull;
 
 /*
@@ -42,7 +53,90 @@ import lombok.NonNull;
 @Profile(Profiles.PROFILE_App) // the event handler is also just on this profile
 public class MainDataRequestHandler
 {
+	/**
+	 * If enabled, the requests of one transaction are summed up and added to the {@code MD_Cockpit} records right before the transaction is committed,
+	 * using one {@code UPDATE ... SET Qty = Qty + ?} per record. That way the records are locked only for a short time.
+	 */
+	private static final String SYSCONFIG_SaveOnCommit = "de.metas.material.cockpit.view.mainrecord.MainDataRequestHandler.SaveOnCommit";
+
+	private static final String TRX_PROPERTY_UpdateMainDataRequestsCollector = UpdateMainDataRequestsCollector.class.getName();
+
 	public void handleDataUpdateRequest(@NonNull final UpdateMainDataRequest dataUpdateRequest)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		final ITrx trx = trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone);
+		if (!trxManager.isNull(trx)
+				&& Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_SaveOnCommit, false))
+		{
+			getCollector(trx).add(dataUpdateRequest);
+		}
+		else
+		{
+			handleDataUpdateRequestNow(dataUpdateRequest);
+		}
+	}
+
+	/**
+	 * Gets the given trx's collector. If there isn't one yet, it adds one and also registers a listener that will save the collected requests when the trx is committed.
+	 */
+	private UpdateMainDataRequestsCollector getCollector(@NonNull final ITrx trx)
+	{
+		return trx.getProperty(TRX_PROPERTY_UpdateMainDataRequestsCollector, (Supplier<UpdateMainDataRequestsCollector>)() -> {
+
+			trx.getTrxListenerManager()
+					.newEventListener(TrxEventTiming.BEFORE_COMMIT)
+					.invokeMethodJustOnce(false) // we need this to happen on every last single commit
+					.registerHandlingMethod(innerTrx -> {
+						final UpdateMainDataRequestsCollector innerCollector = innerTrx.setProperty(TRX_PROPERTY_UpdateMainDataRequestsCollector, null);
+						if (innerCollector == null)
+						{
+							return;
+						}
+						innerCollector.getRequests().forEach(this::addToDataRecord);
+
+						// the direct updates bypass the model cache invalidation, so we need to do it ourselves (e.g. for the material cockpit view)
+						CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+								innerTrx.getTrxName(),
+								CacheInvalidateMultiRequest.allRecordsForTable(I_MD_Cockpit.Table_Name));
+					});
+
+			return new UpdateMainDataRequestsCollector();
+		});
+	}
+
+	/**
+	 * Adds the request's quantities to the existing record, directly in database. If there is no record yet, it is created.
+	 */
+	private void addToDataRecord(@NonNull final UpdateMainDataRequest dataUpdateRequest)
+	{
+		final BigDecimal qtyOnHandEstimateDelta = dataUpdateRequest.getCountedQty()
+				.add(dataUpdateRequest.getOnHandQtyChange())
+				.subtract(dataUpdateRequest.getDirectMovementQty());
+		final BigDecimal qtyAvailableToPromiseEstimateDelta = qtyOnHandEstimateDelta
+				.add(dataUpdateRequest.getReservedPurchaseQty())
+				.subtract(dataUpdateRequest.getReservedSalesQty());
+
+		final int updatedCount = dataUpdateRequest.getIdentifier()
+				.createQueryBuilder()
+				.create()
+				.updateDirectly()
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyMaterialentnahme, dataUpdateRequest.getDirectMovementQty())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyOnHandCount, dataUpdateRequest.getCountedQty())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_PMM_QtyPromised_OnDate, dataUpdateRequest.getOfferedQty())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyStockChange, dataUpdateRequest.getOnHandQtyChange())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyReserved_Purchase, dataUpdateRequest.getReservedPurchaseQty())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyReserved_Sale, dataUpdateRequest.getReservedSalesQty())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyRequiredForProduction, dataUpdateRequest.getRequiredForProductionQty())
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyOnHandEstimate, qtyOnHandEstimateDelta)
+				.addAddValueToColumn(I_MD_Cockpit.COLUMNNAME_QtyAvailableToPromiseEstimate, qtyAvailableToPromiseEstimateDelta)
+				.execute();
+		if (updatedCount <= 0)
+		{
+			handleDataUpdateRequestNow(dataUpdateRequest);
+		}
+	}
+
+	private void handleDataUpdateRequestNow(@NonNull final UpdateMainDataRequest dataUpdateRequest)
 	{
 		synchronized (MainDataRequestHandler.class)
 		{
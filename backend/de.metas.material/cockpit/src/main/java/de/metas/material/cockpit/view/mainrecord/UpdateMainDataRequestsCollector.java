@@ -0,0 +1,69 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sums up the {@link UpdateMainDataRequest}s of one transaction per {@link MainDataRecordIdentifier}, so that each {@code MD_Cockpit} record is updated just once, when the transaction is committed.
+ */
+@ToString
+final class UpdateMainDataRequestsCollector
+{
+	private final Map<MainDataRecordIdentifier, UpdateMainDataRequest> requestsByIdentifier = new LinkedHashMap<>();
+
+	public synchronized void add(@NonNull final UpdateMainDataRequest request)
+	{
+		requestsByIdentifier.merge(request.getIdentifier(), request, UpdateMainDataRequestsCollector::sum);
+	}
+
+	public synchronized ImmutableList<UpdateMainDataRequest> getRequests()
+	{
+		return ImmutableList.copyOf(requestsByIdentifier.values());
+	}
+
+	private static UpdateMainDataRequest sum(
+			@NonNull final UpdateMainDataRequest request1,
+			@NonNull final UpdateMainDataRequest request2)
+	{
+		return UpdateMainDataRequest.builder()
+				.identifier(request1.getIdentifier())
+				.countedQty(request1.getCountedQty().add(request2.getCountedQty()))
+				.onHandQtyChange(request1.getOnHandQtyChange().add(request2.getOnHandQtyChange()))
+				.directMovementQty(request1.getDirectMovementQty().add(request2.getDirectMovementQty()))
+				.orderedSalesQty(request1.getOrderedSalesQty().add(request2.getOrderedSalesQty()))
+				.reservedSalesQty(request1.getReservedSalesQty().add(request2.getReservedSalesQty()))
+				.orderedPurchaseQty(request1.getOrderedPurchaseQty().add(request2.getOrderedPurchaseQty()))
+				.reservedPurchaseQty(request1.getReservedPurchaseQty().add(request2.getReservedPurchaseQty()))
+				.offeredQty(request1.getOfferedQty().add(request2.getOfferedQty()))
+				.requiredForProductionQty(request1.getRequiredForProductionQty().add(request2.getRequiredForProductionQty()))
+				.build();
+	}
+}
@@ -0,0 +1,70 @@
+package de.metas.material.cockpit.view.mainrecord;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.material.cockpit.view.MainDataRecordIdentifier;
+import de.metas.material.event.commons.ProductDescriptor;
+
+/*
+ * #%L
+ * metasfresh-material-cockpit
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class UpdateMainDataRequestsCollectorTest
+{
+	private static final Instant NOW = Instant.now();
+
+	@Test
+	public void add_sumsUpRequestsWithSameIdentifier()
+	{
+		final MainDataRecordIdentifier identifier1 = createIdentifier(30);
+		final MainDataRecordIdentifier identifier2 = createIdentifier(31);
+
+		final UpdateMainDataRequestsCollector collector = new UpdateMainDataRequestsCollector();
+		collector.add(UpdateMainDataRequest.builder().identifier(identifier1).onHandQtyChange(new BigDecimal("10")).build());
+		collector.add(UpdateMainDataRequest.builder().identifier(identifier2).reservedSalesQty(new BigDecimal("3")).build());
+		collector.add(UpdateMainDataRequest.builder().identifier(identifier1).onHandQtyChange(new BigDecimal("-4")).reservedSalesQty(new BigDecimal("2")).build());
+
+		final List<UpdateMainDataRequest> requests = collector.getRequests();
+		assertThat(requests).hasSize(2);
+
+		assertThat(requests.get(0).getIdentifier()).isEqualTo(identifier1);
+		assertThat(requests.get(0).getOnHandQtyChange()).isEqualByComparingTo("6");
+		assertThat(requests.get(0).getReservedSalesQty()).isEqualByComparingTo("2");
+
+		assertThat(requests.get(1).getIdentifier()).isEqualTo(identifier2);
+		assertThat(requests.get(1).getOnHandQtyChange()).isEqualByComparingTo("0");
+		assertThat(requests.get(1).getReservedSalesQty()).isEqualByComparingTo("3");
+	}
+
+	private static MainDataRecordIdentifier createIdentifier(final int productId)
+	{
+		return MainDataRecordIdentifier.builder()
+				.date(NOW)
+				.productDescriptor(ProductDescriptor.completeForProductIdAndEmptyAttribute(productId))
+				.build();
+	}
+}
@@ -3,6 +3,8 @@ package de.metas.material.dispo.commons.repository;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CacheMgt;
+import de.metas.cache.model.CacheInvalidateMultiRequest;
 import de.metas.common.util.CoalesceUtil;
 import de.metas.document.engine.DocStatus;
 import de.metas.material.dispo.commons.candidate.Candidate;
@@ -34,7 +36,11 @@ import lombok.Builder;
 import lombok.NonNull;
 import lombok.Value;
 import org.adempiere.ad.dao.ICompositeQueryFilter;
+import org.adempiere.ad.dao.ICompositeQueryUpdaterExecutor;
 import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.ad.dao.impl.CompareQueryFilter.Operator;
+import org.adempiere.ad.dao.impl.ModelColumnNameValue;
+import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.warehouse.WarehouseId;
 import org.compiere.util.TimeUtil;
 import org.springframework.stereotype.Service;
@@ -114,6 +120,80 @@ public class CandidateRepositoryWriteService
 		return addOrUpdate(query, candidate, false);
 	}
 
+	/**
+	 * Adds the given {@code qtyDelta} to the quantity of all candidates that match the given {@code query}.
+	 * Unlike {@link #updateCandidateById(Candidate)} the candidates are not loaded and saved one by one, but updated directly in the database,
+	 * so the cost does not depend on the number of matching candidates (and they are locked only for the duration of one statement).
+	 * <p>
+	 * Note that only the candidate's qty, status and groupId are updated; it's meant to be used for stock candidates.
+	 *
+	 * @param groupId if not {@code null}, then the matching candidates are also assigned to this group
+	 * @return the number of updated candidates
+	 */
+	public int addQtyDeltaToCandidates(
+			@NonNull final CandidatesQuery query,
+			@NonNull final BigDecimal qtyDelta,
+			@Nullable final MaterialDispoGroupId groupId)
+	{
+		if (qtyDelta.signum() == 0 && groupId == null)
+		{
+			return 0;
+		}
+
+		final ICompositeQueryUpdaterExecutor<I_MD_Candidate> updater = RepositoryCommons
+				.mkQueryBuilder(query)
+				.create()
+				.updateDirectly()
+				.addAddValueToColumn(I_MD_Candidate.COLUMNNAME_Qty, qtyDelta);
+		if (groupId != null)
+		{
+			updater.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_GroupId, groupId.toInt());
+		}
+		final int updatedCount = updater.execute();
+
+		if (qtyDelta.signum() != 0)
+		{
+			updateStatusFromQtys(query);
+		}
+
+		// the direct update bypasses the model cache invalidation, so we need to do it ourselves (e.g. for the ATP cache)
+		CacheMgt.get().resetLocalNowAndBroadcastOnTrxCommit(
+				ITrx.TRXNAME_ThreadInherited,
+				CacheInvalidateMultiRequest.allRecordsForTable(I_MD_Candidate.Table_Name));
+
+		Loggables.addLog(
+				"addQtyDeltaToCandidates - added qtyDelta={} to {} candidates; groupId={};\nquery={}",
+				qtyDelta, updatedCount, groupId, query);
+
+		return updatedCount;
+	}
+
+	/**
+	 * Same rule as in {@link #updateCandidateRecordFromCandidate(I_MD_Candidate, Candidate, boolean)}: a candidate is processed if its qty is fulfilled.
+	 */
+	private void updateStatusFromQtys(@NonNull final CandidatesQuery query)
+	{
+		final ModelColumnNameValue<I_MD_Candidate> qtyColumn = ModelColumnNameValue.forColumnName(I_MD_Candidate.COLUMNNAME_Qty);
+
+		RepositoryCommons
+				.mkQueryBuilder(query)
+				.addCompareFilter(I_MD_Candidate.COLUMNNAME_QtyFulfilled, Operator.GREATER_OR_EQUAL, qtyColumn)
+				.addNotEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Processed)
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Processed)
+				.execute();
+
+		RepositoryCommons
+				.mkQueryBuilder(query)
+				.addCompareFilter(I_MD_Candidate.COLUMNNAME_QtyFulfilled, Operator.LESS, qtyColumn)
+				.addNotEqualsFilter(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Planned)
+				.create()
+				.updateDirectly()
+				.addSetColumnValue(I_MD_Candidate.COLUMNNAME_MD_Candidate_Status, X_MD_Candidate.MD_CANDIDATE_STATUS_Planned)
+				.execute();
+	}
+
 	@Value
 	@Builder
 	public static class SaveResult
@@ -3,23 +3,39 @@ package de.metas.material.dispo.commons.repository.atp;
 import java.math.BigDecimal;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
+import javax.annotation.PostConstruct;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.ad.trx.api.OnTrxMissingPolicy;
 import org.adempiere.service.ISysConfigBL;
 import org.adempiere.warehouse.WarehouseId;
+import org.compiere.Adempiere;
 import org.compiere.model.IQuery;
 import org.compiere.util.Env;
 import org.compiere.util.TimeUtil;
+import org.slf4j.Logger;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
 import com.google.common.annotations.VisibleForTesting;
 import java.util.Objects;
+
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.bpartner.BPartnerId;
+import de.metas.cache.CCache;
+import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.CacheMgt;
+import de.metas.logging.LogManager;
 import de.metas.material.commons.attributes.AttributesKeyPattern;
 import de.metas.material.commons.attributes.AttributesKeyPatterns;
+import de.metas.material.dispo.model.I_MD_Candidate;
 import de.metas.material.dispo.model.I_MD_Candidate_ATP_QueryResult;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.util.Services;
@@ -49,10 +65,21 @@ import lombok.Value;
  */
 
 @Service
+@DependsOn(Adempiere.BEAN_NAME) // needs the DB to read the SysConfigs on startup
 public class AvailableToPromiseRepository
 {
+	private static final Logger logger = LogManager.getLogger(AvailableToPromiseRepository.class);
+
 	private static final String SYSCONFIG_ATP_ATTRIBUTES_KEYS = "de.metas.ui.web.window.descriptor.sql.ProductLookupDescriptor.ATP.AttributesKeys";
 
+	@VisibleForTesting
+	static final String SYSCONFIG_Cache_Enabled = "de.metas.material.dispo.atp.cache.enabled";
+	private static final String SYSCONFIG_Cache_MaxSize = "de.metas.material.dispo.atp.cache.maxSize";
+	private static final String SYSCONFIG_Cache_ExpireMinutes = "de.metas.material.dispo.atp.cache.expireMinutes";
+
+	/** Created on first lookup; empty if the ATP cache is not enabled */
+	private final Supplier<Optional<CCache<AvailableToPromiseMultiQuery, AvailableToPromiseResult>>> cacheSupplier = Suppliers.memoize(this::createCacheIfEnabled);
+
 	@NonNull
 	public BigDecimal retrieveAvailableStockQtySum(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -69,6 +96,23 @@ public class AvailableToPromiseRepository
 
 	@NonNull
 	public AvailableToPromiseResult retrieveAvailableStock(@NonNull final AvailableToPromiseMultiQuery multiQuery)
+	{
+		final Optional<CCache<AvailableToPromiseMultiQuery, AvailableToPromiseResult>> cache = cacheSupplier.get();
+		if (!cache.isPresent() || isThreadInheritedTrxActive())
+		{
+			// within a trx we might see uncommitted candidates, which must not get into the shared cache
+			return retrieveAvailableStockFromDB(multiQuery);
+		}
+		return cache.get().getOrLoad(multiQuery, this::retrieveAvailableStockFromDB);
+	}
+
+	private static boolean isThreadInheritedTrxActive()
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		return trxManager.isActive(trxManager.getThreadInheritedTrx(OnTrxMissingPolicy.ReturnTrxNone));
+	}
+
+	private AvailableToPromiseResult retrieveAvailableStockFromDB(@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
 		final boolean addToPredefinedBuckets = multiQuery.isAddToPredefinedBuckets();
 		final AvailableToPromiseResultBuilder result = addToPredefinedBuckets
@@ -121,6 +165,71 @@ public class AvailableToPromiseRepository
 		return retrieveAvailableStock(AvailableToPromiseMultiQuery.of(query));
 	}
 
+	/**
+	 * Creates the cache on startup if it's enabled, so that this JVM broadcasts its {@code MD_Candidate} changes right away, and not just after its first ATP lookup.
+	 */
+	@PostConstruct
+	public void createCacheIfEnabledOnStartup()
+	{
+		cacheSupplier.get();
+	}
+
+	/**
+	 * The cache is reset whenever an {@code MD_Candidate} is changed, also if that happens in another JVM (e.g. in the material-dispo service).
+	 * The expiration is there as a safety net for changes which bypass the cache invalidation (e.g. direct SQL).
+	 */
+	private Optional<CCache<AvailableToPromiseMultiQuery, AvailableToPromiseResult>> createCacheIfEnabled()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		if (!sysConfigBL.getBooleanValue(SYSCONFIG_Cache_Enabled, false))
+		{
+			return Optional.empty();
+		}
+
+		CacheMgt.get().enableRemoteCacheInvalidationForTableName(I_MD_Candidate.Table_Name);
+
+		return Optional.of(CCache.<AvailableToPromiseMultiQuery, AvailableToPromiseResult> builder()
+				.cacheName("AvailableToPromiseRepository#byQuery")
+				.tableName(I_MD_Candidate.Table_Name)
+				.cacheMapType(CacheMapType.LRU)
+				.initialCapacity(sysConfigBL.getIntValue(SYSCONFIG_Cache_MaxSize, 1000))
+				.expireMinutes(sysConfigBL.getIntValue(SYSCONFIG_Cache_ExpireMinutes, 5))
+				.build());
+	}
+
+	/**
+	 * Compares the cached ATP results with the ones from database. The cache entries which differ are logged and removed from cache.
+	 *
+	 * @return the queries whose cached results were not consistent with the database
+	 */
+	public ImmutableList<AvailableToPromiseMultiQuery> checkCacheConsistency()
+	{
+		final Optional<CCache<AvailableToPromiseMultiQuery, AvailableToPromiseResult>> cache = cacheSupplier.get();
+		if (!cache.isPresent())
+		{
+			return ImmutableList.of();
+		}
+
+		final ImmutableList.Builder<AvailableToPromiseMultiQuery> inconsistentQueries = ImmutableList.builder();
+		for (final AvailableToPromiseMultiQuery multiQuery : ImmutableList.copyOf(cache.get().keySet()))
+		{
+			final AvailableToPromiseResult cachedResult = cache.get().get(multiQuery);
+			if (cachedResult == null)
+			{
+				continue; // meanwhile expired or invalidated
+			}
+
+			final AvailableToPromiseResult dbResult = retrieveAvailableStockFromDB(multiQuery);
+			if (!Objects.equals(cachedResult, dbResult))
+			{
+				logger.warn("Cached ATP result is not consistent with the database; removing it from cache: multiQuery={}, cachedResult={}, dbResult={}", multiQuery, cachedResult, dbResult);
+				cache.get().remove(multiQuery);
+				inconsistentQueries.add(multiQuery);
+			}
+		}
+		return inconsistentQueries.build();
+	}
+
 	private IQuery<I_MD_Candidate_ATP_QueryResult> createDBQueryForMaterialQueryOrNull(
 			@NonNull final AvailableToPromiseMultiQuery multiQuery)
 	{
@@ -14,6 +14,9 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.test.AdempiereTestHelper;
 import org.adempiere.test.AdempiereTestWatcher;
 import org.compiere.util.TimeUtil;
@@ -32,6 +35,8 @@ import de.metas.material.event.EventTestHelper;
 import de.metas.material.event.commons.AttributesKey;
 import de.metas.material.event.commons.MaterialDescriptor;
 import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.organization.OrgId;
+import de.metas.util.Services;
 
 /*
  * #%L
@@ -268,6 +273,47 @@ public class AvailableToPromiseRepositoryTest
 
 	private int seqNoCounter = 1; // we start with one, because 0 is not considered valid by the code under test
 
+	@Test
+	public void retrieveAvailableStock_cached_and_checkCacheConsistency()
+	{
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseRepository.SYSCONFIG_Cache_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+		availableToPromiseRepository = new AvailableToPromiseRepository();
+
+		final I_MD_Candidate_ATP_QueryResult stockRecord = createStockRecordWithBPartner(null, BEFORE_NOW);
+		final MaterialDescriptor materialDescriptor = createMaterialDescriptor().withCustomerId(null);
+		final AvailableToPromiseMultiQuery query = AvailableToPromiseMultiQuery.of(AvailableToPromiseQuery.forMaterialDescriptor(materialDescriptor));
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TEN);
+
+		// change the qty behind the cache's back
+		stockRecord.setQty(new BigDecimal("11"));
+		save(stockRecord);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TEN);
+
+		assertThat(availableToPromiseRepository.checkCacheConsistency()).containsExactly(query);
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("11");
+		assertThat(availableToPromiseRepository.checkCacheConsistency()).isEmpty();
+	}
+
+	@Test
+	public void retrieveAvailableStock_cacheIsBypassedWithinTrx()
+	{
+		Services.get(ISysConfigBL.class).setValue(AvailableToPromiseRepository.SYSCONFIG_Cache_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+		availableToPromiseRepository = new AvailableToPromiseRepository();
+
+		final I_MD_Candidate_ATP_QueryResult stockRecord = createStockRecordWithBPartner(null, BEFORE_NOW);
+		final MaterialDescriptor materialDescriptor = createMaterialDescriptor().withCustomerId(null);
+		final AvailableToPromiseMultiQuery query = AvailableToPromiseMultiQuery.of(AvailableToPromiseQuery.forMaterialDescriptor(materialDescriptor));
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TEN);
+
+		stockRecord.setQty(new BigDecimal("11"));
+		save(stockRecord);
+
+		Services.get(ITrxManager.class).runInNewTrx(() -> {
+			assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo("11");
+		});
+		assertThat(availableToPromiseRepository.retrieveAvailableStockQtySum(query)).isEqualByComparingTo(TEN); // still the cached value
+	}
+
 	private I_MD_Candidate_ATP_QueryResult createStockRecordWithBPartner(
 			final BPartnerId bpartnerId,
 			final Instant dateProjected)
@@ -0,0 +1,337 @@
+package de.metas.material.event.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrxManager;
+import org.slf4j.Logger;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Queues the received events and handles them in micro-batches, on one dedicated thread, one transaction per batch.
+ * <p>
+ * The events are handled in the order they were received, because the handling of one event usually depends on the candidates created by the events before it.
+ * If a batch fails, the rolled back events are handled again, each in its own transaction; the events that fail again are passed to the error handler.
+ * <p>
+ * When the events are partitioned, there is one instance per lane.
+ * <p>
+ * Note that the delivery is <b>at-most-once</b>: the event bus considers an event as delivered as soon as it was enqueued.
+ * Events which are still queued when the JVM dies are lost; on a regular shutdown, see {@link #awaitIdle(long)}.
+ */
+@ToString(of = { "name", "maxBatchSize", "maxWaitMillis" })
+final class MaterialEventBatchProcessor
+{
+	private static final Logger logger = LogManager.getLogger(MaterialEventBatchProcessor.class);
+
+	private static final int DEFAULT_QUEUE_CAPACITY = 10000;
+	/** how long the processor thread waits for new events before it checks {@link #overflow} again */
+	private static final long POLL_TIMEOUT_MILLIS = 100;
+
+	private final String name;
+	private final Consumer<ReceivedMaterialEvent> eventHandler;
+	private final BiConsumer<ReceivedMaterialEvent, RuntimeException> errorHandler;
+	private final int maxBatchSize;
+	private final long maxWaitMillis;
+
+	private final BlockingQueue<ReceivedMaterialEvent> queue;
+	/**
+	 * Events which were enqueued by a processor thread (i.e. follow-up events posted by the handlers) while {@link #queue} was full.
+	 * Processor threads must not block on a queue, so they are kept here until there is space in the queue again.
+	 */
+	private final ConcurrentLinkedQueue<ReceivedMaterialEvent> overflow = new ConcurrentLinkedQueue<>();
+	private final Thread thread;
+
+	/** guarded by {@link #pendingLock}; number of enqueued events which were not yet handled */
+	private int pendingCount = 0;
+	private final Object pendingLock = new Object();
+
+	/**
+	 * @param eventHandler handles one event in the current transaction
+	 * @param errorHandler invoked out of transaction for each event which could not be handled
+	 * @param maxWaitMillis how long to wait for more events after the first one of a batch was received
+	 * @param queueCapacity how many events may be queued before {@link #enqueue(ReceivedMaterialEvent)} blocks; zero or negative means default
+	 */
+	@Builder
+	private MaterialEventBatchProcessor(
+			@Nullable final String name,
+			@NonNull final Consumer<ReceivedMaterialEvent> eventHandler,
+			@NonNull final BiConsumer<ReceivedMaterialEvent, RuntimeException> errorHandler,
+			final int maxBatchSize,
+			final long maxWaitMillis,
+			final int queueCapacity)
+	{
+		this.name = name != null ? name : MaterialEventBatchProcessor.class.getSimpleName();
+		this.eventHandler = eventHandler;
+		this.errorHandler = errorHandler;
+		this.maxBatchSize = Math.max(maxBatchSize, 1);
+		this.maxWaitMillis = Math.max(maxWaitMillis, 0);
+		this.queue = new LinkedBlockingQueue<>(queueCapacity > 0 ? queueCapacity : DEFAULT_QUEUE_CAPACITY);
+
+		this.thread = new Thread(this::run, this.name);
+		thread.setDaemon(true);
+		thread.start();
+
+		logger.info("Started {}", this);
+	}
+
+	/**
+	 * Enqueues the given event. If the queue is full, it blocks until there is space again, so that the event bus is slowed down instead of running out of memory.
+	 * <p>
+	 * Events enqueued by the processor thread itself never block, because the processor thread is the only one which could make space in the queue.
+	 */
+	public void enqueue(@NonNull final ReceivedMaterialEvent event)
+	{
+		if (isProcessorThread())
+		{
+			enqueueWithoutBlocking(event);
+			return;
+		}
+
+		synchronized (pendingLock)
+		{
+			pendingCount++;
+		}
+
+		try
+		{
+			queue.put(event);
+		}
+		catch (final InterruptedException e)
+		{
+			markHandled(1);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while enqueuing " + event, e);
+		}
+	}
+
+	/**
+	 * Enqueues the given event without blocking, even if the queue is full.
+	 * To be used by threads which must not wait for this processor, like the threads of other processors.
+	 */
+	public void enqueueWithoutBlocking(@NonNull final ReceivedMaterialEvent event)
+	{
+		synchronized (pendingLock)
+		{
+			pendingCount++;
+		}
+
+		// keep the order: once there are overflowed events, the next ones go to the overflow too
+		if (!overflow.isEmpty() || !queue.offer(event))
+		{
+			overflow.add(event);
+		}
+	}
+
+	/**
+	 * @return true if the current thread is the one which is handling this processor's events
+	 */
+	public boolean isProcessorThread()
+	{
+		return Thread.currentThread() == thread;
+	}
+
+	/**
+	 * Blocks until all events that were enqueued so far are handled.
+	 */
+	public void awaitIdle()
+	{
+		synchronized (pendingLock)
+		{
+			while (pendingCount > 0)
+			{
+				try
+				{
+					pendingLock.wait();
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting for " + this + " to handle its pending events", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Like {@link #awaitIdle()}, but gives up after the given timeout.
+	 *
+	 * @return number of events which are still pending
+	 */
+	public int awaitIdle(final long timeoutMillis)
+	{
+		final long deadline = System.currentTimeMillis() + timeoutMillis;
+		synchronized (pendingLock)
+		{
+			while (pendingCount > 0)
+			{
+				final long waitMillis = deadline - System.currentTimeMillis();
+				if (waitMillis <= 0)
+				{
+					break;
+				}
+				try
+				{
+					pendingLock.wait(waitMillis);
+				}
+				catch (final InterruptedException e)
+				{
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+			return pendingCount;
+		}
+	}
+
+	private void markHandled(final int count)
+	{
+		synchronized (pendingLock)
+		{
+			pendingCount -= count;
+			pendingLock.notifyAll();
+		}
+	}
+
+	private void run()
+	{
+		while (!Thread.currentThread().isInterrupted())
+		{
+			try
+			{
+				final List<ReceivedMaterialEvent> batch = pollBatch();
+				try
+				{
+					processBatch(batch);
+				}
+				finally
+				{
+					markHandled(batch.size());
+				}
+			}
+			catch (final InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+			}
+			catch (final Exception e)
+			{
+				logger.warn("Got unexpected exception while processing material events; continuing", e);
+			}
+		}
+
+		logger.info("Stopped {}", this);
+	}
+
+	private List<ReceivedMaterialEvent> pollBatch() throws InterruptedException
+	{
+		final List<ReceivedMaterialEvent> batch = new ArrayList<>();
+		ReceivedMaterialEvent firstEvent = null;
+		while (firstEvent == null)
+		{
+			moveOverflowToQueue();
+			firstEvent = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+		}
+		batch.add(firstEvent);
+
+		final long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+		while (batch.size() < maxBatchSize)
+		{
+			final long remainingNanos = deadlineNanos - System.nanoTime();
+			final ReceivedMaterialEvent event = remainingNanos > 0 ? queue.poll(remainingNanos, TimeUnit.NANOSECONDS) : queue.poll();
+			if (event == null)
+			{
+				break;
+			}
+			batch.add(event);
+		}
+
+		return batch;
+	}
+
+	private void moveOverflowToQueue()
+	{
+		for (ReceivedMaterialEvent event = overflow.peek(); event != null && queue.offer(event); event = overflow.peek())
+		{
+			overflow.poll();
+		}
+	}
+
+	private void processBatch(@NonNull final List<ReceivedMaterialEvent> batch)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		try
+		{
+			trxManager.runInNewTrx(() -> batch.forEach(eventHandler));
+
+			MaterialEventMetrics.instance.incrementBatches(false);
+			MaterialEventMetrics.instance.incrementProcessed(batch.size());
+			logger.debug("Processed batch of {} events", batch.size());
+		}
+		catch (final RuntimeException ex)
+		{
+			MaterialEventMetrics.instance.incrementBatches(true);
+			logger.warn("Failed processing batch of {} events in one transaction; processing them one by one", batch.size(), ex);
+
+			processOneByOne(batch);
+		}
+	}
+
+	private void processOneByOne(@NonNull final List<ReceivedMaterialEvent> events)
+	{
+		final ITrxManager trxManager = Services.get(ITrxManager.class);
+		for (final ReceivedMaterialEvent event : events)
+		{
+			try
+			{
+				trxManager.runInNewTrx(() -> eventHandler.accept(event));
+				MaterialEventMetrics.instance.incrementProcessed(1);
+			}
+			catch (final RuntimeException ex)
+			{
+				logger.warn("Failed processing event={}; skipping it", event, ex);
+				try
+				{
+					errorHandler.accept(event, ex);
+				}
+				catch (final RuntimeException errorHandlerEx)
+				{
+					logger.warn("Failed handling the error of event={}", event, errorHandlerEx);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,216 @@
+package de.metas.material.event.eventbus;
+
+import java.util.OptionalInt;
+import java.util.function.Consumer;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.util.Check;
+import lombok.NonNull;
+import lombok.ToString;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Dispatches the received events to the lanes, partitioned by product (see {@link MaterialEventPartitionKeys}).
+ * <p>
+ * An event without product might affect any product, so it's a barrier: we wait for all lanes to catch up and then handle it alone, on the posting thread.
+ * While a barrier event is handled, the events posted by other threads are held back.
+ * <p>
+ * The event bus is synchronous by default, so the follow-up events which the handlers post after commit are dispatched on the lane's thread.
+ * A lane thread must never wait, neither for a lane (it could be waiting for itself) nor for a barrier (the barrier could be waiting for that lane).
+ * So the events posted from a lane thread are enqueued without blocking; an event without product is enqueued into the posting lane, after the events which it already has.
+ * <p>
+ * Note that this class never waits while holding its lock.
+ */
+@ToString(of = "lanes")
+final class MaterialEventLanesDispatcher
+{
+	private final ImmutableList<MaterialEventBatchProcessor> lanes;
+	private final Consumer<ReceivedMaterialEvent> barrierEventHandler;
+
+	private final Object lock = new Object();
+	/** guarded by {@link #lock}; the thread which is currently handling a barrier event */
+	private Thread barrierThread = null;
+	/** guarded by {@link #lock}; how many threads are currently enqueuing an event into a lane */
+	private int dispatchingCount = 0;
+
+	/**
+	 * @param barrierEventHandler handles an event without product in its own transaction
+	 */
+	public MaterialEventLanesDispatcher(
+			@NonNull final ImmutableList<MaterialEventBatchProcessor> lanes,
+			@NonNull final Consumer<ReceivedMaterialEvent> barrierEventHandler)
+	{
+		Check.assumeNotEmpty(lanes, "lanes is not empty");
+		this.lanes = lanes;
+		this.barrierEventHandler = barrierEventHandler;
+	}
+
+	public void dispatch(@NonNull final ReceivedMaterialEvent receivedEvent)
+	{
+		final OptionalInt productId = lanes.size() > 1
+				? MaterialEventPartitionKeys.extractProductId(receivedEvent.getMaterialEvent())
+				: OptionalInt.of(0); // with one lane, everything goes to that lane
+
+		final MaterialEventBatchProcessor currentLane = getCurrentThreadLane();
+		if (currentLane != null)
+		{
+			final MaterialEventBatchProcessor lane = productId.isPresent() ? getLane(productId.getAsInt()) : currentLane;
+			lane.enqueueWithoutBlocking(receivedEvent);
+		}
+		else if (productId.isPresent())
+		{
+			final boolean nested = startDispatching();
+			try
+			{
+				getLane(productId.getAsInt()).enqueue(receivedEvent);
+			}
+			finally
+			{
+				stopDispatching(nested);
+			}
+		}
+		else
+		{
+			final boolean nested = startBarrier();
+			try
+			{
+				lanes.forEach(MaterialEventBatchProcessor::awaitIdle);
+				barrierEventHandler.accept(receivedEvent);
+			}
+			finally
+			{
+				stopBarrier(nested);
+			}
+		}
+	}
+
+	private MaterialEventBatchProcessor getLane(final int productId)
+	{
+		return lanes.get(Math.floorMod(productId, lanes.size()));
+	}
+
+	@Nullable
+	private MaterialEventBatchProcessor getCurrentThreadLane()
+	{
+		for (final MaterialEventBatchProcessor lane : lanes)
+		{
+			if (lane.isProcessorThread())
+			{
+				return lane;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Waits until no other thread is handling a barrier event.
+	 *
+	 * @return true if the current thread is handling a barrier event, i.e. this event was posted by the barrier event's handler
+	 */
+	private boolean startDispatching()
+	{
+		synchronized (lock)
+		{
+			if (barrierThread == Thread.currentThread())
+			{
+				return true;
+			}
+
+			while (barrierThread != null)
+			{
+				waitForLock();
+			}
+			dispatchingCount++;
+			return false;
+		}
+	}
+
+	private void stopDispatching(final boolean nested)
+	{
+		if (nested)
+		{
+			return;
+		}
+
+		synchronized (lock)
+		{
+			dispatchingCount--;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Waits until no other thread is handling a barrier event or enqueuing an event, then makes the current thread the barrier thread.
+	 *
+	 * @return true if the current thread is already the barrier thread
+	 */
+	private boolean startBarrier()
+	{
+		synchronized (lock)
+		{
+			if (barrierThread == Thread.currentThread())
+			{
+				return true;
+			}
+
+			while (barrierThread != null || dispatchingCount > 0)
+			{
+				waitForLock();
+			}
+			barrierThread = Thread.currentThread();
+			return false;
+		}
+	}
+
+	private void stopBarrier(final boolean nested)
+	{
+		if (nested)
+		{
+			return;
+		}
+
+		synchronized (lock)
+		{
+			barrierThread = null;
+			lock.notifyAll();
+		}
+	}
+
+	/** Note: {@link Object#wait()} releases the lock while waiting */
+	private void waitForLock()
+	{
+		try
+		{
+			lock.wait();
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting to dispatch material events to " + lanes, e);
+		}
+	}
+}
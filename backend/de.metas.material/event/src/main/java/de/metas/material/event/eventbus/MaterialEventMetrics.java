@@ -0,0 +1,145 @@
+package de.metas.material.event.eventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.annotations.VisibleForTesting;
+
+import de.metas.util.time.SystemTime;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Counts the material events which were received and processed in this JVM.
+ * <p>
+ * Besides the totals it keeps the number of processed events per second for the last {@value #WINDOW_SECONDS} seconds, so the current throughput can be monitored.
+ */
+public final class MaterialEventMetrics
+{
+	public static final MaterialEventMetrics instance = new MaterialEventMetrics();
+
+	@VisibleForTesting
+	static final int WINDOW_SECONDS = 60;
+
+	private final AtomicLong countReceived = new AtomicLong();
+	private final AtomicLong countProcessed = new AtomicLong();
+	private final AtomicLong countBatches = new AtomicLong();
+	private final AtomicLong countBatchesFailed = new AtomicLong();
+
+	/** guarded by this */
+	private final long[] processedPerSecond = new long[WINDOW_SECONDS];
+	/** guarded by this; the epoch second each {@link #processedPerSecond} bucket was last used for */
+	private final long[] bucketEpochSeconds = new long[WINDOW_SECONDS];
+
+	private MaterialEventMetrics()
+	{
+	}
+
+	public void incrementReceived()
+	{
+		countReceived.incrementAndGet();
+	}
+
+	public void incrementProcessed(final int count)
+	{
+		countProcessed.addAndGet(count);
+
+		final long epochSecond = currentEpochSecond();
+		synchronized (this)
+		{
+			final int bucket = (int)(epochSecond % WINDOW_SECONDS);
+			if (bucketEpochSeconds[bucket] != epochSecond)
+			{
+				bucketEpochSeconds[bucket] = epochSecond;
+				processedPerSecond[bucket] = 0;
+			}
+			processedPerSecond[bucket] += count;
+		}
+	}
+
+	public void incrementBatches(final boolean failed)
+	{
+		countBatches.incrementAndGet();
+		if (failed)
+		{
+			countBatchesFailed.incrementAndGet();
+		}
+	}
+
+	public long getCountReceived()
+	{
+		return countReceived.get();
+	}
+
+	public long getCountProcessed()
+	{
+		return countProcessed.get();
+	}
+
+	public long getCountBatches()
+	{
+		return countBatches.get();
+	}
+
+	public long getCountBatchesFailed()
+	{
+		return countBatchesFailed.get();
+	}
+
+	/**
+	 * @return average number of events processed per second, during the last {@value #WINDOW_SECONDS} seconds
+	 */
+	public synchronized double getEventsPerSecond()
+	{
+		final long nowEpochSecond = currentEpochSecond();
+
+		long sum = 0;
+		for (int i = 0; i < WINDOW_SECONDS; i++)
+		{
+			if (nowEpochSecond - bucketEpochSeconds[i] < WINDOW_SECONDS)
+			{
+				sum += processedPerSecond[i];
+			}
+		}
+		return (double)sum / WINDOW_SECONDS;
+	}
+
+	private static long currentEpochSecond()
+	{
+		return TimeUnit.MILLISECONDS.toSeconds(SystemTime.millis());
+	}
+
+	/** Needed for unit tests */
+	public synchronized void reset()
+	{
+		countReceived.set(0);
+		countProcessed.set(0);
+		countBatches.set(0);
+		countBatchesFailed.set(0);
+		for (int i = 0; i < WINDOW_SECONDS; i++)
+		{
+			processedPerSecond[i] = 0;
+			bucketEpochSeconds[i] = 0;
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package de.metas.material.event.eventbus;
+
+import java.util.OptionalInt;
+
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.attributes.AttributesChangedEvent;
+import de.metas.material.event.commons.ProductDescriptor;
+import de.metas.material.event.procurement.AbstractPurchaseOfferEvent;
+import de.metas.material.event.purchase.PurchaseCandidateEvent;
+import de.metas.material.event.receiptschedule.AbstractReceiptScheduleEvent;
+import de.metas.material.event.shipmentschedule.AbstractShipmentScheduleEvent;
+import de.metas.material.event.stock.StockChangedEvent;
+import de.metas.material.event.stockestimate.AbstractStockEstimateEvent;
+import de.metas.material.event.supplyrequired.SupplyRequiredEvent;
+import de.metas.material.event.transactions.AbstractTransactionEvent;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Extracts the product which a material event is about, so that events about different products can be handled concurrently.
+ * <p>
+ * Events that can affect more than one product (e.g. production or distribution orders, forecasts) have no partition key and need to be handled on their own.
+ */
+@UtilityClass
+public class MaterialEventPartitionKeys
+{
+	/**
+	 * @return the event's <code>M_Product_ID</code> or empty if the event is not about one single product.
+	 */
+	public OptionalInt extractProductId(@NonNull final MaterialEvent event)
+	{
+		if (event instanceof AbstractShipmentScheduleEvent)
+		{
+			return toProductId(((AbstractShipmentScheduleEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractReceiptScheduleEvent)
+		{
+			return toProductId(((AbstractReceiptScheduleEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractTransactionEvent)
+		{
+			return toProductId(((AbstractTransactionEvent)event).getMaterialDescriptor());
+		}
+		else if (event instanceof AbstractStockEstimateEvent)
+		{
+			return toProductId(((AbstractStockEstimateEvent)event).getProductDescriptor());
+		}
+		else if (event instanceof AbstractPurchaseOfferEvent)
+		{
+			return toProductId(((AbstractPurchaseOfferEvent)event).getProductDescriptor());
+		}
+		else if (event instanceof StockChangedEvent)
+		{
+			return toProductId(((StockChangedEvent)event).getProductDescriptor());
+		}
+		else if (event instanceof PurchaseCandidateEvent)
+		{
+			return toProductId(((PurchaseCandidateEvent)event).getPurchaseMaterialDescriptor());
+		}
+		else if (event instanceof SupplyRequiredEvent)
+		{
+			return toProductId(((SupplyRequiredEvent)event).getSupplyRequiredDescriptor().getMaterialDescriptor());
+		}
+		else if (event instanceof AttributesChangedEvent)
+		{
+			return toProductId(((AttributesChangedEvent)event).getProductId());
+		}
+		else
+		{
+			return OptionalInt.empty();
+		}
+	}
+
+	private OptionalInt toProductId(final ProductDescriptor productDescriptor)
+	{
+		return productDescriptor != null ? toProductId(productDescriptor.getProductId()) : OptionalInt.empty();
+	}
+
+	private OptionalInt toProductId(final int productId)
+	{
+		return productId > 0 ? OptionalInt.of(productId) : OptionalInt.empty();
+	}
+}
@@ -0,0 +1,52 @@
+package de.metas.material.event.eventbus;
+
+import java.util.Collection;
+
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.stereotype.Component;
+
+import com.google.common.collect.ImmutableList;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Exposes the {@link MaterialEventMetrics} to the actuator's <code>/metrics</code> endpoint.
+ */
+@Component
+public class MaterialEventPublicMetrics implements PublicMetrics
+{
+	private static final String PREFIX = "material.events.";
+
+	@Override
+	public Collection<Metric<?>> metrics()
+	{
+		final MaterialEventMetrics metrics = MaterialEventMetrics.instance;
+		return ImmutableList.of(
+				new Metric<>(PREFIX + "received", metrics.getCountReceived()),
+				new Metric<>(PREFIX + "processed", metrics.getCountProcessed()),
+				new Metric<>(PREFIX + "processedPerSecond", metrics.getEventsPerSecond()),
+				new Metric<>(PREFIX + "batches", metrics.getCountBatches()),
+				new Metric<>(PREFIX + "batchesFailed", metrics.getCountBatchesFailed()));
+	}
+}
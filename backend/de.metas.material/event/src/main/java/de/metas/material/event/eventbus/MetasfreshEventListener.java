@@ -1,16 +1,22 @@
 package de.metas.material.event.eventbus;
 
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import de.metas.event.Event;
 import de.metas.event.IEventBus;
 import de.metas.event.IEventListener;
+import de.metas.event.log.EventLogEntryCollector;
+import de.metas.event.log.EventLogUserService;
 import de.metas.logging.LogManager;
 import de.metas.material.event.MaterialEvent;
 import de.metas.material.event.MaterialEventHandlerRegistry;
 import de.metas.util.Services;
 import lombok.NonNull;
 import org.adempiere.ad.trx.api.ITrxManager;
+import org.adempiere.service.ISysConfigBL;
 import org.adempiere.util.lang.IAutoCloseable;
 import org.compiere.Adempiere;
+import org.compiere.SpringContextHolder;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 import org.slf4j.MDC;
@@ -18,7 +24,10 @@ import org.slf4j.MDC.MDCCloseable;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PreDestroy;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.function.Supplier;
 
 /*
  * #%L
@@ -48,40 +57,47 @@ public class MetasfreshEventListener
 {
 	private static final Logger logger = LogManager.getLogger(MetasfreshEventListener.class);
 
+	private static final String SYSCONFIG_Batching_Enabled = "de.metas.material.event.batching.enabled";
+	private static final String SYSCONFIG_Batching_MaxBatchSize = "de.metas.material.event.batching.maxBatchSize";
+	private static final String SYSCONFIG_Batching_MaxWaitMillis = "de.metas.material.event.batching.maxWaitMillis";
+	private static final String SYSCONFIG_Partitioning_Lanes = "de.metas.material.event.partitioning.lanes";
+
+	/** how long to wait on shutdown for the queued events to be handled */
+	private static final long SHUTDOWN_DRAIN_TIMEOUT_MILLIS = 30 * 1000;
+
 	private final MaterialEventHandlerRegistry materialEventHandlerRegistry;
 
 	private final MetasfreshEventBusService metasfreshEventBusService;
 
 	private final MaterialEventConverter materialEventConverter;
 
+	/**
+	 * Created on first event; empty if neither batching nor partitioning is enabled.
+	 * <p>
+	 * Note: with lanes, events are handled asynchronously and at-most-once; see {@link MaterialEventBatchProcessor}.
+	 */
+	private final Supplier<Optional<MaterialEventLanesDispatcher>> dispatcherSupplier = Suppliers.memoize(this::createDispatcher);
+	/** the lanes, once they were created by {@link #dispatcherSupplier}; used on shutdown, where we don't want to create them */
+	private volatile ImmutableList<MaterialEventBatchProcessor> createdLanes = ImmutableList.of();
+
 	private final IEventListener internalListener = new IEventListener()
 	{
 		@Override
 		public void onEvent(@NonNull final IEventBus eventBus, @NonNull final Event event)
 		{
-			final MaterialEvent lightWeightEvent = materialEventConverter.toMaterialEvent(event);
-			try (final MDCCloseable eventMDC = MDC.putCloseable("MaterialEventClass", lightWeightEvent.getClass().getName()))
-			{
-				logger.info("Received MaterialEvent={}", lightWeightEvent);
+			MaterialEventMetrics.instance.incrementReceived();
 
-				// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
-				final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
+			final ReceivedMaterialEvent receivedEvent = ReceivedMaterialEvent.of(event, materialEventConverter.toMaterialEvent(event));
 
-				Env.setClientId(temporaryCtx, lightWeightEvent.getEventDescriptor().getClientId());
-				Env.setOrgId(temporaryCtx, lightWeightEvent.getEventDescriptor().getOrgId());
-
-				try (final IAutoCloseable ignore = Env.switchContext(temporaryCtx))
-				{
-					invokeListenerInTrx(lightWeightEvent);
-				}
+			final Optional<MaterialEventLanesDispatcher> dispatcher = dispatcherSupplier.get();
+			if (dispatcher.isPresent())
+			{
+				dispatcher.get().dispatch(receivedEvent);
+			}
+			else
+			{
+				handleEventInNewTrx(receivedEvent);
 			}
-		}
-
-		private void invokeListenerInTrx(@NonNull final MaterialEvent materialEvent)
-		{
-			Services.get(ITrxManager.class).runInNewTrx(() -> {
-				materialEventHandlerRegistry.onEvent(materialEvent);
-			});
 		}
 
 		@Override
@@ -102,4 +118,126 @@ public class MetasfreshEventListener
 
 		this.metasfreshEventBusService.subscribe(internalListener);
 	}
+
+	/**
+	 * Stops receiving events and gives the lanes some time to handle the events which they already queued.
+	 */
+	@PreDestroy
+	public void shutdown()
+	{
+		metasfreshEventBusService.unsubscribe(internalListener);
+
+		final ImmutableList<MaterialEventBatchProcessor> lanes = createdLanes;
+		final long deadline = System.currentTimeMillis() + SHUTDOWN_DRAIN_TIMEOUT_MILLIS;
+		for (final MaterialEventBatchProcessor lane : lanes)
+		{
+			final int pendingCount = lane.awaitIdle(Math.max(deadline - System.currentTimeMillis(), 0));
+			if (pendingCount > 0)
+			{
+				logger.warn("Shutting down while {} has still {} pending events; those events are lost", lane, pendingCount);
+			}
+		}
+	}
+
+	/**
+	 * Creates one {@link MaterialEventBatchProcessor} per lane.
+	 * <p>
+	 * If partitioning is enabled, events about different products are handled concurrently in different lanes, while the events about one product stay in order.
+	 * Note that this makes the handling asynchronous, even if batching is not enabled.
+	 * If only batching is enabled, there is one lane.
+	 */
+	private Optional<MaterialEventLanesDispatcher> createDispatcher()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final boolean batchingEnabled = sysConfigBL.getBooleanValue(SYSCONFIG_Batching_Enabled, false);
+		final int lanesCount = Math.max(sysConfigBL.getIntValue(SYSCONFIG_Partitioning_Lanes, 1), 1);
+		if (!batchingEnabled && lanesCount <= 1)
+		{
+			return Optional.empty();
+		}
+
+		final int maxBatchSize = batchingEnabled ? sysConfigBL.getIntValue(SYSCONFIG_Batching_MaxBatchSize, 100) : 1;
+		final int maxWaitMillis = batchingEnabled ? sysConfigBL.getIntValue(SYSCONFIG_Batching_MaxWaitMillis, 50) : 0;
+
+		final ImmutableList.Builder<MaterialEventBatchProcessor> lanes = ImmutableList.builder();
+		for (int i = 0; i < lanesCount; i++)
+		{
+			lanes.add(MaterialEventBatchProcessor.builder()
+					.name(MaterialEventBatchProcessor.class.getSimpleName() + "-" + i)
+					.eventHandler(this::handleEventLogged)
+					.errorHandler(this::logEventFailed)
+					.maxBatchSize(maxBatchSize)
+					.maxWaitMillis(maxWaitMillis)
+					.build());
+		}
+		createdLanes = lanes.build();
+		return Optional.of(new MaterialEventLanesDispatcher(createdLanes, this::handleEventInNewTrx));
+	}
+
+	private void handleEventInNewTrx(@NonNull final ReceivedMaterialEvent receivedEvent)
+	{
+		Services.get(ITrxManager.class).runInNewTrx(() -> handleEvent(receivedEvent.getMaterialEvent()));
+		MaterialEventMetrics.instance.incrementProcessed(1);
+	}
+
+	/**
+	 * Like {@link #handleEvent(MaterialEvent)}, but also collects the event log entries, like the event bus does when it invokes the listener.
+	 * Needed because batched events are handled on a different thread.
+	 */
+	private void handleEventLogged(@NonNull final ReceivedMaterialEvent receivedEvent)
+	{
+		final Event event = receivedEvent.getEvent();
+		if (!event.isWasLogged())
+		{
+			handleEvent(receivedEvent.getMaterialEvent());
+			return;
+		}
+
+		try (final EventLogEntryCollector ignored = EventLogEntryCollector.createThreadLocalForEvent(event))
+		{
+			handleEvent(receivedEvent.getMaterialEvent());
+		}
+	}
+
+	/**
+	 * Stores an error event log entry, like the event bus does when a listener fails, so that the failed event can be found and re-posted.
+	 */
+	private void logEventFailed(@NonNull final ReceivedMaterialEvent receivedEvent, @NonNull final RuntimeException ex)
+	{
+		final Event event = receivedEvent.getEvent();
+		if (!event.isWasLogged() || Adempiere.isUnitTestMode())
+		{
+			logger.warn("Got exception while handling event={}", event, ex);
+			return;
+		}
+
+		try (final EventLogEntryCollector ignored = EventLogEntryCollector.createThreadLocalForEvent(event))
+		{
+			SpringContextHolder.instance.getBean(EventLogUserService.class)
+					.newErrorLogEntry(MetasfreshEventListener.class, ex)
+					.createAndStore();
+		}
+	}
+
+	/**
+	 * Handles the given event in the current transaction.
+	 */
+	private void handleEvent(@NonNull final MaterialEvent lightWeightEvent)
+	{
+		try (final MDCCloseable eventMDC = MDC.putCloseable("MaterialEventClass", lightWeightEvent.getClass().getName()))
+		{
+			logger.info("Received MaterialEvent={}", lightWeightEvent);
+
+			// make sure that every record we create has the correct AD_Client_ID and AD_Org_ID
+			final Properties temporaryCtx = Env.copyCtx(Env.getCtx());
+
+			Env.setClientId(temporaryCtx, lightWeightEvent.getEventDescriptor().getClientId());
+			Env.setOrgId(temporaryCtx, lightWeightEvent.getEventDescriptor().getOrgId());
+
+			try (final IAutoCloseable ignore = Env.switchContext(temporaryCtx))
+			{
+				materialEventHandlerRegistry.onEvent(lightWeightEvent);
+			}
+		}
+	}
 }
@@ -0,0 +1,41 @@
+package de.metas.material.event.eventbus;
+
+import de.metas.event.Event;
+import de.metas.material.event.MaterialEvent;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A received event together with the material event it was converted to, so that it's converted only once.
+ */
+@Value(staticConstructor = "of")
+class ReceivedMaterialEvent
+{
+	@NonNull
+	Event event;
+
+	@NonNull
+	MaterialEvent materialEvent;
+}
@@ -0,0 +1,112 @@
+package de.metas.material.event.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.event.Event;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.pporder.PPOrderDeletedEvent;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MaterialEventBatchProcessorTest
+{
+	private static final long TIMEOUT_MILLIS = 10_000;
+
+	private List<Integer> handledIds;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		handledIds = new CopyOnWriteArrayList<>();
+	}
+
+	static ReceivedMaterialEvent createEvent(final int id)
+	{
+		final PPOrderDeletedEvent materialEvent = PPOrderDeletedEvent.builder()
+				.eventDescriptor(EventDescriptor.ofClientAndOrg(1, 2))
+				.ppOrderId(id)
+				.build();
+		return ReceivedMaterialEvent.of(Event.builder().build(), materialEvent);
+	}
+
+	private static int extractId(final ReceivedMaterialEvent event)
+	{
+		return ((PPOrderDeletedEvent)event.getMaterialEvent()).getPpOrderId();
+	}
+
+	@Test
+	public void eventsAreHandledInOrder()
+	{
+		final MaterialEventBatchProcessor processor = MaterialEventBatchProcessor.builder()
+				.eventHandler(event -> handledIds.add(extractId(event)))
+				.errorHandler((event, ex) -> {})
+				.maxBatchSize(2)
+				.build();
+
+		for (int id = 1; id <= 5; id++)
+		{
+			processor.enqueue(createEvent(id));
+		}
+
+		assertThat(processor.awaitIdle(TIMEOUT_MILLIS)).isZero();
+		assertThat(handledIds).containsExactly(1, 2, 3, 4, 5);
+	}
+
+	@Test
+	public void followUpEventsFromProcessorThread_doNotBlockWhenQueueIsFull()
+	{
+		final AtomicReference<MaterialEventBatchProcessor> processorRef = new AtomicReference<>();
+		final MaterialEventBatchProcessor processor = MaterialEventBatchProcessor.builder()
+				.eventHandler(event -> {
+					final int id = extractId(event);
+					handledIds.add(id);
+					if (id == 1)
+					{
+						// more follow-up events than the queue can hold
+						for (int followUpId = 2; followUpId <= 10; followUpId++)
+						{
+							processorRef.get().enqueue(createEvent(followUpId));
+						}
+					}
+				})
+				.errorHandler((event, ex) -> {})
+				.maxBatchSize(1)
+				.queueCapacity(2)
+				.build();
+		processorRef.set(processor);
+
+		processor.enqueue(createEvent(1));
+
+		assertThat(processor.awaitIdle(TIMEOUT_MILLIS)).isZero();
+		assertThat(handledIds).containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+	}
+}
@@ -0,0 +1,171 @@
+package de.metas.material.event.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.event.Event;
+import de.metas.material.event.EventTestHelper;
+import de.metas.material.event.MaterialEvent;
+import de.metas.material.event.pporder.PPOrderDeletedEvent;
+import de.metas.material.event.supplyrequired.SupplyRequiredEvent;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MaterialEventLanesDispatcherTest
+{
+	private static final long TIMEOUT_MILLIS = 10_000;
+
+	private List<String> handledEvents;
+	private AtomicReference<MaterialEventLanesDispatcher> dispatcherRef;
+
+	@BeforeEach
+	public void init()
+	{
+		AdempiereTestHelper.get().init();
+		handledEvents = new CopyOnWriteArrayList<>();
+		dispatcherRef = new AtomicReference<>();
+	}
+
+	private static ReceivedMaterialEvent createProductEvent(final int productId)
+	{
+		final SupplyRequiredEvent materialEvent = SupplyRequiredEvent.builder()
+				.supplyRequiredDescriptor(EventTestHelper.createSupplyRequiredDescriptorWithProductId(productId))
+				.build();
+		return ReceivedMaterialEvent.of(Event.builder().build(), materialEvent);
+	}
+
+	private static String toString(final ReceivedMaterialEvent event)
+	{
+		final MaterialEvent materialEvent = event.getMaterialEvent();
+		if (materialEvent instanceof PPOrderDeletedEvent)
+		{
+			return "ppOrder-" + ((PPOrderDeletedEvent)materialEvent).getPpOrderId();
+		}
+		return "product-" + MaterialEventPartitionKeys.extractProductId(materialEvent).getAsInt();
+	}
+
+	private MaterialEventLanesDispatcher createDispatcher(final Consumer<ReceivedMaterialEvent> eventHandler)
+	{
+		final ImmutableList.Builder<MaterialEventBatchProcessor> lanes = ImmutableList.builder();
+		for (int i = 0; i < 2; i++)
+		{
+			lanes.add(MaterialEventBatchProcessor.builder()
+					.name("lane-" + i)
+					.eventHandler(eventHandler)
+					.errorHandler((event, ex) -> {})
+					.maxBatchSize(1)
+					.build());
+		}
+
+		final MaterialEventLanesDispatcher dispatcher = new MaterialEventLanesDispatcher(lanes.build(), eventHandler);
+		dispatcherRef.set(dispatcher);
+		return dispatcher;
+	}
+
+	private void awaitIdle(final MaterialEventLanesDispatcher dispatcher)
+	{
+		// dispatching an event without product from this thread waits for all lanes to catch up
+		dispatcher.dispatch(MaterialEventBatchProcessorTest.createEvent(999));
+		assertThat(handledEvents).endsWith("ppOrder-999");
+	}
+
+	@Test
+	public void followUpEventWithoutProduct_postedFromLane()
+	{
+		final MaterialEventLanesDispatcher dispatcher = createDispatcher(event -> {
+			handledEvents.add(toString(event));
+			if (event.getMaterialEvent() instanceof SupplyRequiredEvent)
+			{
+				// like a handler which posts an event after commit, on the lane's thread
+				dispatcherRef.get().dispatch(MaterialEventBatchProcessorTest.createEvent(1));
+			}
+		});
+
+		dispatcher.dispatch(createProductEvent(30));
+
+		runWithTimeout(() -> awaitIdle(dispatcher));
+		assertThat(handledEvents).containsExactly("product-30", "ppOrder-1", "ppOrder-999");
+	}
+
+	@Test
+	public void followUpEvents_postedWhileHandlingEventWithoutProduct()
+	{
+		final MaterialEventLanesDispatcher dispatcher = createDispatcher(event -> {
+			handledEvents.add(toString(event));
+			if (toString(event).equals("ppOrder-1"))
+			{
+				// like a handler which posts events after commit, on the thread which handles the event without product
+				dispatcherRef.get().dispatch(createProductEvent(30));
+				dispatcherRef.get().dispatch(MaterialEventBatchProcessorTest.createEvent(2));
+			}
+		});
+
+		runWithTimeout(() -> dispatcher.dispatch(MaterialEventBatchProcessorTest.createEvent(1)));
+		assertThat(handledEvents).containsExactly("ppOrder-1", "product-30", "ppOrder-2");
+
+		runWithTimeout(() -> awaitIdle(dispatcher));
+	}
+
+	/**
+	 * Runs the given code on another thread, so that a deadlock fails the test instead of hanging it.
+	 */
+	private static void runWithTimeout(final Runnable runnable)
+	{
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+		final Thread thread = new Thread(() -> {
+			try
+			{
+				runnable.run();
+			}
+			catch (final Throwable ex)
+			{
+				failure.set(ex);
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+
+		try
+		{
+			thread.join(TIMEOUT_MILLIS);
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+
+		assertThat(thread.isAlive()).as("deadlocked").isFalse();
+		assertThat(failure.get()).isNull();
+	}
+}
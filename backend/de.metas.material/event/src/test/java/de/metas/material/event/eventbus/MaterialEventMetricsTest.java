@@ -0,0 +1,83 @@
+package de.metas.material.event.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.util.time.SystemTime;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MaterialEventMetricsTest
+{
+	private final AtomicLong millis = new AtomicLong(1583223780000L);
+	private final MaterialEventMetrics metrics = MaterialEventMetrics.instance;
+
+	@BeforeEach
+	public void init()
+	{
+		SystemTime.setTimeSource(millis::get);
+		metrics.reset();
+	}
+
+	@AfterEach
+	public void afterEach()
+	{
+		SystemTime.resetTimeSource();
+	}
+
+	@Test
+	public void counts()
+	{
+		metrics.incrementReceived();
+		metrics.incrementReceived();
+		metrics.incrementProcessed(2);
+		metrics.incrementBatches(false);
+		metrics.incrementBatches(true);
+
+		assertThat(metrics.getCountReceived()).isEqualTo(2);
+		assertThat(metrics.getCountProcessed()).isEqualTo(2);
+		assertThat(metrics.getCountBatches()).isEqualTo(2);
+		assertThat(metrics.getCountBatchesFailed()).isEqualTo(1);
+	}
+
+	@Test
+	public void eventsPerSecond_onlyConsidersTheLastWindow()
+	{
+		metrics.incrementProcessed(600);
+		assertThat(metrics.getEventsPerSecond()).isEqualTo(10.0);
+
+		millis.addAndGet(10_000);
+		metrics.incrementProcessed(60);
+		assertThat(metrics.getEventsPerSecond()).isEqualTo(11.0);
+
+		// the first 600 events are now out of the window
+		millis.addAndGet(MaterialEventMetrics.WINDOW_SECONDS * 1000 - 5_000);
+		assertThat(metrics.getEventsPerSecond()).isEqualTo(1.0);
+		assertThat(metrics.getCountProcessed()).isEqualTo(660);
+	}
+}
@@ -0,0 +1,56 @@
+package de.metas.material.event.eventbus;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.material.event.EventTestHelper;
+import de.metas.material.event.commons.EventDescriptor;
+import de.metas.material.event.pporder.PPOrderDeletedEvent;
+import de.metas.material.event.supplyrequired.SupplyRequiredEvent;
+
+/*
+ * #%L
+ * metasfresh-material-event
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class MaterialEventPartitionKeysTest
+{
+	@Test
+	public void extractProductId_singleProductEvent()
+	{
+		final SupplyRequiredEvent event = SupplyRequiredEvent.builder()
+				.supplyRequiredDescriptor(EventTestHelper.createSupplyRequiredDescriptorWithProductId(30))
+				.build();
+
+		assertThat(MaterialEventPartitionKeys.extractProductId(event)).hasValue(30);
+	}
+
+	@Test
+	public void extractProductId_eventWithoutSingleProduct()
+	{
+		final PPOrderDeletedEvent event = PPOrderDeletedEvent.builder()
+				.eventDescriptor(EventDescriptor.ofClientAndOrg(1, 2))
+				.ppOrderId(10)
+				.build();
+
+		assertThat(MaterialEventPartitionKeys.extractProductId(event)).isEmpty();
+	}
+}
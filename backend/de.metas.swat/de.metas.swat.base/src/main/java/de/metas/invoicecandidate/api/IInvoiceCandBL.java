@@ -28,6 +28,7 @@ import de.metas.async.model.I_C_Queue_WorkPackage;
 import de.metas.currency.CurrencyPrecision;
 import de.metas.inout.model.I_M_InOutLine;
 import de.metas.invoicecandidate.InvoiceCandidateId;
+import de.metas.invoicecandidate.api.impl.InvoiceCandidateAmtSelectionSummaryRow;
 import de.metas.invoicecandidate.api.impl.InvoiceCandidatesAmtSelectionSummary;
 import de.metas.invoicecandidate.model.I_C_InvoiceCandidate_InOutLine;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
@@ -397,4 +398,10 @@ public interface IInvoiceCandBL extends ISingletonService
 
 	@NonNull
 	InvoiceCandidatesAmtSelectionSummary calculateAmtSelectionSummary(@Nullable String extraWhereClause);
+
+	/**
+	 * Same as {@link #calculateAmtSelectionSummary(String)}, but returns the values of each matching invoice candidate, so that the caller can maintain the summary incrementally.
+	 */
+	@NonNull
+	List<InvoiceCandidateAmtSelectionSummaryRow> retrieveAmtSelectionSummaryRows(@Nullable String extraWhereClause);
 }
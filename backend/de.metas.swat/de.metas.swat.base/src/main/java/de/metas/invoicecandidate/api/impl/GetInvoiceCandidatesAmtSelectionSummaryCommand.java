@@ -25,15 +25,20 @@ package de.metas.invoicecandidate.api.impl;
 import java.math.BigDecimal;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.sql.SQLException;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
 import org.compiere.model.I_C_Currency;
 import org.compiere.util.DB;
 import org.compiere.util.Env;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
+
+import de.metas.invoicecandidate.InvoiceCandidateId;
 import de.metas.invoicecandidate.api.IInvoiceCandDAO;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate_Recompute;
@@ -64,15 +69,111 @@ class GetInvoiceCandidatesAmtSelectionSummaryCommand
 
 	@NonNull
 	public InvoiceCandidatesAmtSelectionSummary execute()
+	{
+		final String sql = buildSql(false);
+
+		ResultSet rs = null;
+		PreparedStatement pstmt = null;
+		try
+		{
+			final InvoiceCandidatesAmtSelectionSummary.Builder summaryBuilder = InvoiceCandidatesAmtSelectionSummary.builder();
+
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			rs = pstmt.executeQuery();
+
+			while (rs.next())
+			{
+				final BigDecimal netAmtTotal = rs.getBigDecimal(I_C_Invoice_Candidate.COLUMNNAME_NetAmtToInvoice);
+				final boolean isPackingMaterial = rs.getBoolean(COLUMNNAME_IsPackingMaterial);
+				final boolean isApprovedForInvoicing = StringUtils.toBoolean(rs.getString(I_C_Invoice_Candidate.COLUMNNAME_ApprovalForInvoicing));
+				final String curSymbol = rs.getString(I_C_Currency.COLUMNNAME_CurSymbol);
+				final boolean isToRecompute = StringUtils.toBoolean(rs.getString(I_C_Invoice_Candidate.COLUMNNAME_IsToRecompute));
+				final int countToRecompute = rs.getInt(COLUMNNAME_Count);
+
+				summaryBuilder
+						.addTotalNetAmt(netAmtTotal, isApprovedForInvoicing, isPackingMaterial)
+						.addCurrencySymbol(curSymbol);
+				if (isToRecompute)
+				{
+					summaryBuilder.addCountToRecompute(countToRecompute);
+				}
+			}
+
+			return summaryBuilder.build();
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed fetching summary. Returning empty. SQL={}", sql, ex);
+
+			return InvoiceCandidatesAmtSelectionSummary.EMPTY;
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * Same as {@link #execute()}, but instead of summing up the values, it returns the values of each invoice candidate.
+	 * <p>
+	 * Unlike {@link #execute()}, this method fails if the values could not be fetched, because the caller would otherwise consider the invoice candidates to be gone.
+	 */
+	@NonNull
+	public ImmutableList<InvoiceCandidateAmtSelectionSummaryRow> executeAndGetRows()
+	{
+		final String sql = buildSql(true);
+
+		ResultSet rs = null;
+		PreparedStatement pstmt = null;
+		try
+		{
+			final ImmutableList.Builder<InvoiceCandidateAmtSelectionSummaryRow> rows = ImmutableList.builder();
+
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_ThreadInherited);
+			rs = pstmt.executeQuery();
+
+			while (rs.next())
+			{
+				rows.add(InvoiceCandidateAmtSelectionSummaryRow.builder()
+						.invoiceCandidateId(InvoiceCandidateId.ofRepoId(rs.getInt(I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID)))
+						.netAmtToInvoice(rs.getBigDecimal(I_C_Invoice_Candidate.COLUMNNAME_NetAmtToInvoice))
+						.packingMaterial(rs.getBoolean(COLUMNNAME_IsPackingMaterial))
+						.approvedForInvoicing(StringUtils.toBoolean(rs.getString(I_C_Invoice_Candidate.COLUMNNAME_ApprovalForInvoicing)))
+						.currencySymbol(rs.getString(I_C_Currency.COLUMNNAME_CurSymbol))
+						.toRecompute(StringUtils.toBoolean(rs.getString(I_C_Invoice_Candidate.COLUMNNAME_IsToRecompute)))
+						.build());
+			}
+
+			return rows.build();
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	private String buildSql(final boolean perInvoiceCandidate)
 	{
 		// NOTE: we chose to do it with hard-coded SQL because the have little time to implement it better and maintain the performance, because this method is called very frequently.
 		// NOTE2: before changing to a more Java approach, you should check and improve how this method is called
 		// and somehow to tell to API to not call it each time the current grid tab record is navigated up/down
 
-		final StringBuilder sql = new StringBuilder();
+		final StringBuilder sql = new StringBuilder("SELECT ");
+		//
+		// C_Invoice_Candidate_ID
+		if (perInvoiceCandidate)
+		{
+			sql.append(I_C_Invoice_Candidate.Table_Name
+					+ "."
+					+ I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID + ", ");
+		}
 		//
 		// NetAmtToInvoice
-		sql.append("SELECT COALESCE(SUM("
+		sql.append("COALESCE(SUM("
 				+ I_C_Invoice_Candidate.Table_Name
 				+ "."
 				+ I_C_Invoice_Candidate.COLUMNNAME_NetAmtToInvoice + "), 0) as "
@@ -156,45 +257,14 @@ class GetInvoiceCandidatesAmtSelectionSummaryCommand
 				+ ", "
 				+ COLUMNNAME_IsPackingMaterial);
 
-		ResultSet rs = null;
-		PreparedStatement pstmt = null;
-		try
-		{
-			final InvoiceCandidatesAmtSelectionSummary.Builder summaryBuilder = InvoiceCandidatesAmtSelectionSummary.builder();
-
-			pstmt = DB.prepareStatement(sql.toString(), ITrx.TRXNAME_ThreadInherited);
-			rs = pstmt.executeQuery();
-
-			while (rs.next())
-			{
-				final BigDecimal netAmtTotal = rs.getBigDecimal(I_C_Invoice_Candidate.COLUMNNAME_NetAmtToInvoice);
-				final boolean isPackingMaterial = rs.getBoolean(COLUMNNAME_IsPackingMaterial);
-				final boolean isApprovedForInvoicing = StringUtils.toBoolean(rs.getString(I_C_Invoice_Candidate.COLUMNNAME_ApprovalForInvoicing));
-				final String curSymbol = rs.getString(I_C_Currency.COLUMNNAME_CurSymbol);
-				final boolean isToRecompute = StringUtils.toBoolean(rs.getString(I_C_Invoice_Candidate.COLUMNNAME_IsToRecompute));
-				final int countToRecompute = rs.getInt(COLUMNNAME_Count);
-
-				summaryBuilder
-						.addTotalNetAmt(netAmtTotal, isApprovedForInvoicing, isPackingMaterial)
-						.addCurrencySymbol(curSymbol);
-				if (isToRecompute)
-				{
-					summaryBuilder.addCountToRecompute(countToRecompute);
-				}
-			}
-
-			return summaryBuilder.build();
-		}
-		catch (final Exception ex)
+		if (perInvoiceCandidate)
 		{
-			logger.warn("Failed fetching summary. Returning empty. SQL={}", sql, ex);
-
-			return InvoiceCandidatesAmtSelectionSummary.EMPTY;
-		}
-		finally
-		{
-			DB.close(rs, pstmt);
+			sql.append(", "
+					+ I_C_Invoice_Candidate.Table_Name
+					+ "."
+					+ I_C_Invoice_Candidate.COLUMNNAME_C_Invoice_Candidate_ID);
 		}
 
+		return sql.toString();
 	}
 }
@@ -2315,4 +2315,10 @@ public class InvoiceCandBL implements IInvoiceCandBL
 		return new GetInvoiceCandidatesAmtSelectionSummaryCommand(extraWhereClause).execute();
 	}
 
+	@Override
+	public @NonNull List<InvoiceCandidateAmtSelectionSummaryRow> retrieveAmtSelectionSummaryRows(@Nullable final String extraWhereClause)
+	{
+		return new GetInvoiceCandidatesAmtSelectionSummaryCommand(extraWhereClause).executeAndGetRows();
+	}
+
 }
@@ -0,0 +1,55 @@
+/*
+ * #%L
+ * de.metas.swat.base
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+package de.metas.invoicecandidate.api.impl;
+
+import java.math.BigDecimal;
+
+import javax.annotation.Nullable;
+
+import de.metas.invoicecandidate.InvoiceCandidateId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * The values of one invoice candidate which contribute to an {@link InvoiceCandidatesAmtSelectionSummary}.
+ */
+@Value
+@Builder
+public class InvoiceCandidateAmtSelectionSummaryRow
+{
+	@NonNull
+	InvoiceCandidateId invoiceCandidateId;
+
+	@NonNull
+	BigDecimal netAmtToInvoice;
+
+	boolean approvedForInvoicing;
+
+	boolean packingMaterial;
+
+	@Nullable
+	String currencySymbol;
+
+	boolean toRecompute;
+}
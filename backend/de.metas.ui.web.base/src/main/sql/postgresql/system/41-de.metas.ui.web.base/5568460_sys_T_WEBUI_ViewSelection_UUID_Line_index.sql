@@ -0,0 +1,4 @@
+-- 2020-10-18
+-- Needed for keyset pagination, i.e. WHERE UUID=? AND Line > ? ORDER BY Line LIMIT ?
+CREATE INDEX IF NOT EXISTS T_WEBUI_ViewSelection_UUID_Line ON T_WEBUI_ViewSelection (UUID, Line)
+;
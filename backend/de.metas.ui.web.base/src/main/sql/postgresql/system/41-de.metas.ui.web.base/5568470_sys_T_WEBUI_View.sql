@@ -0,0 +1,12 @@
+-- 2020-10-18
+-- Definitions of webui views, shared between webui nodes. See de.metas.ui.web.view.SharedViewsRepositoryStorage
+CREATE TABLE IF NOT EXISTS T_WEBUI_View
+(
+    ViewId     VARCHAR(255)             NOT NULL PRIMARY KEY,
+    Definition TEXT                     NOT NULL,
+    Updated    TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+)
+;
+
+CREATE INDEX IF NOT EXISTS T_WEBUI_View_Updated ON T_WEBUI_View (Updated)
+;
@@ -31,6 +31,7 @@ import de.metas.cache.CacheMgt;
 import de.metas.event.Topic;
 import de.metas.event.Type;
 import de.metas.logging.LogManager;
+import de.metas.material.dispo.commons.repository.atp.AvailableToPromiseRepository;
 import de.metas.notification.INotificationBL;
 import de.metas.notification.UserNotificationRequest;
 import de.metas.notification.UserNotificationRequest.TargetRecordAction;
@@ -60,8 +61,11 @@ import de.metas.ui.web.window.WindowConstants;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.descriptor.factory.standard.DefaultDocumentDescriptorFactory;
+import de.metas.ui.web.window.descriptor.factory.standard.DocumentDescriptorLoadTime;
 import de.metas.ui.web.window.model.DocumentCollection;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceFactory;
+import de.metas.ui.web.window.model.lookup.LookupDataSourceFetchMetrics;
 import de.metas.user.UserId;
 import de.metas.util.Check;
 import de.metas.util.GuavaCollectors;
@@ -134,6 +138,14 @@ public class DebugRestController
 	@Lazy
 	private ObjectMapper sharedJsonObjectMapper;
 
+	@Autowired
+	@Lazy
+	private DefaultDocumentDescriptorFactory defaultDocumentDescriptorFactory;
+
+	@Autowired
+	@Lazy
+	private AvailableToPromiseRepository availableToPromiseRepository;
+
 	private JSONOptions newJSONOptions()
 	{
 		return JSONOptions.of(userSession);
@@ -287,6 +299,41 @@ public class DebugRestController
 				.collect(GuavaCollectors.toImmutableList());
 	}
 
+	@RequestMapping(value = "/documentDescriptors/loadTimes", method = RequestMethod.GET)
+	public List<DocumentDescriptorLoadTime> getDocumentDescriptorLoadTimes()
+	{
+		userSession.assertLoggedIn();
+
+		return defaultDocumentDescriptorFactory.getLoadTimes();
+	}
+
+	@GetMapping("/atp/cache/checkConsistency")
+	public List<String> checkAvailableToPromiseCacheConsistency()
+	{
+		userSession.assertLoggedIn();
+
+		return availableToPromiseRepository.checkCacheConsistency()
+				.stream()
+				.map(Object::toString)
+				.collect(GuavaCollectors.toImmutableList());
+	}
+
+	@RequestMapping(value = "/lookups/fetchMetrics", method = RequestMethod.GET)
+	public Map<String, Object> getLookupFetchMetrics()
+	{
+		userSession.assertLoggedIn();
+
+		return LookupDataSourceFetchMetrics.instance.toMap();
+	}
+
+	@RequestMapping(value = "/lookups/fetchMetrics/reset", method = RequestMethod.GET)
+	public void resetLookupFetchMetrics()
+	{
+		userSession.assertLoggedIn();
+
+		LookupDataSourceFetchMetrics.instance.reset();
+	}
+
 	@RequestMapping(value = "/eventBus/postEvent", method = RequestMethod.GET)
 	public void postEvent(
 			@RequestParam(name = "topicName", defaultValue = "de.metas.event.GeneralNotifications") final String topicName //
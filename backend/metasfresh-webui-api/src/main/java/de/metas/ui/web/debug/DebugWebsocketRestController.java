@@ -26,6 +26,7 @@ import de.metas.ui.web.view.event.JSONViewChanges;
 import de.metas.ui.web.view.event.ViewChanges;
 import de.metas.ui.web.websocket.WebsocketActiveSubscriptionsIndex;
 import de.metas.ui.web.websocket.WebsocketEventLogRecord;
+import de.metas.ui.web.websocket.WebsocketEventsDispatcherStats;
 import de.metas.ui.web.websocket.WebsocketSender;
 import de.metas.ui.web.websocket.WebsocketSubscriptionId;
 import de.metas.ui.web.websocket.WebsocketTopicName;
@@ -152,6 +153,14 @@ public class DebugWebsocketRestController
 		return websocketSender.getLoggedEvents(destinationFilter);
 	}
 
+	@GetMapping("/dispatcher/stats")
+	public WebsocketEventsDispatcherStats getWebsocketDispatcherStats()
+	{
+		userSession.assertLoggedIn();
+
+		return websocketSender.getDispatcherStats();
+	}
+
 	@GetMapping("/activeSubscriptions")
 	public Map<String, ?> getActiveSubscriptions()
 	{
@@ -5,9 +5,12 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -15,8 +18,11 @@ import javax.annotation.Nullable;
 
 import org.adempiere.ad.trx.api.ITrxManager;
 import org.adempiere.exceptions.AdempiereException;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.lang.Mutable;
 import org.adempiere.util.lang.SynchronizedMutable;
 import org.adempiere.util.lang.SynchronizedMutable.OldAndNewValues;
+import org.adempiere.util.lang.impl.TableRecordReference;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.util.Evaluatee;
 import org.slf4j.Logger;
@@ -27,12 +33,14 @@ import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.CCache;
 import de.metas.cache.CCache.CacheMapType;
+import de.metas.cache.CachingKeysMapper;
 import de.metas.common.util.CoalesceUtil;
 import de.metas.i18n.ITranslatableString;
 import de.metas.i18n.TranslatableStrings;
 import de.metas.logging.LogManager;
 import de.metas.ui.web.document.filter.DocumentFilter;
 import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.json.JSONDocumentFilter;
 import de.metas.ui.web.document.filter.provider.DocumentFilterDescriptorsProvider;
 import de.metas.ui.web.document.filter.provider.standard.FacetFilterViewCacheMap;
 import de.metas.ui.web.document.references.DocumentReferenceId;
@@ -45,6 +53,8 @@ import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.DocumentPath;
 import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.json.JSONDocumentChangedEvent;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.model.Document;
 import de.metas.ui.web.window.model.DocumentCollection;
@@ -58,6 +68,7 @@ import de.metas.util.NumberUtils;
 import de.metas.util.Services;
 import de.metas.util.collections.IteratorUtils;
 import de.metas.util.collections.PagedIterator.Page;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.ToString;
@@ -101,6 +112,10 @@ public final class DefaultView implements IEditableView
 
 	private static final Logger logger = LogManager.getLogger(DefaultView.class);
 
+	private static final String SYSCONFIG_RowsCache_Enabled = "webui.view.rowsCache.enabled";
+	private static final String SYSCONFIG_RowsCache_MaxSize = "webui.view.rowsCache.maxSize";
+	private static final String SYSCONFIG_RowsCache_ExpireMinutes = "webui.view.rowsCache.expireMinutes";
+
 	@Getter
 	private final SqlViewDataRepository viewDataRepository;
 
@@ -125,8 +140,16 @@ public final class DefaultView implements IEditableView
 
 	@Getter
 	private final ViewEvaluationCtx viewEvaluationCtx;
+	private final boolean applySecurityRestrictions;
 	private final ViewRowIdsOrderedSelectionsHolder selectionsRef;
 
+	//
+	// Sharing across webui nodes
+	@Getter(AccessLevel.PACKAGE)
+	private final boolean shareable;
+	@Getter(AccessLevel.PACKAGE)
+	private final ImmutableSet<Integer> filterOnlyIds;
+
 	//
 	// Filters
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
@@ -151,6 +174,11 @@ public final class DefaultView implements IEditableView
 	//
 	// Caching
 	private final transient CCache<DocumentId, IViewRow> cache_rowsById;
+	/** If true, pages are served from {@link #cache_rowsById} and only the missing rows are loaded from database */
+	private final boolean rowsCacheEnabled;
+	/** Cursor to the page which follows the most recently fetched page, used for keyset pagination */
+	private final AtomicReference<ViewPageCursor> nextPageCursorRef = new AtomicReference<>();
+	private final transient ViewPagePrefetcher pagePrefetcher = new ViewPagePrefetcher();
 
 	private final IViewInvalidationAdvisor viewInvalidationAdvisor;
 
@@ -179,35 +207,73 @@ public final class DefaultView implements IEditableView
 		stickyFilters = builder.getStickyFilters();
 		filters = builder.getFilters();
 		refreshViewOnChangeEvents = builder.isRefreshViewOnChangeEvents();
+		shareable = builder.isShareable();
+		filterOnlyIds = builder.getFilterOnlyIds();
 
 		//
 		// Selection
 		{
 			viewEvaluationCtx = ViewEvaluationCtx.newInstanceFromCurrentContext();
+			applySecurityRestrictions = builder.isApplySecurityRestrictions();
 
 			selectionsRef = ViewRowIdsOrderedSelectionsHolder.builder()
 					.viewDataRepository(viewDataRepository)
 					.viewId(viewId)
-					.applySecurityRestrictions(builder.isApplySecurityRestrictions())
+					.applySecurityRestrictions(applySecurityRestrictions)
 					.stickyFilters(stickyFilters)
 					.filters(filters)
 					.viewEvaluationCtxSupplier(this::getViewEvaluationCtx)
+					.initialSelections(builder.getInitialSelections())
 					.build();
 		}
 
 		//
 		// Cache
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		rowsCacheEnabled = sysConfigBL.getBooleanValue(SYSCONFIG_RowsCache_Enabled, false);
 		cache_rowsById = CCache.<DocumentId, IViewRow> builder()
 				.cacheMapType(CacheMapType.LRU)
 				.cacheName("ViewRows#" + viewId)
 				.additionalTableNameToResetFor(viewDataRepository.getTableName())
-				.initialCapacity(100) // i.e. max size
-				.expireMinutes(2)
+				.initialCapacity(rowsCacheEnabled ? sysConfigBL.getIntValue(SYSCONFIG_RowsCache_MaxSize, 1000) : 100) // i.e. max size
+				.expireMinutes(rowsCacheEnabled ? sysConfigBL.getIntValue(SYSCONFIG_RowsCache_ExpireMinutes, 10) : 2)
+				.invalidationKeysMapper(rowsCacheEnabled ? createRowsCacheInvalidationKeysMapper(viewDataRepository) : null)
 				.build();
 
 		logger.debug("View created: {}", this);
 	}
 
+	/**
+	 * When a record of the view's table changed, invalidate only the row of that record instead of all cached rows.
+	 * <p>
+	 * Changes of records from other tables are reported to the view via {@link #notifyRecordsChanged(TableRecordReferenceSet, boolean)},
+	 * where the {@link IViewInvalidationAdvisor} tells precisely which rows are affected.
+	 */
+	@Nullable
+	private static CachingKeysMapper<DocumentId> createRowsCacheInvalidationKeysMapper(@NonNull final SqlViewDataRepository viewDataRepository)
+	{
+		if (!viewDataRepository.isRowIdMatchingRecordId())
+		{
+			return null; // reset all
+		}
+
+		final String tableName = viewDataRepository.getTableName();
+		return new CachingKeysMapper<DocumentId>()
+		{
+			@Override
+			public boolean isResetAll(final TableRecordReference recordRef)
+			{
+				return !tableName.equals(recordRef.getTableName());
+			}
+
+			@Override
+			public Collection<DocumentId> computeCachingKeys(final TableRecordReference recordRef)
+			{
+				return ImmutableList.of(DocumentId.of(recordRef.getRecord_ID()));
+			}
+		};
+	}
+
 	@Override
 	public String toString()
 	{
@@ -277,6 +343,42 @@ public final class DefaultView implements IEditableView
 		return selectionsRef.getDefaultSelectionBeforeFacetsFiltering();
 	}
 
+	/**
+	 * @return the definition which allows another webui node to restore this view from its existing selection, or empty if this view cannot be restored that way
+	 */
+	public Optional<SharedViewDefinition> toSharedViewDefinition()
+	{
+		if (!shareable)
+		{
+			return Optional.empty();
+		}
+
+		final ImmutableList.Builder<JSONDocumentPath> jsonReferencingDocumentPaths = ImmutableList.builder();
+		for (final DocumentPath referencingDocumentPath : referencingDocumentPaths)
+		{
+			if (!referencingDocumentPath.isRootDocument() && !referencingDocumentPath.isSingleIncludedDocument())
+			{
+				return Optional.empty();
+			}
+			jsonReferencingDocumentPaths.add(JSONDocumentPath.ofWindowDocumentPath(referencingDocumentPath));
+		}
+
+		return Optional.of(SharedViewDefinition.builder()
+				.viewId(viewId.toJson())
+				.viewType(viewType)
+				.profileId(profileId != null ? profileId.toJson() : null)
+				.parentViewId(parentViewId != null ? parentViewId.toJson() : null)
+				.parentRowId(parentRowId != null ? parentRowId.toJson() : null)
+				.referencingDocumentPaths(jsonReferencingDocumentPaths.build())
+				.documentReferenceId(documentReferenceId != null ? documentReferenceId.toJson() : null)
+				.filters(JSONDocumentFilter.ofList(filters, JSONOptions.newInstance()))
+				.filterOnlyIds(filterOnlyIds)
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.defaultSelectionBeforeFacetsFiltering(SharedViewDefinition.Selection.of(selectionsRef.getDefaultSelectionBeforeFacetsFiltering()))
+				.defaultSelection(SharedViewDefinition.Selection.of(selectionsRef.getDefaultSelection()))
+				.build());
+	}
+
 	public DocumentFilterDescriptorsProvider getFilterDescriptors()
 	{
 		return viewDataRepository.getViewFilterDescriptors();
@@ -301,6 +403,8 @@ public final class DefaultView implements IEditableView
 		}
 
 		selectionsRef.forgetCurrentSelections();
+		nextPageCursorRef.set(null);
+		pagePrefetcher.clear();
 
 		logger.debug("View closed with reason={}: {}", reason, this);
 	}
@@ -309,6 +413,8 @@ public final class DefaultView implements IEditableView
 	public void invalidateAll()
 	{
 		cache_rowsById.reset();
+		nextPageCursorRef.set(null);
+		pagePrefetcher.clear();
 		headerPropertiesHolder.setValue(null);
 	}
 
@@ -316,6 +422,7 @@ public final class DefaultView implements IEditableView
 	public void invalidateRowById(final DocumentId rowId)
 	{
 		cache_rowsById.remove(rowId);
+		pagePrefetcher.clear();
 		headerPropertiesHolder.setValue(null);
 	}
 
@@ -351,7 +458,8 @@ public final class DefaultView implements IEditableView
 		final ViewEvaluationCtx evalCtx = getViewEvaluationCtx();
 		final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBy.toDocumentQueryOrderByList());
 
-		final List<IViewRow> rows = viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageLength);
+		final ViewRowsPage<IViewRow> page = retrievePage(evalCtx, orderedSelection, firstRow, pageLength);
+		final List<IViewRow> rows = page.getRows();
 
 		// Add to cache
 		rows.forEach(row -> cache_rowsById.put(row.getId(), row));
@@ -363,9 +471,92 @@ public final class DefaultView implements IEditableView
 				.orderBys(orderedSelection.getOrderBys())
 				.rows(rows)
 				.columnInfos(extractViewResultColumns(rows))
+				.nextPageCursor(page.getNextPageCursor())
 				.build();
 	}
 
+	/**
+	 * Retrieves the page, using the prefetched page or the next page cursor if they match.
+	 * Afterwards, if the user is paging sequentially, it starts prefetching the page which follows.
+	 */
+	private ViewRowsPage<IViewRow> retrievePage(
+			@NonNull final ViewEvaluationCtx evalCtx,
+			@NonNull final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength)
+	{
+		final ViewPageCursor cursor = nextPageCursorRef.get();
+		ViewRowsPage<IViewRow> page = pagePrefetcher.pollPrefetchedPage(orderedSelection, firstRow, pageLength);
+		if (page == null)
+		{
+			page = retrievePageFromCacheOrDatabase(evalCtx, orderedSelection, firstRow, pageLength, cursor);
+		}
+
+		final ViewPageCursor nextPageCursor = page.getNextPageCursor();
+		nextPageCursorRef.set(nextPageCursor);
+
+		// prefetch only if the user is paging sequentially, i.e. the page was the one following the previous page
+		final boolean sequentialPaging = cursor != null && cursor.isMatching(orderedSelection, firstRow, pageLength);
+		if (nextPageCursor != null && sequentialPaging)
+		{
+			pagePrefetcher.prefetch(
+					nextPageCursor,
+					() -> retrievePageFromCacheOrDatabase(evalCtx, orderedSelection, nextPageCursor.getFirstRow(), nextPageCursor.getPageLength(), nextPageCursor));
+		}
+
+		return page;
+	}
+
+	private ViewRowsPage<IViewRow> retrievePageFromCacheOrDatabase(
+			@NonNull final ViewEvaluationCtx evalCtx,
+			@NonNull final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength,
+			@Nullable final ViewPageCursor cursor)
+	{
+		if (!rowsCacheEnabled)
+		{
+			return viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageLength, cursor);
+		}
+
+		//
+		// Fetch only the row IDs of the page and load the rows which are not already cached
+		final ViewRowsPage<DocumentId> rowIdsPage = viewDataRepository.retrieveRowIdsByPage(evalCtx, orderedSelection, firstRow, pageLength, cursor);
+		final List<DocumentId> rowIds = rowIdsPage.getRows();
+		final Map<DocumentId, IViewRow> rowsById = indexRowsById(cache_rowsById.getAllOrLoad(rowIds, rowIdsToLoad -> retrieveRowsByIds(evalCtx, rowIdsToLoad)));
+
+		final ImmutableList<IViewRow> rows = rowIds.stream()
+				.map(rowsById::get)
+				.filter(Objects::nonNull) // i.e. the record was deleted in meantime
+				.collect(ImmutableList.toImmutableList());
+
+		return ViewRowsPage.of(rows, rowIdsPage.getNextPageCursor());
+	}
+
+	private Map<DocumentId, IViewRow> retrieveRowsByIds(
+			@NonNull final ViewEvaluationCtx evalCtx,
+			@NonNull final Collection<DocumentId> rowIds)
+	{
+		return indexRowsById(viewDataRepository.retrieveByIds(evalCtx, getViewId(), DocumentIdsSelection.of(rowIds)));
+	}
+
+	/**
+	 * If there is more than one row with the same ID, the first one is taken, like {@link SqlViewDataRepository#retrieveById(ViewEvaluationCtx, ViewId, DocumentId)} does.
+	 */
+	private Map<DocumentId, IViewRow> indexRowsById(@NonNull final Collection<IViewRow> rows)
+	{
+		final LinkedHashMap<DocumentId, IViewRow> rowsById = new LinkedHashMap<>(rows.size());
+		for (final IViewRow row : rows)
+		{
+			final IViewRow existingRow = rowsById.putIfAbsent(row.getId(), row);
+			if (existingRow != null && existingRow != row)
+			{
+				logger.warn("More than one row found for rowId={} in {}. Using only the first one: {}", row.getId(), this, existingRow);
+			}
+		}
+		return rowsById;
+	}
+
 	private List<ViewResultColumn> extractViewResultColumns(@NonNull final List<IViewRow> rows)
 	{
 		if (rows.isEmpty())
@@ -423,14 +614,16 @@ public final class DefaultView implements IEditableView
 		final ViewEvaluationCtx evalCtx = getViewEvaluationCtx();
 		final ViewRowIdsOrderedSelection orderedSelection = getOrderedSelection(orderBy.toDocumentQueryOrderByList());
 
-		final List<DocumentId> rowIds = viewDataRepository.retrieveRowIdsByPage(evalCtx, orderedSelection, firstRow, pageLength);
+		final ViewRowsPage<DocumentId> page = viewDataRepository.retrieveRowIdsByPage(evalCtx, orderedSelection, firstRow, pageLength, nextPageCursorRef.get());
+		nextPageCursorRef.set(page.getNextPageCursor());
 
 		return ViewResult.builder()
 				.view(this)
 				.firstRow(firstRow)
 				.pageLength(pageLength)
 				.orderBys(orderedSelection.getOrderBys())
-				.rowIds(rowIds)
+				.rowIds(page.getRows())
+				.nextPageCursor(page.getNextPageCursor())
 				.build();
 	}
 
@@ -509,12 +702,17 @@ public final class DefaultView implements IEditableView
 
 			final ViewEvaluationCtx evalCtx = getViewEvaluationCtx();
 			final ViewRowIdsOrderedSelection orderedSelection = selectionsRef.getDefaultSelection();
+			final Mutable<ViewPageCursor> nextPageCursor = new Mutable<>();
 
 			return IteratorUtils.<IViewRow> newPagedIterator()
 					.firstRow(0)
 					.maxRows(1000) // MAX rows to fetch
 					.pageSize(100) // fetch 100items/chunk
-					.pageFetcher((firstRow, pageSize) -> Page.ofRowsOrNull(viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageSize)))
+					.pageFetcher((firstRow, pageSize) -> {
+						final ViewRowsPage<IViewRow> page = viewDataRepository.retrievePage(evalCtx, orderedSelection, firstRow, pageSize, nextPageCursor.getValue());
+						nextPageCursor.setValue(page.getNextPageCursor());
+						return Page.ofRowsOrNull(page.getRows());
+					})
 					.build()
 					.stream();
 		}
@@ -761,6 +959,10 @@ public final class DefaultView implements IEditableView
 
 		private boolean applySecurityRestrictions = true;
 
+		private boolean shareable = false;
+		private Set<Integer> filterOnlyIds;
+		private ViewRowIdsOrderedSelections initialSelections;
+
 		private Builder(@NonNull final SqlViewDataRepository viewDataRepository)
 		{
 			this.viewDataRepository = viewDataRepository;
@@ -855,7 +1057,7 @@ public final class DefaultView implements IEditableView
 			return parentViewId;
 		}
 
-		private SqlViewDataRepository getViewDataRepository()
+		SqlViewDataRepository getViewDataRepository()
 		{
 			return viewDataRepository;
 		}
@@ -948,5 +1150,47 @@ public final class DefaultView implements IEditableView
 		{
 			return applySecurityRestrictions;
 		}
+
+		/**
+		 * @param shareable true if the view can be fully restored from its {@link SharedViewDefinition}, i.e. it has no sticky filters other than the ones derived from the referencing documents and the filter-only IDs
+		 */
+		public Builder shareable(final boolean shareable)
+		{
+			this.shareable = shareable;
+			return this;
+		}
+
+		private boolean isShareable()
+		{
+			return shareable;
+		}
+
+		/**
+		 * Remembers the filter-only IDs, so they can be shared. Note that the respective sticky filter shall be added by the caller.
+		 */
+		public Builder setFilterOnlyIds(@Nullable final Collection<Integer> filterOnlyIds)
+		{
+			this.filterOnlyIds = filterOnlyIds != null ? ImmutableSet.copyOf(filterOnlyIds) : null;
+			return this;
+		}
+
+		private ImmutableSet<Integer> getFilterOnlyIds()
+		{
+			return filterOnlyIds == null ? ImmutableSet.of() : ImmutableSet.copyOf(filterOnlyIds);
+		}
+
+		/**
+		 * Use the given, already existing selections instead of running the selection query.
+		 */
+		Builder setInitialSelections(@Nullable final ViewRowIdsOrderedSelections initialSelections)
+		{
+			this.initialSelections = initialSelections;
+			return this;
+		}
+
+		private ViewRowIdsOrderedSelections getInitialSelections()
+		{
+			return initialSelections;
+		}
 	}
 }
@@ -0,0 +1,159 @@
+package de.metas.ui.web.view;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+import javax.annotation.concurrent.Immutable;
+
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Ordered list of the (integer) record IDs of a view selection, kept on the application node instead of <code>T_WEBUI_ViewSelection</code>.
+ * <p>
+ * The row on index <code>i</code> has the SeqNo (i.e. <code>T_WEBUI_ViewSelection.Line</code>) <code>i + 1</code>.
+ *
+ * @see InMemoryViewRowIdsOrderedSelectionFactory
+ */
+@Immutable
+public final class InMemoryViewRowIds
+{
+	public static InMemoryViewRowIds ofOrderedRecordIds(@NonNull final int[] recordIds)
+	{
+		return recordIds.length > 0 ? new InMemoryViewRowIds(recordIds.clone()) : EMPTY;
+	}
+
+	public static final InMemoryViewRowIds EMPTY = new InMemoryViewRowIds(new int[] {});
+
+	private final int[] recordIds;
+
+	private InMemoryViewRowIds(@NonNull final int[] recordIds)
+	{
+		this.recordIds = recordIds;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "InMemoryViewRowIds[size=" + recordIds.length + "]";
+	}
+
+	public int size()
+	{
+		return recordIds.length;
+	}
+
+	public int[] toArray()
+	{
+		return recordIds.clone();
+	}
+
+	/**
+	 * @return the record IDs of the given page; the returned array is empty if the page is outside of this selection
+	 */
+	public int[] getPage(final int firstRowZeroBased, final int pageLength)
+	{
+		final int from = Math.max(firstRowZeroBased, 0);
+		final int to = Math.min(from + Math.max(pageLength, 0), recordIds.length);
+		return from < to ? Arrays.copyOfRange(recordIds, from, to) : new int[] {};
+	}
+
+	/**
+	 * @return one based SeqNo of given record or <code>-1</code> if the record is not part of this selection
+	 */
+	public int getSeqNo(final int recordId)
+	{
+		for (int i = 0; i < recordIds.length; i++)
+		{
+			if (recordIds[i] == recordId)
+			{
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	public boolean contains(final int recordId)
+	{
+		return getSeqNo(recordId) > 0;
+	}
+
+	public boolean containsAny(@NonNull final Collection<Integer> recordIdsToCheck)
+	{
+		return recordIdsToCheck.stream().anyMatch(this::contains);
+	}
+
+	/**
+	 * Adds the given records which are not already part of this selection at the end, like {@link SqlViewRowIdsOrderedSelectionFactory#addRowIdsToSelection(ViewRowIdsOrderedSelection, de.metas.ui.web.window.datatypes.DocumentIdsSelection)} does.
+	 */
+	public InMemoryViewRowIds withRecordIdsAppended(@NonNull final Collection<Integer> recordIdsToAdd)
+	{
+		final int[] result = Arrays.copyOf(recordIds, recordIds.length + recordIdsToAdd.size());
+		int size = recordIds.length;
+		for (final int recordId : recordIdsToAdd)
+		{
+			if (contains(recordId) || contains(result, recordIds.length, size, recordId))
+			{
+				continue;
+			}
+			result[size] = recordId;
+			size++;
+		}
+
+		return size == recordIds.length ? this : new InMemoryViewRowIds(Arrays.copyOf(result, size));
+	}
+
+	private static boolean contains(final int[] array, final int from, final int to, final int value)
+	{
+		for (int i = from; i < to; i++)
+		{
+			if (array[i] == value)
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Removes the given records, preserving the order of the remaining ones.
+	 */
+	public InMemoryViewRowIds withRecordIdsRemoved(@NonNull final Set<Integer> recordIdsToRemove)
+	{
+		if (recordIdsToRemove.isEmpty())
+		{
+			return this;
+		}
+
+		final int[] result = Arrays.stream(recordIds)
+				.filter(recordId -> !recordIdsToRemove.contains(recordId))
+				.toArray();
+		if (result.length == recordIds.length)
+		{
+			return this;
+		}
+		return result.length > 0 ? new InMemoryViewRowIds(result) : EMPTY;
+	}
+}
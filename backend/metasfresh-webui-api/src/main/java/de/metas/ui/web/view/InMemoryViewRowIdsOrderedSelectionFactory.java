@@ -0,0 +1,377 @@
+package de.metas.ui.web.view;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.DBException;
+import org.adempiere.service.ISysConfigBL;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.google.common.base.Stopwatch;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.document.filter.sql.SqlDocumentFilterConverterContext;
+import de.metas.ui.web.view.descriptor.SqlAndParams;
+import de.metas.ui.web.view.descriptor.SqlViewBinding;
+import de.metas.ui.web.view.descriptor.SqlViewKeyColumnNamesMap;
+import de.metas.ui.web.view.descriptor.SqlViewRowsWhereClause;
+import de.metas.ui.web.view.descriptor.SqlViewSelectionQueryBuilder;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * {@link ViewRowIdsOrderedSelectionFactory} which keeps the ordered row IDs of small selections in memory (see {@link InMemoryViewRowIds}),
+ * instead of inserting them into <code>T_WEBUI_ViewSelection</code>.
+ * <p>
+ * Selections having more rows than configured by {@value #SYSCONFIG_MaxRows} are created by the wrapped {@link SqlViewRowIdsOrderedSelectionFactory}, like before.
+ * Selections created from an in memory selection (e.g. when the view is sorted by other columns) are also kept in memory, because they are not bigger.
+ * The SQL where clause of an in memory selection filters by its record IDs, so it's never written to <code>T_WEBUI_ViewSelection</code>.
+ * <p>
+ * Only views without grouping and with a single integer key column are supported, see {@link #isApplicable(SqlViewBinding)}.
+ */
+public class InMemoryViewRowIdsOrderedSelectionFactory implements ViewRowIdsOrderedSelectionFactory
+{
+	public static InMemoryViewRowIdsOrderedSelectionFactory of(
+			@NonNull final SqlViewBinding viewBinding,
+			@NonNull final SqlViewRowIdsOrderedSelectionFactory sqlFactory)
+	{
+		return new InMemoryViewRowIdsOrderedSelectionFactory(viewBinding, sqlFactory);
+	}
+
+	public static boolean isApplicable(@NonNull final SqlViewBinding viewBinding)
+	{
+		if (viewBinding.hasGroupingFields())
+		{
+			return false;
+		}
+
+		final SqlViewKeyColumnNamesMap keyColumnNamesMap = viewBinding.getSqlViewKeyColumnNamesMap();
+		return keyColumnNamesMap.isSingleKey()
+				&& I_T_WEBUI_ViewSelection.COLUMNNAME_IntKey1.equals(keyColumnNamesMap.getSingleWebuiSelectionColumnName());
+	}
+
+	/** Max number of rows of a selection which is kept in memory. Zero or negative disables the in memory selections. */
+	static final String SYSCONFIG_MaxRows = "de.metas.ui.web.view.InMemoryViewRowIdsOrderedSelectionFactory.MaxRows";
+	private static final int DEFAULT_MaxRows = 1000;
+
+	private static final Logger logger = LogManager.getLogger(InMemoryViewRowIdsOrderedSelectionFactory.class);
+	private final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+
+	private final SqlViewBinding viewBinding;
+	private final SqlViewRowIdsOrderedSelectionFactory sqlFactory;
+
+	private final ConcurrentHashMap<String, InMemoryViewRowIds> inMemoryRowIdsBySelectionId = new ConcurrentHashMap<>();
+
+	private InMemoryViewRowIdsOrderedSelectionFactory(
+			@NonNull final SqlViewBinding viewBinding,
+			@NonNull final SqlViewRowIdsOrderedSelectionFactory sqlFactory)
+	{
+		this.viewBinding = viewBinding;
+		this.sqlFactory = sqlFactory;
+	}
+
+	private int getMaxRows()
+	{
+		return sysConfigBL.getIntValue(SYSCONFIG_MaxRows, DEFAULT_MaxRows);
+	}
+
+	/**
+	 * @return the in memory rows of given selection or <code>null</code> if the selection is not held in memory (i.e. it's in <code>T_WEBUI_ViewSelection</code>)
+	 */
+	@Nullable
+	public InMemoryViewRowIds getInMemoryRowIds(@NonNull final ViewId viewId)
+	{
+		return getInMemoryRowIds(viewId.getViewId());
+	}
+
+	@Nullable
+	public InMemoryViewRowIds getInMemoryRowIds(@NonNull final String selectionId)
+	{
+		return inMemoryRowIdsBySelectionId.get(selectionId);
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelection(
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final boolean applySecurityRestrictions,
+			final SqlDocumentFilterConverterContext context)
+	{
+		final int maxRows = getMaxRows();
+		if (maxRows <= 0)
+		{
+			return sqlFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		final int queryLimit = sqlFactory.extractQueryLimit(viewEvalCtx);
+		final int inMemoryQueryLimit = queryLimit > 0 && queryLimit <= maxRows ? queryLimit : maxRows + 1;
+
+		final SqlAndParams sqlSelectRowIds = SqlViewSelectionQueryBuilder.newInstance(viewBinding)
+				.applySecurityRestrictions(applySecurityRestrictions)
+				.buildSqlSelectRowIds(viewEvalCtx, viewId, filters, orderBys, inMemoryQueryLimit, context);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int[] recordIds = retrieveRecordIds(sqlSelectRowIds);
+		if (recordIds.length > maxRows)
+		{
+			logger.trace("Selection {} has more than {} rows. Creating it in database", viewId, maxRows);
+			return sqlFactory.createOrderedSelection(viewEvalCtx, viewId, filters, orderBys, applySecurityRestrictions, context);
+		}
+
+		inMemoryRowIdsBySelectionId.put(viewId.getViewId(), InMemoryViewRowIds.ofOrderedRecordIds(recordIds));
+		logger.trace("Created in memory selection {}, rowsCount={}, duration={}", viewId, recordIds.length, stopwatch);
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(recordIds.length)
+				.orderBys(orderBys)
+				.queryLimit(queryLimit)
+				.build();
+	}
+
+	private static int[] retrieveRecordIds(@NonNull final SqlAndParams sql)
+	{
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sql.getSqlParams());
+			rs = pstmt.executeQuery();
+
+			int[] recordIds = new int[64];
+			int count = 0;
+			while (rs.next())
+			{
+				if (count >= recordIds.length)
+				{
+					recordIds = Arrays.copyOf(recordIds, recordIds.length * 2);
+				}
+				recordIds[count] = rs.getInt(1);
+				count++;
+			}
+
+			return Arrays.copyOf(recordIds, count);
+		}
+		catch (final Exception ex)
+		{
+			throw new DBException(ex, sql.getSql(), sql.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection createOrderedSelectionFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewRowIdsOrderedSelection fromSelection,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		final InMemoryViewRowIds fromRowIds = getInMemoryRowIds(fromSelection.getViewId());
+		if (fromRowIds == null)
+		{
+			return sqlFactory.createOrderedSelectionFromSelection(viewEvalCtx, fromSelection, filters, orderBys, filterConverterCtx);
+		}
+
+		//
+		// Sort/filter only the rows of fromSelection and keep the result in memory too
+		final ViewId newViewId = ViewId.random(fromSelection.getWindowId());
+		final SqlAndParams sqlSelectRowIds = SqlViewSelectionQueryBuilder.newInstance(viewBinding)
+				.buildSqlSelectRowIdsFromRecordIds(viewEvalCtx, newViewId, fromSelection.getSelectionId(), fromRowIds.toArray(), filters, orderBys, filterConverterCtx);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final int[] recordIds = retrieveRecordIds(sqlSelectRowIds);
+		inMemoryRowIdsBySelectionId.put(newViewId.getViewId(), InMemoryViewRowIds.ofOrderedRecordIds(recordIds));
+		logger.trace("Created in memory selection {} from {}, rowsCount={}, duration={}", newViewId, fromSelection.getViewId(), recordIds.length, stopwatch);
+
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(newViewId)
+				.size(recordIds.length)
+				.orderBys(orderBys)
+				.queryLimit(fromSelection.getQueryLimit())
+				.build();
+	}
+
+	@Override
+	public SqlViewRowsWhereClause getSqlWhereClause(
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIds(viewId);
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.getSqlWhereClause(viewId, rowIds);
+		}
+		else if (rowIds.isEmpty())
+		{
+			return sqlFactory.getSqlWhereClause(viewId, rowIds);
+		}
+
+		final Set<Integer> recordIdsInSelection = new HashSet<>();
+		if (rowIds.isAll())
+		{
+			// the selection is small, so we filter by all its record IDs
+			Arrays.stream(inMemoryRowIds.toArray()).forEach(recordIdsInSelection::add);
+		}
+		else
+		{
+			for (final int recordId : convertToRecordIds(rowIds))
+			{
+				if (inMemoryRowIds.contains(recordId))
+				{
+					recordIdsInSelection.add(recordId);
+				}
+			}
+		}
+		if (recordIdsInSelection.isEmpty())
+		{
+			return SqlViewRowsWhereClause.noRecords();
+		}
+
+		// we already checked which rows are present in our selection, so we only have to filter by them
+		return sqlFactory.getSqlWhereClause(viewId, DocumentIdsSelection.ofIntSet(recordIdsInSelection))
+				.toBuilder()
+				.rowsPresentInViewSelection(null)
+				.build();
+	}
+
+	private Set<Integer> convertToRecordIds(final DocumentIdsSelection rowIds)
+	{
+		return viewBinding.getRowIdsConverter().convertToRecordIds(rowIds);
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection addRowIdsToSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			// nothing changed
+			return selection;
+		}
+		else if (rowIds.isAll())
+		{
+			throw new IllegalArgumentException("Cannot add ALL to selection");
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = inMemoryRowIdsBySelectionId.computeIfPresent(
+				selection.getSelectionId(),
+				(selectionId, rows) -> rows.withRecordIdsAppended(convertToRecordIds(rowIds)));
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.addRowIdsToSelection(selection, rowIds);
+		}
+
+		return selection.withSize(inMemoryRowIds.size());
+	}
+
+	@Override
+	public ViewRowIdsOrderedSelection removeRowIdsFromSelection(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			// nothing changed
+			return selection;
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = inMemoryRowIdsBySelectionId.computeIfPresent(
+				selection.getSelectionId(),
+				(selectionId, rows) -> rowIds.isAll() ? InMemoryViewRowIds.EMPTY : rows.withRecordIdsRemoved(convertToRecordIds(rowIds)));
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.removeRowIdsFromSelection(selection, rowIds);
+		}
+
+		return selection.withSize(inMemoryRowIds.size());
+	}
+
+	@Override
+	public boolean containsAnyOfRowIds(final ViewRowIdsOrderedSelection selection, final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return false;
+		}
+
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIds(selection.getViewId());
+		if (inMemoryRowIds == null)
+		{
+			return sqlFactory.containsAnyOfRowIds(selection, rowIds);
+		}
+
+		return rowIds.isAll()
+				? inMemoryRowIds.size() > 0
+				: inMemoryRowIds.containsAny(convertToRecordIds(rowIds));
+	}
+
+	@Override
+	public void deleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		sqlFactory.deleteSelections(removeInMemorySelections(selectionIds));
+	}
+
+	@Override
+	public void scheduleDeleteSelections(@NonNull final Set<String> selectionIds)
+	{
+		final Set<String> selectionIdsInDatabase = removeInMemorySelections(selectionIds);
+		if (!selectionIdsInDatabase.isEmpty())
+		{
+			sqlFactory.scheduleDeleteSelections(selectionIdsInDatabase);
+		}
+	}
+
+	/**
+	 * @return the selection IDs which were not held in memory, so they shall be deleted from database
+	 */
+	private Set<String> removeInMemorySelections(final Set<String> selectionIds)
+	{
+		final Set<String> selectionIdsInDatabase = new HashSet<>();
+		for (final String selectionId : selectionIds)
+		{
+			if (inMemoryRowIdsBySelectionId.remove(selectionId) == null)
+			{
+				selectionIdsInDatabase.add(selectionId);
+			}
+		}
+		return selectionIdsInDatabase;
+	}
+}
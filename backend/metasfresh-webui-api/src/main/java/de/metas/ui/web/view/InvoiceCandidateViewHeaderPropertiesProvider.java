@@ -24,16 +24,26 @@ package de.metas.ui.web.view;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import de.metas.handlingunits.invoicecandidate.ui.spi.impl.HUInvoiceCandidatesSelectionSummaryInfo;
 import de.metas.i18n.IMsgBL;
 import de.metas.invoicecandidate.api.IInvoiceCandBL;
+import de.metas.invoicecandidate.api.impl.InvoiceCandidateAmtSelectionSummaryRow;
 import de.metas.invoicecandidate.api.impl.InvoiceCandidatesAmtSelectionSummary;
 import de.metas.invoicecandidate.model.I_C_Invoice_Candidate;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.view.ViewHeaderAggregates.RowValue;
 import de.metas.ui.web.view.descriptor.SqlAndParams;
 import de.metas.ui.web.view.descriptor.SqlViewRowsWhereClause;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -41,13 +51,55 @@ import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.model.sql.SqlOptions;
 import de.metas.util.Services;
 import lombok.NonNull;
+import lombok.Value;
 
 @Component
 public class InvoiceCandidateViewHeaderPropertiesProvider implements ViewHeaderPropertiesProvider
 {
+	private static final Logger logger = LogManager.getLogger(InvoiceCandidateViewHeaderPropertiesProvider.class);
+
 	private final IInvoiceCandBL invoiceCandBL = Services.get(IInvoiceCandBL.class);
 	private final IMsgBL msgBL = Services.get(IMsgBL.class);
 
+	/** If more rows than this changed, it's cheaper to recompute everything than to query the changed rows by ID */
+	private static final int MAX_CHANGED_ROWS_TO_COMPUTE_INCREMENTALLY = 1000;
+
+	/** Views with more rows than this are summarized using GROUP BY and are always fully recomputed, so we don't keep their per row values */
+	private static final int MAX_VIEW_ROWS_TO_COMPUTE_INCREMENTALLY = 10_000;
+
+	/** Max number of per row values kept for all views together */
+	private static final int MAX_RETAINED_ROWS = 100_000;
+
+	/**
+	 * The per row values of the views which had their header properties computed, needed to update the header properties incrementally.
+	 * If a view's values are evicted, the header properties will be fully recomputed on next change.
+	 */
+	private final Cache<ViewId, ViewHeaderAggregates<SummaryGroupKey>> aggregatesByViewId = CacheBuilder.newBuilder()
+			.maximumWeight(MAX_RETAINED_ROWS)
+			.weigher((ViewId viewId, ViewHeaderAggregates<SummaryGroupKey> aggregates) -> aggregates.getRowsCount() + 1)
+			.expireAfterAccess(1, TimeUnit.HOURS)
+			.build();
+
+	/** Same grouping as done by {@link IInvoiceCandBL#calculateAmtSelectionSummary(String)} */
+	@Value
+	private static class SummaryGroupKey
+	{
+		boolean approvedForInvoicing;
+		boolean packingMaterial;
+		@Nullable
+		String currencySymbol;
+		boolean toRecompute;
+
+		static SummaryGroupKey of(@NonNull final InvoiceCandidateAmtSelectionSummaryRow row)
+		{
+			return new SummaryGroupKey(
+					row.isApprovedForInvoicing(),
+					row.isPackingMaterial(),
+					row.getCurrencySymbol(),
+					row.isToRecompute());
+		}
+	}
+
 	@Override
 	public String getAppliesOnlyToTableName()
 	{
@@ -74,9 +126,34 @@ public class InvoiceCandidateViewHeaderPropertiesProvider implements ViewHeaderP
 
 		if (rowsToDisplay == 0)
 		{
+			aggregatesByViewId.invalidate(view.getViewId());
 			return ImmutableList.of();
 		}
 
+		if (rowsToDisplay > MAX_VIEW_ROWS_TO_COMPUTE_INCREMENTALLY)
+		{
+			aggregatesByViewId.invalidate(view.getViewId());
+			return computeUsingGroupBy(view);
+		}
+
+		final ViewHeaderAggregates<SummaryGroupKey> aggregates;
+		try
+		{
+			aggregates = ViewHeaderAggregates.of(retrieveRowValues(view, DocumentIdsSelection.ALL));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed fetching summary for {}. Returning empty.", view.getViewId(), ex);
+			aggregatesByViewId.invalidate(view.getViewId());
+			return toViewHeaderProperties(InvoiceCandidatesAmtSelectionSummary.EMPTY);
+		}
+
+		aggregatesByViewId.put(view.getViewId(), aggregates);
+		return toViewHeaderProperties(aggregates);
+	}
+
+	private List<ViewHeaderPropertiesGroup> computeUsingGroupBy(@NonNull final IView view)
+	{
 		final SqlViewRowsWhereClause sqlWhereClause = view.getSqlWhereClause(DocumentIdsSelection.ALL, SqlOptions.usingTableName(I_C_Invoice_Candidate.Table_Name));
 		final SqlAndParams sqlAndParams = SqlAndParams.of(sqlWhereClause.toSqlString());
 		final InvoiceCandidatesAmtSelectionSummary summary = invoiceCandBL.calculateAmtSelectionSummary(sqlAndParams.getSql());
@@ -84,6 +161,41 @@ public class InvoiceCandidateViewHeaderPropertiesProvider implements ViewHeaderP
 		return toViewHeaderProperties(summary);
 	}
 
+	private ImmutableMap<DocumentId, RowValue<SummaryGroupKey>> retrieveRowValues(
+			@NonNull final IView view,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		final SqlViewRowsWhereClause sqlWhereClause = view.getSqlWhereClause(rowIds, SqlOptions.usingTableName(I_C_Invoice_Candidate.Table_Name));
+		final SqlAndParams sqlAndParams = SqlAndParams.of(sqlWhereClause.toSqlString());
+
+		return invoiceCandBL.retrieveAmtSelectionSummaryRows(sqlAndParams.getSql())
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(
+						row -> DocumentId.of(row.getInvoiceCandidateId()),
+						row -> RowValue.of(SummaryGroupKey.of(row), row.getNetAmtToInvoice())));
+	}
+
+	private List<ViewHeaderPropertiesGroup> toViewHeaderProperties(@NonNull final ViewHeaderAggregates<SummaryGroupKey> aggregates)
+	{
+		if (aggregates.getRowsCount() <= 0)
+		{
+			return ImmutableList.of();
+		}
+
+		final InvoiceCandidatesAmtSelectionSummary.Builder summaryBuilder = InvoiceCandidatesAmtSelectionSummary.builder();
+		aggregates.getAggregates().forEach((key, aggregate) -> {
+			summaryBuilder
+					.addTotalNetAmt(aggregate.getSum(), key.isApprovedForInvoicing(), key.isPackingMaterial())
+					.addCurrencySymbol(key.getCurrencySymbol());
+			if (key.isToRecompute())
+			{
+				summaryBuilder.addCountToRecompute(aggregate.getCount());
+			}
+		});
+
+		return toViewHeaderProperties(summaryBuilder.build());
+	}
+
 	/**
 	 * Keep in sync with {@link HUInvoiceCandidatesSelectionSummaryInfo#getSummaryMessage()}
 	 */
@@ -139,6 +251,32 @@ public class InvoiceCandidateViewHeaderPropertiesProvider implements ViewHeaderP
 			@NonNull final Set<DocumentId> changedRowIds,
 			final boolean watchedByFrontend)
 	{
-		return ViewHeaderPropertiesIncrementalResult.fullRecomputeRequired();
+		final ViewId viewId = view.getViewId();
+		final ViewHeaderAggregates<SummaryGroupKey> aggregates = aggregatesByViewId.getIfPresent(viewId);
+		if (aggregates == null || changedRowIds.size() > MAX_CHANGED_ROWS_TO_COMPUTE_INCREMENTALLY)
+		{
+			return ViewHeaderPropertiesIncrementalResult.fullRecomputeRequired();
+		}
+		if (aggregates.getRowsCount() + changedRowIds.size() > MAX_VIEW_ROWS_TO_COMPUTE_INCREMENTALLY)
+		{
+			// the view might have grown too big to keep its per row values
+			aggregatesByViewId.invalidate(viewId);
+			return ViewHeaderPropertiesIncrementalResult.fullRecomputeRequired();
+		}
+
+		try
+		{
+			aggregates.updateRows(changedRowIds, retrieveRowValues(view, DocumentIdsSelection.of(changedRowIds)));
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed updating the summary of {} for changed rows {}. Requesting full recompute.", viewId, changedRowIds, ex);
+			aggregatesByViewId.invalidate(viewId);
+			return ViewHeaderPropertiesIncrementalResult.fullRecomputeRequired();
+		}
+
+		return ViewHeaderPropertiesIncrementalResult.computed(ViewHeaderProperties.builder()
+				.groups(toViewHeaderProperties(aggregates))
+				.build());
 	}
 }
@@ -0,0 +1,188 @@
+package de.metas.ui.web.view;
+
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.document.filter.json.JSONDocumentFilter;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Serializable definition of a {@link DefaultView}: everything which is needed to restore the view on another webui node, without re-running the selection query.
+ *
+ * @see SharedViewsRepositoryStorage
+ */
+@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+@Value
+public class SharedViewDefinition
+{
+	@JsonProperty("viewId")
+	String viewId;
+
+	@JsonProperty("viewType")
+	JSONViewDataType viewType;
+
+	@JsonProperty("profileId")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String profileId;
+
+	@JsonProperty("parentViewId")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String parentViewId;
+
+	@JsonProperty("parentRowId")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String parentRowId;
+
+	@JsonProperty("referencingDocumentPaths")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	List<JSONDocumentPath> referencingDocumentPaths;
+
+	@JsonProperty("documentReferenceId")
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	String documentReferenceId;
+
+	@JsonProperty("filters")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	List<JSONDocumentFilter> filters;
+
+	@JsonProperty("filterOnlyIds")
+	@JsonInclude(JsonInclude.Include.NON_EMPTY)
+	Set<Integer> filterOnlyIds;
+
+	@JsonProperty("applySecurityRestrictions")
+	boolean applySecurityRestrictions;
+
+	@JsonProperty("defaultSelectionBeforeFacetsFiltering")
+	Selection defaultSelectionBeforeFacetsFiltering;
+
+	@JsonProperty("defaultSelection")
+	Selection defaultSelection;
+
+	@Builder
+	@JsonCreator
+	private SharedViewDefinition(
+			@JsonProperty("viewId") @NonNull final String viewId,
+			@JsonProperty("viewType") @NonNull final JSONViewDataType viewType,
+			@JsonProperty("profileId") @Nullable final String profileId,
+			@JsonProperty("parentViewId") @Nullable final String parentViewId,
+			@JsonProperty("parentRowId") @Nullable final String parentRowId,
+			@JsonProperty("referencingDocumentPaths") @Nullable final List<JSONDocumentPath> referencingDocumentPaths,
+			@JsonProperty("documentReferenceId") @Nullable final String documentReferenceId,
+			@JsonProperty("filters") @Nullable final List<JSONDocumentFilter> filters,
+			@JsonProperty("filterOnlyIds") @Nullable final Set<Integer> filterOnlyIds,
+			@JsonProperty("applySecurityRestrictions") final boolean applySecurityRestrictions,
+			@JsonProperty("defaultSelectionBeforeFacetsFiltering") @NonNull final Selection defaultSelectionBeforeFacetsFiltering,
+			@JsonProperty("defaultSelection") @NonNull final Selection defaultSelection)
+	{
+		this.viewId = viewId;
+		this.viewType = viewType;
+		this.profileId = profileId;
+		this.parentViewId = parentViewId;
+		this.parentRowId = parentRowId;
+		this.referencingDocumentPaths = referencingDocumentPaths != null ? ImmutableList.copyOf(referencingDocumentPaths) : ImmutableList.of();
+		this.documentReferenceId = documentReferenceId;
+		this.filters = filters != null ? ImmutableList.copyOf(filters) : ImmutableList.of();
+		this.filterOnlyIds = filterOnlyIds != null ? ImmutableSet.copyOf(filterOnlyIds) : ImmutableSet.of();
+		this.applySecurityRestrictions = applySecurityRestrictions;
+		this.defaultSelectionBeforeFacetsFiltering = defaultSelectionBeforeFacetsFiltering;
+		this.defaultSelection = defaultSelection;
+	}
+
+	public ViewId toViewId()
+	{
+		return ViewId.ofViewIdString(viewId);
+	}
+
+	@JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, isGetterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
+	@Value
+	public static class Selection
+	{
+		public static Selection of(@NonNull final ViewRowIdsOrderedSelection selection)
+		{
+			return new Selection(
+					selection.getViewId().toJson(),
+					selection.getSize(),
+					selection.getOrderBys().toStringSyntax(),
+					selection.getQueryLimit());
+		}
+
+		/** the {@link ViewId} of the selection, i.e. the T_WEBUI_ViewSelection's UUID prefixed by the window ID */
+		@JsonProperty("selectionViewId")
+		String selectionViewId;
+
+		@JsonProperty("size")
+		long size;
+
+		@JsonProperty("orderBys")
+		@JsonInclude(JsonInclude.Include.NON_EMPTY)
+		String orderBys;
+
+		@JsonProperty("queryLimit")
+		int queryLimit;
+
+		@JsonCreator
+		private Selection(
+				@JsonProperty("selectionViewId") @NonNull final String selectionViewId,
+				@JsonProperty("size") final long size,
+				@JsonProperty("orderBys") @Nullable final String orderBys,
+				@JsonProperty("queryLimit") final int queryLimit)
+		{
+			this.selectionViewId = selectionViewId;
+			this.size = size;
+			this.orderBys = orderBys;
+			this.queryLimit = queryLimit;
+		}
+
+		public String getSelectionId()
+		{
+			return ViewId.ofViewIdString(selectionViewId).getViewId();
+		}
+
+		public ViewRowIdsOrderedSelection toViewRowIdsOrderedSelection(final long actualSize)
+		{
+			return ViewRowIdsOrderedSelection.builder()
+					.viewId(ViewId.ofViewIdString(selectionViewId))
+					.size(actualSize)
+					.orderBys(DocumentQueryOrderByList.parse(orderBys))
+					.queryLimit(queryLimit)
+					.build();
+		}
+	}
+}
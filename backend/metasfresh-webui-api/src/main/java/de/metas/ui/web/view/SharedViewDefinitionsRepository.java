@@ -0,0 +1,142 @@
+package de.metas.ui.web.view;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.ad.trx.api.ITrx;
+import org.adempiere.exceptions.AdempiereException;
+import org.compiere.util.DB;
+import org.slf4j.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.logging.LogManager;
+import de.metas.util.Check;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Stores {@link SharedViewDefinition}s in the database, so that they are available to all webui nodes.
+ * <p>
+ * All statements are executed out of transaction, because the definitions shall be visible to the other nodes right away.
+ */
+final class SharedViewDefinitionsRepository
+{
+	private static final Logger logger = LogManager.getLogger(SharedViewDefinitionsRepository.class);
+
+	private static final String TABLENAME = "T_WEBUI_View";
+
+	private final ObjectMapper jsonObjectMapper = JsonObjectMapperHolder.sharedJsonObjectMapper();
+
+	public void save(@NonNull final SharedViewDefinition definition)
+	{
+		final String sql = "INSERT INTO " + TABLENAME + " (ViewId, Definition, Updated) VALUES (?, ?, now())"
+				+ " ON CONFLICT (ViewId) DO UPDATE SET Definition=EXCLUDED.Definition, Updated=EXCLUDED.Updated";
+		DB.executeUpdateEx(sql, new Object[] { definition.getViewId(), toJson(definition) }, ITrx.TRXNAME_None);
+	}
+
+	/**
+	 * @return the definition, or <code>null</code> if there is none or if it was not updated nor touched within the given timeout
+	 */
+	@Nullable
+	public SharedViewDefinition getByIdOrNull(@NonNull final ViewId viewId, @NonNull final Duration expirationTimeout)
+	{
+		final String sql = "SELECT Definition FROM " + TABLENAME + " WHERE ViewId=? AND Updated >= now() - (? * interval '1 second')";
+		final String json = DB.getSQLValueStringEx(ITrx.TRXNAME_None, sql, viewId.toJson(), expirationTimeout.getSeconds());
+		return !Check.isEmpty(json, true) ? fromJson(json) : null;
+	}
+
+	/**
+	 * Prevents the definition from expiring.
+	 */
+	public void touch(@NonNull final ViewId viewId)
+	{
+		DB.executeUpdateEx("UPDATE " + TABLENAME + " SET Updated=now() WHERE ViewId=?", new Object[] { viewId.toJson() }, ITrx.TRXNAME_None);
+	}
+
+	public void deleteById(@NonNull final ViewId viewId)
+	{
+		DB.executeUpdateEx("DELETE FROM " + TABLENAME + " WHERE ViewId=?", new Object[] { viewId.toJson() }, ITrx.TRXNAME_None);
+	}
+
+	/**
+	 * @return the deleted definitions
+	 */
+	public List<SharedViewDefinition> deleteExpired(@NonNull final Duration expirationTimeout)
+	{
+		final String sql = "DELETE FROM " + TABLENAME + " WHERE Updated < now() - (? * interval '1 second') RETURNING ViewId, Definition";
+		return DB.retrieveRowsOutOfTrx(
+				sql,
+				ImmutableList.of(expirationTimeout.getSeconds()),
+				this::retrieveDefinitionOrNull);
+	}
+
+	@Nullable
+	private SharedViewDefinition retrieveDefinitionOrNull(final ResultSet rs) throws SQLException
+	{
+		final String json = rs.getString("Definition");
+		try
+		{
+			return fromJson(json);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed reading the definition of {}. Skipped.", rs.getString("ViewId"), ex);
+			return null;
+		}
+	}
+
+	private String toJson(final SharedViewDefinition definition)
+	{
+		try
+		{
+			return jsonObjectMapper.writeValueAsString(definition);
+		}
+		catch (final JsonProcessingException ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex)
+					.setParameter("definition", definition);
+		}
+	}
+
+	private SharedViewDefinition fromJson(final String json)
+	{
+		try
+		{
+			return jsonObjectMapper.readValue(json, SharedViewDefinition.class);
+		}
+		catch (final Exception ex)
+		{
+			throw AdempiereException.wrapIfNeeded(ex)
+					.setParameter("json", json);
+		}
+	}
+}
@@ -0,0 +1,223 @@
+package de.metas.ui.web.view;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Views storage which can be used when multiple webui nodes are running behind a load balancer.
+ * <p>
+ * Views are kept in a local {@link DefaultViewsRepositoryStorage}, but the definition of each {@link DefaultView} is also stored in database.
+ * If a view is requested but not found locally (e.g. it was created by another node, or this node was restarted),
+ * it's restored from its definition, reusing the already existing selection instead of re-running the selection query.
+ * <p>
+ * Views which are not {@link DefaultView}s, or which cannot be restored from a definition, are kept only locally.
+ */
+// NOTE: don't add it to spring context! i.e. don't annotate it with @Component or similar
+final class SharedViewsRepositoryStorage implements IViewsIndexStorage
+{
+	private static final Logger logger = LogManager.getLogger(SharedViewsRepositoryStorage.class);
+
+	private final DefaultViewsRepositoryStorage localStorage;
+	private final SharedViewDefinitionsRepository definitionsRepo = new SharedViewDefinitionsRepository();
+	private final SqlViewFactory sqlViewFactory;
+	private final Duration viewExpirationTimeout;
+
+	/** IDs of the shared views which were recently touched, in order to touch their definitions at most once per minute */
+	private final Cache<ViewId, Boolean> recentlyTouchedViewIds = CacheBuilder.newBuilder()
+			.expireAfterWrite(1, TimeUnit.MINUTES)
+			.build();
+
+	public SharedViewsRepositoryStorage(
+			@NonNull final Duration viewExpirationTimeout,
+			@NonNull final SqlViewFactory sqlViewFactory)
+	{
+		this.localStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeout);
+		this.sqlViewFactory = sqlViewFactory;
+		this.viewExpirationTimeout = viewExpirationTimeout;
+	}
+
+	@Override
+	public WindowId getWindowId()
+	{
+		throw new UnsupportedOperationException("windowId not available");
+	}
+
+	@Override
+	public void put(@NonNull final IView view)
+	{
+		localStorage.put(view);
+
+		if (view instanceof DefaultView)
+		{
+			try
+			{
+				DefaultView.cast(view)
+						.toSharedViewDefinition()
+						.ifPresent(definitionsRepo::save);
+				recentlyTouchedViewIds.put(view.getViewId(), Boolean.TRUE);
+			}
+			catch (final Exception ex)
+			{
+				// the view is still usable on this node
+				logger.warn("Failed saving the definition of {}. Only this node will be able to use it.", view, ex);
+			}
+		}
+	}
+
+	@Nullable
+	@Override
+	public IView getByIdOrNull(@NonNull final ViewId viewId)
+	{
+		final IView view = localStorage.getByIdOrNull(viewId);
+		if (view != null)
+		{
+			touchIfShared(view);
+			return view;
+		}
+
+		return restoreViewOrNull(viewId);
+	}
+
+	private void touchIfShared(final IView view)
+	{
+		if (!(view instanceof DefaultView) || !DefaultView.cast(view).isShareable())
+		{
+			return;
+		}
+
+		final ViewId viewId = view.getViewId();
+		if (recentlyTouchedViewIds.getIfPresent(viewId) != null)
+		{
+			return;
+		}
+
+		try
+		{
+			definitionsRepo.touch(viewId);
+			recentlyTouchedViewIds.put(viewId, Boolean.TRUE);
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed touching the definition of {}. Ignored.", viewId, ex);
+		}
+	}
+
+	@Nullable
+	private IView restoreViewOrNull(@NonNull final ViewId viewId)
+	{
+		try
+		{
+			final SharedViewDefinition definition = definitionsRepo.getByIdOrNull(viewId, viewExpirationTimeout);
+			if (definition == null)
+			{
+				return null;
+			}
+
+			final DefaultView view = sqlViewFactory.restoreView(definition);
+			localStorage.put(view);
+			definitionsRepo.touch(viewId);
+			recentlyTouchedViewIds.put(viewId, Boolean.TRUE);
+
+			logger.debug("Restored view {} from {}", view, definition);
+			return view;
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed restoring view {} from its shared definition. Considering it not found.", viewId, ex);
+			return null;
+		}
+	}
+
+	@Override
+	public void closeById(@NonNull final ViewId viewId, @NonNull final ViewCloseAction closeAction)
+	{
+		// make sure the view is available locally, so it can release its selections
+		final IView view = getByIdOrNull(viewId);
+		if (view == null || !view.isAllowClosingPerUserRequest())
+		{
+			return;
+		}
+
+		localStorage.closeById(viewId, closeAction);
+		definitionsRepo.deleteById(viewId);
+		recentlyTouchedViewIds.invalidate(viewId);
+	}
+
+	@Override
+	public void invalidateView(final ViewId viewId)
+	{
+		localStorage.invalidateView(viewId);
+	}
+
+	/**
+	 * @return the views which are currently held by this node
+	 */
+	@Override
+	public Stream<IView> streamAllViews()
+	{
+		return localStorage.streamAllViews();
+	}
+
+	/**
+	 * Deletes the expired definitions, together with their selections.
+	 * <p>
+	 * The selections are not deleted when a view expires from the local storage, and while views are shared the selection tables are not truncated on startup.
+	 * So this is where the selections of the views which were never closed are cleaned up.
+	 */
+	public void deleteExpiredDefinitions()
+	{
+		try
+		{
+			final List<SharedViewDefinition> definitions = definitionsRepo.deleteExpired(viewExpirationTimeout);
+
+			final ImmutableSet<String> selectionIds = definitions.stream()
+					.flatMap(definition -> Stream.of(definition.getDefaultSelectionBeforeFacetsFiltering(), definition.getDefaultSelection()))
+					.map(SharedViewDefinition.Selection::getSelectionId)
+					.collect(ImmutableSet.toImmutableSet());
+			SqlViewSelectionToDeleteHelper.scheduleDeleteSelections(selectionIds);
+			SqlViewSelectionToDeleteHelper.deleteScheduledSelections();
+
+			logger.info("Deleted {} expired shared view definitions and their {} selections", definitions.size(), selectionIds.size());
+		}
+		catch (final Exception ex)
+		{
+			logger.warn("Failed deleting expired shared view definitions. Ignored.", ex);
+		}
+	}
+}
@@ -10,15 +10,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
 import org.adempiere.ad.dao.IQueryBL;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.exceptions.AdempiereException;
 import org.adempiere.exceptions.DBException;
 import org.adempiere.model.PlainContextAware;
+import org.adempiere.util.lang.MutableInt;
 import org.compiere.util.DB;
 import org.compiere.util.DisplayType;
 import org.slf4j.Logger;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
@@ -86,7 +90,10 @@ class SqlViewDataRepository implements IViewDataRepository
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final ImmutableMap<String, DocumentFieldWidgetType> widgetTypesByFieldName;
 	private final SqlViewSelectData sqlViewSelect;
+	private final SqlViewRowIdsOrderedSelectionFactory sqlViewRowIdsOrderedSelectionFactory;
 	private final ViewRowIdsOrderedSelectionFactory viewRowIdsOrderedSelectionFactory;
+	/** not null if the selections of this view might be held in memory */
+	private final InMemoryViewRowIdsOrderedSelectionFactory inMemoryViewRowIdsOrderedSelectionFactory;
 	private final DocumentFilterDescriptorsProvider viewFilterDescriptors;
 	private final DocumentQueryOrderByList defaultOrderBys;
 
@@ -104,7 +111,17 @@ class SqlViewDataRepository implements IViewDataRepository
 		widgetTypesByFieldName = sqlBindings.getWidgetTypesByFieldName();
 		sqlViewSelect = sqlBindings.getSqlViewSelect();
 		viewFilterDescriptors = sqlBindings.getViewFilterDescriptors();
-		viewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		sqlViewRowIdsOrderedSelectionFactory = SqlViewRowIdsOrderedSelectionFactory.of(sqlBindings);
+		if (InMemoryViewRowIdsOrderedSelectionFactory.isApplicable(sqlBindings))
+		{
+			inMemoryViewRowIdsOrderedSelectionFactory = InMemoryViewRowIdsOrderedSelectionFactory.of(sqlBindings, sqlViewRowIdsOrderedSelectionFactory);
+			viewRowIdsOrderedSelectionFactory = inMemoryViewRowIdsOrderedSelectionFactory;
+		}
+		else
+		{
+			inMemoryViewRowIdsOrderedSelectionFactory = null;
+			viewRowIdsOrderedSelectionFactory = sqlViewRowIdsOrderedSelectionFactory;
+		}
 		defaultOrderBys = sqlBindings.getDefaultOrderBys();
 
 		this.hasIncludedRows = sqlBindings.hasGroupingFields();
@@ -136,6 +153,20 @@ class SqlViewDataRepository implements IViewDataRepository
 		return tableAlias;
 	}
 
+	@Nullable
+	private InMemoryViewRowIds getInMemoryRowIds(@NonNull final ViewId viewId)
+	{
+		return getInMemoryRowIds(viewId.getViewId());
+	}
+
+	@Nullable
+	private InMemoryViewRowIds getInMemoryRowIds(@NonNull final String selectionId)
+	{
+		return inMemoryViewRowIdsOrderedSelectionFactory != null
+				? inMemoryViewRowIdsOrderedSelectionFactory.getInMemoryRowIds(selectionId)
+				: null;
+	}
+
 	@Override
 	public SqlViewRowsWhereClause getSqlWhereClause(
 			@NonNull final ViewId viewId,
@@ -205,6 +236,14 @@ class SqlViewDataRepository implements IViewDataRepository
 		viewRowIdsOrderedSelectionFactory.scheduleDeleteSelections(viewIds);
 	}
 
+	/**
+	 * @return how many rows the given selection has in T_WEBUI_ViewSelection. Selections which are held in memory by this node or by another node are not counted.
+	 */
+	public int retrieveSelectionSizeFromDatabase(@NonNull final String selectionId)
+	{
+		return sqlViewRowIdsOrderedSelectionFactory.retrieveSize(selectionId);
+	}
+
 	@Override
 	public IViewRow retrieveById(final ViewEvaluationCtx viewEvalCtx, final ViewId viewId, final DocumentId rowId)
 	{
@@ -212,6 +251,7 @@ class SqlViewDataRepository implements IViewDataRepository
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
 				.rowId(rowId)
+				.inMemoryRowIds(getInMemoryRowIds(viewId))
 				.build();
 
 		PreparedStatement pstmt = null;
@@ -251,17 +291,87 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	/**
+	 * Retrieves the rows with given IDs in one go.
+	 *
+	 * @return rows in no particular order; the rows which are no longer part of the view are skipped
+	 */
+	public List<IViewRow> retrieveByIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentIdsSelection rowIds)
+	{
+		if (rowIds.isEmpty())
+		{
+			return ImmutableList.of();
+		}
+
+		final SqlAndParams sqlAndParams = sqlViewSelect.selectByIds()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.rowIds(rowIds)
+				.inMemoryRowIds(getInMemoryRowIds(viewId))
+				.build();
+
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sqlAndParams.getSql(), ITrx.TRXNAME_ThreadInherited);
+			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
+
+			rs = pstmt.executeQuery();
+
+			return loadViewRows(rs, viewEvalCtx, viewId, -1/* limit */);
+		}
+		catch (final SQLException | DBException e)
+		{
+			throw DBException.wrapIfNeeded(e)
+					.setSqlIfAbsent(sqlAndParams.getSql(), sqlAndParams.getSqlParams());
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+	}
+
+	/**
+	 * @return true if the row IDs are the record IDs of {@link #getTableName()}, i.e. a record change can be mapped to exactly one row
+	 */
+	public boolean isRowIdMatchingRecordId()
+	{
+		return keyColumnNamesMap.isSingleKey() && !hasIncludedRows;
+	}
+
 	private final ImmutableList<IViewRow> loadViewRows(
 			@NonNull final ResultSet rs,
 			final ViewEvaluationCtx viewEvalCtx,
 			final ViewId viewId,
 			final int limit) throws SQLException
+	{
+		return loadViewRows(rs, viewEvalCtx, viewId, limit, null);
+	}
+
+	/**
+	 * @param lastSeqNo if not null, it will be set to the SeqNo of the last fetched row
+	 */
+	private final ImmutableList<IViewRow> loadViewRows(
+			@NonNull final ResultSet rs,
+			final ViewEvaluationCtx viewEvalCtx,
+			final ViewId viewId,
+			final int limit,
+			@Nullable final MutableInt lastSeqNo) throws SQLException
 	{
 		final JSONOptions jsonOpts = viewEvalCtx.toJSONOptions();
 		final Map<DocumentId, ViewRow.Builder> rowBuilders = new LinkedHashMap<>();
 		final Set<DocumentId> rootRowIds = new HashSet<>();
 		while (rs.next())
 		{
+			if (lastSeqNo != null)
+			{
+				lastSeqNo.setValue(rs.getInt(SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased));
+			}
+
 			final ViewRow.Builder rowBuilder = loadViewRow(rs, viewId.getWindowId(), jsonOpts);
 			if (rowBuilder == null)
 			{
@@ -476,15 +586,33 @@ class SqlViewDataRepository implements IViewDataRepository
 			final int firstRow,
 			final int pageLength) throws DBException
 	{
-		logger.debug("Getting page: firstRow={}, pageLength={} - {}", firstRow, pageLength, this);
+		return retrievePage(viewEvalCtx, orderedSelection, firstRow, pageLength, null).getRows();
+	}
+
+	/**
+	 * @param cursor if matching the requested page, it is used to seek the page (keyset pagination) instead of computing it from <code>firstRow</code>
+	 * @return page and the cursor to the next page
+	 */
+	public ViewRowsPage<IViewRow> retrievePage(final ViewEvaluationCtx viewEvalCtx,
+			final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength,
+			@Nullable final ViewPageCursor cursor) throws DBException
+	{
+		logger.debug("Getting page: firstRow={}, pageLength={}, cursor={} - {}", firstRow, pageLength, cursor, this);
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final int afterSeqNo = extractAfterSeqNo(cursor, orderedSelection, firstRow, pageLength);
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIds(viewId);
+		final boolean exactPage = isExactPage(afterSeqNo, inMemoryRowIds);
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
 				.firstRowZeroBased(firstRow)
 				.pageLength(pageLength)
+				.afterSeqNo(afterSeqNo)
+				.inMemoryRowIds(inMemoryRowIds)
 				.build();
 
 		PreparedStatement pstmt = null;
@@ -496,8 +624,9 @@ class SqlViewDataRepository implements IViewDataRepository
 			DB.setParameters(pstmt, sqlAndParams.getSqlParams());
 
 			rs = pstmt.executeQuery();
-			final List<IViewRow> page = loadViewRows(rs, viewEvalCtx, viewId, pageLength);
-			return page;
+			final MutableInt lastSeqNo = MutableInt.zero();
+			final List<IViewRow> page = loadViewRows(rs, viewEvalCtx, viewId, pageLength, lastSeqNo);
+			return ViewRowsPage.of(page, createNextPageCursor(orderedSelection, firstRow, pageLength, exactPage, page.size(), lastSeqNo.getValue()));
 		}
 		catch (final SQLException | DBException e)
 		{
@@ -510,21 +639,86 @@ class SqlViewDataRepository implements IViewDataRepository
 		}
 	}
 
+	private static int extractAfterSeqNo(
+			@Nullable final ViewPageCursor cursor,
+			@NonNull final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength)
+	{
+		return cursor != null && cursor.isMatching(orderedSelection, firstRow, pageLength)
+				? cursor.getAfterSeqNo()
+				: 0;
+	}
+
+	/**
+	 * @return true if the page will contain exactly the requested rows, i.e. it's not affected by gaps in the selection's SeqNos
+	 */
+	private static boolean isExactPage(final int afterSeqNo, @Nullable final InMemoryViewRowIds inMemoryRowIds)
+	{
+		return afterSeqNo > 0 || inMemoryRowIds != null;
+	}
+
+	/**
+	 * @param exactPage see {@link #isExactPage(int, InMemoryViewRowIds)}
+	 */
+	@Nullable
+	@VisibleForTesting
+	static ViewPageCursor createNextPageCursor(
+			@NonNull final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength,
+			final boolean exactPage,
+			final int pageSize,
+			final int lastSeqNo)
+	{
+		// nothing fetched => we are after the last page
+		if (lastSeqNo <= 0)
+		{
+			return null;
+		}
+
+		// less than requested and the page is exact => we are on the last page.
+		// NOTE: an offset based page might have less rows only because of gaps in the SeqNos (e.g. after rows were removed)
+		if (exactPage && pageSize < pageLength)
+		{
+			return null;
+		}
+
+		return ViewPageCursor.of(orderedSelection.getViewId(), firstRow + pageLength, pageLength, lastSeqNo);
+	}
+
 	@Override
 	public List<DocumentId> retrieveRowIdsByPage(final ViewEvaluationCtx viewEvalCtx,
 			final ViewRowIdsOrderedSelection orderedSelection,
 			final int firstRow,
 			final int pageLength)
 	{
-		logger.debug("Getting page: firstRow={}, pageLength={} - {}", firstRow, pageLength, this);
+		return retrieveRowIdsByPage(viewEvalCtx, orderedSelection, firstRow, pageLength, null).getRows();
+	}
+
+	/**
+	 * @see #retrievePage(ViewEvaluationCtx, ViewRowIdsOrderedSelection, int, int, ViewPageCursor)
+	 */
+	public ViewRowsPage<DocumentId> retrieveRowIdsByPage(final ViewEvaluationCtx viewEvalCtx,
+			final ViewRowIdsOrderedSelection orderedSelection,
+			final int firstRow,
+			final int pageLength,
+			@Nullable final ViewPageCursor cursor)
+	{
+		logger.debug("Getting page: firstRow={}, pageLength={}, cursor={} - {}", firstRow, pageLength, cursor, this);
 		logger.debug("Using: {}", orderedSelection);
 
 		final ViewId viewId = orderedSelection.getViewId();
+		final int afterSeqNo = extractAfterSeqNo(cursor, orderedSelection, firstRow, pageLength);
+		final InMemoryViewRowIds inMemoryRowIds = getInMemoryRowIds(viewId);
+		final boolean exactPage = isExactPage(afterSeqNo, inMemoryRowIds);
 		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
 				.viewEvalCtx(viewEvalCtx)
 				.viewId(viewId)
 				.firstRowZeroBased(firstRow)
 				.pageLength(pageLength)
+				.afterSeqNo(afterSeqNo)
+				.inMemoryRowIds(inMemoryRowIds)
 				.build();
 
 		PreparedStatement pstmt = null;
@@ -539,9 +733,14 @@ class SqlViewDataRepository implements IViewDataRepository
 
 			final ImmutableList.Builder<DocumentId> rowIds = ImmutableList.builder();
 			final JSONOptions jsonOpts = JSONOptions.newInstance(); // not important
+			int lastSeqNo = 0;
+			int count = 0;
 
 			while (rs.next())
 			{
+				lastSeqNo = rs.getInt(SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased);
+				count++;
+
 				final DocumentId rowId = retrieveRowId(rs, jsonOpts);
 				if (rowId == null)
 				{
@@ -549,7 +748,7 @@ class SqlViewDataRepository implements IViewDataRepository
 				}
 				rowIds.add(rowId);
 			}
-			return rowIds.build();
+			return ViewRowsPage.of(rowIds.build(), createNextPageCursor(orderedSelection, firstRow, pageLength, exactPage, count, lastSeqNo));
 		}
 		catch (final SQLException | DBException e)
 		{
@@ -707,7 +906,7 @@ class SqlViewDataRepository implements IViewDataRepository
 			final int limit)
 	{
 		final SqlViewRowFieldLoader fieldLoader = rowFieldLoaders.get(fieldName);
-		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit);
+		final SqlAndParams sql = sqlViewSelect.selectFieldValues(viewEvalCtx, selectionId, fieldName, limit, getInMemoryRowIds(selectionId));
 
 		final String adLanguage = viewEvalCtx.getAdLanguage();
 		return DB.retrieveRows(
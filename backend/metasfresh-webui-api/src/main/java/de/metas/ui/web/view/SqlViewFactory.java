@@ -24,6 +24,7 @@ package de.metas.ui.web.view;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Supplier;
 
@@ -34,6 +35,7 @@ import org.slf4j.Logger;
 import org.springframework.stereotype.Service;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.document.references.ZoomInfoPermissionsFactory;
 import de.metas.logging.LogManager;
@@ -56,8 +58,10 @@ import de.metas.ui.web.view.descriptor.ViewLayout;
 import de.metas.ui.web.view.descriptor.ViewLayoutFactory;
 import de.metas.ui.web.view.json.JSONFilterViewRequest;
 import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.DocumentId;
 import de.metas.ui.web.window.datatypes.DocumentPath;
 import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
 import de.metas.ui.web.window.descriptor.DocumentEntityDescriptor;
 import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
 import de.metas.ui.web.window.descriptor.factory.DocumentDescriptorFactory;
@@ -147,6 +151,67 @@ public class SqlViewFactory implements IViewFactory
 
 	@Override
 	public DefaultView createView(final @NonNull CreateViewRequest request)
+	{
+		return newViewBuilder(request).build();
+	}
+
+	/**
+	 * Restores a view which was created (maybe by another webui node) from given definition.
+	 * The view's selection is not re-created if it still exists in database.
+	 */
+	public DefaultView restoreView(@NonNull final SharedViewDefinition definition)
+	{
+		final ViewId viewId = definition.toViewId();
+		final CreateViewRequest request = CreateViewRequest.builder(viewId, definition.getViewType())
+				.setProfileId(ViewProfileId.fromJson(definition.getProfileId()))
+				.setParentViewId(definition.getParentViewId() != null ? ViewId.ofViewIdString(definition.getParentViewId()) : null)
+				.setParentRowId(definition.getParentRowId() != null ? DocumentId.of(definition.getParentRowId()) : null)
+				.setReferencingDocumentPaths(definition.getReferencingDocumentPaths()
+						.stream()
+						.map(JSONDocumentPath::toDocumentPathOrNull)
+						.collect(ImmutableSet.toImmutableSet()))
+				.setDocumentReferenceId(definition.getDocumentReferenceId() != null ? DocumentReferenceId.ofString(definition.getDocumentReferenceId()) : null)
+				.setFiltersFromJSON(definition.getFilters())
+				.setFilterOnlyIds(definition.getFilterOnlyIds())
+				.setUseAutoFilters(false) // auto filters were already applied when the view was created
+				.applySecurityRestrictions(definition.isApplySecurityRestrictions())
+				.build();
+
+		final DefaultView.Builder viewBuilder = newViewBuilder(request);
+		viewBuilder.setInitialSelections(retrieveExistingSelections(viewBuilder.getViewDataRepository(), definition));
+		return viewBuilder.build();
+	}
+
+	/**
+	 * @return the selections of given definition, or <code>null</code> if they no longer exist in database (e.g. they were held in memory by the node which created them)
+	 */
+	@Nullable
+	private static ViewRowIdsOrderedSelections retrieveExistingSelections(
+			@NonNull final SqlViewDataRepository viewDataRepository,
+			@NonNull final SharedViewDefinition definition)
+	{
+		final SharedViewDefinition.Selection beforeFacetsFiltering = definition.getDefaultSelectionBeforeFacetsFiltering();
+		final int beforeFacetsFilteringSize = viewDataRepository.retrieveSelectionSizeFromDatabase(beforeFacetsFiltering.getSelectionId());
+		if (beforeFacetsFilteringSize <= 0 && beforeFacetsFiltering.getSize() > 0)
+		{
+			return null;
+		}
+
+		final SharedViewDefinition.Selection selection = definition.getDefaultSelection();
+		final int selectionSize = Objects.equals(beforeFacetsFiltering.getSelectionId(), selection.getSelectionId())
+				? beforeFacetsFilteringSize
+				: viewDataRepository.retrieveSelectionSizeFromDatabase(selection.getSelectionId());
+		if (selectionSize <= 0 && selection.getSize() > 0)
+		{
+			return null;
+		}
+
+		return ViewRowIdsOrderedSelections.ofDefaultSelection(
+				beforeFacetsFiltering.toViewRowIdsOrderedSelection(beforeFacetsFilteringSize),
+				selection.toViewRowIdsOrderedSelection(selectionSize));
+	}
+
+	private DefaultView.Builder newViewBuilder(final @NonNull CreateViewRequest request)
 	{
 		final WindowId windowId = request.getViewId().getWindowId();
 
@@ -171,7 +236,10 @@ public class SqlViewFactory implements IViewFactory
 						request.getDocumentReferenceId()))
 				.applySecurityRestrictions(request.isApplySecurityRestrictions())
 				.viewInvalidationAdvisor(sqlViewBinding.getViewInvalidationAdvisor())
-				.refreshViewOnChangeEvents(sqlViewBinding.isRefreshViewOnChangeEvents());
+				.refreshViewOnChangeEvents(sqlViewBinding.isRefreshViewOnChangeEvents())
+				// the referenced document filter and the filter-only IDs filter are re-created when restoring; any other sticky filter would be lost
+				.shareable(request.getStickyFilters().isEmpty())
+				.setFilterOnlyIds(request.getFilterOnlyIds());
 
 		final DocumentFilterList filters = request.getFiltersUnwrapped(viewDataRepository.getViewFilterDescriptors());
 		viewBuilder.setFilters(filters);
@@ -188,7 +256,7 @@ public class SqlViewFactory implements IViewFactory
 			viewBuilder.addStickyFilter(DocumentFilter.inArrayFilter(keyColumnName, keyColumnName, request.getFilterOnlyIds()));
 		}
 
-		return viewBuilder.build();
+		return viewBuilder;
 	}
 
 	@Nullable
@@ -300,9 +368,15 @@ public class SqlViewFactory implements IViewFactory
 		// }
 		// else
 		{
-			return createView(CreateViewRequest.filterViewBuilder(view)
+			final CreateViewRequest request = CreateViewRequest.filterViewBuilder(view)
 					.setFilters(newFilters)
-					.build());
+					.build();
+
+			// the sticky filters were inherited from the filtered view, so the new view is shareable if that one was shareable
+			return newViewBuilder(request)
+					.shareable(view.isShareable())
+					.setFilterOnlyIds(view.getFilterOnlyIds())
+					.build();
 		}
 	}
 
@@ -40,7 +40,7 @@ public class ViewConfiguration implements InitializingBean
 {
 	private static final Logger logger = LogManager.getLogger(ViewConfiguration.class);
 
-	private static final String BEANNAME_ViewMaintenanceScheduledExecutorService = "viewMaintenanceScheduledExecutorService";
+	static final String BEANNAME_ViewMaintenanceScheduledExecutorService = "viewMaintenanceScheduledExecutorService";
 
 	@Value("${metasfresh.view.clearViewSelectionsRateInSeconds:1800}")
 	private int clearViewSelectionsRateInSeconds;
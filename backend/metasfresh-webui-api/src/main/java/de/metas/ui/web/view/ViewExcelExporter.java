@@ -4,16 +4,12 @@ import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
-import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 
 import org.adempiere.exceptions.AdempiereException;
 
-import com.google.common.cache.CacheBuilder;
-import com.google.common.cache.CacheLoader;
-import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
 
 import de.metas.i18n.Language;
@@ -75,7 +71,7 @@ import lombok.NonNull;
 			@NonNull final Language language,
 			@NonNull final ZoneId zoneId)
 	{
-		super(excelFormat, constants);
+		super(excelFormat, withStreamingWorkbook(constants));
 		this.layout = layout;
 		setLanguage(language);
 		jsonOpts = JSONOptions.builder()
@@ -88,6 +84,7 @@ import lombok.NonNull;
 			this.rows = new AllRowsSupplier(
 					view,
 					getConstants().getAllRowsPageSize(),
+					getConstants().getAllRowsMaxRows(),
 					jsonOpts);
 		}
 		else if (rowIds.isEmpty())
@@ -102,6 +99,17 @@ import lombok.NonNull;
 		setFreezePane(0, 1);
 	}
 
+	/**
+	 * Views might have a lot of rows, so we always use the streaming workbook implementation, which keeps only a window of rows in memory.
+	 */
+	private static ExcelExportConstants withStreamingWorkbook(@Nullable final ExcelExportConstants constants)
+	{
+		return ExcelExportConstants.givenOrDefault(constants)
+				.toBuilder()
+				.useStreamingWorkbookImplementation(true)
+				.build();
+	}
+
 	private IViewRow getRow(final int rowIndex)
 	{
 		return rows.getRow(rowIndex);
@@ -219,51 +227,51 @@ import lombok.NonNull;
 		int getRowCount();
 	}
 
+	/**
+	 * Fetches the rows page by page, keeping only the current page in memory.
+	 * <p>
+	 * The rows are expected to be requested in sequence, so the view can seek each next page using its page cursor (see {@link ViewPageCursor}).
+	 */
 	private static class AllRowsSupplier implements RowsSupplier
 	{
-		private final int pageSize;
 		private final IView view;
-		private final JSONOptions jsonOpts;
-
-		private LoadingCache<PageIndex, ViewResult> cache = CacheBuilder.newBuilder()
-				.maximumSize(2) // cache max 2 pages
-				.build(new CacheLoader<PageIndex, ViewResult>()
-				{
-					@Override
-					public ViewResult load(final PageIndex pageIndex)
-					{
-						final ViewRowsOrderBy orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
-						return view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
-					}
+		private final int pageSize;
+		private final int rowCount;
+		private final ViewRowsOrderBy orderBys;
 
-				});
+		private ViewResult currentPage;
 
 		private AllRowsSupplier(
 				@NonNull final IView view,
 				final int pageSize,
+				final int maxRows,
 				@NonNull final JSONOptions jsonOpts)
 		{
 			this.view = view;
 			this.pageSize = pageSize;
-			this.jsonOpts = jsonOpts;
+			this.orderBys = ViewRowsOrderBy.empty(jsonOpts); // default
+
+			final int viewSize = (int)view.size();
+			this.rowCount = maxRows > 0 ? Math.min(viewSize, maxRows) : viewSize;
 		}
 
-		private ViewResult getPage(final PageIndex pageIndex)
+		private ViewResult getPageContainingRow(final int rowIndex)
 		{
-			try
-			{
-				return cache.get(pageIndex);
-			}
-			catch (ExecutionException e)
+			ViewResult page = currentPage;
+			if (page == null
+					|| rowIndex < page.getFirstRow()
+					|| rowIndex >= page.getFirstRow() + page.getPageLength())
 			{
-				throw AdempiereException.wrapIfNeeded(e);
+				final PageIndex pageIndex = PageIndex.getPageContainingRow(rowIndex, pageSize);
+				page = currentPage = view.getPage(pageIndex.getFirstRow(), pageIndex.getPageLength(), orderBys);
 			}
+			return page;
 		}
 
 		@Override
 		public IViewRow getRow(final int rowIndex)
 		{
-			final ViewResult page = getPage(PageIndex.getPageContainingRow(rowIndex, pageSize));
+			final ViewResult page = getPageContainingRow(rowIndex);
 
 			final int rowIndexInPage = rowIndex - page.getFirstRow();
 			if (rowIndexInPage < 0)
@@ -284,7 +292,7 @@ import lombok.NonNull;
 		@Override
 		public int getRowCount()
 		{
-			return (int)view.size();
+			return rowCount;
 		}
 	}
 
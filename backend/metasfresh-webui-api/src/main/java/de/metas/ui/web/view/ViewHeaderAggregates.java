@@ -0,0 +1,137 @@
+package de.metas.ui.web.view;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import com.google.common.collect.ImmutableMap;
+
+import de.metas.ui.web.window.datatypes.DocumentId;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Maintains the SUM and COUNT of the rows of a view, grouped by a key, so that {@link ViewHeaderPropertiesProvider}s can update their header properties
+ * when only some rows changed, without re-querying the whole view.
+ * <p>
+ * To be able to subtract the old values of a changed row, the value of each row is kept,
+ * so callers shall use it only for views with a bounded number of rows.
+ *
+ * @param <K> group key type; shall implement equals and hashCode
+ */
+@ThreadSafe
+public final class ViewHeaderAggregates<K>
+{
+	public static <K> ViewHeaderAggregates<K> of(@NonNull final Map<DocumentId, RowValue<K>> valuesByRowId)
+	{
+		final ViewHeaderAggregates<K> aggregates = new ViewHeaderAggregates<>();
+		aggregates.updateRows(valuesByRowId.keySet(), valuesByRowId);
+		return aggregates;
+	}
+
+	@Value(staticConstructor = "of")
+	public static class RowValue<K>
+	{
+		@NonNull
+		K key;
+		@NonNull
+		BigDecimal amount;
+	}
+
+	@Value
+	public static class Aggregate
+	{
+		static final Aggregate ZERO = new Aggregate(BigDecimal.ZERO, 0);
+
+		@NonNull
+		BigDecimal sum;
+		int count;
+
+		private Aggregate add(@NonNull final BigDecimal amount)
+		{
+			return new Aggregate(sum.add(amount), count + 1);
+		}
+
+		private Aggregate subtract(@NonNull final BigDecimal amount)
+		{
+			return new Aggregate(sum.subtract(amount), count - 1);
+		}
+	}
+
+	/** guarded by this */
+	private final HashMap<DocumentId, RowValue<K>> valuesByRowId = new HashMap<>();
+	/** guarded by this */
+	private final HashMap<K, Aggregate> aggregatesByKey = new HashMap<>();
+
+	private ViewHeaderAggregates()
+	{
+	}
+
+	/**
+	 * @param changedRowIds IDs of the rows which changed
+	 * @param newValuesByRowId current values of the changed rows; changed rows which are missing here are considered removed
+	 */
+	public synchronized void updateRows(
+			@NonNull final Collection<DocumentId> changedRowIds,
+			@NonNull final Map<DocumentId, RowValue<K>> newValuesByRowId)
+	{
+		for (final DocumentId rowId : changedRowIds)
+		{
+			final RowValue<K> oldValue = valuesByRowId.remove(rowId);
+			if (oldValue != null)
+			{
+				final Aggregate aggregate = aggregatesByKey.get(oldValue.getKey()).subtract(oldValue.getAmount());
+				if (aggregate.getCount() <= 0)
+				{
+					aggregatesByKey.remove(oldValue.getKey());
+				}
+				else
+				{
+					aggregatesByKey.put(oldValue.getKey(), aggregate);
+				}
+			}
+
+			final RowValue<K> newValue = newValuesByRowId.get(rowId);
+			if (newValue != null)
+			{
+				valuesByRowId.put(rowId, newValue);
+				aggregatesByKey.compute(newValue.getKey(), (key, aggregate) -> (aggregate != null ? aggregate : Aggregate.ZERO).add(newValue.getAmount()));
+			}
+		}
+	}
+
+	public synchronized ImmutableMap<K, Aggregate> getAggregates()
+	{
+		return ImmutableMap.copyOf(aggregatesByKey);
+	}
+
+	public synchronized int getRowsCount()
+	{
+		return valuesByRowId.size();
+	}
+}
@@ -0,0 +1,58 @@
+package de.metas.ui.web.view;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Points to the page which follows an already fetched page of a view selection.
+ * <p>
+ * Having it, the next page can be fetched by seeking right after the last SeqNo of the previous page (keyset pagination)
+ * instead of computing the SeqNo range from the row offset. The latter is not accurate after rows were removed from the selection.
+ */
+@Value(staticConstructor = "of")
+public class ViewPageCursor
+{
+	/** The {@link ViewRowIdsOrderedSelection#getViewId()} of the ordered selection which was paged */
+	@NonNull
+	ViewId selectionViewId;
+
+	/** The 0-based first row of the page this cursor points to */
+	int firstRow;
+
+	int pageLength;
+
+	/** The SeqNo of the last row of the previous page. The page this cursor points to starts right after it. */
+	int afterSeqNo;
+
+	public boolean isMatching(
+			@NonNull final ViewRowIdsOrderedSelection selection,
+			final int firstRow,
+			final int pageLength)
+	{
+		return selectionViewId.equals(selection.getViewId())
+				&& this.firstRow == firstRow
+				&& this.pageLength == pageLength;
+	}
+}
@@ -0,0 +1,190 @@
+package de.metas.ui.web.view;
+
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import javax.annotation.Nullable;
+
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+
+import de.metas.logging.LogManager;
+import de.metas.util.Services;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fetches the next page of a view in background, while the user is looking at the current one.
+ * <p>
+ * Only the most recently requested page is kept, because it's meant for users which are paging sequentially.
+ * <p>
+ * Disabled by default, see {@value #SYSCONFIG_Enabled}, because each prefetched page which is not used is an extra query.
+ */
+final class ViewPagePrefetcher
+{
+	private static final Logger logger = LogManager.getLogger(ViewPagePrefetcher.class);
+
+	@VisibleForTesting
+	static final String SYSCONFIG_Enabled = "webui.view.pagePrefetcher.enabled";
+	private static final String SYSCONFIG_MaxPoolSize = "webui.view.pagePrefetcher.maxPoolSize";
+	private static final int QUEUE_CAPACITY = 100;
+
+	private static final Supplier<ExecutorService> sharedExecutorSupplier = Suppliers.memoize(ViewPagePrefetcher::createExecutor);
+
+	private final Supplier<? extends Executor> executorSupplier;
+	private final AtomicReference<PrefetchedPage> prefetchedPageRef = new AtomicReference<>();
+
+	public ViewPagePrefetcher()
+	{
+		this.executorSupplier = sharedExecutorSupplier;
+	}
+
+	@VisibleForTesting
+	ViewPagePrefetcher(@NonNull final Executor executor)
+	{
+		this.executorSupplier = () -> executor;
+	}
+
+	private static ExecutorService createExecutor()
+	{
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final int maxPoolSize = Math.max(sysConfigBL.getIntValue(SYSCONFIG_MaxPoolSize, 4), 1);
+
+		final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+				.setDaemon(true)
+				.setThreadNamePrefix(ViewPagePrefetcher.class.getSimpleName() + "-")
+				.build();
+
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+				maxPoolSize, // corePoolSize
+				maxPoolSize,
+				60L, // keepAliveTime
+				TimeUnit.SECONDS, // keepAliveTime unit
+				new LinkedBlockingQueue<Runnable>(QUEUE_CAPACITY), // workQueue
+				threadFactory);
+		executor.allowCoreThreadTimeOut(true);
+
+		logger.info("Created {}", executor);
+		return executor;
+	}
+
+	@VisibleForTesting
+	static boolean isEnabled()
+	{
+		return Services.get(ISysConfigBL.class).getBooleanValue(SYSCONFIG_Enabled, false);
+	}
+
+	/**
+	 * Starts fetching the page the given cursor is pointing to. Any previously prefetched page is discarded.
+	 */
+	public void prefetch(
+			@NonNull final ViewPageCursor cursor,
+			@NonNull final Supplier<ViewRowsPage<IViewRow>> pageLoader)
+	{
+		if (!isEnabled())
+		{
+			return;
+		}
+
+		final CompletableFuture<ViewRowsPage<IViewRow>> future = new CompletableFuture<>();
+		final PrefetchedPage prefetchedPage = PrefetchedPage.of(cursor, future);
+		prefetchedPageRef.set(prefetchedPage);
+
+		final Properties ctx = Env.copyCtx(Env.getCtx());
+		try
+		{
+			executorSupplier.get().execute(() -> {
+				try (final IAutoCloseable ctxRestorer = Env.switchContext(ctx))
+				{
+					future.complete(pageLoader.get());
+				}
+				catch (final Exception ex)
+				{
+					logger.debug("Failed prefetching page for {}", cursor, ex);
+					future.completeExceptionally(ex);
+				}
+			});
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			logger.debug("Skip prefetching page for {} because the executor is busy", cursor);
+			prefetchedPageRef.compareAndSet(prefetchedPage, null);
+		}
+	}
+
+	/**
+	 * @return the prefetched page if it's matching and it was successfully fetched; in any case the prefetched page is discarded.
+	 */
+	@Nullable
+	public ViewRowsPage<IViewRow> pollPrefetchedPage(
+			@NonNull final ViewRowIdsOrderedSelection selection,
+			final int firstRow,
+			final int pageLength)
+	{
+		final PrefetchedPage prefetchedPage = prefetchedPageRef.getAndSet(null);
+		if (prefetchedPage == null || !prefetchedPage.getCursor().isMatching(selection, firstRow, pageLength))
+		{
+			return null;
+		}
+
+		// NOTE: don't wait for a page which is still loading, because the executor might be busy
+		final CompletableFuture<ViewRowsPage<IViewRow>> future = prefetchedPage.getFuture();
+		if (!future.isDone() || future.isCompletedExceptionally())
+		{
+			return null;
+		}
+
+		return future.getNow(null);
+	}
+
+	public void clear()
+	{
+		prefetchedPageRef.set(null);
+	}
+
+	@Value(staticConstructor = "of")
+	private static class PrefetchedPage
+	{
+		@NonNull
+		ViewPageCursor cursor;
+
+		@NonNull
+		CompletableFuture<ViewRowsPage<IViewRow>> future;
+	}
+}
@@ -25,6 +25,7 @@ package de.metas.ui.web.view;
 import com.google.common.collect.ImmutableList;
 import de.metas.impexp.excel.ExcelFormat;
 import de.metas.impexp.excel.ExcelFormats;
+import de.metas.logging.LogManager;
 import de.metas.process.RelatedProcessDescriptor.DisplayPlace;
 import de.metas.ui.web.cache.ETagResponseEntityBuilder;
 import de.metas.ui.web.comments.CommentsService;
@@ -61,11 +62,8 @@ import org.adempiere.exceptions.AdempiereException;
 import org.compiere.util.Evaluatee;
 import org.compiere.util.Evaluatees;
 import org.compiere.util.MimeType;
-import org.springframework.core.io.InputStreamResource;
-import org.springframework.core.io.Resource;
+import org.slf4j.Logger;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -77,13 +75,15 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.WebRequest;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import javax.annotation.Nullable;
+import javax.servlet.http.HttpServletResponse;
+
 @Api
 @RestController
 @RequestMapping(value = ViewRestController.ENDPOINT)
@@ -94,6 +94,8 @@ public class ViewRestController
 	// FIXME: change "documentView" to "view"
 	public static final String ENDPOINT = WebConfig.ENDPOINT_ROOT + "/documentView/{" + PARAM_WindowId + "}";
 
+	private static final Logger logger = LogManager.getLogger(ViewRestController.class);
+
 	private static final String PARAM_ViewId = "viewId";
 	private static final String PARAM_ViewDataType = "viewType";
 	private static final String PARAM_OrderBy = "orderBy";
@@ -105,6 +107,9 @@ public class ViewRestController
 	//
 	private static final String PARAM_FilterId = "filterId";
 
+	/** Exports which fail before this many bytes were written can still report the error to the client */
+	private static final int EXPORT_RESPONSE_BUFFER_SIZE = 64 * 1024;
+
 	private final UserSession userSession;
 	private final IViewsRepository viewsRepo;
 	private final ProcessRestController processRestController;
@@ -507,10 +512,11 @@ public class ViewRestController
 	}
 
 	@GetMapping("/{viewId}/export/excel")
-	public ResponseEntity<Resource> exportToExcel(
+	public void exportToExcel(
 			@PathVariable("windowId") final String windowIdStr,
 			@PathVariable(PARAM_ViewId) final String viewIdStr,
-			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr)
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			final HttpServletResponse response)
 			throws Exception
 	{
 		userSession.assertLoggedIn();
@@ -518,29 +524,80 @@ public class ViewRestController
 		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
 
 		final ExcelFormat excelFormat = ExcelFormats.getDefaultFormat();
-		final File tmpFile = File.createTempFile("exportToExcel", "." + excelFormat.getFileExtension());
+		final ViewExcelExporter exporter = createViewExporter(viewId, selectedIdsListStr, excelFormat);
 
-		try (final FileOutputStream out = new FileOutputStream(tmpFile))
-		{
-			ViewExcelExporter.builder()
-					.excelFormat(excelFormat)
-					.view(viewsRepo.getView(viewId))
-					.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
-					.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
-					.language(userSession.getLanguage())
-					.zoneId(userSession.getTimeZone())
-					.build()
-					.export(out);
-		}
+		// NOTE: write directly to response instead of a temporary file, because the streaming workbook keeps only a window of rows in memory
+		exportToResponse(response, "report." + excelFormat.getFileExtension(), exporter::export);
+	}
 
-		final String filename = "report." + excelFormat.getFileExtension(); // TODO: use a better name
-		final String contentType = MimeType.getMimeType(filename);
-		final HttpHeaders headers = new HttpHeaders();
-		headers.setContentType(MediaType.parseMediaType(contentType));
-		headers.set(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
-		headers.setCacheControl("must-revalidate, post-check=0, pre-check=0");
+	@GetMapping("/{viewId}/export/csv")
+	public void exportToCsv(
+			@PathVariable("windowId") final String windowIdStr,
+			@PathVariable(PARAM_ViewId) final String viewIdStr,
+			@RequestParam(name = "selectedIds", required = false) @ApiParam("comma separated IDs") final String selectedIdsListStr,
+			final HttpServletResponse response)
+			throws Exception
+	{
+		userSession.assertLoggedIn();
 
-		final ResponseEntity<Resource> response = new ResponseEntity<>(new InputStreamResource(new FileInputStream(tmpFile)), headers, HttpStatus.OK);
-		return response;
+		final ViewId viewId = ViewId.ofViewIdString(viewIdStr, WindowId.fromJson(windowIdStr));
+
+		final ViewExcelExporter exporter = createViewExporter(viewId, selectedIdsListStr, ExcelFormats.getDefaultFormat());
+
+		exportToResponse(response, "report.csv", exporter::exportAsCsv);
+	}
+
+	private ViewExcelExporter createViewExporter(
+			@NonNull final ViewId viewId,
+			@Nullable final String selectedIdsListStr,
+			@NonNull final ExcelFormat excelFormat)
+	{
+		return ViewExcelExporter.builder()
+				.excelFormat(excelFormat)
+				.view(viewsRepo.getView(viewId))
+				.rowIds(DocumentIdsSelection.ofCommaSeparatedString(selectedIdsListStr))
+				.layout(viewsRepo.getViewLayout(viewId.getWindowId(), JSONViewDataType.grid, ViewProfileId.NULL))
+				.language(userSession.getLanguage())
+				.zoneId(userSession.getTimeZone())
+				.build();
+	}
+
+	@FunctionalInterface
+	private interface ExportWriter
+	{
+		void writeTo(OutputStream out) throws IOException;
+	}
+
+	/**
+	 * Writes the export to the response.
+	 * If the export fails before the response was committed, the response is reset and the error is reported as usual.
+	 * After the response was committed, the error can only be logged and the download is aborted.
+	 */
+	private static void exportToResponse(
+			@NonNull final HttpServletResponse response,
+			@NonNull final String filename,
+			@NonNull final ExportWriter exportWriter) throws IOException
+	{
+		response.setBufferSize(EXPORT_RESPONSE_BUFFER_SIZE);
+		response.setContentType(MimeType.getMimeType(filename));
+		response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"");
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "must-revalidate, post-check=0, pre-check=0");
+
+		try
+		{
+			exportWriter.writeTo(response.getOutputStream());
+		}
+		catch (final IOException | RuntimeException ex)
+		{
+			if (!response.isCommitted())
+			{
+				response.reset();
+			}
+			else
+			{
+				logger.warn("Export to {} failed after the response was committed. Aborting the download.", filename, ex);
+			}
+			throw ex;
+		}
 	}
 }
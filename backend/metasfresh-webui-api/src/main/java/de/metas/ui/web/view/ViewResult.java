@@ -109,6 +109,7 @@ public final class ViewResult
 	private final ImmutableList<DocumentId> rowIds;
 	private final ImmutableList<IViewRow> page;
 	private final ImmutableMap<String, ViewResultColumn> columnInfosByFieldName;
+	private final ViewPageCursor nextPageCursor;
 
 	/**
 	 * +
@@ -122,7 +123,8 @@ public final class ViewResult
 			@NonNull final DocumentQueryOrderByList orderBys,
 			@Nullable final List<DocumentId> rowIds,
 			@Nullable final List<? extends IViewRow> rows,
-			@Nullable final List<ViewResultColumn> columnInfos)
+			@Nullable final List<ViewResultColumn> columnInfos,
+			@Nullable final ViewPageCursor nextPageCursor)
 	{
 		this.viewId = view.getViewId();
 		this.profileId = view.getProfileId();
@@ -149,6 +151,7 @@ public final class ViewResult
 		this.page = rows != null ? ImmutableList.copyOf(rows) : null;
 		this.columnInfosByFieldName = columnInfos != null ? Maps.uniqueIndex(columnInfos, ViewResultColumn::getFieldName)
 				: ImmutableMap.of();
+		this.nextPageCursor = nextPageCursor;
 	}
 
 	/** View (WITHOUT loaded page) constructor */
@@ -174,6 +177,7 @@ public final class ViewResult
 		rowIds = null;
 		page = null;
 		columnInfosByFieldName = ImmutableMap.of();
+		nextPageCursor = null;
 	}
 
 	@Override
@@ -256,6 +260,15 @@ public final class ViewResult
 		return orderBys;
 	}
 
+	/**
+	 * @return cursor to the page which follows this one or null if this is the last page or the view does not support keyset pagination
+	 */
+	@Nullable
+	public ViewPageCursor getNextPageCursor()
+	{
+		return nextPageCursor;
+	}
+
 	public boolean isPageLoaded()
 	{
 		return page != null;
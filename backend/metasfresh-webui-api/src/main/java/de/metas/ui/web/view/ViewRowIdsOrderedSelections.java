@@ -1,5 +1,8 @@
 package de.metas.ui.web.view;
 
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
 import org.adempiere.exceptions.AdempiereException;
 
 import com.google.common.collect.ImmutableMap;
@@ -78,6 +81,34 @@ final class ViewRowIdsOrderedSelections
 		}
 	}
 
+	/**
+	 * Like {@link #withDefaultSelection(ViewRowIdsOrderedSelection, ViewRowIdsOrderedSelection)}, but if the default selection changed,
+	 * the already computed order-by selections are kept and updated using given function, instead of being recomputed on next usage.
+	 * <p>
+	 * This works as long as the updater does not change the ordering (e.g. it only removes rows).
+	 */
+	public ViewRowIdsOrderedSelections withDefaultSelection(
+			@NonNull final ViewRowIdsOrderedSelection defaultSelectionBeforeFacetsFiltering,
+			@NonNull final ViewRowIdsOrderedSelection defaultSelection,
+			@NonNull final UnaryOperator<ViewRowIdsOrderedSelection> orderBysSelectionUpdater)
+	{
+		if (ViewRowIdsOrderedSelection.equals(this.defaultSelectionBeforeFacetsFiltering, defaultSelectionBeforeFacetsFiltering)
+				&& ViewRowIdsOrderedSelection.equals(this.defaultSelection, defaultSelection))
+		{
+			return this;
+		}
+
+		final ImmutableMap<DocumentQueryOrderByList, ViewRowIdsOrderedSelection> selectionsByOrderBysNew = selectionsByOrderBys.entrySet()
+				.stream()
+				.collect(ImmutableMap.toImmutableMap(Map.Entry::getKey, entry -> orderBysSelectionUpdater.apply(entry.getValue())));
+		return new ViewRowIdsOrderedSelections(defaultSelectionBeforeFacetsFiltering, defaultSelection, selectionsByOrderBysNew);
+	}
+
+	public boolean hasOrderBysSelections()
+	{
+		return !selectionsByOrderBys.isEmpty();
+	}
+
 	@FunctionalInterface
 	public interface ViewRowIdsOrderedSelectionFactory
 	{
@@ -125,6 +156,14 @@ final class ViewRowIdsOrderedSelections
 		return selectionsByOrderBys.get(orderBys);
 	}
 
+	public ImmutableSet<String> getOrderBysSelectionIds()
+	{
+		return selectionsByOrderBys.values()
+				.stream()
+				.map(ViewRowIdsOrderedSelection::getSelectionId)
+				.collect(ImmutableSet.toImmutableSet());
+	}
+
 	public ImmutableSet<String> getSelectionIds()
 	{
 		final ImmutableSet.Builder<String> selectionIds = ImmutableSet.builder();
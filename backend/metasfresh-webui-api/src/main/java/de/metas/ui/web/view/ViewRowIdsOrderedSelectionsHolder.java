@@ -53,7 +53,7 @@ final class ViewRowIdsOrderedSelectionsHolder
 	private final DocumentFilterList facetFilters;
 
 	private final AtomicBoolean selectionDeleteBeforeCreate = new AtomicBoolean(false);
-	private final SynchronizedMutable<ViewRowIdsOrderedSelections> currentSelectionsRef = SynchronizedMutable.of(null);
+	private final SynchronizedMutable<ViewRowIdsOrderedSelections> currentSelectionsRef;
 
 	@Builder
 	private ViewRowIdsOrderedSelectionsHolder(
@@ -62,12 +62,14 @@ final class ViewRowIdsOrderedSelectionsHolder
 			final boolean applySecurityRestrictions,
 			@NonNull final DocumentFilterList stickyFilters,
 			@NonNull final DocumentFilterList filters,
-			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier)
+			@NonNull final Supplier<ViewEvaluationCtx> viewEvaluationCtxSupplier,
+			@Nullable final ViewRowIdsOrderedSelections initialSelections)
 	{
 		this.viewDataRepository = viewDataRepository;
 		this.viewId = viewId;
 		this.applySecurityRestrictions = applySecurityRestrictions;
 		this.viewEvaluationCtxSupplier = viewEvaluationCtxSupplier;
+		this.currentSelectionsRef = SynchronizedMutable.of(initialSelections); // initial selections are given when the view is restored from an existing selection
 
 		final ArrayList<DocumentFilter> filtersExcludingFacetsList = new ArrayList<>();
 		final ArrayList<DocumentFilter> facetFiltersList = new ArrayList<>();
@@ -223,7 +225,31 @@ final class ViewRowIdsOrderedSelectionsHolder
 			defaultSelection = defaultSelectionBeforeFacetsFiltering;
 		}
 
-		return selections.withDefaultSelection(defaultSelectionBeforeFacetsFiltering, defaultSelection);
+		if (!selections.hasOrderBysSelections())
+		{
+			return selections.withDefaultSelection(defaultSelectionBeforeFacetsFiltering, defaultSelection);
+		}
+
+		//
+		// NOTE: the order-by selections were created from the default selection, so they shall contain the same rows.
+		// If some of the changed rows are still there, their sort values might have changed too, so the order-by selections are no longer valid.
+		final Set<DocumentId> changedRowIdsStillInSelection = viewDataRepository.retrieveRowIdsMatchingFilters(
+				defaultSelection.getViewId(),
+				DocumentFilterList.EMPTY,
+				rowIds);
+		if (!changedRowIdsStillInSelection.isEmpty())
+		{
+			viewDataRepository.scheduleDeleteSelections(selections.getOrderBysSelectionIds());
+			return ViewRowIdsOrderedSelections.ofDefaultSelection(defaultSelectionBeforeFacetsFiltering, defaultSelection);
+		}
+
+		//
+		// The changed rows were only removed, which does not change the order of the remaining rows
+		final DocumentFilterList allFilters = filtersExcludingFacets.mergeWith(facetFilters);
+		return selections.withDefaultSelection(
+				defaultSelectionBeforeFacetsFiltering,
+				defaultSelection,
+				orderBysSelection -> viewDataRepository.removeRowIdsNotMatchingFilters(orderBysSelection, allFilters, rowIds));
 	}
 
 	public ViewRowIdsOrderedSelection getOrderedSelection(final DocumentQueryOrderByList orderBys)
@@ -0,0 +1,51 @@
+package de.metas.ui.web.view;
+
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+import com.google.common.collect.ImmutableList;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * A page of view rows (or row IDs) together with the cursor to the page which follows it.
+ */
+@Value
+public class ViewRowsPage<T>
+{
+	public static <T> ViewRowsPage<T> of(@NonNull final List<T> rows, @Nullable final ViewPageCursor nextPageCursor)
+	{
+		return new ViewRowsPage<>(ImmutableList.copyOf(rows), nextPageCursor);
+	}
+
+	@NonNull
+	ImmutableList<T> rows;
+
+	/** null if this is the last page */
+	@Nullable
+	ViewPageCursor nextPageCursor;
+}
@@ -6,6 +6,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
@@ -18,6 +20,7 @@ import org.adempiere.util.lang.MutableInt;
 import org.adempiere.util.lang.impl.TableRecordReferenceSet;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
@@ -80,6 +83,12 @@ public class ViewsRepository implements IViewsRepository
 	@Value("${metasfresh.webui.view.truncateOnStartUp:true}")
 	private boolean truncateSelectionOnStartUp;
 
+	@Value("${metasfresh.webui.view.deleteExpiredSharedViewsRateInSeconds:600}")
+	private int deleteExpiredSharedViewsRateInSeconds;
+	private final ScheduledExecutorService viewMaintenanceScheduledExecutor;
+
+	private static final String SYSCONFIG_SharedViewsStorageEnabled = "de.metas.ui.web.view.SharedViewsStorageEnabled";
+
 	private final ImmutableMap<WindowId, IViewsIndexStorage> viewsIndexStorages;
 	private final IViewsIndexStorage defaultViewsIndexStorage;
 
@@ -92,7 +101,8 @@ public class ViewsRepository implements IViewsRepository
 			@SuppressWarnings("OptionalUsedAsFieldOrParameterType") @NonNull final Optional<List<IViewsIndexStorage>> viewIndexStorages,
 			@NonNull final SqlViewFactory defaultFactory,
 			@NonNull final MenuTreeRepository menuTreeRepo,
-			@NonNull final WebsocketActiveSubscriptionsIndex websocketActiveSubscriptionsIndex)
+			@NonNull final WebsocketActiveSubscriptionsIndex websocketActiveSubscriptionsIndex,
+			@NonNull @Qualifier(ViewConfiguration.BEANNAME_ViewMaintenanceScheduledExecutorService) final ScheduledExecutorService viewMaintenanceScheduledExecutor)
 	{
 		factories = createFactoriesMap(viewFactories);
 		factories.values().forEach(viewFactory -> viewFactory.setViewsRepository(this));
@@ -104,15 +114,31 @@ public class ViewsRepository implements IViewsRepository
 		this.defaultFactory = defaultFactory;
 		this.menuTreeRepo = menuTreeRepo;
 		this.websocketActiveSubscriptionsIndex = websocketActiveSubscriptionsIndex;
+		this.viewMaintenanceScheduledExecutor = viewMaintenanceScheduledExecutor;
 
-		final Duration viewExpirationTimeout = Duration.ofMinutes(Services.get(ISysConfigBL.class).getIntValue("de.metas.ui.web.view.ViewExpirationTimeoutInMinutes", 60));
-		defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeout);
+		final ISysConfigBL sysConfigBL = Services.get(ISysConfigBL.class);
+		final Duration viewExpirationTimeout = Duration.ofMinutes(sysConfigBL.getIntValue("de.metas.ui.web.view.ViewExpirationTimeoutInMinutes", 60));
+		if (sysConfigBL.getBooleanValue(SYSCONFIG_SharedViewsStorageEnabled, false))
+		{
+			defaultViewsIndexStorage = new SharedViewsRepositoryStorage(viewExpirationTimeout, defaultFactory);
+			logger.info("Using shared views storage as default views storage");
+		}
+		else
+		{
+			defaultViewsIndexStorage = new DefaultViewsRepositoryStorage(viewExpirationTimeout);
+		}
 	}
 
 	@PostConstruct
 	private void truncateTempTablesIfAllowed()
 	{
-		if (truncateSelectionOnStartUp)
+		if (defaultViewsIndexStorage instanceof SharedViewsRepositoryStorage)
+		{
+			// the selections might be used by the views of other nodes
+			logger.info("Skip truncating selection tables on startup because the views are shared");
+			scheduleDeleteExpiredSharedViews((SharedViewsRepositoryStorage)defaultViewsIndexStorage);
+		}
+		else if (truncateSelectionOnStartUp)
 		{
 			truncateTable(I_T_WEBUI_ViewSelection.Table_Name);
 			truncateTable(I_T_WEBUI_ViewSelectionLine.Table_Name);
@@ -123,6 +149,24 @@ public class ViewsRepository implements IViewsRepository
 		}
 	}
 
+	private void scheduleDeleteExpiredSharedViews(@NonNull final SharedViewsRepositoryStorage sharedViewsStorage)
+	{
+		if (deleteExpiredSharedViewsRateInSeconds <= 0)
+		{
+			// delete them at least on startup
+			sharedViewsStorage.deleteExpiredDefinitions();
+			return;
+		}
+
+		viewMaintenanceScheduledExecutor.scheduleAtFixedRate(
+				sharedViewsStorage::deleteExpiredDefinitions, // command, doesn't fail because on failure the task won't be re-scheduled
+				0, // initialDelay
+				deleteExpiredSharedViewsRateInSeconds, // period
+				TimeUnit.SECONDS // timeUnit
+		);
+		logger.info("Deleting expired shared views each {} seconds", deleteExpiredSharedViewsRateInSeconds);
+	}
+
 	private static void truncateTable(final String tableName)
 	{
 		final Stopwatch stopwatch = Stopwatch.createStarted();
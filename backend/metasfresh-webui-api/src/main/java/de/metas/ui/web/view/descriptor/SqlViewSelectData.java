@@ -1,6 +1,7 @@
 package de.metas.ui.web.view.descriptor;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -20,6 +21,7 @@ import com.google.common.collect.Maps;
 
 import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelection;
 import de.metas.ui.web.base.model.I_T_WEBUI_ViewSelectionLine;
+import de.metas.ui.web.view.InMemoryViewRowIds;
 import de.metas.ui.web.view.ViewEvaluationCtx;
 import de.metas.ui.web.view.ViewId;
 import de.metas.ui.web.window.datatypes.DocumentId;
@@ -67,6 +69,10 @@ public class SqlViewSelectData
 	public static final String COLUMNNAME_Paging_Parent_Prefix = COLUMNNAME_Paging_Prefix + "parent_";
 	public static final String COLUMNNAME_IsRecordMissing = COLUMNNAME_Paging_Prefix + "IsRecordMissing";
 
+	/** Placeholder for the selection rows source, which is {@link I_T_WEBUI_ViewSelection} or an {@link InMemoryViewRowIds} page */
+	private static final String SQL_SELECTION_SOURCE_PLACEHOLDER = "/*ViewSelectionSource*/";
+	private static final String SQL_SELECTION_SOURCE_TABLE = I_T_WEBUI_ViewSelection.Table_Name + " sel";
+
 	private final String sqlTableName;
 	private final SqlViewKeyColumnNamesMap keyColumnNamesMap;
 	private final ImmutableSet<String> displayFieldNames;
@@ -77,7 +83,13 @@ public class SqlViewSelectData
 	@Getter(AccessLevel.PRIVATE)
 	private final IStringExpression sqlSelectRowIdsByPage;
 	@Getter(AccessLevel.PRIVATE)
+	private final IStringExpression sqlSelectByPageAfterSeqNo;
+	@Getter(AccessLevel.PRIVATE)
+	private final IStringExpression sqlSelectRowIdsByPageAfterSeqNo;
+	@Getter(AccessLevel.PRIVATE)
 	private final IStringExpression sqlSelectById;
+	@Getter(AccessLevel.PRIVATE)
+	private final IStringExpression sqlSelectByIds;
 	private final IStringExpression sqlSelectLines;
 
 	@Builder
@@ -96,27 +108,18 @@ public class SqlViewSelectData
 
 		final IStringExpression sqlSelect = buildSqlSelect(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields, groupingBinding);
 
-		sqlSelectByPage = sqlSelect.toComposer()
-				.append("\n WHERE ")
-				// NOTE: already filtered by UUID
-				.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
-				.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
-				.build();
+		sqlSelectByPage = appendWhereSeqNoBetween(sqlSelect);
+		sqlSelectByPageAfterSeqNo = appendWhereSeqNoAfter(sqlSelect);
 
-		sqlSelectRowIdsByPage = buildSqlSelect(
+		final IStringExpression sqlSelectRowIds = buildSqlSelect(
 				sqlTableName,
 				sqlTableAlias,
 				keyColumnNamesMap,
 				ImmutableList.of(), // displayFieldNames
 				extractKeyFields(allFields, keyColumnNamesMap), // allFields
-				groupingBinding)
-						//
-						.toComposer()
-						.append("\n WHERE ")
-						// NOTE: already filtered by UUID
-						.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
-						.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
-						.build();
+				groupingBinding);
+		sqlSelectRowIdsByPage = appendWhereSeqNoBetween(sqlSelectRowIds);
+		sqlSelectRowIdsByPageAfterSeqNo = appendWhereSeqNoAfter(sqlSelectRowIds);
 
 		sqlSelectById = sqlSelect.toComposer()
 				.append("\n WHERE ")
@@ -128,17 +131,96 @@ public class SqlViewSelectData
 						.collect(Collectors.joining("\nAND ")))
 				.build();
 
+		// NOTE: the filter by row IDs is appended when the SQL is built
+		sqlSelectByIds = sqlSelect.toComposer()
+				.append("\n WHERE ")
+				// NOTE: already filtered by UUID
+				.append("\n")
+				.build();
+
 		this.sqlSelectLines = groupingBinding != null
 				? buildSqlSelectLines(sqlTableName, sqlTableAlias, keyColumnNamesMap, displayFieldNames, allFields)
 				: null;
 	}
 
+	/** Offset pagination: SQL parameters are UUID, firstSeqNo, lastSeqNo */
+	private static IStringExpression appendWhereSeqNoBetween(final IStringExpression sqlSelect)
+	{
+		return sqlSelect.toComposer()
+				.append("\n WHERE ")
+				// NOTE: already filtered by UUID
+				.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?")
+				.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
+				.build();
+	}
+
+	/**
+	 * Keyset pagination: SQL parameters are UUID, afterSeqNo, pageLength.
+	 * <p>
+	 * Unlike {@link #appendWhereSeqNoBetween(IStringExpression)} it always returns a full page, also if the selection has gaps in its SeqNos (e.g. after rows were removed).
+	 */
+	private static IStringExpression appendWhereSeqNoAfter(final IStringExpression sqlSelect)
+	{
+		return sqlSelect.toComposer()
+				.append("\n WHERE ")
+				// NOTE: already filtered by UUID
+				.append("\n " + COLUMNNAME_Paging_SeqNo_OneBased + " > ?")
+				.append("\n ORDER BY " + COLUMNNAME_Paging_SeqNo_OneBased)
+				.append("\n LIMIT ?")
+				.build();
+	}
+
 	private IStringExpression getSqlSelectLines()
 	{
 		Check.assumeNotNull(sqlSelectLines, "sqlSelectLines is not null (grouping not supported)");
 		return sqlSelectLines;
 	}
 
+	/**
+	 * @return given SQL with the selection source resolved, followed by given SQL parameters.
+	 *         The parameters of the selection source come first, because the selection source is in the FROM clause.
+	 */
+	private static SqlAndParams resolveSelectionSource(
+			@NonNull final String sql,
+			@Nullable final SqlAndParams sqlSelectionSource,
+			@NonNull final List<Object> sqlParams)
+	{
+		if (sqlSelectionSource == null)
+		{
+			return SqlAndParams.of(sql.replace(SQL_SELECTION_SOURCE_PLACEHOLDER, SQL_SELECTION_SOURCE_TABLE), sqlParams);
+		}
+
+		return SqlAndParams.builder()
+				.append(sql.replace(SQL_SELECTION_SOURCE_PLACEHOLDER, sqlSelectionSource.getSql()), sqlSelectionSource.getSqlParams())
+				.append("", sqlParams)
+				.build();
+	}
+
+	private static SqlAndParams resolveSelectionSource(
+			@NonNull final String sql,
+			@Nullable final SqlAndParams sqlSelectionSource,
+			final Object... sqlParams)
+	{
+		return resolveSelectionSource(sql, sqlSelectionSource, Arrays.asList(sqlParams));
+	}
+
+	private SqlAndParams buildSqlSelectionSource(
+			@NonNull final ViewId viewId,
+			@NonNull final int[] recordIds,
+			final int firstSeqNo)
+	{
+		Check.assumeNull(sqlSelectLines, "in memory selections are not supported when grouping");
+
+		return SqlViewSelectionQueryBuilder.buildSqlSelectionFromRecordIds(
+				viewId.getViewId(),
+				keyColumnNamesMap.getSingleWebuiSelectionColumnName(),
+				recordIds,
+				firstSeqNo)
+				.toBuilder()
+				.append(" sel")
+				.build();
+	}
+
 	private static List<SqlViewRowFieldBinding> extractKeyFields(final Collection<SqlViewRowFieldBinding> allFields, final SqlViewKeyColumnNamesMap keyColumnNamesMap)
 	{
 		final List<String> keyColumnNames = keyColumnNamesMap.getKeyColumnNames();
@@ -212,7 +294,7 @@ public class SqlViewSelectData
 				.append("\n , sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + " AS " + COLUMNNAME_Paging_UUID)
 				.append("\n , ").append(keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated(columnName -> "sel." + columnName + " AS " + COLUMNNAME_Paging_Prefix + columnName))
 				.append("\n , " + keyColumnNamesMap.getSqlIsNullExpression(sqlTableName) + " AS " + COLUMNNAME_IsRecordMissing)
-				.append("\n   FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+				.append("\n   FROM " + SQL_SELECTION_SOURCE_PLACEHOLDER)
 				.append("\n   LEFT OUTER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n   WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
@@ -376,12 +458,18 @@ public class SqlViewSelectData
 		return sql.build().caching();
 	}
 
+	/**
+	 * @param afterSeqNo if greater than zero, the page is fetched by seeking right after the row with this SeqNo (keyset pagination) instead of by <code>firstRowZeroBased</code>
+	 * @param inMemoryRowIds if not null, the page is selected from given rows instead of {@link I_T_WEBUI_ViewSelection}
+	 */
 	@Builder(builderMethodName = "selectByPage", builderClassName = "SelectByPageBuilder")
 	private SqlAndParams selectByIdPageBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId viewId,
 			final int firstRowZeroBased,
-			final int pageLength)
+			final int pageLength,
+			final int afterSeqNo,
+			@Nullable final InMemoryViewRowIds inMemoryRowIds)
 	{
 		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
 		Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
@@ -390,9 +478,19 @@ public class SqlViewSelectData
 		final int firstSeqNo = firstRowZeroBased + 1; // NOTE: firstRow is 0-based while SeqNo are 1-based
 		final int lastSeqNo = firstRowZeroBased + pageLength;
 
+		final SqlAndParams sqlSelectionSource = inMemoryRowIds != null
+				? buildSqlSelectionSource(viewId, inMemoryRowIds.getPage(firstRowZeroBased, pageLength), firstSeqNo)
+				: null;
+
+		// NOTE: in memory pages are already exact, so we don't have to seek
+		if (afterSeqNo > 0 && inMemoryRowIds == null)
+		{
+			final IStringExpression sqlSelectByPageAfterSeqNo = getSqlSelectByPageAfterSeqNo();
+			return resolveSelectionSource(sqlSelectByPageAfterSeqNo.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail), null, viewSelectionId, afterSeqNo, pageLength);
+		}
+
 		final IStringExpression sqlSelectByPage = getSqlSelectByPage();
-		final String sql = sqlSelectByPage.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
-		return SqlAndParams.of(sql, viewSelectionId, firstSeqNo, lastSeqNo);
+		return resolveSelectionSource(sqlSelectByPage.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail), sqlSelectionSource, viewSelectionId, firstSeqNo, lastSeqNo);
 	}
 
 	@Builder(builderMethodName = "selectRowIdsByPage", builderClassName = "SelectRowIdsByPageBuilder")
@@ -400,7 +498,9 @@ public class SqlViewSelectData
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId viewId,
 			final int firstRowZeroBased,
-			final int pageLength)
+			final int pageLength,
+			final int afterSeqNo,
+			@Nullable final InMemoryViewRowIds inMemoryRowIds)
 	{
 		Check.assume(firstRowZeroBased >= 0, "firstRow >= 0 but it was {}", firstRowZeroBased);
 		Check.assume(pageLength > 0, "pageLength > 0 but it was {}", pageLength);
@@ -409,23 +509,87 @@ public class SqlViewSelectData
 		final int firstSeqNo = firstRowZeroBased + 1; // NOTE: firstRow is 0-based while SeqNo are 1-based
 		final int lastSeqNo = firstRowZeroBased + pageLength;
 
+		final SqlAndParams sqlSelectionSource = inMemoryRowIds != null
+				? buildSqlSelectionSource(viewId, inMemoryRowIds.getPage(firstRowZeroBased, pageLength), firstSeqNo)
+				: null;
+
+		// NOTE: in memory pages are already exact, so we don't have to seek
+		if (afterSeqNo > 0 && inMemoryRowIds == null)
+		{
+			final IStringExpression sqlSelectRowIdsByPageAfterSeqNo = getSqlSelectRowIdsByPageAfterSeqNo();
+			return resolveSelectionSource(sqlSelectRowIdsByPageAfterSeqNo.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail), null, viewSelectionId, afterSeqNo, pageLength);
+		}
+
 		final IStringExpression sqlSelectRowIdsByPage = getSqlSelectRowIdsByPage();
-		final String sql = sqlSelectRowIdsByPage.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
-		return SqlAndParams.of(sql, viewSelectionId, firstSeqNo, lastSeqNo);
+		return resolveSelectionSource(sqlSelectRowIdsByPage.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail), sqlSelectionSource, viewSelectionId, firstSeqNo, lastSeqNo);
 	}
 
 	@Builder(builderMethodName = "selectById", builderClassName = "SelectByIdBuilder")
 	private SqlAndParams selectByIdBuilder(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId viewId,
-			@NonNull final DocumentId rowId)
+			@NonNull final DocumentId rowId,
+			@Nullable final InMemoryViewRowIds inMemoryRowIds)
 	{
-		final String sql = getSqlSelectById().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
+		final SqlAndParams sqlSelectionSource;
+		if (inMemoryRowIds != null)
+		{
+			final int seqNo = rowId.isInt() ? inMemoryRowIds.getSeqNo(rowId.toInt()) : -1;
+			sqlSelectionSource = seqNo > 0
+					? buildSqlSelectionSource(viewId, new int[] { rowId.toInt() }, seqNo)
+					: buildSqlSelectionSource(viewId, new int[] {}, 1);
+		}
+		else
+		{
+			sqlSelectionSource = null;
+		}
 
 		final ArrayList<Object> sqlParams = new ArrayList<>();
 		sqlParams.add(viewId.getViewId());
 		sqlParams.addAll(keyColumnNamesMap.getSqlValuesList(rowId));
-		return SqlAndParams.of(sql, sqlParams);
+		return resolveSelectionSource(getSqlSelectById().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail), sqlSelectionSource, sqlParams);
+	}
+
+	/**
+	 * @param inMemoryRowIds if not null, the rows are selected from given rows instead of {@link I_T_WEBUI_ViewSelection}
+	 */
+	@Builder(builderMethodName = "selectByIds", builderClassName = "SelectByIdsBuilder")
+	private SqlAndParams selectByIdsBuilder(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId viewId,
+			@NonNull final DocumentIdsSelection rowIds,
+			@Nullable final InMemoryViewRowIds inMemoryRowIds)
+	{
+		Check.assume(!rowIds.isAll() && !rowIds.isEmpty(), "rowIds shall be a not empty list of IDs but it was {}", rowIds);
+
+		final SqlAndParams sqlSelectionSource;
+		if (inMemoryRowIds != null)
+		{
+			final int[] recordIds = rowIds.toIntSet()
+					.stream()
+					.filter(inMemoryRowIds::contains)
+					.mapToInt(Integer::intValue)
+					.toArray();
+			// NOTE: the SeqNo is not relevant because we are not paging
+			sqlSelectionSource = buildSqlSelectionSource(viewId, recordIds, 1);
+		}
+		else
+		{
+			sqlSelectionSource = null;
+		}
+
+		final SqlAndParams sqlFilterByRowIds = keyColumnNamesMap.prepareSqlFilterByRowIds()
+				.sqlColumnPrefix(COLUMNNAME_Paging_Prefix)
+				.rowIds(rowIds)
+				.build();
+
+		final String sql = getSqlSelectByIds().evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail)
+				+ sqlFilterByRowIds.getSql();
+
+		final ArrayList<Object> sqlParams = new ArrayList<>();
+		sqlParams.add(viewId.getViewId());
+		sqlParams.addAll(sqlFilterByRowIds.getSqlParams());
+		return resolveSelectionSource(sql, sqlSelectionSource, sqlParams);
 	}
 
 	@Builder(builderMethodName = "selectIncludedLines", builderClassName = "SelectIncludedLinesBuilder")
@@ -458,6 +622,19 @@ public class SqlViewSelectData
 			@NonNull final String selectionId,
 			@NonNull final String fieldName,
 			final int limit)
+	{
+		return selectFieldValues(viewEvalCtx, selectionId, fieldName, limit, null);
+	}
+
+	/**
+	 * @param inMemoryRowIds if not null, the values are selected from given rows instead of {@link I_T_WEBUI_ViewSelection}
+	 */
+	public SqlAndParams selectFieldValues(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final String selectionId,
+			@NonNull final String fieldName,
+			final int limit,
+			@Nullable final InMemoryViewRowIds inMemoryRowIds)
 	{
 		Check.assumeGreaterThanZero(limit, "limit");
 
@@ -496,7 +673,10 @@ public class SqlViewSelectData
 			sqlExpression
 					.append("\n, ").append(sqlDisplayValue.withJoinOnTableNameOrAlias(sqlTableName).toStringExpressionWithColumnNameAlias());
 		}
-		sqlExpression.append("\n FROM " + I_T_WEBUI_ViewSelection.Table_Name + " sel")
+		final SqlAndParams sqlSelectionSource = inMemoryRowIds != null
+				? SqlViewSelectionQueryBuilder.buildSqlSelectionFromRecordIds(selectionId, keyColumnNamesMap.getSingleWebuiSelectionColumnName(), inMemoryRowIds.toArray(), 1)
+				: null;
+		sqlExpression.append("\n FROM " + SQL_SELECTION_SOURCE_PLACEHOLDER)
 				.append("\n INNER JOIN " + sqlTableName + " ON (" + keyColumnNamesMap.getSqlJoinCondition(sqlTableName, "sel") + ")")
 				// Filter by UUID. Keep this closer to the source table, see https://github.com/metasfresh/metasfresh-webui-api/issues/437
 				.append("\n WHERE sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID + "=?")
@@ -507,6 +687,6 @@ public class SqlViewSelectData
 		final String sql = sqlExpression.build()
 				.evaluate(viewEvalCtx.toEvaluatee(), OnVariableNotFound.Fail);
 
-		return SqlAndParams.of(sql, selectionId, limit);
+		return resolveSelectionSource(sql, sqlSelectionSource != null ? sqlSelectionSource.toBuilder().append(" sel").build() : null, selectionId, limit);
 	}
 }
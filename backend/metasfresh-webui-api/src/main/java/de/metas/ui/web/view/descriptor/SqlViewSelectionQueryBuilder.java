@@ -220,7 +220,7 @@ public final class SqlViewSelectionQueryBuilder
 	{
 		if (!hasGroupingFields())
 		{
-			final SqlAndParams sqlCreateSelection = buildSqlCreateSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx);
+			final SqlAndParams sqlCreateSelection = buildSqlCreateSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx, true);
 			return SqlCreateSelection.builder().sqlCreateSelection(sqlCreateSelection).build();
 		}
 		else
@@ -231,13 +231,37 @@ public final class SqlViewSelectionQueryBuilder
 		}
 	}
 
-	private SqlAndParams buildSqlCreateSelection_WithoutGrouping(
+	/**
+	 * Same as the selection created by {@link #buildSqlCreateSelectionFrom(ViewEvaluationCtx, ViewId, DocumentFilterList, DocumentQueryOrderByList, int, SqlDocumentFilterConverterContext)},
+	 * but instead of inserting the rows into {@link I_T_WEBUI_ViewSelection} it just selects the single key column, ordered by SeqNo.
+	 */
+	public SqlAndParams buildSqlSelectRowIds(
 			@NonNull final ViewEvaluationCtx viewEvalCtx,
 			@NonNull final ViewId newViewId,
 			final DocumentFilterList filters,
 			final DocumentQueryOrderByList orderBys,
 			final int queryLimit,
 			final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		Check.assume(!hasGroupingFields(), "grouping is not supported");
+		final String keyColumnName = getSqlViewKeyColumnNamesMap().getSingleKeyColumnName();
+
+		final SqlAndParams sqlSelectionRows = buildSqlCreateSelection_WithoutGrouping(viewEvalCtx, newViewId, filters, orderBys, queryLimit, filterConverterCtx, false);
+		return SqlAndParams.builder()
+				.append("SELECT " + keyColumnName + " FROM (")
+				.append(sqlSelectionRows)
+				.append("\n) sel ORDER BY " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+				.build();
+	}
+
+	private SqlAndParams buildSqlCreateSelection_WithoutGrouping(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			final DocumentFilterList filters,
+			final DocumentQueryOrderByList orderBys,
+			final int queryLimit,
+			final SqlDocumentFilterConverterContext filterConverterCtx,
+			final boolean insertIntoSelection)
 	{
 		final String sqlTableName = getTableName();
 		final String sqlTableAlias = getTableAlias();
@@ -246,11 +270,14 @@ public final class SqlViewSelectionQueryBuilder
 		//
 		// INSERT INTO T_WEBUI_ViewSelection[Line] (...)
 		final CompositeStringExpression.Builder sqlBuilder = IStringExpression.composer();
-		sqlBuilder.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-				+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-				+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line // SeqNo
-				+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated() // keys: IntKey1... StringKey1...
-				+ ")");
+		if (insertIntoSelection)
+		{
+			sqlBuilder.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+					+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+					+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line // SeqNo
+					+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated() // keys: IntKey1... StringKey1...
+					+ ")");
+		}
 
 		//
 		// SELECT ... FROM ... WHERE 1=1
@@ -270,7 +297,7 @@ public final class SqlViewSelectionQueryBuilder
 					IStringExpression.composer()
 							.append("\n SELECT ")
 							.append("\n  ?") // UUID
-							.append("\n, ").append(sqlSeqNo) // Line/SeqNo
+							.append("\n, ").append(sqlSeqNo).append(" AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line) // Line/SeqNo
 							.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated(sqlTableAlias)) // keys
 							//
 							.append("\n FROM ").append(sqlTableName).append(" ").append(sqlTableAlias)
@@ -515,6 +542,35 @@ public final class SqlViewSelectionQueryBuilder
 			@NonNull final DocumentFilterList filters,
 			@NonNull final DocumentQueryOrderByList orderBys,
 			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		return buildSqlSelectionFromSelection(viewEvalCtx, newViewId, fromSelectionId, null, filters, orderBys, filterConverterCtx);
+	}
+
+	/**
+	 * Same as {@link #buildSqlCreateSelectionFromSelection(ViewEvaluationCtx, ViewId, String, DocumentFilterList, DocumentQueryOrderByList, SqlDocumentFilterConverterContext)},
+	 * but the <code>fromSelection</code> is given by its record IDs and the single key column of the new selection is selected instead of inserted, ordered by SeqNo.
+	 * Rows which are equal by <code>orderBys</code> keep their order from <code>fromRecordIds</code>.
+	 */
+	public SqlAndParams buildSqlSelectRowIdsFromRecordIds(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			@NonNull final String fromSelectionId,
+			@NonNull final int[] fromRecordIds,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
+	{
+		return buildSqlSelectionFromSelection(viewEvalCtx, newViewId, fromSelectionId, fromRecordIds, filters, orderBys, filterConverterCtx);
+	}
+
+	private SqlAndParams buildSqlSelectionFromSelection(
+			@NonNull final ViewEvaluationCtx viewEvalCtx,
+			@NonNull final ViewId newViewId,
+			@NonNull final String fromSelectionId,
+			@Nullable final int[] fromRecordIds,
+			@NonNull final DocumentFilterList filters,
+			@NonNull final DocumentQueryOrderByList orderBys,
+			@NonNull final SqlDocumentFilterConverterContext filterConverterCtx)
 	{
 		final String sqlTableAlias = getTableAlias();
 		final SqlViewKeyColumnNamesMap keyColumnNamesMap = getSqlViewKeyColumnNamesMap();
@@ -600,20 +656,34 @@ public final class SqlViewSelectionQueryBuilder
 		final String sqlJoinCondition = keyColumnNamesMap.getSqlJoinCondition(sqlTableAlias, "sel");
 
 		//
-		return SqlAndParams.builder()
-				.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
-						+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
-						+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
-						+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
-						+ ")")
-				.append("\n SELECT ")
-				.append("\n  ?", newViewId.getViewId()) // newUUID
-				.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
-				.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
-				.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
-				.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
-				.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
-				.build();
+		if (fromRecordIds == null)
+		{
+			return SqlAndParams.builder()
+					.append("INSERT INTO " + I_T_WEBUI_ViewSelection.Table_Name + " ("
+							+ " " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+							+ ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+							+ ", " + keyColumnNamesMap.getWebuiSelectionColumnNamesCommaSeparated()
+							+ ")")
+					.append("\n SELECT ")
+					.append("\n  ?", newViewId.getViewId()) // newUUID
+					.append("\n, ").append("row_number() OVER (").append(sqlOrderBys != null ? "ORDER BY " + sqlOrderBys : "").append(")") // Line
+					.append("\n, ").append(keyColumnNamesMap.getKeyColumnNamesCommaSeparated()) // keys
+					.append("\n FROM ").append(I_T_WEBUI_ViewSelection.Table_Name).append(" sel")
+					.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+					.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+					.build();
+		}
+		else
+		{
+			final SqlAndParams sqlSelectionSource = buildSqlSelectionFromRecordIds(fromSelectionId, keyColumnNamesMap.getSingleWebuiSelectionColumnName(), fromRecordIds, 1);
+			return SqlAndParams.builder()
+					.append("SELECT ").append(sqlTableAlias).append(".").append(keyColumnNamesMap.getSingleKeyColumnName())
+					.append("\n FROM ").append(sqlSelectionSource).append(" sel")
+					.append("\n INNER JOIN ").append(sqlSourceTable).append(" ").append(sqlTableAlias).append(" ON (").append(sqlJoinCondition).append(")")
+					.append("\n WHERE sel.").append(I_T_WEBUI_ViewSelection.COLUMNNAME_UUID).append("=?", fromSelectionId) // fromUUID
+					.append("\n ORDER BY ").append(sqlOrderBys != null ? sqlOrderBys + ", " : "").append("sel." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line)
+					.build();
+		}
 	}
 
 	/**
@@ -837,6 +907,26 @@ public final class SqlViewSelectionQueryBuilder
 		return SqlAndParams.of(sql, sqlParams);
 	}
 
+	/**
+	 * @return SQL source which can be used instead of {@link I_T_WEBUI_ViewSelection} for a selection held in memory, having the columns UUID, Line and the given selection key column.
+	 *         The first record gets the Line <code>firstSeqNo</code>. The record IDs are bound as one array parameter.
+	 */
+	public static SqlAndParams buildSqlSelectionFromRecordIds(
+			@NonNull final String selectionId,
+			@NonNull final String webuiSelectionColumnName,
+			@NonNull final int[] recordIds,
+			final int firstSeqNo)
+	{
+		return SqlAndParams.of("(SELECT "
+				+ DB.TO_STRING(selectionId) + "::varchar AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_UUID
+				+ ", s." + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + " + " + (firstSeqNo - 1) + " AS " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line
+				+ ", s." + webuiSelectionColumnName
+				+ " FROM unnest(?::integer[]) WITH ORDINALITY"
+				+ " AS s(" + webuiSelectionColumnName + ", " + I_T_WEBUI_ViewSelection.COLUMNNAME_Line + ")"
+				+ ")",
+				recordIds);
+	}
+
 	private IStringExpressionWrapper securityRestrictionsWrapper(final String sqlTableAlias)
 	{
 		if (applySecurityRestrictions)
@@ -5,11 +5,15 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import de.metas.ui.web.websocket.WebsocketMergeableEvent;
 import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
 import de.metas.ui.web.window.datatypes.WindowId;
 import lombok.NonNull;
 
+import javax.annotation.Nullable;
 import java.io.Serializable;
+import java.util.Objects;
 import java.util.Set;
 
 /*
@@ -36,7 +40,7 @@ import java.util.Set;
 
 @SuppressWarnings("serial")
 @JsonAutoDetect(fieldVisibility = Visibility.ANY, getterVisibility = Visibility.NONE, setterVisibility = Visibility.NONE)
-public final class JSONViewChanges implements Serializable
+public final class JSONViewChanges implements Serializable, WebsocketMergeableEvent
 {
 	public static JSONViewChanges of(@NonNull final ViewChanges changes)
 	{
@@ -87,6 +91,20 @@ public final class JSONViewChanges implements Serializable
 		headerPropertiesChanged = changes.isHeaderPropertiesChanged() ? true : null;
 	}
 
+	private JSONViewChanges(
+			@NonNull final String viewId,
+			@NonNull final WindowId windowId,
+			@Nullable final Boolean fullyChanged,
+			@Nullable final Set<String> changedIds,
+			@Nullable final Boolean headerPropertiesChanged)
+	{
+		this.viewId = viewId;
+		this.windowId = windowId;
+		this.fullyChanged = fullyChanged;
+		this.changedIds = changedIds;
+		this.headerPropertiesChanged = headerPropertiesChanged;
+	}
+
 	@Override
 	public String toString()
 	{
@@ -114,4 +132,54 @@ public final class JSONViewChanges implements Serializable
 	{
 		return fullyChanged;
 	}
+
+	@Nullable
+	public Set<String> getChangedIds()
+	{
+		return changedIds;
+	}
+
+	/**
+	 * Merges the changes of the same view, by union-ing the changed row IDs.
+	 */
+	@Override
+	@Nullable
+	public JSONViewChanges mergeWith(@NonNull final WebsocketMergeableEvent nextEvent)
+	{
+		if (!(nextEvent instanceof JSONViewChanges))
+		{
+			return null;
+		}
+
+		final JSONViewChanges next = (JSONViewChanges)nextEvent;
+		if (!Objects.equals(viewId, next.viewId) || !Objects.equals(windowId, next.windowId))
+		{
+			return null;
+		}
+
+		final Boolean fullyChangedNew;
+		final Set<String> changedIdsNew;
+		if (Boolean.TRUE.equals(fullyChanged) || Boolean.TRUE.equals(next.fullyChanged))
+		{
+			fullyChangedNew = Boolean.TRUE;
+			changedIdsNew = null;
+		}
+		else if (changedIds == null && next.changedIds == null)
+		{
+			fullyChangedNew = null;
+			changedIdsNew = null;
+		}
+		else
+		{
+			fullyChangedNew = Boolean.FALSE;
+			changedIdsNew = ImmutableSet.<String> builder()
+					.addAll(changedIds != null ? changedIds : ImmutableSet.of())
+					.addAll(next.changedIds != null ? next.changedIds : ImmutableSet.of())
+					.build();
+		}
+
+		final Boolean headerPropertiesChangedNew = Boolean.TRUE.equals(headerPropertiesChanged) || Boolean.TRUE.equals(next.headerPropertiesChanged) ? true : null;
+
+		return new JSONViewChanges(viewId, windowId, fullyChangedNew, changedIdsNew, headerPropertiesChangedNew);
+	}
 }
@@ -0,0 +1,68 @@
+package de.metas.ui.web.websocket;
+
+import javax.annotation.Nullable;
+
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+@Value
+@Builder(toBuilder = true)
+final class WebsocketEvent
+{
+	@NonNull
+	WebsocketTopicName destination;
+
+	@Nullable
+	Object payload;
+
+	/** true if the payload is an already converted message */
+	boolean converted;
+
+	/**
+	 * @return merged event or <code>null</code> if the events cannot be merged
+	 * @see WebsocketMergeableEvent
+	 */
+	@Nullable
+	WebsocketEvent mergeWith(@NonNull final WebsocketEvent nextEvent)
+	{
+		if (converted
+				|| nextEvent.converted
+				|| !destination.equals(nextEvent.destination)
+				|| !(payload instanceof WebsocketMergeableEvent)
+				|| !(nextEvent.payload instanceof WebsocketMergeableEvent))
+		{
+			return null;
+		}
+
+		final WebsocketMergeableEvent mergedPayload = ((WebsocketMergeableEvent)payload).mergeWith((WebsocketMergeableEvent)nextEvent.payload);
+		if (mergedPayload == null)
+		{
+			return null;
+		}
+
+		return toBuilder().payload(mergedPayload).build();
+	}
+}
@@ -0,0 +1,211 @@
+package de.metas.ui.web.websocket;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.adempiere.util.concurrent.CustomizableThreadFactory;
+import org.slf4j.Logger;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import de.metas.logging.LogManager;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Sends the websocket events from a dedicated thread.
+ * <p>
+ * Events are collected for a short time window and merged per {@link WebsocketTopicName} where possible (see {@link WebsocketMergeableEvent}),
+ * so a process which changes a lot of documents in separate transactions won't flood the frontend with one message per document.
+ * The order of the events sent to the same topic is preserved.
+ * <p>
+ * If the window is zero or less, the events are sent right away, from the calling thread.
+ */
+final class WebsocketEventsDispatcher
+{
+	private static final Logger logger = LogManager.getLogger(WebsocketEventsDispatcher.class);
+
+	private final SimpMessagingTemplate websocketMessagingTemplate;
+	private final WebsocketEventsLog eventsLog;
+	private final long coalesceWindowMillis;
+	private final ScheduledExecutorService executor;
+
+	/** guarded by this */
+	private final LinkedHashMap<WebsocketTopicName, List<WebsocketEvent>> pendingEventsByTopic = new LinkedHashMap<>();
+	/** guarded by this */
+	private boolean flushScheduled = false;
+
+	private final AtomicLong countDispatched = new AtomicLong();
+	private final AtomicLong countMerged = new AtomicLong();
+	private final AtomicLong countSent = new AtomicLong();
+	private final AtomicLong countDropped = new AtomicLong();
+
+	WebsocketEventsDispatcher(
+			@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
+			@NonNull final WebsocketEventsLog eventsLog,
+			final long coalesceWindowMillis)
+	{
+		this.websocketMessagingTemplate = websocketMessagingTemplate;
+		this.eventsLog = eventsLog;
+		this.coalesceWindowMillis = coalesceWindowMillis;
+
+		if (coalesceWindowMillis > 0)
+		{
+			final CustomizableThreadFactory threadFactory = CustomizableThreadFactory.builder()
+					.setDaemon(true)
+					.setThreadNamePrefix(WebsocketEventsDispatcher.class.getSimpleName() + "-")
+					.build();
+			executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+		}
+		else
+		{
+			executor = null;
+		}
+	}
+
+	public void dispatch(@NonNull final WebsocketEvent event)
+	{
+		countDispatched.incrementAndGet();
+
+		if (executor == null)
+		{
+			send(event);
+			return;
+		}
+
+		synchronized (this)
+		{
+			final List<WebsocketEvent> topicEvents = pendingEventsByTopic.computeIfAbsent(event.getDestination(), topic -> new ArrayList<>());
+			final int lastIndex = topicEvents.size() - 1;
+			final WebsocketEvent mergedEvent = lastIndex >= 0 ? topicEvents.get(lastIndex).mergeWith(event) : null;
+			if (mergedEvent != null)
+			{
+				topicEvents.set(lastIndex, mergedEvent);
+				countMerged.incrementAndGet();
+				logger.trace("Merged {} into {}", event, mergedEvent);
+			}
+			else
+			{
+				topicEvents.add(event);
+			}
+
+			scheduleFlushIfNeeded();
+		}
+	}
+
+	/** Shall be called while holding the lock */
+	private void scheduleFlushIfNeeded()
+	{
+		if (flushScheduled)
+		{
+			return;
+		}
+
+		try
+		{
+			executor.schedule(this::flush, coalesceWindowMillis, TimeUnit.MILLISECONDS);
+			flushScheduled = true;
+		}
+		catch (final RejectedExecutionException ex)
+		{
+			final int countPendingEvents = pendingEventsByTopic.values().stream().mapToInt(List::size).sum();
+			countDropped.addAndGet(countPendingEvents);
+			pendingEventsByTopic.clear();
+
+			logger.warn("Dropped {} websocket events because they could not be scheduled", countPendingEvents, ex);
+		}
+	}
+
+	private void flush()
+	{
+		final List<WebsocketEvent> eventsToSend = new ArrayList<>();
+		synchronized (this)
+		{
+			pendingEventsByTopic.values().forEach(eventsToSend::addAll);
+			pendingEventsByTopic.clear();
+			flushScheduled = false;
+		}
+
+		logger.debug("Sending {} websocket events", eventsToSend.size());
+		eventsToSend.forEach(this::send);
+	}
+
+	private void send(@NonNull final WebsocketEvent event)
+	{
+		final WebsocketTopicName destination = event.getDestination();
+		final Object payload = event.getPayload();
+		logger.debug("Sending to destination={}: payload={}", destination, payload);
+
+		try
+		{
+			if (event.isConverted())
+			{
+				final Message<?> message = (Message<?>)payload;
+				websocketMessagingTemplate.send(destination.getAsString(), message);
+			}
+			else
+			{
+				websocketMessagingTemplate.convertAndSend(destination.getAsString(), payload);
+				eventsLog.logEvent(destination, payload);
+			}
+
+			countSent.incrementAndGet();
+		}
+		catch (final RuntimeException ex)
+		{
+			countDropped.incrementAndGet();
+
+			// if we are sending from the caller's thread, let it know
+			if (executor == null)
+			{
+				throw ex;
+			}
+			logger.warn("Failed sending to destination={}: payload={}", destination, payload, ex);
+		}
+	}
+
+	public WebsocketEventsDispatcherStats getStats()
+	{
+		final int countPending;
+		synchronized (this)
+		{
+			countPending = pendingEventsByTopic.values().stream().mapToInt(List::size).sum();
+		}
+
+		return WebsocketEventsDispatcherStats.builder()
+				.coalesceWindowMillis(coalesceWindowMillis)
+				.countDispatched(countDispatched.get())
+				.countMerged(countMerged.get())
+				.countSent(countSent.get())
+				.countDropped(countDropped.get())
+				.countPending(countPending)
+				.build();
+	}
+}
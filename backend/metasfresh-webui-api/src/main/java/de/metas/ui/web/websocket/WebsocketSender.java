@@ -49,6 +49,9 @@ import lombok.NonNull;
  * NOTE: by default, all methods will send the events after the current DB transaction is committed.
  * If there is no current transaction, the events will be sent right away.
  *
+ * NOTE: the events are actually sent by {@link WebsocketEventsDispatcher}, which might merge the events of the same topic
+ * which are sent within <code>metasfresh.webui.websocket.coalesceWindowMillis</code>.
+ *
  * @author metas-dev <dev@metasfresh.com>
  *
  */
@@ -57,17 +60,19 @@ public class WebsocketSender implements InitializingBean
 {
 	private static final transient Logger logger = LogManager.getLogger(WebsocketSender.class);
 
-	private final SimpMessagingTemplate websocketMessagingTemplate;
 	private final WebsocketEventsLog eventsLog = new WebsocketEventsLog();
+	private final WebsocketEventsDispatcher dispatcher;
 	private final WebsocketEventsQueue autoflushQueue;
 
 	@Value("${metasfresh.webui.websocket.logEventsEnabled:false}")
 	private boolean logEventsEnabledDefault;
 
-	public WebsocketSender(final SimpMessagingTemplate websocketMessagingTemplate)
+	public WebsocketSender(
+			final SimpMessagingTemplate websocketMessagingTemplate,
+			@Value("${metasfresh.webui.websocket.coalesceWindowMillis:100}") final long coalesceWindowMillis)
 	{
-		this.websocketMessagingTemplate = websocketMessagingTemplate;
-		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", websocketMessagingTemplate, eventsLog, /* autoflush */true);
+		dispatcher = new WebsocketEventsDispatcher(websocketMessagingTemplate, eventsLog, coalesceWindowMillis);
+		autoflushQueue = new WebsocketEventsQueue("AUTOFLUSH", dispatcher, /* autoflush */true);
 	}
 
 	@Override
@@ -118,7 +123,7 @@ public class WebsocketSender implements InitializingBean
 	{
 		final String name = trx.getTrxName();
 		final boolean autoflush = false;
-		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, websocketMessagingTemplate, eventsLog, autoflush);
+		final WebsocketEventsQueue queue = new WebsocketEventsQueue(name, dispatcher, autoflush);
 
 		// Bind
 		trx.getTrxListenerManager()
@@ -143,33 +148,26 @@ public class WebsocketSender implements InitializingBean
 		return eventsLog.getLoggedEvents(destinationFilter);
 	}
 
-	@lombok.Value
-	@lombok.Builder
-	private static final class WebsocketEvent
+	public WebsocketEventsDispatcherStats getDispatcherStats()
 	{
-		private final WebsocketTopicName destination;
-		private final Object payload;
-		private final boolean converted;
+		return dispatcher.getStats();
 	}
 
 	private static class WebsocketEventsQueue
 	{
 		/** internal name, used for logging */
 		private final String name;
-		private final SimpMessagingTemplate websocketMessagingTemplate;
-		private final WebsocketEventsLog eventsLog;
+		private final WebsocketEventsDispatcher dispatcher;
 		private final boolean autoflush;
 		private final List<WebsocketEvent> events = new ArrayList<>();
 
 		public WebsocketEventsQueue(
 				@NonNull final String name,
-				@NonNull final SimpMessagingTemplate websocketMessagingTemplate,
-				@NonNull final WebsocketEventsLog eventsLog,
+				@NonNull final WebsocketEventsDispatcher dispatcher,
 				final boolean autoflush)
 		{
 			this.name = name;
-			this.websocketMessagingTemplate = websocketMessagingTemplate;
-			this.eventsLog = eventsLog;
+			this.dispatcher = dispatcher;
 			this.autoflush = autoflush;
 		}
 
@@ -225,29 +223,20 @@ public class WebsocketSender implements InitializingBean
 
 		private void sendEvent(final WebsocketEvent event)
 		{
-			final WebsocketTopicName destination = event.getDestination();
-			final Object payload = event.getPayload();
-			final boolean converted = event.isConverted();
-			sendEvent(destination, payload, converted);
+			logger.debug("[name={}] Dispatching event={}", name, event);
+			dispatcher.dispatch(event);
 		}
 
 		private void sendEvent(
-				@NonNull final WebsocketTopicName destination, 
-				@Nullable final Object payload, 
+				@NonNull final WebsocketTopicName destination,
+				@Nullable final Object payload,
 				final boolean converted)
 		{
-			logger.debug("[name={}] Sending to destination={}: payload={}", name, destination, payload);
-
-			if (converted)
-			{
-				final Message<?> message = (Message<?>)payload;
-				websocketMessagingTemplate.send(destination.getAsString(), message);
-			}
-			else
-			{
-				websocketMessagingTemplate.convertAndSend(destination.getAsString(), payload);
-				eventsLog.logEvent(destination, payload);
-			}
+			sendEvent(WebsocketEvent.builder()
+					.destination(destination)
+					.payload(payload)
+					.converted(converted)
+					.build());
 		}
 	}
 }
@@ -37,6 +37,7 @@ import de.metas.ui.web.window.model.DocumentChanges;
 import de.metas.ui.web.window.model.DocumentSaveStatus;
 import de.metas.ui.web.window.model.DocumentStandardAction;
 import de.metas.ui.web.window.model.DocumentValidStatus;
+import de.metas.ui.web.window.model.DocumentsLookupValuesPreloader;
 import de.metas.ui.web.window.model.IDocumentChangesCollector;
 import de.metas.ui.web.window.model.IIncludedDocumentsCollection;
 import lombok.NonNull;
@@ -184,6 +185,9 @@ public final class JSONDocument extends JSONDocumentBase
 	 */
 	public static List<JSONDocument> ofDocumentsList(final Collection<Document> documents, final JSONDocumentOptions options, final @Nullable Boolean hasComments)
 	{
+		// Fetch all lookup values which need to be translated in one go, instead of fetching them one by one for each field
+		DocumentsLookupValuesPreloader.preloadNotTranslatedLookupValues(documents, options.getAdLanguage());
+
 		return documents.stream()
 				.map(document -> ofDocument(document, options, hasComments))
 				.collect(Collectors.toList());
@@ -1,13 +1,21 @@
 package de.metas.ui.web.window.descriptor.factory.standard;
 
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import javax.annotation.Nullable;
 
 import org.compiere.model.I_AD_Window;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
 import de.metas.cache.CCache;
 import de.metas.ui.web.dataentry.window.descriptor.factory.DataEntrySubTabBindingDescriptorBuilder;
 import de.metas.ui.web.window.datatypes.WindowId;
@@ -44,14 +52,22 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 	@NonNull
 	final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder;
 
-	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId = new CCache<>(I_AD_Window.Table_Name + "#DocumentDescriptor", 50);
+	private final CCache<WindowId, DocumentDescriptor> documentDescriptorsByWindowId;
 
 	private final Set<WindowId> unsupportedWindowIds = new HashSet<>();
 
+	private final ConcurrentHashMap<WindowId, DocumentDescriptorLoadTime> loadTimesByWindowId = new ConcurrentHashMap<>();
+
 	/* package */ DefaultDocumentDescriptorFactory(
-			@NonNull final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder)
+			@NonNull final DataEntrySubTabBindingDescriptorBuilder dataEntrySubTabBindingDescriptorBuilder,
+			@Value("${metasfresh.webui.documentDescriptors.cacheInitialCapacity:500}") final int cacheInitialCapacity,
+			@Value("${metasfresh.webui.documentDescriptors.cacheExpireMinutes:0}") final int cacheExpireMinutes)
 	{
 		this.dataEntrySubTabBindingDescriptorBuilder = dataEntrySubTabBindingDescriptorBuilder;
+
+		// NOTE: the cache is not bounded, so its initial capacity shall be big enough to hold the descriptors of all windows which are used
+		// NOTE: by default the descriptors don't expire (else the preloaded ones would be evicted after a while); they are reset when AD_Window records change
+		documentDescriptorsByWindowId = new CCache<>(I_AD_Window.Table_Name + "#DocumentDescriptor", cacheInitialCapacity, cacheExpireMinutes);
 	}
 
 	@Override
@@ -62,10 +78,25 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 
 	@Override
 	public DocumentDescriptor getDocumentDescriptor(@NonNull final WindowId windowId)
+	{
+		return getDocumentDescriptor(windowId, false);
+	}
+
+	/**
+	 * Loads the descriptor of given window into cache, if not already there.
+	 *
+	 * @see DocumentDescriptorsPreloader
+	 */
+	/* package */ void preloadDocumentDescriptor(@NonNull final WindowId windowId)
+	{
+		getDocumentDescriptor(windowId, true);
+	}
+
+	private DocumentDescriptor getDocumentDescriptor(@NonNull final WindowId windowId, final boolean preloading)
 	{
 		try
 		{
-			return documentDescriptorsByWindowId.getOrLoad(windowId, () -> createDocumentDescriptorLoader(windowId).load());
+			return documentDescriptorsByWindowId.getOrLoad(windowId, () -> loadDocumentDescriptor(windowId, preloading));
 		}
 		catch (final Exception e)
 		{
@@ -73,6 +104,48 @@ public class DefaultDocumentDescriptorFactory implements DocumentDescriptorFacto
 		}
 	}
 
+	private DocumentDescriptor loadDocumentDescriptor(@NonNull final WindowId windowId, final boolean preloading)
+	{
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		try
+		{
+			final DocumentDescriptor descriptor = createDocumentDescriptorLoader(windowId).load();
+			recordLoadTime(windowId, stopwatch, preloading, null);
+			return descriptor;
+		}
+		catch (final RuntimeException e)
+		{
+			recordLoadTime(windowId, stopwatch, preloading, e);
+			throw e;
+		}
+	}
+
+	private void recordLoadTime(
+			@NonNull final WindowId windowId,
+			@NonNull final Stopwatch stopwatch,
+			final boolean preloaded,
+			@Nullable final Exception error)
+	{
+		loadTimesByWindowId.put(windowId, DocumentDescriptorLoadTime.builder()
+				.windowId(windowId)
+				.durationMillis(stopwatch.elapsed(TimeUnit.MILLISECONDS))
+				.preloaded(preloaded)
+				.error(error != null ? error.getLocalizedMessage() : null)
+				.timestamp(Instant.now())
+				.build());
+	}
+
+	/**
+	 * @return how long it took to load the descriptor of each window which was loaded so far, slowest first
+	 */
+	public ImmutableList<DocumentDescriptorLoadTime> getLoadTimes()
+	{
+		return loadTimesByWindowId.values()
+				.stream()
+				.sorted(Comparator.comparing(DocumentDescriptorLoadTime::getDurationMillis).reversed())
+				.collect(ImmutableList.toImmutableList());
+	}
+
 	private DefaultDocumentDescriptorLoader createDocumentDescriptorLoader(@NonNull final WindowId windowId)
 	{
 		return new DefaultDocumentDescriptorLoader(
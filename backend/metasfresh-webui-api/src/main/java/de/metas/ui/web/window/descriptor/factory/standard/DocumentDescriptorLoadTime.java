@@ -0,0 +1,61 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.time.Instant;
+
+import javax.annotation.Nullable;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+import lombok.Builder;
+import lombok.NonNull;
+import lombok.Value;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * How long it took to build the document descriptor of a window.
+ * Used to find out which window definitions are expensive to load.
+ */
+@Value
+@Builder
+public class DocumentDescriptorLoadTime
+{
+	@NonNull
+	WindowId windowId;
+
+	long durationMillis;
+
+	/** true if the descriptor was loaded by {@link DocumentDescriptorsPreloader} and not on user request */
+	boolean preloaded;
+
+	/** error message if loading failed */
+	@Nullable
+	String error;
+
+	@NonNull
+	Instant timestamp;
+
+	public boolean isError()
+	{
+		return error != null;
+	}
+}
@@ -0,0 +1,198 @@
+package de.metas.ui.web.window.descriptor.factory.standard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.adempiere.ad.dao.IQueryBL;
+import org.adempiere.util.lang.IAutoCloseable;
+import org.compiere.model.I_AD_Menu;
+import org.compiere.model.X_AD_Menu;
+import org.compiere.util.Env;
+import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.google.common.base.Splitter;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+
+import de.metas.i18n.Language;
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.util.Services;
+import lombok.NonNull;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Builds the document descriptors of the configured windows (or of all windows from menu) in parallel, right after the application started,
+ * so that the first users opening those windows don't have to wait for them to be loaded.
+ * <p>
+ * Disabled by default. To enable it, set <code>metasfresh.webui.documentDescriptors.preload.enabled=true</code>.
+ * After preloading, the load times of the slowest windows are logged; all load times are available via the debug REST endpoint.
+ */
+@Component
+public class DocumentDescriptorsPreloader
+{
+	private static final Logger logger = LogManager.getLogger(DocumentDescriptorsPreloader.class);
+
+	private static final int LOG_SLOWEST_WINDOWS_COUNT = 20;
+
+	private final DefaultDocumentDescriptorFactory documentDescriptorFactory;
+	private final boolean enabled;
+	private final int parallelism;
+	private final ImmutableList<WindowId> windowIds;
+
+	/* package */ DocumentDescriptorsPreloader(
+			@NonNull final DefaultDocumentDescriptorFactory documentDescriptorFactory,
+			@Value("${metasfresh.webui.documentDescriptors.preload.enabled:false}") final boolean enabled,
+			@Value("${metasfresh.webui.documentDescriptors.preload.parallelism:4}") final int parallelism,
+			@Value("${metasfresh.webui.documentDescriptors.preload.windowIds:}") final String windowIds)
+	{
+		this.documentDescriptorFactory = documentDescriptorFactory;
+		this.enabled = enabled;
+		this.parallelism = Math.max(parallelism, 1);
+		this.windowIds = Splitter.on(",")
+				.trimResults()
+				.omitEmptyStrings()
+				.splitToList(windowIds)
+				.stream()
+				.map(WindowId::fromJson)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void preloadOnStartup()
+	{
+		if (!enabled)
+		{
+			logger.info("Document descriptors preloading is disabled");
+			return;
+		}
+
+		// don't delay the application startup; the descriptors which were not preloaded yet will be loaded on demand as usual
+		final Thread thread = new Thread(this::preloadAll, DocumentDescriptorsPreloader.class.getSimpleName());
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	private void preloadAll()
+	{
+		final ImmutableList<WindowId> windowIdsToPreload = getWindowIdsToPreload();
+		logger.info("Preloading the document descriptors of {} windows, using {} threads", windowIdsToPreload.size(), parallelism);
+
+		final Stopwatch stopwatch = Stopwatch.createStarted();
+		final AtomicInteger countErrors = new AtomicInteger(0);
+		final ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try
+		{
+			final List<Future<?>> futures = new ArrayList<>(windowIdsToPreload.size());
+			for (final WindowId windowId : windowIdsToPreload)
+			{
+				futures.add(pool.submit(() -> {
+					if (!preload(windowId))
+					{
+						countErrors.incrementAndGet();
+					}
+				}));
+			}
+
+			for (final Future<?> future : futures)
+			{
+				future.get();
+			}
+		}
+		catch (final InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			logger.warn("Preloading the document descriptors was interrupted", e);
+		}
+		catch (final ExecutionException e)
+		{
+			logger.warn("Preloading the document descriptors failed", e);
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+
+		logger.info("Preloaded the document descriptors of {} windows in {} ({} failed)", windowIdsToPreload.size(), stopwatch, countErrors.get());
+		documentDescriptorFactory.getLoadTimes()
+				.stream()
+				.limit(LOG_SLOWEST_WINDOWS_COUNT)
+				.forEach(loadTime -> logger.info("Document descriptor load time: {}", loadTime));
+	}
+
+	private ImmutableList<WindowId> getWindowIdsToPreload()
+	{
+		if (!windowIds.isEmpty())
+		{
+			return windowIds;
+		}
+
+		return Services.get(IQueryBL.class)
+				.createQueryBuilderOutOfTrx(I_AD_Menu.class)
+				.addOnlyActiveRecordsFilter()
+				.addEqualsFilter(I_AD_Menu.COLUMNNAME_Action, X_AD_Menu.ACTION_Window)
+				.addNotNull(I_AD_Menu.COLUMNNAME_AD_Window_ID)
+				.create()
+				.listDistinct(I_AD_Menu.COLUMNNAME_AD_Window_ID, Integer.class)
+				.stream()
+				.map(WindowId::of)
+				.filter(documentDescriptorFactory::isWindowIdSupported)
+				.collect(ImmutableList.toImmutableList());
+	}
+
+	/**
+	 * @return false if the descriptor could not be loaded
+	 */
+	private boolean preload(@NonNull final WindowId windowId)
+	{
+		try (final IAutoCloseable ctxRestorer = Env.switchContext(createPreloadingCtx()))
+		{
+			documentDescriptorFactory.preloadDocumentDescriptor(windowId);
+			return true;
+		}
+		catch (final Exception e)
+		{
+			logger.warn("Failed preloading the document descriptor of {}", windowId, e);
+			return false;
+		}
+	}
+
+	private static Properties createPreloadingCtx()
+	{
+		final Properties ctx = Env.newTemporaryCtx();
+		Env.setContext(ctx, Env.CTXNAME_AD_Client_ID, Env.CTXVALUE_AD_Client_ID_System);
+		Env.setContext(ctx, Env.CTXNAME_AD_Org_ID, Env.CTXVALUE_AD_Org_ID_System);
+		Env.setContext(ctx, Env.CTXNAME_AD_Language, Language.getBaseAD_Language());
+		return ctx;
+	}
+}
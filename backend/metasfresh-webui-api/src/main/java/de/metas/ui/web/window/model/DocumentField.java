@@ -70,6 +70,8 @@ import lombok.NonNull;
 	private Object _initialValue;
 	private Object _valueOnCheckout;
 	private Object _value;
+	/** Lookup value fetched by {@link DocumentsLookupValuesPreloader}, used instead of fetching it again when converting to JSON */
+	private transient LookupValue _preloadedLookupValue;
 
 	private static final LogicExpressionResult MANDATORY_InitialValue = LogicExpressionResult.namedConstant("mandatory-initial", false);
 	private LogicExpressionResult _mandatory = MANDATORY_InitialValue;
@@ -149,7 +151,7 @@ import lombok.NonNull;
 		return descriptor;
 	}
 
-	private LookupDataSource getLookupDataSourceOrNull()
+	LookupDataSource getLookupDataSourceOrNull()
 	{
 		return _lookupDataSource.orElse(null);
 	}
@@ -231,21 +233,42 @@ import lombok.NonNull;
 
 		//
 		// If we are dealing with a lookup value, make, sure it's translated (see https://github.com/metasfresh/metasfresh-webui-api/issues/311 )
-		final LookupDataSource lookupDataSource = getLookupDataSourceOrNull();
-		if (lookupDataSource != null && value instanceof LookupValue)
+		final LookupValue lookupValueToTranslate = getLookupValueNotTranslatedToOrNull(jsonOpts.getAdLanguage());
+		if (lookupValueToTranslate != null)
 		{
-			final LookupValue lookupValue = (LookupValue)value;
-			final ITranslatableString displayNameTrl = lookupValue.getDisplayNameTrl();
-			if (!displayNameTrl.isTranslatedTo(jsonOpts.getAdLanguage()))
-			{
-				final LookupValue lookupValueNew = lookupDataSource.findById(lookupValue.getId());
-				value = lookupValueNew;
-			}
+			final LookupValue preloadedLookupValue = _preloadedLookupValue;
+			final LookupValue lookupValueNew = preloadedLookupValue != null && Objects.equals(preloadedLookupValue.getId(), lookupValueToTranslate.getId())
+					? preloadedLookupValue
+					: getLookupDataSource().findById(lookupValueToTranslate.getId());
+			value = lookupValueNew;
 		}
 
 		return Values.valueToJsonObject(value, jsonOpts);
 	}
 
+	/**
+	 * @return current lookup value if it's not translated to given language (and it needs to be fetched again), else <code>null</code>
+	 * @see DocumentsLookupValuesPreloader
+	 */
+	@Nullable
+	LookupValue getLookupValueNotTranslatedToOrNull(@NonNull final String adLanguage)
+	{
+		if (getLookupDataSourceOrNull() == null || !(_value instanceof LookupValue))
+		{
+			return null;
+		}
+
+		final LookupValue lookupValue = (LookupValue)_value;
+		final ITranslatableString displayNameTrl = lookupValue.getDisplayNameTrl();
+		return !displayNameTrl.isTranslatedTo(adLanguage) ? lookupValue : null;
+	}
+
+	/** @see DocumentsLookupValuesPreloader */
+	void setPreloadedLookupValue(@Nullable final LookupValue preloadedLookupValue)
+	{
+		_preloadedLookupValue = preloadedLookupValue;
+	}
+
 	@Override
 	public int getValueAsInt(final int defaultValueWhenNull)
 	{
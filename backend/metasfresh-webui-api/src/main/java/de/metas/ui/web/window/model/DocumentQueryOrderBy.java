@@ -105,6 +105,14 @@ public final class DocumentQueryOrderBy
 		return new DocumentQueryOrderBy(fieldName, ascending, nullsLast);
 	}
 
+	/**
+	 * @return string representation which can be parsed back using {@link #parse(String)}. e.g. -DateOrdered
+	 */
+	public String toStringSyntax()
+	{
+		return (ascending ? "+" : "-") + fieldName;
+	}
+
 	public <T> Comparator<T> asComparator(@NonNull final FieldValueExtractor<T> fieldValueExtractor, @NonNull final JSONOptions jsonOpts)
 	{
 		final Function<T, Object> keyExtractor = obj -> fieldValueExtractor.getFieldValue(obj, fieldName, jsonOpts);
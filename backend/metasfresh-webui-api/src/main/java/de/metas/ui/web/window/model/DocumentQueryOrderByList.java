@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.Consumer;
 import java.util.stream.Collector;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
@@ -97,6 +98,16 @@ public class DocumentQueryOrderByList
 		return list.isEmpty();
 	}
 
+	/**
+	 * @return comma separated order bys, which can be parsed back using {@link #parse(String)}. e.g. +C_BPartner_ID,-DateOrdered
+	 */
+	public String toStringSyntax()
+	{
+		return list.stream()
+				.map(DocumentQueryOrderBy::toStringSyntax)
+				.collect(Collectors.joining(","));
+	}
+
 	public static boolean equals(final DocumentQueryOrderByList list1, final DocumentQueryOrderByList list2)
 	{
 		return Objects.equals(list1, list2);
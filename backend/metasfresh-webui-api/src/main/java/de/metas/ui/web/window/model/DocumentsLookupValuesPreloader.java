@@ -0,0 +1,113 @@
+package de.metas.ui.web.window.model;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.logging.LogManager;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+import de.metas.ui.web.window.model.lookup.LookupDataSource;
+import de.metas.ui.web.window.model.lookup.LookupDataSourceFetchMetrics;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Fetches, all together, the lookup values which have to be translated when the given documents are converted to JSON.
+ * <p>
+ * Without preloading, each of those lookup values would be fetched by {@link DocumentField#getValueAsJsonObject} one by one.
+ * The preloaded values are handed to the fields, so they are not fetched again, also if the lookup data source has no per ID cache.
+ */
+@UtilityClass
+public class DocumentsLookupValuesPreloader
+{
+	private static final Logger logger = LogManager.getLogger(DocumentsLookupValuesPreloader.class);
+
+	public void preloadNotTranslatedLookupValues(@NonNull final Collection<Document> documents, @NonNull final String adLanguage)
+	{
+		if (documents.isEmpty())
+		{
+			return;
+		}
+
+		final Map<LookupDataSource, List<DocumentField>> fieldsByLookupDataSource = new LinkedHashMap<>();
+		for (final Document document : documents)
+		{
+			for (final IDocumentFieldView fieldView : document.getFieldViews())
+			{
+				if (!(fieldView instanceof DocumentField))
+				{
+					continue;
+				}
+
+				final DocumentField field = (DocumentField)fieldView;
+				if (field.getLookupValueNotTranslatedToOrNull(adLanguage) == null)
+				{
+					continue;
+				}
+
+				fieldsByLookupDataSource
+						.computeIfAbsent(field.getLookupDataSourceOrNull(), lookupDataSource -> new ArrayList<>())
+						.add(field);
+			}
+		}
+
+		if (fieldsByLookupDataSource.isEmpty())
+		{
+			return;
+		}
+
+		//
+		// Fetch the lookup values and hand them to the fields, so they don't have to fetch them again,
+		// also not if the lookup data source has no per ID cache
+		int requestedIdsCount = 0;
+		for (final Map.Entry<LookupDataSource, List<DocumentField>> entry : fieldsByLookupDataSource.entrySet())
+		{
+			final LookupDataSource lookupDataSource = entry.getKey();
+			final List<DocumentField> fields = entry.getValue();
+
+			final Set<Object> ids = fields.stream()
+					.map(field -> field.getLookupValueNotTranslatedToOrNull(adLanguage).getId())
+					.collect(ImmutableSet.toImmutableSet());
+			final LookupValuesList lookupValues = lookupDataSource.findByIdsOrdered(ids);
+			requestedIdsCount += ids.size();
+
+			for (final DocumentField field : fields)
+			{
+				final Object id = field.getLookupValueNotTranslatedToOrNull(adLanguage).getId();
+				field.setPreloadedLookupValue(lookupValues.getById(id));
+			}
+		}
+
+		LookupDataSourceFetchMetrics.instance.recordPreload(requestedIdsCount);
+		logger.debug("Preloaded {} lookup values of {} documents using {} lookup data sources", requestedIdsCount, documents.size(), fieldsByLookupDataSource.size());
+	}
+}
@@ -1,6 +1,10 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 import com.google.common.base.MoreObjects;
@@ -13,6 +17,7 @@ import de.metas.ui.web.window.datatypes.LookupValuesList;
 import de.metas.ui.web.window.datatypes.WindowId;
 import de.metas.ui.web.window.model.lookup.LookupDataSourceContext.Builder;
 import de.metas.util.Check;
+import lombok.NonNull;
 
 /*
  * #%L
@@ -137,6 +142,51 @@ public final class CachedLookupDataSourceFetcherAdapter implements LookupDataSou
 		return cache_retrieveLookupValueById.getOrLoad(evalCtx, () -> delegate.retrieveLookupValueById(evalCtx));
 	}
 
+	@Override
+	public LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+	{
+		final ImmutableList<LookupDataSourceContext> singleIdContexts = evalCtx.streamSingleIdContexts().collect(ImmutableList.toImmutableList());
+		if (singleIdContexts.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		// NOTE: we are caching per ID, using the same keys as retrieveLookupValueById, so both methods are sharing the cached values
+		final Map<Object, LookupValue> lookupValuesById = new HashMap<>();
+		for (final LookupValue lookupValue : cache_retrieveLookupValueById.getAllOrLoad(singleIdContexts, contextsToLoad -> retrieveLookupValuesByIdFromDelegate(evalCtx, contextsToLoad)))
+		{
+			if (lookupValue != null && lookupValue != LOOKUPVALUE_NULL)
+			{
+				lookupValuesById.putIfAbsent(lookupValue.getId(), lookupValue);
+			}
+		}
+
+		// The cache is not preserving the keys order, so we have to restore it
+		return evalCtx.getIdsToFilter()
+				.stream()
+				.map(lookupValuesById::get)
+				.filter(Objects::nonNull)
+				.collect(LookupValuesList.collect());
+	}
+
+	private Map<LookupDataSourceContext, LookupValue> retrieveLookupValuesByIdFromDelegate(
+			@NonNull final LookupDataSourceContext evalCtx,
+			@NonNull final Collection<LookupDataSourceContext> singleIdContextsToLoad)
+	{
+		final Map<Object, LookupDataSourceContext> singleIdContextsById = new HashMap<>();
+		singleIdContextsToLoad.forEach(singleIdContext -> singleIdContextsById.put(singleIdContext.getIdToFilter(), singleIdContext));
+
+		final LookupValuesList lookupValues = delegate.retrieveLookupValueByIdsInOrder(evalCtx.withIdsToFilter(singleIdContextsById.keySet()));
+
+		// NOTE: also cache the IDs which were not found, same as retrieveLookupValueById does
+		final Map<LookupDataSourceContext, LookupValue> result = new HashMap<>(singleIdContextsById.size());
+		singleIdContextsById.forEach((id, singleIdContext) -> {
+			final LookupValue lookupValue = lookupValues.getById(id);
+			result.put(singleIdContext, lookupValue != null ? lookupValue : LOOKUPVALUE_NULL);
+		});
+		return result;
+	}
+
 	@Override
 	public Builder newContextForFetchingList()
 	{
@@ -22,6 +22,7 @@
 
 package de.metas.ui.web.window.model.lookup;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.MoreObjects;
 import com.google.common.collect.ImmutableList;
 import de.metas.adempiere.service.impl.TooltipType;
@@ -40,14 +41,24 @@ import de.metas.ui.web.window.descriptor.LookupDescriptor;
 import de.metas.ui.web.window.descriptor.sql.SqlForFetchingLookupById;
 import de.metas.ui.web.window.descriptor.sql.SqlForFetchingLookups;
 import de.metas.ui.web.window.descriptor.sql.SqlLookupDescriptor;
+import de.metas.util.Check;
 import de.metas.util.StringUtils;
 import lombok.NonNull;
+import org.adempiere.ad.expression.api.IExpressionEvaluator.OnVariableNotFound;
 import org.adempiere.ad.service.impl.LookupDAO.SQLNamePairIterator;
 import org.adempiere.ad.trx.api.ITrx;
 import org.adempiere.ad.validationRule.INamePairPredicate;
+import org.adempiere.exceptions.DBException;
 import org.compiere.util.DB;
 import org.slf4j.Logger;
 
+import javax.annotation.Nullable;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -207,9 +218,90 @@ public class GenericSqlLookupDataSourceFetcher implements LookupDataSourceFetche
 		final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression.evaluate(evalCtx);
 
 		final String[] nameAndDescriptionAndActive = DB.getSQLValueArrayEx(ITrx.TRXNAME_None, sqlForFetchingLookupById, id);
+		LookupDataSourceFetchMetrics.instance.recordSingleIdQuery();
+
+		final LookupValue lookupValue = toLookupValue(id, nameAndDescriptionAndActive, evalCtx);
+		return lookupValue != null ? lookupValue : LOOKUPVALUE_NULL;
+	}
+
+	/**
+	 * Fetches all IDs using one SQL query, by correlating the "by ID" SQL with the list of IDs.
+	 */
+	@Override
+	public LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+	{
+		final List<Object> ids = evalCtx.getIdsToFilter();
+		if (ids.isEmpty())
+		{
+			throw new IllegalStateException("No IDs provided in " + evalCtx);
+		}
+		else if (ids.size() == 1)
+		{
+			final LookupValue lookupValue = retrieveLookupValueById(evalCtx);
+			return lookupValue != LOOKUPVALUE_NULL ? LookupValuesList.fromNullable(lookupValue) : LookupValuesList.EMPTY;
+		}
+
+		final String sqlForFetchingLookupById = sqlForFetchingLookupByIdExpression
+				.toStringExpression("lookup_ids.lookup_id")
+				.evaluate(evalCtx, OnVariableNotFound.Fail);
+		final String sql = buildSqlForFetchingByIds(sqlForFetchingLookupById, ids.size());
+
+		final List<LookupValue> lookupValues = new ArrayList<>(ids.size());
+		PreparedStatement pstmt = null;
+		ResultSet rs = null;
+		try
+		{
+			pstmt = DB.prepareStatement(sql, ITrx.TRXNAME_None);
+			DB.setParameters(pstmt, ids);
+			rs = pstmt.executeQuery();
+			while (rs.next())
+			{
+				final Object id = numericKey ? (Object)rs.getInt(1) : rs.getString(1);
+				final Array nameAndDescriptionAndActiveArray = rs.getArray(2);
+				final String[] nameAndDescriptionAndActive = nameAndDescriptionAndActiveArray != null ? (String[])nameAndDescriptionAndActiveArray.getArray() : null;
+
+				final LookupValue lookupValue = toLookupValue(id, nameAndDescriptionAndActive, evalCtx);
+				if (lookupValue != null)
+				{
+					lookupValues.add(lookupValue);
+				}
+			}
+		}
+		catch (final SQLException ex)
+		{
+			throw new DBException(ex, sql, ids);
+		}
+		finally
+		{
+			DB.close(rs, pstmt);
+		}
+		LookupDataSourceFetchMetrics.instance.recordBatchQuery(ids.size());
+
+		// NOTE: the database is not preserving the order of the VALUES list, so we have to restore it
+		final LookupValuesList lookupValuesList = LookupValuesList.fromCollection(lookupValues);
+		return ids.stream()
+				.map(lookupValuesList::getById)
+				.filter(lookupValue -> lookupValue != null)
+				.collect(LookupValuesList.collect());
+	}
+
+	@VisibleForTesting
+	static String buildSqlForFetchingByIds(@NonNull final String sqlForFetchingLookupById, final int idsCount)
+	{
+		Check.assume(idsCount > 0, "idsCount > 0");
+		return "SELECT lookup_ids.lookup_id, (" + sqlForFetchingLookupById + ")"
+				+ " FROM (VALUES " + String.join(",", Collections.nCopies(idsCount, "(?)")) + ") AS lookup_ids(lookup_id)";
+	}
+
+	@Nullable
+	private LookupValue toLookupValue(
+			@NonNull final Object id,
+			@Nullable final String[] nameAndDescriptionAndActive,
+			@NonNull final LookupDataSourceContext evalCtx)
+	{
 		if (nameAndDescriptionAndActive == null || nameAndDescriptionAndActive.length == 0)
 		{
-			return LOOKUPVALUE_NULL;
+			return null;
 		}
 
 		final String displayName = nameAndDescriptionAndActive[0];
@@ -1,11 +1,14 @@
 package de.metas.ui.web.window.model.lookup;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 import org.compiere.util.Evaluatee;
 
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.cache.CCache.CCacheStats;
 import de.metas.ui.web.window.datatypes.LookupValue;
@@ -134,6 +137,31 @@ final class LookupDataSourceAdapter implements LookupDataSource
 		return lookupValue;
 	}
 
+	@Override
+	public LookupValuesList findByIdsOrdered(@NonNull final Collection<? extends Object> ids)
+	{
+		//
+		// Normalize the IDs to Integer/String
+		final ImmutableSet<Object> idsNormalized = ids.stream()
+				.map(id -> LookupValue.normalizeId(id, fetcher.isNumericKey()))
+				.filter(Objects::nonNull)
+				.collect(ImmutableSet.toImmutableSet());
+		if (idsNormalized.isEmpty())
+		{
+			return LookupValuesList.EMPTY;
+		}
+
+		//
+		// Build the validation context
+		// NOTE: the context is built exactly like in findById, so the per ID cached values are shared
+		final LookupDataSourceContext evalCtx = fetcher.newContextForFetchingById(idsNormalized.iterator().next())
+				.putFilterByIds(idsNormalized)
+				.putShowInactive(true)
+				.build();
+
+		return fetcher.retrieveLookupValueByIdsInOrder(evalCtx);
+	}
+
 	@Override
 	public List<CCacheStats> getCacheStats()
 	{
@@ -8,6 +8,7 @@ import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.Immutable;
@@ -26,7 +27,9 @@ import org.compiere.util.NamePair;
 import org.compiere.util.TimeUtil;
 import org.slf4j.Logger;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 
 import de.metas.logging.LogManager;
 import de.metas.security.UserRolePermissionsKey;
@@ -101,17 +104,20 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 	private final String lookupTableName;
 	private final ImmutableMap<String, Object> parameterValues;
 	private final Object idToFilter;
+	private final ImmutableList<Object> idsToFilter;
 	private final INamePairPredicate postQueryPredicate;
 
 	private LookupDataSourceContext(
 			final String lookupTableName,
 			final Map<String, Object> values,
 			final Object idToFilter,
+			final ImmutableList<Object> idsToFilter,
 			final INamePairPredicate postQueryPredicate)
 	{
 		this.lookupTableName = lookupTableName;
 		parameterValues = ImmutableMap.copyOf(values);
 		this.idToFilter = idToFilter;
+		this.idsToFilter = idsToFilter;
 		this.postQueryPredicate = postQueryPredicate;
 	}
 
@@ -330,6 +336,60 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		return idToFilter != null ? idToFilter.toString() : null;
 	}
 
+	/**
+	 * @return the IDs to filter, in the order they were set; if there were no multiple IDs set, the single ID to filter is returned (if any)
+	 */
+	public ImmutableList<Object> getIdsToFilter()
+	{
+		if (!idsToFilter.isEmpty())
+		{
+			return idsToFilter;
+		}
+		return idToFilter != null ? ImmutableList.of(idToFilter) : ImmutableList.of();
+	}
+
+	/**
+	 * @return one context for each of {@link #getIdsToFilter()}.
+	 *         They are equal to the contexts which would be built for fetching the IDs one by one, so they can be used as cache keys.
+	 */
+	public Stream<LookupDataSourceContext> streamSingleIdContexts()
+	{
+		return getIdsToFilter()
+				.stream()
+				.map(this::withIdToFilter);
+	}
+
+	private LookupDataSourceContext withIdToFilter(@NonNull final Object id)
+	{
+		if (idsToFilter.isEmpty() && id.equals(idToFilter))
+		{
+			return this;
+		}
+		return new LookupDataSourceContext(lookupTableName, parameterValues, id, ImmutableList.of(), postQueryPredicate);
+	}
+
+	/**
+	 * @return a copy of this context, having the same parameters but filtering by given IDs
+	 */
+	public LookupDataSourceContext withIdsToFilter(@NonNull final Collection<?> ids)
+	{
+		final ImmutableList<Object> idsList = toDistinctIdsList(ids);
+		if (idsList.isEmpty())
+		{
+			throw new AdempiereException("At least one ID shall be provided");
+		}
+		if (idsList.equals(getIdsToFilter()))
+		{
+			return this;
+		}
+		return new LookupDataSourceContext(lookupTableName, parameterValues, idsList.get(0), idsList, postQueryPredicate);
+	}
+
+	private static ImmutableList<Object> toDistinctIdsList(@NonNull final Collection<?> ids)
+	{
+		return ImmutableSet.<Object> copyOf(ids).asList();
+	}
+
 	public ViewId getViewId()
 	{
 		final ViewId viewId = get_ValueAsObject(PARAM_ViewId.getName());
@@ -357,6 +417,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 		private INamePairPredicate postQueryPredicate = INamePairPredicate.NULL;
 		private final Map<String, Object> name2value = new HashMap<>();
 		private Object idToFilter;
+		private ImmutableList<Object> idsToFilter = ImmutableList.of();
 		private Collection<CtxName> _requiredParameters;
 		private boolean _requiredParameters_copyOnAdd = false;
 
@@ -397,7 +458,7 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 
 			//
 			// Build the effective context
-			return new LookupDataSourceContext(lookupTableName, valuesCollected, idToFilter, postQueryPredicate);
+			return new LookupDataSourceContext(lookupTableName, valuesCollected, idToFilter, idsToFilter, postQueryPredicate);
 		}
 
 		private Collection<CtxName> getRequiredParameters()
@@ -544,6 +605,20 @@ public final class LookupDataSourceContext implements Evaluatee2, IValidationCon
 			return this;
 		}
 
+		/**
+		 * Sets the IDs to be fetched all together.
+		 * The first ID is also set as {@link #putFilterById(Object) single ID to filter}, for fetchers which are not able to fetch more than one ID at once.
+		 */
+		public Builder putFilterByIds(@NonNull final Collection<?> ids)
+		{
+			idsToFilter = toDistinctIdsList(ids);
+			if (!idsToFilter.isEmpty())
+			{
+				idToFilter = idsToFilter.get(0);
+			}
+			return this;
+		}
+
 		public Builder putShowInactive(final boolean showInactive)
 		{
 			final String sqlShowInactive = showInactive ? SqlForFetchingLookupById.SQL_PARAM_VALUE_ShowInactive_Yes : SqlForFetchingLookupById.SQL_PARAM_VALUE_ShowInactive_No;
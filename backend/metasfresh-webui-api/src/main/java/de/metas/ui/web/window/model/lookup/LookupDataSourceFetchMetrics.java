@@ -0,0 +1,97 @@
+package de.metas.ui.web.window.model.lookup;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.collect.ImmutableMap;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+/**
+ * Counts how many lookup values by ID were requested and how many database queries were needed to fetch them.
+ * <p>
+ * Comparing the requested IDs with the executed queries shows how much the batch fetching (see {@link LookupDataSource#findByIdsOrdered}) saves,
+ * compared to fetching each ID on its own.
+ */
+public final class LookupDataSourceFetchMetrics
+{
+	public static final LookupDataSourceFetchMetrics instance = new LookupDataSourceFetchMetrics();
+
+	private final AtomicLong singleIdQueries = new AtomicLong(0);
+	private final AtomicLong batchQueries = new AtomicLong(0);
+	private final AtomicLong batchQueriedIds = new AtomicLong(0);
+	private final AtomicLong preloadRuns = new AtomicLong(0);
+	private final AtomicLong preloadRequestedIds = new AtomicLong(0);
+
+	private LookupDataSourceFetchMetrics()
+	{
+	}
+
+	void recordSingleIdQuery()
+	{
+		singleIdQueries.incrementAndGet();
+	}
+
+	void recordBatchQuery(final int idsCount)
+	{
+		batchQueries.incrementAndGet();
+		batchQueriedIds.addAndGet(idsCount);
+	}
+
+	/**
+	 * Records that the lookup values of a whole page were preloaded.
+	 *
+	 * @param requestedIdsCount how many lookup values would have been fetched one by one, without preloading
+	 */
+	public void recordPreload(final int requestedIdsCount)
+	{
+		preloadRuns.incrementAndGet();
+		preloadRequestedIds.addAndGet(requestedIdsCount);
+	}
+
+	public ImmutableMap<String, Object> toMap()
+	{
+		final long batchQueriesCount = batchQueries.get();
+		final long batchQueriedIdsCount = batchQueriedIds.get();
+		final long preloadRunsCount = preloadRuns.get();
+		final long preloadRequestedIdsCount = preloadRequestedIds.get();
+
+		return ImmutableMap.<String, Object> builder()
+				.put("singleIdQueries", singleIdQueries.get())
+				.put("batchQueries", batchQueriesCount)
+				.put("batchQueriedIds", batchQueriedIdsCount)
+				.put("avgIdsPerBatchQuery", batchQueriesCount > 0 ? (double)batchQueriedIdsCount / batchQueriesCount : 0)
+				.put("preloadRuns", preloadRunsCount)
+				.put("preloadRequestedIds", preloadRequestedIdsCount)
+				.put("avgRequestedIdsPerPreload", preloadRunsCount > 0 ? (double)preloadRequestedIdsCount / preloadRunsCount : 0)
+				.build();
+	}
+
+	public void reset()
+	{
+		singleIdQueries.set(0);
+		batchQueries.set(0);
+		batchQueriedIds.set(0);
+		preloadRuns.set(0);
+		preloadRequestedIds.set(0);
+	}
+}
@@ -48,6 +48,21 @@ public interface LookupDataSourceFetcher
 	@Nullable
 	LookupValue retrieveLookupValueById(@NonNull LookupDataSourceContext evalCtx);
 
+	/**
+	 * Retrieves the lookup values of all {@link LookupDataSourceContext#getIdsToFilter()}.
+	 * <p>
+	 * The default implementation retrieves them one by one. Fetchers which are able to retrieve them all together shall override it.
+	 *
+	 * @return lookup values in the same order as the IDs; the IDs which were not found are skipped
+	 */
+	default LookupValuesList retrieveLookupValueByIdsInOrder(@NonNull final LookupDataSourceContext evalCtx)
+	{
+		return evalCtx.streamSingleIdContexts()
+				.map(this::retrieveLookupValueById)
+				.filter(lookupValue -> lookupValue != null && lookupValue != LOOKUPVALUE_NULL)
+				.collect(LookupValuesList.collect());
+	}
+
 	LookupDataSourceContext.Builder newContextForFetchingList();
 
 	LookupValuesList retrieveEntities(LookupDataSourceContext evalCtx);
@@ -0,0 +1,166 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Properties;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.compiere.util.Env;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.organization.OrgId;
+import de.metas.security.RoleId;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONOptions;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+import de.metas.user.UserId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class DefaultViewTest
+{
+	private static final DocumentId ROW_1 = DocumentId.of(1);
+	private static final DocumentId ROW_2 = DocumentId.of(2);
+	private static final DocumentId ROW_3 = DocumentId.of(3);
+
+	private SqlViewDataRepository viewDataRepository;
+	private ViewRowsOrderBy orderBy;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		final Properties ctx = Env.getCtx();
+		Env.setLoggedUserId(ctx, UserId.METASFRESH);
+		Env.setContext(ctx, Env.CTXNAME_AD_Role_ID, RoleId.SYSTEM.getRepoId());
+
+		Services.get(ISysConfigBL.class).setValue("webui.view.rowsCache.enabled", true, ClientId.SYSTEM, OrgId.ANY);
+
+		viewDataRepository = Mockito.mock(SqlViewDataRepository.class);
+		when(viewDataRepository.getTableName()).thenReturn("MyTable");
+		when(viewDataRepository.isRowIdMatchingRecordId()).thenReturn(true);
+
+		orderBy = ViewRowsOrderBy.empty(JSONOptions.newInstance());
+	}
+
+	private DefaultView createView()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+		final ViewRowIdsOrderedSelection defaultSelection = ViewRowIdsOrderedSelection.builder()
+				.viewId(viewId)
+				.size(3)
+				.orderBys(DocumentQueryOrderByList.EMPTY)
+				.build();
+
+		return DefaultView.builder(viewDataRepository)
+				.setViewId(viewId)
+				.setInitialSelections(ViewRowIdsOrderedSelections.ofDefaultSelection(defaultSelection, defaultSelection))
+				.build();
+	}
+
+	private static IViewRow newRow(final DocumentId rowId)
+	{
+		final IViewRow row = Mockito.mock(IViewRow.class);
+		when(row.getId()).thenReturn(rowId);
+		return row;
+	}
+
+	private void givenPageRowIds(final int firstRow, final DocumentId... rowIds)
+	{
+		when(viewDataRepository.retrieveRowIdsByPage(any(), any(), eq(firstRow), anyInt(), any()))
+				.thenReturn(ViewRowsPage.of(ImmutableList.copyOf(rowIds), null));
+	}
+
+	@Test
+	public void getPage_cachedRowsAreNotLoadedAgain()
+	{
+		final DefaultView view = createView();
+		givenPageRowIds(0, ROW_1, ROW_2);
+		when(viewDataRepository.retrieveByIds(any(), any(), eq(DocumentIdsSelection.of(ImmutableList.of(ROW_1, ROW_2)))))
+				.thenReturn(ImmutableList.of(newRow(ROW_1), newRow(ROW_2)));
+
+		assertThat(view.getPage(0, 2, orderBy).getRowIds()).containsExactly(ROW_1, ROW_2);
+		assertThat(view.getPage(0, 2, orderBy).getRowIds()).containsExactly(ROW_1, ROW_2);
+
+		verify(viewDataRepository, times(1)).retrieveByIds(any(), any(), any());
+		verify(viewDataRepository, never()).retrievePage(any(), any(), anyInt(), anyInt(), any());
+	}
+
+	@Test
+	public void getPage_onlyMissingRowsAreLoaded()
+	{
+		final DefaultView view = createView();
+		givenPageRowIds(0, ROW_1, ROW_2);
+		when(viewDataRepository.retrieveByIds(any(), any(), eq(DocumentIdsSelection.of(ImmutableList.of(ROW_1, ROW_2)))))
+				.thenReturn(ImmutableList.of(newRow(ROW_1), newRow(ROW_2)));
+		view.getPage(0, 2, orderBy);
+
+		givenPageRowIds(1, ROW_2, ROW_3);
+		when(viewDataRepository.retrieveByIds(any(), any(), eq(DocumentIdsSelection.of(ImmutableList.of(ROW_3)))))
+				.thenReturn(ImmutableList.of(newRow(ROW_3)));
+
+		assertThat(view.getPage(1, 2, orderBy).getRowIds()).containsExactly(ROW_2, ROW_3);
+		verify(viewDataRepository).retrieveByIds(any(), any(), eq(DocumentIdsSelection.of(ImmutableList.of(ROW_3))));
+	}
+
+	@Test
+	public void getPage_deletedRowIsSkipped()
+	{
+		final DefaultView view = createView();
+		givenPageRowIds(0, ROW_1, ROW_2);
+		when(viewDataRepository.retrieveByIds(any(), any(), any()))
+				.thenReturn(ImmutableList.of(newRow(ROW_2)));
+
+		assertThat(view.getPage(0, 2, orderBy).getRowIds()).containsExactly(ROW_2);
+	}
+
+	@Test
+	public void getPage_duplicateRowIds_firstRowIsTaken()
+	{
+		final DefaultView view = createView();
+		givenPageRowIds(0, ROW_1);
+		final IViewRow row1 = newRow(ROW_1);
+		when(viewDataRepository.retrieveByIds(any(), any(), any()))
+				.thenReturn(ImmutableList.of(row1, newRow(ROW_1)));
+
+		final ViewResult result = view.getPage(0, 1, orderBy);
+		assertThat(result.getPage()).containsExactly(row1);
+	}
+}
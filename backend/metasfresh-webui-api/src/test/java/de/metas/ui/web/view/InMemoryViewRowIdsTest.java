@@ -0,0 +1,91 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class InMemoryViewRowIdsTest
+{
+	@Test
+	public void getPage()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 10, 20, 30, 40, 50 });
+
+		assertThat(rowIds.size()).isEqualTo(5);
+		assertThat(rowIds.getPage(0, 2)).containsExactly(10, 20);
+		assertThat(rowIds.getPage(3, 10)).containsExactly(40, 50);
+		assertThat(rowIds.getPage(5, 10)).isEmpty();
+	}
+
+	@Test
+	public void getSeqNo()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 10, 20, 30 });
+
+		assertThat(rowIds.getSeqNo(10)).isEqualTo(1);
+		assertThat(rowIds.getSeqNo(30)).isEqualTo(3);
+		assertThat(rowIds.getSeqNo(99)).isEqualTo(-1);
+		assertThat(rowIds.containsAny(ImmutableSet.of(99, 20))).isTrue();
+		assertThat(rowIds.containsAny(ImmutableSet.of(99))).isFalse();
+	}
+
+	@Test
+	public void withRecordIdsAppended_skipsExistingAndDuplicates()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 10, 20 })
+				.withRecordIdsAppended(ImmutableList.of(20, 30, 30, 40));
+
+		assertThat(rowIds.toArray()).containsExactly(10, 20, 30, 40);
+	}
+
+	@Test
+	public void withRecordIdsAppended_nothingNew()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 10, 20 });
+		assertThat(rowIds.withRecordIdsAppended(ImmutableList.of(10))).isSameAs(rowIds);
+	}
+
+	@Test
+	public void withRecordIdsRemoved_keepsOrder()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 50, 10, 40, 20 })
+				.withRecordIdsRemoved(ImmutableSet.of(10, 99));
+
+		assertThat(rowIds.toArray()).containsExactly(50, 40, 20);
+		assertThat(rowIds.getSeqNo(40)).isEqualTo(2);
+	}
+
+	@Test
+	public void withRecordIdsRemoved_all()
+	{
+		final InMemoryViewRowIds rowIds = InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 10 })
+				.withRecordIdsRemoved(ImmutableSet.of(10));
+
+		assertThat(rowIds).isSameAs(InMemoryViewRowIds.EMPTY);
+	}
+}
@@ -0,0 +1,100 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.JsonObjectMapperHolder;
+import de.metas.ui.web.view.json.JSONViewDataType;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.DocumentPath;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.datatypes.json.JSONDocumentPath;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SharedViewDefinitionTest
+{
+	private ObjectMapper jsonObjectMapper;
+
+	@BeforeEach
+	public void init()
+	{
+		jsonObjectMapper = JsonObjectMapperHolder.newJsonObjectMapper();
+	}
+
+	private SharedViewDefinition.Selection selection(final String selectionViewId, final long size, final String orderBys)
+	{
+		return SharedViewDefinition.Selection.of(ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.ofViewIdString(selectionViewId))
+				.size(size)
+				.orderBys(DocumentQueryOrderByList.parse(orderBys))
+				.queryLimit(1000)
+				.build());
+	}
+
+	@Test
+	public void serializeDeserialize() throws IOException
+	{
+		final SharedViewDefinition definition = SharedViewDefinition.builder()
+				.viewId("123-abcde")
+				.viewType(JSONViewDataType.grid)
+				.profileId("profile1")
+				.parentViewId("456-fghij")
+				.parentRowId("7")
+				.referencingDocumentPaths(ImmutableList.of(JSONDocumentPath.ofWindowDocumentPath(DocumentPath.rootDocumentPath(WindowId.of(143), DocumentId.of(1000)))))
+				.documentReferenceId("789")
+				.filterOnlyIds(ImmutableSet.of(1, 2, 3))
+				.applySecurityRestrictions(true)
+				.defaultSelectionBeforeFacetsFiltering(selection("123-abcde", 10, "+C_BPartner_ID,-DateOrdered"))
+				.defaultSelection(selection("123-klmno", 5, "+C_BPartner_ID,-DateOrdered"))
+				.build();
+
+		final String json = jsonObjectMapper.writeValueAsString(definition);
+		final SharedViewDefinition definitionDeserialized = jsonObjectMapper.readValue(json, SharedViewDefinition.class);
+
+		assertThat(definitionDeserialized).isEqualTo(definition);
+		assertThat(definitionDeserialized.toViewId()).isEqualTo(ViewId.ofViewIdString("123-abcde"));
+	}
+
+	@Test
+	public void selection_toViewRowIdsOrderedSelection()
+	{
+		final SharedViewDefinition.Selection selection = selection("123-abcde", 10, "+C_BPartner_ID,-DateOrdered");
+		assertThat(selection.getSelectionId()).isEqualTo("abcde");
+
+		final ViewRowIdsOrderedSelection viewRowIdsOrderedSelection = selection.toViewRowIdsOrderedSelection(8);
+		assertThat(viewRowIdsOrderedSelection.getViewId()).isEqualTo(ViewId.ofViewIdString("123-abcde"));
+		assertThat(viewRowIdsOrderedSelection.getSize()).isEqualTo(8);
+		assertThat(viewRowIdsOrderedSelection.getQueryLimit()).isEqualTo(1000);
+		assertThat(viewRowIdsOrderedSelection.getOrderBys()).isEqualTo(DocumentQueryOrderByList.parse("+C_BPartner_ID,-DateOrdered"));
+	}
+}
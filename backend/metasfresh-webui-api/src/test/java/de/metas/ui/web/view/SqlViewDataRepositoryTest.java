@@ -0,0 +1,74 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlViewDataRepositoryTest
+{
+	@Nested
+	public class createNextPageCursor
+	{
+		private final ViewRowIdsOrderedSelection selection = ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.size(100)
+				.build();
+
+		@Test
+		public void fullPage()
+		{
+			final boolean exactPage = true;
+			final ViewPageCursor cursor = SqlViewDataRepository.createNextPageCursor(selection, 20, 10, exactPage, 10, 35);
+
+			assertThat(cursor).isEqualTo(ViewPageCursor.of(selection.getViewId(), 30, 10, 35));
+		}
+
+		@Test
+		public void exactPage_lessRowsThanRequested_isLastPage()
+		{
+			final boolean exactPage = true;
+			assertThat(SqlViewDataRepository.createNextPageCursor(selection, 20, 10, exactPage, 7, 35)).isNull();
+		}
+
+		@Test
+		public void offsetPage_lessRowsThanRequestedBecauseOfSeqNoGaps_isNotLastPage()
+		{
+			final boolean exactPage = false;
+			final ViewPageCursor cursor = SqlViewDataRepository.createNextPageCursor(selection, 20, 10, exactPage, 7, 30);
+
+			assertThat(cursor).isEqualTo(ViewPageCursor.of(selection.getViewId(), 30, 10, 30));
+		}
+
+		@Test
+		public void noRows()
+		{
+			assertThat(SqlViewDataRepository.createNextPageCursor(selection, 20, 10, true, 0, 0)).isNull();
+			assertThat(SqlViewDataRepository.createNextPageCursor(selection, 20, 10, false, 0, 0)).isNull();
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.view.ViewHeaderAggregates.Aggregate;
+import de.metas.ui.web.view.ViewHeaderAggregates.RowValue;
+import de.metas.ui.web.window.datatypes.DocumentId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewHeaderAggregatesTest
+{
+	private static final DocumentId ROW_1 = DocumentId.of(1);
+	private static final DocumentId ROW_2 = DocumentId.of(2);
+	private static final DocumentId ROW_3 = DocumentId.of(3);
+
+	@Test
+	public void initialAggregates()
+	{
+		final ViewHeaderAggregates<String> aggregates = ViewHeaderAggregates.of(ImmutableMap.of(
+				ROW_1, RowValue.of("A", new BigDecimal("10")),
+				ROW_2, RowValue.of("A", new BigDecimal("5")),
+				ROW_3, RowValue.of("B", new BigDecimal("7"))));
+
+		assertThat(aggregates.getRowsCount()).isEqualTo(3);
+		assertThat(aggregates.getAggregates()).isEqualTo(ImmutableMap.of(
+				"A", new Aggregate(new BigDecimal("15"), 2),
+				"B", new Aggregate(new BigDecimal("7"), 1)));
+	}
+
+	@Test
+	public void updateRows_changedAmountAndKey()
+	{
+		final ViewHeaderAggregates<String> aggregates = ViewHeaderAggregates.of(ImmutableMap.of(
+				ROW_1, RowValue.of("A", new BigDecimal("10")),
+				ROW_2, RowValue.of("A", new BigDecimal("5"))));
+
+		aggregates.updateRows(
+				ImmutableSet.of(ROW_1, ROW_2),
+				ImmutableMap.of(
+						ROW_1, RowValue.of("A", new BigDecimal("12")),
+						ROW_2, RowValue.of("B", new BigDecimal("5"))));
+
+		assertThat(aggregates.getAggregates()).isEqualTo(ImmutableMap.of(
+				"A", new Aggregate(new BigDecimal("12"), 1),
+				"B", new Aggregate(new BigDecimal("5"), 1)));
+	}
+
+	@Test
+	public void updateRows_removedRow()
+	{
+		final ViewHeaderAggregates<String> aggregates = ViewHeaderAggregates.of(ImmutableMap.of(
+				ROW_1, RowValue.of("A", new BigDecimal("10")),
+				ROW_2, RowValue.of("B", new BigDecimal("5"))));
+
+		aggregates.updateRows(ImmutableSet.of(ROW_2), ImmutableMap.of());
+
+		assertThat(aggregates.getRowsCount()).isEqualTo(1);
+		assertThat(aggregates.getAggregates()).isEqualTo(ImmutableMap.of(
+				"A", new Aggregate(new BigDecimal("10"), 1)));
+	}
+
+	@Test
+	public void updateRows_unknownRowIsAdded()
+	{
+		final ViewHeaderAggregates<String> aggregates = ViewHeaderAggregates.of(ImmutableMap.of(
+				ROW_1, RowValue.of("A", new BigDecimal("10"))));
+
+		aggregates.updateRows(
+				ImmutableSet.of(ROW_3),
+				ImmutableMap.of(ROW_3, RowValue.of("A", new BigDecimal("1"))));
+
+		assertThat(aggregates.getAggregates()).isEqualTo(ImmutableMap.of(
+				"A", new Aggregate(new BigDecimal("11"), 2)));
+	}
+}
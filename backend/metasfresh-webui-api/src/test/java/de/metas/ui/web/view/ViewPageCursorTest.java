@@ -0,0 +1,54 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewPageCursorTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+
+	private static ViewRowIdsOrderedSelection newSelection()
+	{
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WINDOW_ID))
+				.size(100)
+				.build();
+	}
+
+	@Test
+	public void isMatching()
+	{
+		final ViewRowIdsOrderedSelection selection = newSelection();
+		final ViewPageCursor cursor = ViewPageCursor.of(selection.getViewId(), 20, 10, 25);
+
+		assertThat(cursor.isMatching(selection, 20, 10)).isTrue();
+		assertThat(cursor.isMatching(selection, 30, 10)).isFalse();
+		assertThat(cursor.isMatching(selection, 20, 20)).isFalse();
+		assertThat(cursor.isMatching(newSelection(), 20, 10)).isFalse();
+	}
+}
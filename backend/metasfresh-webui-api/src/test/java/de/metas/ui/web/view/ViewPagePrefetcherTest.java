@@ -0,0 +1,119 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.adempiere.service.ClientId;
+import org.adempiere.service.ISysConfigBL;
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.organization.OrgId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.util.Services;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewPagePrefetcherTest
+{
+	private ViewRowIdsOrderedSelection selection;
+	private ViewPageCursor cursor;
+	private ViewRowsPage<IViewRow> page;
+
+	/** Prefetches synchronously */
+	private ViewPagePrefetcher prefetcher;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		selection = ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WindowId.of(123)))
+				.size(100)
+				.build();
+		cursor = ViewPageCursor.of(selection.getViewId(), 10, 10, 10);
+		page = ViewRowsPage.of(ImmutableList.of(), null);
+		prefetcher = new ViewPagePrefetcher(Runnable::run);
+	}
+
+	private void enablePrefetching()
+	{
+		Services.get(ISysConfigBL.class).setValue(ViewPagePrefetcher.SYSCONFIG_Enabled, true, ClientId.SYSTEM, OrgId.ANY);
+	}
+
+	@Test
+	public void disabledByDefault()
+	{
+		assertThat(ViewPagePrefetcher.isEnabled()).isFalse();
+
+		prefetcher.prefetch(cursor, () -> {
+			throw new AssertionError("shall not be called");
+		});
+
+		assertThat(prefetcher.pollPrefetchedPage(selection, 10, 10)).isNull();
+	}
+
+	@Test
+	public void matchingPage()
+	{
+		enablePrefetching();
+		prefetcher.prefetch(cursor, () -> page);
+
+		assertThat(prefetcher.pollPrefetchedPage(selection, 10, 10)).isSameAs(page);
+		assertThat(prefetcher.pollPrefetchedPage(selection, 10, 10)).as("prefetched page shall be used only once").isNull();
+	}
+
+	@Test
+	public void notMatchingPage()
+	{
+		enablePrefetching();
+		prefetcher.prefetch(cursor, () -> page);
+
+		assertThat(prefetcher.pollPrefetchedPage(selection, 20, 10)).isNull();
+		assertThat(prefetcher.pollPrefetchedPage(selection, 10, 10)).as("prefetched page shall be discarded").isNull();
+	}
+
+	@Test
+	public void failedPrefetching()
+	{
+		enablePrefetching();
+		prefetcher.prefetch(cursor, () -> {
+			throw new RuntimeException("failed");
+		});
+
+		assertThat(prefetcher.pollPrefetchedPage(selection, 10, 10)).isNull();
+	}
+
+	@Test
+	public void clear()
+	{
+		enablePrefetching();
+		prefetcher.prefetch(cursor, () -> page);
+		prefetcher.clear();
+
+		assertThat(prefetcher.pollPrefetchedPage(selection, 10, 10)).isNull();
+	}
+}
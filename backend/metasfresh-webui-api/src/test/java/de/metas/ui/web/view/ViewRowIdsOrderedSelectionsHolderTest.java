@@ -0,0 +1,126 @@
+package de.metas.ui.web.view;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.document.filter.DocumentFilterList;
+import de.metas.ui.web.window.datatypes.DocumentId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.model.DocumentQueryOrderBy;
+import de.metas.ui.web.window.model.DocumentQueryOrderByList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class ViewRowIdsOrderedSelectionsHolderTest
+{
+	private static final WindowId WINDOW_ID = WindowId.of(123);
+	private static final DocumentId ROW_1 = DocumentId.of(1);
+	private static final DocumentQueryOrderByList ORDER_BY_NAME = DocumentQueryOrderByList.ofList(ImmutableList.of(DocumentQueryOrderBy.byFieldName("Name")));
+
+	private SqlViewDataRepository viewDataRepository;
+	private ViewRowIdsOrderedSelection defaultSelection;
+	private ViewRowIdsOrderedSelectionsHolder holder;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		viewDataRepository = Mockito.mock(SqlViewDataRepository.class);
+		when(viewDataRepository.createOrderedSelectionFromSelection(any(), any(), any(), eq(ORDER_BY_NAME), any()))
+				.thenAnswer(invocation -> newSelection(ORDER_BY_NAME))
+				.thenAnswer(invocation -> newSelection(ORDER_BY_NAME));
+
+		defaultSelection = newSelection(DocumentQueryOrderByList.EMPTY);
+		holder = ViewRowIdsOrderedSelectionsHolder.builder()
+				.viewDataRepository(viewDataRepository)
+				.viewId(defaultSelection.getViewId())
+				.stickyFilters(DocumentFilterList.EMPTY)
+				.filters(DocumentFilterList.EMPTY)
+				.viewEvaluationCtxSupplier(() -> null)
+				.initialSelections(ViewRowIdsOrderedSelections.ofDefaultSelection(defaultSelection, defaultSelection))
+				.build();
+	}
+
+	private static ViewRowIdsOrderedSelection newSelection(final DocumentQueryOrderByList orderBys)
+	{
+		return ViewRowIdsOrderedSelection.builder()
+				.viewId(ViewId.random(WINDOW_ID))
+				.size(10)
+				.orderBys(orderBys)
+				.build();
+	}
+
+	@Test
+	public void changedRowStillInView_orderBySelectionIsRecomputed()
+	{
+		final ViewRowIdsOrderedSelection orderedSelection = holder.getOrderedSelection(ORDER_BY_NAME);
+
+		// ROW_1 still matches the filters, but its "Name" might have changed
+		final Set<DocumentId> changedRowIds = ImmutableSet.of(ROW_1);
+		when(viewDataRepository.removeRowIdsNotMatchingFilters(any(), any(), eq(changedRowIds)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+		when(viewDataRepository.retrieveRowIdsMatchingFilters(defaultSelection.getViewId(), DocumentFilterList.EMPTY, changedRowIds))
+				.thenReturn(changedRowIds);
+		holder.updateChangedRows(changedRowIds);
+
+		verify(viewDataRepository).scheduleDeleteSelections(ImmutableSet.of(orderedSelection.getSelectionId()));
+
+		final ViewRowIdsOrderedSelection orderedSelectionAfterChange = holder.getOrderedSelection(ORDER_BY_NAME);
+		assertThat(orderedSelectionAfterChange.getSelectionId()).isNotEqualTo(orderedSelection.getSelectionId());
+		verify(viewDataRepository, times(2)).createOrderedSelectionFromSelection(any(), eq(defaultSelection), any(), eq(ORDER_BY_NAME), any());
+	}
+
+	@Test
+	public void changedRowRemovedFromView_orderBySelectionIsKept()
+	{
+		final ViewRowIdsOrderedSelection orderedSelection = holder.getOrderedSelection(ORDER_BY_NAME);
+
+		// ROW_1 no longer matches the filters, so it's removed from all selections
+		final Set<DocumentId> changedRowIds = ImmutableSet.of(ROW_1);
+		when(viewDataRepository.removeRowIdsNotMatchingFilters(any(), any(), eq(changedRowIds)))
+				.thenAnswer(invocation -> invocation.<ViewRowIdsOrderedSelection> getArgument(0).withSize(9));
+		when(viewDataRepository.retrieveRowIdsMatchingFilters(defaultSelection.getViewId(), DocumentFilterList.EMPTY, changedRowIds))
+				.thenReturn(ImmutableSet.of());
+		holder.updateChangedRows(changedRowIds);
+
+		verify(viewDataRepository, never()).scheduleDeleteSelections(any());
+
+		final ViewRowIdsOrderedSelection orderedSelectionAfterChange = holder.getOrderedSelection(ORDER_BY_NAME);
+		assertThat(orderedSelectionAfterChange.getSelectionId()).isEqualTo(orderedSelection.getSelectionId());
+		assertThat(orderedSelectionAfterChange.getSize()).isEqualTo(9);
+		assertThat(holder.getSize()).isEqualTo(9);
+	}
+}
@@ -0,0 +1,147 @@
+package de.metas.ui.web.view.descriptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Optional;
+
+import org.adempiere.service.ClientId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.metas.security.RoleId;
+import de.metas.security.UserRolePermissionsKey;
+import de.metas.ui.web.view.InMemoryViewRowIds;
+import de.metas.ui.web.view.ViewEvaluationCtx;
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.WindowId;
+import de.metas.ui.web.window.descriptor.DocumentFieldWidgetType;
+import de.metas.ui.web.window.descriptor.sql.SqlSelectValue;
+import de.metas.user.UserId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class SqlViewSelectDataTest
+{
+	private SqlViewSelectData sqlViewSelect;
+	private ViewEvaluationCtx viewEvalCtx;
+	private ViewId viewId;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		final SqlViewRowFieldBinding keyField = SqlViewRowFieldBinding.builder()
+				.fieldName("MyTable_ID")
+				.widgetType(DocumentFieldWidgetType.Integer)
+				.sqlValueClass(Integer.class)
+				.fieldLoader((rs, adLanguage) -> rs.getInt("MyTable_ID"))
+				.keyColumn(true)
+				.sqlSelectValue(SqlSelectValue.builder()
+						.columnName("MyTable_ID")
+						.columnNameAlias("MyTable_ID")
+						.build())
+				.build();
+
+		sqlViewSelect = SqlViewBinding.builder()
+				.tableName("MyTable")
+				.field(keyField)
+				.displayFieldNames("MyTable_ID")
+				.build()
+				.getSqlViewSelect();
+
+		viewEvalCtx = ViewEvaluationCtx._builder()
+				.loggedUserId(Optional.of(UserId.SYSTEM))
+				.adLanguage("en_US")
+				.timeZone(ZoneId.of("UTC"))
+				.permissionsKey(UserRolePermissionsKey.of(RoleId.SYSTEM, UserId.SYSTEM, ClientId.SYSTEM, LocalDate.parse("2020-01-01")))
+				.build();
+
+		viewId = ViewId.random(WindowId.of(123));
+	}
+
+	@Test
+	public void selectByPage_offset()
+	{
+		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(20)
+				.pageLength(10)
+				.build();
+
+		assertThat(sqlAndParams.getSql()).contains(SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased + " BETWEEN ? AND ?");
+		assertThat(sqlAndParams.getSql()).doesNotContain("LIMIT");
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 21, 30);
+	}
+
+	@Test
+	public void selectByPage_afterSeqNo()
+	{
+		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(20)
+				.pageLength(10)
+				.afterSeqNo(27)
+				.build();
+
+		assertThat(sqlAndParams.getSql()).contains(SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased + " > ?");
+		assertThat(sqlAndParams.getSql()).contains("ORDER BY " + SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased + "\n LIMIT ?");
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 27, 10);
+	}
+
+	@Test
+	public void selectRowIdsByPage_afterSeqNo()
+	{
+		final SqlAndParams sqlAndParams = sqlViewSelect.selectRowIdsByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(20)
+				.pageLength(10)
+				.afterSeqNo(27)
+				.build();
+
+		assertThat(sqlAndParams.getSql()).contains(SqlViewSelectData.COLUMNNAME_Paging_SeqNo_OneBased + " > ?");
+		assertThat(sqlAndParams.getSql()).contains("LIMIT ?");
+		assertThat(sqlAndParams.getSqlParams()).containsExactly(viewId.getViewId(), 27, 10);
+	}
+
+	@Test
+	public void selectByPage_inMemory()
+	{
+		final SqlAndParams sqlAndParams = sqlViewSelect.selectByPage()
+				.viewEvalCtx(viewEvalCtx)
+				.viewId(viewId)
+				.firstRowZeroBased(1)
+				.pageLength(2)
+				.inMemoryRowIds(InMemoryViewRowIds.ofOrderedRecordIds(new int[] { 5, 6, 7, 8 }))
+				.build();
+
+		// the record IDs are bound as one array parameter, which comes first because it's in the FROM clause
+		assertThat(sqlAndParams.getSql()).contains("unnest(?::integer[])");
+		assertThat(sqlAndParams.getSqlParams()).hasSize(4);
+		assertThat((int[])sqlAndParams.getSqlParams().get(0)).containsExactly(6, 7);
+		assertThat(sqlAndParams.getSqlParams().subList(1, 4)).containsExactly(viewId.getViewId(), 2, 3);
+	}
+}
@@ -0,0 +1,83 @@
+package de.metas.ui.web.view.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.collect.ImmutableSet;
+
+import de.metas.ui.web.view.ViewId;
+import de.metas.ui.web.window.datatypes.DocumentIdsSelection;
+import de.metas.ui.web.window.datatypes.WindowId;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class JSONViewChangesTest
+{
+	private static JSONViewChanges changedRowIds(final ViewId viewId, final String changedIds)
+	{
+		final ViewChanges viewChanges = new ViewChanges(viewId);
+		viewChanges.addChangedRowIds(DocumentIdsSelection.ofCommaSeparatedString(changedIds));
+		return JSONViewChanges.of(viewChanges);
+	}
+
+	private static JSONViewChanges fullyChanged(final ViewId viewId)
+	{
+		final ViewChanges viewChanges = new ViewChanges(viewId);
+		viewChanges.setFullyChanged();
+		return JSONViewChanges.of(viewChanges);
+	}
+
+	@Test
+	public void mergeWith_unionOfChangedIds()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+
+		final JSONViewChanges merged = changedRowIds(viewId, "1,2").mergeWith(changedRowIds(viewId, "2,3"));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isFalse();
+		assertThat(merged.getChangedIds()).isEqualTo(ImmutableSet.of("1", "2", "3"));
+	}
+
+	@Test
+	public void mergeWith_fullyChangedWins()
+	{
+		final ViewId viewId = ViewId.random(WindowId.of(123));
+
+		final JSONViewChanges merged = changedRowIds(viewId, "1,2").mergeWith(fullyChanged(viewId));
+
+		assertThat(merged).isNotNull();
+		assertThat(merged.getFullyChanged()).isTrue();
+		assertThat(merged.getChangedIds()).isNull();
+	}
+
+	@Test
+	public void mergeWith_differentViews()
+	{
+		final JSONViewChanges changes1 = changedRowIds(ViewId.random(WindowId.of(123)), "1");
+		final JSONViewChanges changes2 = changedRowIds(ViewId.random(WindowId.of(123)), "2");
+
+		assertThat(changes1.mergeWith(changes2)).isNull();
+	}
+}
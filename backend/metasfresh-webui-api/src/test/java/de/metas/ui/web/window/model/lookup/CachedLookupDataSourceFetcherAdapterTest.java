@@ -0,0 +1,157 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.adempiere.test.AdempiereTestHelper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.google.common.collect.ImmutableList;
+
+import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
+import de.metas.ui.web.window.datatypes.LookupValuesList;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class CachedLookupDataSourceFetcherAdapterTest
+{
+	private static final String TABLE_NAME = "MyTable";
+	private static final int ID_NOT_EXISTING = 99;
+
+	private LookupDataSourceFetcher delegate;
+	private CachedLookupDataSourceFetcherAdapter fetcher;
+
+	@BeforeEach
+	public void beforeEach()
+	{
+		AdempiereTestHelper.get().init();
+
+		delegate = Mockito.mock(LookupDataSourceFetcher.class);
+		when(delegate.getCachePrefix()).thenReturn(TABLE_NAME);
+		when(delegate.isNumericKey()).thenReturn(true);
+		when(delegate.retrieveLookupValueById(any()))
+				.thenAnswer(invocation -> retrieveById(invocation.getArgument(0)));
+		when(delegate.retrieveLookupValueByIdsInOrder(any()))
+				.thenAnswer(invocation -> retrieveByIds(invocation.getArgument(0)));
+
+		fetcher = CachedLookupDataSourceFetcherAdapter.of(delegate);
+	}
+
+	private static IntegerLookupValue retrieveById(final LookupDataSourceContext evalCtx)
+	{
+		final int id = evalCtx.getIdToFilterAsInt(-1);
+		return id != ID_NOT_EXISTING ? IntegerLookupValue.of(id, "name" + id) : null;
+	}
+
+	private static LookupValuesList retrieveByIds(final LookupDataSourceContext evalCtx)
+	{
+		return evalCtx.streamSingleIdContexts()
+				.map(CachedLookupDataSourceFetcherAdapterTest::retrieveById)
+				.filter(lookupValue -> lookupValue != null)
+				.collect(LookupValuesList.collect());
+	}
+
+	private static LookupDataSourceContext contextForIds(final Integer... ids)
+	{
+		return LookupDataSourceContext.builder(TABLE_NAME)
+				.putFilterByIds(ImmutableList.copyOf(ids))
+				.putShowInactive(true)
+				.build();
+	}
+
+	private static LookupDataSourceContext contextForId(final int id)
+	{
+		return LookupDataSourceContext.builder(TABLE_NAME)
+				.putFilterById(id)
+				.putShowInactive(true)
+				.build();
+	}
+
+	private List<Object> captureIdsFetchedByDelegate(final int expectedInvocations)
+	{
+		final ArgumentCaptor<LookupDataSourceContext> captor = ArgumentCaptor.forClass(LookupDataSourceContext.class);
+		verify(delegate, times(expectedInvocations)).retrieveLookupValueByIdsInOrder(captor.capture());
+		return captor.getValue().getIdsToFilter();
+	}
+
+	@Test
+	public void retrieveLookupValueByIdsInOrder_keepsTheRequestedOrder()
+	{
+		final LookupValuesList result = fetcher.retrieveLookupValueByIdsInOrder(contextForIds(3, 1, 2));
+
+		assertThat(result.getKeysAsInt()).containsExactly(3, 1, 2);
+		assertThat(captureIdsFetchedByDelegate(1)).containsExactlyInAnyOrder(3, 1, 2);
+	}
+
+	@Test
+	public void retrieveLookupValueByIdsInOrder_secondCallIsServedFromCache()
+	{
+		fetcher.retrieveLookupValueByIdsInOrder(contextForIds(1, 2));
+		final LookupValuesList result = fetcher.retrieveLookupValueByIdsInOrder(contextForIds(2, 1));
+
+		assertThat(result.getKeysAsInt()).containsExactly(2, 1);
+		verify(delegate, times(1)).retrieveLookupValueByIdsInOrder(any());
+	}
+
+	@Test
+	public void retrieveLookupValueByIdsInOrder_onlyMissingIdsAreFetched()
+	{
+		fetcher.retrieveLookupValueByIdsInOrder(contextForIds(1, 2));
+		final LookupValuesList result = fetcher.retrieveLookupValueByIdsInOrder(contextForIds(1, 2, 3, 4));
+
+		assertThat(result.getKeysAsInt()).containsExactly(1, 2, 3, 4);
+		assertThat(captureIdsFetchedByDelegate(2)).containsExactlyInAnyOrder(3, 4);
+	}
+
+	@Test
+	public void retrieveLookupValueByIdsInOrder_sharesCacheWithRetrieveLookupValueById()
+	{
+		assertThat(fetcher.retrieveLookupValueById(contextForId(1)).getIdAsInt()).isEqualTo(1);
+
+		fetcher.retrieveLookupValueByIdsInOrder(contextForIds(1, 2));
+		assertThat(captureIdsFetchedByDelegate(1)).containsExactly(2);
+
+		assertThat(fetcher.retrieveLookupValueById(contextForId(2)).getIdAsInt()).isEqualTo(2);
+		verify(delegate, times(1)).retrieveLookupValueById(any());
+	}
+
+	@Test
+	public void retrieveLookupValueByIdsInOrder_notExistingIdIsSkippedAndCached()
+	{
+		final LookupValuesList result = fetcher.retrieveLookupValueByIdsInOrder(contextForIds(1, ID_NOT_EXISTING, 2));
+		assertThat(result.getKeysAsInt()).containsExactly(1, 2);
+
+		fetcher.retrieveLookupValueByIdsInOrder(contextForIds(ID_NOT_EXISTING, 2));
+		verify(delegate, times(1)).retrieveLookupValueByIdsInOrder(any());
+		verify(delegate, never()).retrieveLookupValueById(any());
+	}
+}
@@ -0,0 +1,47 @@
+package de.metas.ui.web.window.model.lookup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+
+/*
+ * #%L
+ * metasfresh-webui-api
+ * %%
+ * Copyright (C) 2020 metas GmbH
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program. If not, see
+ * <http://www.gnu.org/licenses/gpl-2.0.html>.
+ * #L%
+ */
+
+public class GenericSqlLookupDataSourceFetcherTest
+{
+	@Test
+	public void buildSqlForFetchingByIds()
+	{
+		final String sql = GenericSqlLookupDataSourceFetcher.buildSqlForFetchingByIds("SELECT x FROM T WHERE T_ID=lookup_ids.lookup_id", 3);
+
+		assertThat(sql).isEqualTo("SELECT lookup_ids.lookup_id, (SELECT x FROM T WHERE T_ID=lookup_ids.lookup_id)"
+				+ " FROM (VALUES (?),(?),(?)) AS lookup_ids(lookup_id)");
+	}
+
+	@Test
+	public void buildSqlForFetchingByIds_noIds()
+	{
+		assertThatThrownBy(() -> GenericSqlLookupDataSourceFetcher.buildSqlForFetchingByIds("SELECT 1", 0))
+				.isNotNull();
+	}
+}
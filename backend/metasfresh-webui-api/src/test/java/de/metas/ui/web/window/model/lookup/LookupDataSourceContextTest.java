@@ -8,6 +8,8 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import org.adempiere.test.AdempiereTestHelper;
 import org.compiere.util.CtxNames;
@@ -17,6 +19,8 @@ import org.compiere.util.TimeUtil;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.google.common.collect.ImmutableList;
+
 import de.metas.ui.web.window.datatypes.LookupValue.IntegerLookupValue;
 import de.metas.ui.web.window.datatypes.LookupValue.StringLookupValue;
 
@@ -129,4 +133,40 @@ public class LookupDataSourceContextTest
 		assertThat(evalCtx.get_ValueAsString("TestString")).isEqualTo(expectedString);
 	}
 
+	@Test
+	public void testSingleIdContextsAreEqualToContextsBuiltForFetchingById()
+	{
+		final LookupDataSourceContext evalCtx = LookupDataSourceContext.builder("TestTableName")
+				.putFilterByIds(ImmutableList.of(3, 1, 2, 1))
+				.putShowInactive(true)
+				.build();
+
+		assertThat(evalCtx.getIdsToFilter()).containsExactly(3, 1, 2);
+
+		final List<LookupDataSourceContext> singleIdContexts = evalCtx.streamSingleIdContexts().collect(Collectors.toList());
+		assertThat(singleIdContexts).containsExactly(
+				newContextForFetchingById(3),
+				newContextForFetchingById(1),
+				newContextForFetchingById(2));
+	}
+
+	@Test
+	public void testWithIdsToFilter()
+	{
+		final LookupDataSourceContext evalCtx = newContextForFetchingById(1).withIdsToFilter(ImmutableList.of(5, 4));
+
+		assertThat(evalCtx.getIdToFilter()).isEqualTo(5);
+		assertThat(evalCtx.getIdsToFilter()).containsExactly(5, 4);
+		assertThat(evalCtx.streamSingleIdContexts().collect(Collectors.toList())).containsExactly(
+				newContextForFetchingById(5),
+				newContextForFetchingById(4));
+	}
+
+	private static LookupDataSourceContext newContextForFetchingById(final Object id)
+	{
+		return LookupDataSourceContext.builder("TestTableName")
+				.putFilterById(id)
+				.putShowInactive(true)
+				.build();
+	}
 }